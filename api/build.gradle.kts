@@ -3,6 +3,7 @@ import java.net.URL
 
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.tonic"
@@ -70,16 +71,29 @@ dependencies {
     annotationProcessor("org.projectlombok:lombok:1.18.24")
     testImplementation(platform("org.junit:junit-bom:5.9.1"))
     testImplementation("org.junit.jupiter:junit-jupiter")
+    testImplementation(project(":base-api"))
+    testImplementation("net.runelite:client:$runeLiteVersion")
+    testImplementation("net.sf.trove4j:trove4j:3.0.3")
+    testImplementation("it.unimi.dsi:fastutil:8.5.11")
     compileOnly("net.sf.trove4j:trove4j:3.0.3")
     compileOnly("it.unimi.dsi:fastutil:8.5.11")
 
     compileOnly(group = "com.google.code.findbugs", name = "jsr305", version = "3.0.2")
     compileOnly(group = "com.fifesoft", name = "rsyntaxtextarea", version = "3.1.2")
     compileOnly(group = "com.fifesoft", name = "autocomplete", version = "3.1.1")
+    jmh(project(":base-api"))
+    jmh("net.runelite:client:$runeLiteVersion")
+    jmh("net.sf.trove4j:trove4j:3.0.3")
+    jmh("it.unimi.dsi:fastutil:8.5.11")
     implementation("com.google.inject:guice:${runeliteVersions["guice"]}:no_aop")
     implementation("org.slf4j:slf4j-api:${runeliteVersions["slf4j"]}")
 }
 
 tasks.test {
     useJUnitPlatform()
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    includeTests.set(false)
 }
\ No newline at end of file
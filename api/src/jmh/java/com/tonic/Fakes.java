@@ -0,0 +1,103 @@
+package com.tonic;
+
+import com.tonic.api.TClient;
+import net.runelite.api.Client;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stand-ins for game objects in benchmarks: interface proxies that answer each method by name from a
+ * map, and a client installed into {@link Static} that always reports being on the client thread, so
+ * {@code Static.invoke} runs its work inline. Methods without an answer return null, false or zero.
+ */
+public final class Fakes
+{
+    /**
+     * An answer computed from the call's arguments
+     */
+    @FunctionalInterface
+    public interface Answer
+    {
+        Object answer(Object[] args);
+    }
+
+    private Fakes()
+    {
+    }
+
+    public static <T> T of(Class<T> type, Map<String, Object> answers)
+    {
+        return type.cast(proxy(new Class<?>[]{type}, answers));
+    }
+
+    /**
+     * Install a client answering from {@code answers} as {@link Static#getClient()}
+     */
+    public static Client installClient(Map<String, Object> answers)
+    {
+        Map<String, Object> all = new HashMap<>(answers);
+        all.put("isClientThread", true);
+        Object client = proxy(new Class<?>[]{Client.class, TClient.class}, all);
+        try
+        {
+            Field field = Static.class.getDeclaredField("CLIENT_OBJECT");
+            field.setAccessible(true);
+            field.set(null, client);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException(e);
+        }
+        return (Client) client;
+    }
+
+    public static Map<String, Object> answers(Object... nameValuePairs)
+    {
+        Map<String, Object> answers = new HashMap<>();
+        for (int i = 0; i < nameValuePairs.length; i += 2)
+            answers.put((String) nameValuePairs[i], nameValuePairs[i + 1]);
+        return answers;
+    }
+
+    private static Object proxy(Class<?>[] types, Map<String, Object> answers)
+    {
+        return Proxy.newProxyInstance(Fakes.class.getClassLoader(), types, (proxy, method, args) -> {
+            switch (method.getName())
+            {
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "Fake" + types[0].getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+            }
+            Object answer = answers.get(method.getName());
+            if (answer instanceof Answer)
+                return ((Answer) answer).answer(args);
+            if (answer != null)
+                return answer;
+
+            Class<?> returnType = method.getReturnType();
+            if (returnType == boolean.class)
+                return false;
+            if (returnType == int.class)
+                return 0;
+            if (returnType == long.class)
+                return 0L;
+            if (returnType == short.class)
+                return (short) 0;
+            if (returnType == byte.class)
+                return (byte) 0;
+            if (returnType == char.class)
+                return (char) 0;
+            if (returnType == float.class)
+                return 0f;
+            if (returnType == double.class)
+                return 0d;
+            return null;
+        });
+    }
+}
@@ -0,0 +1,132 @@
+package com.tonic.data.wrappers;
+
+import com.tonic.Fakes;
+import com.tonic.services.DefinitionCache;
+import net.runelite.api.NPC;
+import net.runelite.api.NPCComposition;
+import net.runelite.api.coords.WorldPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * NPC lists and a by-name query: rebuilding a wrapper per NPC every tick and reading each name live, as
+ * {@code npcList()} used to, against the per-tick snapshot with pooled wrappers and its name index.
+ *
+ * The fake client runs {@code Static.invoke} inline, so the live reads are measured without the hop to the
+ * client thread they cost from a script thread; the real gap is wider.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ActorSnapshotBenchmark
+{
+    private static final String[] NAMES = {"Goblin", "Guard", "Man", "Woman", "Cow", "Chicken", "Imp", "Giant rat"};
+    private static final String[][] ACTIONS = {{"Talk-to", "Attack", null, null, null}, {"Attack", null, null, null, null}};
+
+    @Param({"50", "200"})
+    public int npcs;
+
+    private final DefinitionCache definitions = new DefinitionCache();
+    private List<NPC> scene;
+    private List<NpcEx> unattached;
+    private ActorSnapshot<NpcEx> current;
+    private ActorSnapshot<NpcEx> rebuilt;
+    private int buildTick = 1_000;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        Fakes.installClient(Fakes.answers("getTickCount", 1));
+
+        Random random = new Random(42);
+        List<NPCComposition> compositions = new ArrayList<>();
+        for (int id = 0; id < NAMES.length * 3; id++)
+        {
+            compositions.add(Fakes.of(NPCComposition.class, Fakes.answers(
+                "getId", id,
+                "getName", NAMES[id % NAMES.length],
+                "getActions", ACTIONS[id & 1],
+                "getCombatLevel", 2 + id)));
+        }
+
+        scene = new ArrayList<>();
+        for (int i = 0; i < npcs; i++)
+        {
+            NPCComposition composition = compositions.get(random.nextInt(compositions.size()));
+            WorldPoint location = new WorldPoint(3200 + random.nextInt(64), 3200 + random.nextInt(64), 0);
+            scene.add(Fakes.of(NPC.class, Fakes.answers(
+                "getComposition", composition,
+                "getId", composition.getId(),
+                "getName", composition.getName(),
+                "getIndex", i,
+                "getCombatLevel", composition.getCombatLevel(),
+                "getAnimation", -1,
+                "getWorldLocation", location)));
+        }
+
+        unattached = scene.stream().map(NpcEx::new).collect(Collectors.toList());
+        current = ActorSnapshot.build(1, scene, null, NpcEx::new, definitions, null);
+    }
+
+    @Benchmark
+    public List<NpcEx> rewrapEveryTick()
+    {
+        return scene.stream().map(NpcEx::new).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public ActorSnapshot<NpcEx> buildSnapshot()
+    {
+        rebuilt = ActorSnapshot.build(buildTick++, scene, rebuilt, NpcEx::new, definitions, null);
+        return rebuilt;
+    }
+
+    @Benchmark
+    public List<NpcEx> nameFilterLive()
+    {
+        List<NpcEx> out = new ArrayList<>();
+        for (NpcEx npc : unattached)
+        {
+            if ("goblin".equalsIgnoreCase(npc.getName()))
+                out.add(npc);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public List<NpcEx> nameFilterSnapshot()
+    {
+        List<NpcEx> out = new ArrayList<>();
+        for (NpcEx npc : current.getList())
+        {
+            if ("goblin".equalsIgnoreCase(npc.getName()))
+                out.add(npc);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public List<NpcEx> nameIndexSnapshot()
+    {
+        return current.withName("goblin");
+    }
+}
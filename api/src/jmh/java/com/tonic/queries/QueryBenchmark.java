@@ -0,0 +1,195 @@
+package com.tonic.queries;
+
+import com.tonic.Fakes;
+import com.tonic.data.wrappers.ActorSnapshot;
+import com.tonic.data.wrappers.NpcEx;
+import com.tonic.data.wrappers.TileItemEx;
+import com.tonic.data.wrappers.TileObjectEx;
+import com.tonic.services.DefinitionCache;
+import com.tonic.util.Distance;
+import net.runelite.api.ItemComposition;
+import net.runelite.api.NPC;
+import net.runelite.api.NPCComposition;
+import net.runelite.api.TileItem;
+import net.runelite.api.TileObject;
+import net.runelite.api.WorldView;
+import net.runelite.api.coords.WorldPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Typical NPC, object and ground item queries through the query engine, each next to the stream pipeline
+ * the queries used to build: copy the source, filter, sort everything with a comparator that recomputes
+ * distances, then take the first elements.
+ *
+ * The fake client runs client thread work inline, so neither side pays for a thread hop here.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QueryBenchmark
+{
+    private static final int NPCS = 200;
+    private static final int OBJECTS = 5_000;
+    private static final int ITEMS = 300;
+    private static final String[] NPC_NAMES = {"Goblin", "Guard", "Man", "Woman", "Cow", "Chicken", "Imp", "Giant rat"};
+    private static final String[] ITEM_NAMES = {"Bones", "Coins", "Feather", "Raw beef", "Cowhide", "Egg"};
+    private static final int[] TREES = {1276, 1278, 1751};
+
+    private final WorldPoint player = new WorldPoint(3222, 3218, 0);
+    private List<NpcEx> npcs;
+    private List<TileObjectEx> objects;
+    private List<TileItemEx> items;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        Random random = new Random(43);
+        List<ItemComposition> itemDefinitions = new ArrayList<>();
+        for (int id = 0; id < ITEM_NAMES.length; id++)
+            itemDefinitions.add(Fakes.of(ItemComposition.class, Fakes.answers("getId", id, "getName", ITEM_NAMES[id])));
+
+        Fakes.installClient(Fakes.answers(
+            "getTickCount", 1,
+            "getTopLevelWorldView", Fakes.of(WorldView.class, Fakes.answers("getId", -1)),
+            "getItemDefinition", (Fakes.Answer) args -> itemDefinitions.get((Integer) args[0])));
+
+        List<NPC> scene = new ArrayList<>();
+        for (int i = 0; i < NPCS; i++)
+        {
+            int id = random.nextInt(NPC_NAMES.length * 3);
+            NPCComposition composition = Fakes.of(NPCComposition.class, Fakes.answers(
+                "getId", id, "getName", NPC_NAMES[id % NPC_NAMES.length]));
+            scene.add(Fakes.of(NPC.class, Fakes.answers(
+                "getComposition", composition,
+                "getIndex", i,
+                "getAnimation", -1,
+                "getWorldLocation", around(random, 30))));
+        }
+        npcs = ActorSnapshot.build(1, scene, null, NpcEx::new, new DefinitionCache(), null).getList();
+
+        objects = new ArrayList<>();
+        for (int i = 0; i < OBJECTS; i++)
+        {
+            int id = random.nextInt(8) == 0 ? TREES[random.nextInt(TREES.length)] : 2000 + random.nextInt(3000);
+            objects.add(new TileObjectEx(Fakes.of(TileObject.class, Fakes.answers(
+                "getId", id, "getWorldLocation", around(random, 52)))));
+        }
+
+        items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++)
+        {
+            TileItem item = Fakes.of(TileItem.class, Fakes.answers("getId", random.nextInt(ITEM_NAMES.length), "getQuantity", 1));
+            items.add(new TileItemEx(item, around(random, 20), 1));
+        }
+    }
+
+    private WorldPoint around(Random random, int radius)
+    {
+        return player.dx(random.nextInt(2 * radius + 1) - radius).dy(random.nextInt(2 * radius + 1) - radius);
+    }
+
+    @Benchmark
+    public NpcEx nearestNpcByName()
+    {
+        return new NpcQuery(npcs).withName("Goblin").sortNearest(player).first();
+    }
+
+    @Benchmark
+    public NpcEx nearestNpcByNameStream()
+    {
+        return new ArrayList<>(npcs).stream()
+            .filter(n -> "Goblin".equalsIgnoreCase(n.getName()))
+            .sorted(Comparator.comparingDouble(n -> distance(player, n.getWorldPoint())))
+            .findFirst()
+            .orElse(null);
+    }
+
+    @Benchmark
+    public List<NpcEx> npcsInRange()
+    {
+        return new NpcQuery(npcs).withIds(0, 8, 16).within(player, 10).collect();
+    }
+
+    @Benchmark
+    public TileObjectEx nearestTree()
+    {
+        return new TileObjectQuery(objects).withId(TREES).sortNearest(player).first();
+    }
+
+    @Benchmark
+    public TileObjectEx nearestTreeStream()
+    {
+        return new ArrayList<>(objects).stream()
+            .filter(o -> contains(TREES, o.getId()))
+            .sorted(Comparator.comparingInt(o -> Distance.chebyshev(player, o.getWorldPoint())))
+            .findFirst()
+            .orElse(null);
+    }
+
+    @Benchmark
+    public List<TileObjectEx> nearestObjects()
+    {
+        return new TileObjectQuery(objects).within(player, 15).sortNearest(player).limit(5).collect();
+    }
+
+    @Benchmark
+    public List<TileObjectEx> nearestObjectsStream()
+    {
+        return new ArrayList<>(objects).stream()
+            .filter(o -> Distance.chebyshev(player, o.getWorldPoint()) <= 15)
+            .sorted(Comparator.comparingInt(o -> Distance.chebyshev(player, o.getWorldPoint())))
+            .limit(5)
+            .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public TileItemEx nearestItemByName()
+    {
+        return new TileItemQuery(items).withName("Bones").sortNearest(player).first();
+    }
+
+    @Benchmark
+    public TileItemEx nearestItemByNameStream()
+    {
+        return new ArrayList<>(items).stream()
+            .filter(i -> "Bones".equalsIgnoreCase(i.getName()))
+            .sorted(Comparator.comparingDouble(i -> distance(player, i.getWorldPoint())))
+            .findFirst()
+            .orElse(null);
+    }
+
+    private static double distance(WorldPoint a, WorldPoint b)
+    {
+        return Math.hypot(a.getX() - b.getX(), a.getY() - b.getY());
+    }
+
+    private static boolean contains(int[] ids, int id)
+    {
+        for (int candidate : ids)
+        {
+            if (candidate == id)
+                return true;
+        }
+        return false;
+    }
+}
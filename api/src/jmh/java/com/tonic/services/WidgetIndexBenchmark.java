@@ -0,0 +1,203 @@
+package com.tonic.services;
+
+import com.tonic.Fakes;
+import net.runelite.api.widgets.Widget;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Widget lookups on a synthetic tree of open interfaces: the depth-first walk every query used to run,
+ * against {@link WidgetIndex} reads of an unchanged tree and the rebuild a script forces on the next tick.
+ *
+ * Widgets are interface proxies, so a walk pays for reflective child lookups a real client doesn't; the
+ * gap between walking and reading the index is the figure to look at, not the walk itself.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WidgetIndexBenchmark
+{
+    private static final String[] TEXTS = {"", "", "", "Deposit inventory", "Withdraw-X", "Close", "Quantity:"};
+    private static final String BANK_TITLE = "Bank of Gielinor";
+    private static final String[][] ACTIONS = {null, null, {"Withdraw-1", "Withdraw-5", "Withdraw-All"}, {"Select"}, {"Close"}};
+    private static final int BANK_GROUP = 12;
+
+    @Param({"2000", "10000"})
+    public int widgets;
+
+    private final WidgetIndex index = new WidgetIndex();
+    private Widget[] roots;
+    private int created;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        Random random = new Random(46);
+        created = 0;
+        List<Widget> rootList = new ArrayList<>();
+        // one big interface, like the bank, and many small ones
+        rootList.add(widget(random, BANK_GROUP, 0, widgets / 4));
+        for (int group = BANK_GROUP + 1; created < widgets; group++)
+            rootList.add(widget(random, group, 0, 20 + random.nextInt(200)));
+        roots = rootList.toArray(new Widget[0]);
+        Fakes.installClient(Fakes.answers("getWidgetRoots", roots));
+        index.invalidate();
+    }
+
+    /**
+     * A widget with {@code budget} widgets below it, spread over static, dynamic and nested children
+     */
+    private Widget widget(Random random, int group, int depth, int budget)
+    {
+        int id = group << 16 | (created++ & 0xFFFF);
+        Widget[] statics = null;
+        Widget[] dynamics = null;
+        Widget[] nested = null;
+        if (budget > 0)
+        {
+            int fanOut = depth == 0 ? 8 : 2 + random.nextInt(6);
+            List<Widget> children = new ArrayList<>();
+            int left = budget;
+            while (left > 0)
+            {
+                int share = Math.min(left - 1, random.nextInt(Math.max(1, budget / fanOut)));
+                children.add(widget(random, group, depth + 1, share));
+                left -= share + 1;
+            }
+            int third = children.size() / 3;
+            statics = children.subList(0, third).toArray(new Widget[0]);
+            dynamics = children.subList(third, children.size() - third).toArray(new Widget[0]);
+            nested = children.subList(children.size() - third, children.size()).toArray(new Widget[0]);
+        }
+        return Fakes.of(Widget.class, Fakes.answers(
+                "getId", id,
+                "getText", group == BANK_GROUP && depth == 0 ? BANK_TITLE : TEXTS[random.nextInt(TEXTS.length)],
+                "getActions", ACTIONS[random.nextInt(ACTIONS.length)],
+                "getStaticChildren", statics,
+                "getDynamicChildren", dynamics,
+                "getNestedChildren", nested));
+    }
+
+    @Benchmark
+    public List<Widget> walkAll()
+    {
+        return walk(roots);
+    }
+
+    @Benchmark
+    public List<Widget> indexAll()
+    {
+        return index.getAll();
+    }
+
+    @Benchmark
+    public List<Widget> walkGroup()
+    {
+        List<Widget> out = new ArrayList<>();
+        for (Widget widget : walk(roots))
+        {
+            if (widget.getId() >>> 16 == BANK_GROUP)
+                out.add(widget);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public List<Widget> indexGroup()
+    {
+        return index.withGroup(BANK_GROUP);
+    }
+
+    @Benchmark
+    public List<Widget> walkText()
+    {
+        List<Widget> out = new ArrayList<>();
+        for (Widget widget : walk(roots))
+        {
+            if (BANK_TITLE.equalsIgnoreCase(widget.getText()))
+                out.add(widget);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public List<Widget> indexText()
+    {
+        return index.withText(BANK_TITLE);
+    }
+
+    @Benchmark
+    public List<Widget> indexAction()
+    {
+        return index.withAction("withdraw-all");
+    }
+
+    /**
+     * A script ran during the last tick, so the first read of this one walks the tree again
+     */
+    @Benchmark
+    public List<Widget> indexAfterScript()
+    {
+        index.invalidateNextFrame();
+        index.onFrame();
+        return index.getAll();
+    }
+
+    /**
+     * The walk queries ran before the index
+     */
+    private static List<Widget> walk(Widget[] roots)
+    {
+        List<Widget> result = new ArrayList<>();
+        Set<Widget> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Widget> toProcess = new ArrayDeque<>();
+        addNonNull(toProcess, roots);
+        while (!toProcess.isEmpty())
+        {
+            Widget widget = toProcess.pop();
+            if (!visited.add(widget))
+                continue;
+            result.add(widget);
+            addNonNull(toProcess, widget.getChildren());
+            addNonNull(toProcess, widget.getStaticChildren());
+            addNonNull(toProcess, widget.getDynamicChildren());
+            addNonNull(toProcess, widget.getNestedChildren());
+        }
+        return result;
+    }
+
+    private static void addNonNull(Deque<Widget> stack, Widget[] widgets)
+    {
+        if (widgets != null)
+        {
+            for (Widget widget : widgets)
+            {
+                if (widget != null)
+                    stack.push(widget);
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.tonic.services.pathfinder.local;
+
+import com.tonic.Fakes;
+import com.tonic.util.WorldPointUtil;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.runelite.api.CollisionDataFlag;
+import net.runelite.api.Tile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Line of sight, checkpoint and path routines on a copied 104x104 scene with scattered obstacles, walls and
+ * line of sight blockers. {@code lineOfSightEach} and {@code filterLineOfSight} answer the same question for
+ * one source and many targets, as a ranged target picker asks it; likewise {@code isReachableEach} and
+ * {@code filterReachable}. {@code copy} is what the first call of a tick pays on the client thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SceneGeometryBenchmark
+{
+    private static final int SIZE = 104;
+    private static final int BASE_X = 3136;
+    private static final int BASE_Y = 3136;
+    private static final int PLANE = 0;
+    private static final int TARGETS = 200;
+
+    private int[][] flags;
+    private Tile[][] tiles;
+    private SceneGeometry geometry;
+    private int source;
+    private final IntArrayList targets = new IntArrayList();
+    private final IntArrayList checkpoints = new IntArrayList();
+    private final IntArrayList path = new IntArrayList();
+    private final IntArrayList out = new IntArrayList();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        Random random = new Random(47);
+        flags = new int[SIZE][SIZE];
+        for (int x = 0; x < SIZE; x++)
+        {
+            for (int y = 0; y < SIZE; y++)
+            {
+                int roll = random.nextInt(100);
+                if (roll < 10)
+                    flags[x][y] |= CollisionDataFlag.BLOCK_MOVEMENT_OBJECT;
+                else if (roll < 13)
+                    flags[x][y] |= CollisionDataFlag.BLOCK_MOVEMENT_OBJECT | CollisionDataFlag.BLOCK_LINE_OF_SIGHT_FULL;
+            }
+        }
+        for (int wall = 0; wall < 6; wall++)
+        {
+            int x = 1 + random.nextInt(SIZE - 2);
+            int gap = random.nextInt(SIZE);
+            for (int y = 0; y < SIZE; y++)
+            {
+                if (Math.abs(y - gap) <= 1)
+                    continue;
+                flags[x][y] |= CollisionDataFlag.BLOCK_MOVEMENT_EAST | CollisionDataFlag.BLOCK_LINE_OF_SIGHT_EAST;
+                flags[x + 1][y] |= CollisionDataFlag.BLOCK_MOVEMENT_WEST | CollisionDataFlag.BLOCK_LINE_OF_SIGHT_WEST;
+            }
+        }
+
+        Tile tile = Fakes.of(Tile.class, Fakes.answers());
+        tiles = new Tile[SIZE][SIZE];
+        for (Tile[] column : tiles)
+            Arrays.fill(column, tile);
+
+        geometry = SceneGeometry.copy(BASE_X, BASE_Y, PLANE, flags, tiles, 0, 0);
+        source = WorldPointUtil.compress(BASE_X + SIZE / 2, BASE_Y + SIZE / 2, PLANE);
+        for (int i = 0; i < TARGETS; i++)
+        {
+            // within 20 tiles, the range most attacks and interactions care about
+            targets.add(WorldPointUtil.compress(BASE_X + SIZE / 2 - 20 + random.nextInt(41),
+                    BASE_Y + SIZE / 2 - 20 + random.nextInt(41), PLANE));
+        }
+    }
+
+    private int nextTarget()
+    {
+        int target = targets.getInt(next);
+        next = next + 1 == TARGETS ? 0 : next + 1;
+        return target;
+    }
+
+    @Benchmark
+    public SceneGeometry copy()
+    {
+        return SceneGeometry.copy(BASE_X, BASE_Y, PLANE, flags, tiles, 0, 0);
+    }
+
+    @Benchmark
+    public boolean lineOfSight()
+    {
+        return geometry.hasLineOfSight(source, nextTarget());
+    }
+
+    @Benchmark
+    public int lineOfSightEach()
+    {
+        int visible = 0;
+        for (int i = 0; i < TARGETS; i++)
+        {
+            if (geometry.hasLineOfSight(source, targets.getInt(i)))
+                visible++;
+        }
+        return visible;
+    }
+
+    @Benchmark
+    public IntArrayList filterLineOfSight()
+    {
+        out.clear();
+        geometry.filterLineOfSight(source, targets, out);
+        return out;
+    }
+
+    @Benchmark
+    public IntArrayList checkpoints()
+    {
+        checkpoints.clear();
+        geometry.checkpoints(source, nextTarget(), checkpoints);
+        return checkpoints;
+    }
+
+    /**
+     * {@code SceneAPI.pathTo}: checkpoints expanded into every tile walked
+     */
+    @Benchmark
+    public IntArrayList path()
+    {
+        checkpoints.clear();
+        path.clear();
+        if (geometry.checkpoints(source, nextTarget(), checkpoints))
+            SceneGeometry.expand(source, checkpoints, path);
+        return path;
+    }
+
+    @Benchmark
+    public int isReachableEach()
+    {
+        int reachable = 0;
+        for (int i = 0; i < TARGETS; i++)
+        {
+            if (geometry.isReachable(source, targets.getInt(i)))
+                reachable++;
+        }
+        return reachable;
+    }
+
+    @Benchmark
+    public IntArrayList filterReachable()
+    {
+        out.clear();
+        geometry.filterReachable(source, targets, out);
+        return out;
+    }
+}
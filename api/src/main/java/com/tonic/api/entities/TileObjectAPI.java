@@ -6,6 +6,7 @@ import com.tonic.data.wrappers.TileObjectEx;
 import com.tonic.queries.TileObjectQuery;
 import com.tonic.services.ClickManager;
 import com.tonic.services.ClickPacket.ClickType;
+import com.tonic.services.GameManager;
 import net.runelite.api.*;
 import net.runelite.api.coords.WorldPoint;
 
@@ -125,20 +126,7 @@ public class TileObjectAPI
      * @return actions
      */
     public static String[] getActions(TileObject tileObject) {
-        Client client = Static.getClient();
-        return Static.invoke(() -> {
-            ObjectComposition composition = client.getObjectDefinition(tileObject.getId());
-            if(composition == null)
-                return new String[]{};
-
-            if (composition.getImpostorIds() == null)
-            {
-                return composition.getActions();
-            }
-
-            composition = composition.getImpostor();
-            return composition.getActions();
-        });
+        return GameManager.definitions().object(tileObject.getId()).getActions();
     }
 
     private static int getAction(TileObject object, String action) {
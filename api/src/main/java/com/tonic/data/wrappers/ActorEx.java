@@ -6,7 +6,9 @@ import com.tonic.data.Orientation;
 import com.tonic.data.wrappers.abstractions.Entity;
 import com.tonic.queries.NpcQuery;
 import com.tonic.queries.PlayerQuery;
+import com.tonic.services.GameManager;
 import com.tonic.util.TextUtil;
+import lombok.AccessLevel;
 import lombok.Getter;
 import net.runelite.api.*;
 import net.runelite.api.coords.LocalPoint;
@@ -31,18 +33,58 @@ public abstract class ActorEx<T extends Actor> implements Entity
     }
 
     protected final T actor;
+    @Getter(AccessLevel.NONE)
+    private volatile ActorSnapshot<?> snapshot;
+    @Getter(AccessLevel.NONE)
+    private int row;
 
     public ActorEx(T actor)
     {
         this.actor = actor;
     }
 
+    void attach(ActorSnapshot<?> snapshot, int row)
+    {
+        this.row = row;
+        this.snapshot = snapshot;
+    }
+
+    void detach()
+    {
+        this.snapshot = null;
+    }
+
+    /**
+     * @return the snapshot holding this actor's state for the current tick, or null to read it live
+     */
+    protected final ActorSnapshot<?> snapshot()
+    {
+        ActorSnapshot<?> current = snapshot;
+        if(current == null || current.getActor(row) != actor)
+            return null;
+        Client client = Static.getClient();
+        return current.getTick() == client.getTickCount() ? current : null;
+    }
+
+    /**
+     * @return this actor's row in {@link #snapshot()}
+     */
+    protected final int row()
+    {
+        return row;
+    }
+
     public ActorEx<?> getInteracting()
     {
-        Actor interacting = actor.getInteracting();
+        ActorSnapshot<?> current = snapshot();
+        Actor interacting = current != null ? current.getInteracting(row) : actor.getInteracting();
         if(interacting == null)
             return null;
 
+        ActorEx<?> pooled = GameManager.getWrapper(interacting);
+        if(pooled != null)
+            return pooled;
+
         if(interacting instanceof Player)
             return new PlayerEx((Player) interacting);
 
@@ -52,6 +94,10 @@ public abstract class ActorEx<T extends Actor> implements Entity
     @Override
     public String getName()
     {
+        ActorSnapshot<?> current = snapshot();
+        if(current != null)
+            return current.getName(row);
+
         return TextUtil.sanitize(Static.invoke(() -> {
             if(this instanceof PlayerEx)
                 return actor.getName();
@@ -80,9 +126,20 @@ public abstract class ActorEx<T extends Actor> implements Entity
 
     public int getCombatLevel()
     {
+        ActorSnapshot<?> current = snapshot();
+        if(current != null)
+            return current.getCombatLevel(row);
         return actor.getCombatLevel();
     }
 
+    public int getAnimation()
+    {
+        ActorSnapshot<?> current = snapshot();
+        if(current != null)
+            return current.getAnimation(row);
+        return actor.getAnimation();
+    }
+
     public int getIndex()
     {
         if(actor instanceof Player)
@@ -207,6 +264,10 @@ public abstract class ActorEx<T extends Actor> implements Entity
 
     public int getWorldViewId()
     {
+        ActorSnapshot<?> current = snapshot();
+        if(current != null)
+            return current.getWorldViewId(row);
+
         WorldView worldView = getWorldView();
         if(worldView == null)
             return -1;
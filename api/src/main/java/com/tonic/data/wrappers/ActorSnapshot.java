@@ -0,0 +1,305 @@
+package com.tonic.data.wrappers;
+
+import com.tonic.services.DefinitionCache;
+import com.tonic.util.TextUtil;
+import gnu.trove.map.hash.TIntIntHashMap;
+import net.runelite.api.Actor;
+import net.runelite.api.NPC;
+import net.runelite.api.NPCComposition;
+import net.runelite.api.Player;
+import net.runelite.api.WorldView;
+import net.runelite.api.coords.WorldPoint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The NPCs or players of one game tick, read once on the client thread and stored column by column
+ * (struct of arrays), so wrappers and queries can read ids, names, actions and locations from any thread
+ * without a round-trip to the client thread per actor.
+ *
+ * Names are interned into a table and indexed by lower-cased name; ids are indexed as hash chains.
+ * Wrappers are pooled: an actor that stays in the scene keeps the same wrapper from tick to tick, and
+ * wrappers read from the snapshot while it is the current tick's, falling back to live reads otherwise.
+ */
+public class ActorSnapshot<W extends ActorEx<?>>
+{
+    private static final int NONE = -1;
+
+    private final int tick;
+    private final int size;
+    private final Actor[] actors;
+    private final List<W> wrappers;
+    private final Map<Actor, W> wrapperByActor;
+
+    private final int[] indexes;
+    private final int[] ids;
+    private final int[] nameIds;
+    private final int[] combatLevels;
+    private final int[] worldX;
+    private final int[] worldY;
+    private final int[] planes;
+    private final int[] animations;
+    private final int[] worldViews;
+    private final Actor[] interacting;
+    private final String[][] actions;
+
+    private final String[] names;
+    private final Map<String, Integer> nameLookup;
+    private final int[] nameHead;
+    private final int[] nameNext;
+    private final TIntIntHashMap idHead;
+    private final int[] idNext;
+
+    /**
+     * Read the given actors into a new snapshot. Must run on the client thread.
+     *
+     * @param previous the last snapshot of the same kind, whose wrappers are reused, or null
+     * @param definitions where NPC names and actions are resolved
+     * @param playerOptions the menu options shared by all players, or null for NPCs
+     */
+    public static <A extends Actor, W extends ActorEx<A>> ActorSnapshot<W> build(int tick, List<A> actors,
+            ActorSnapshot<W> previous, Function<A, W> factory, DefinitionCache definitions, String[] playerOptions)
+    {
+        return new ActorSnapshot<>(tick, actors, previous, factory, definitions, playerOptions);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <A extends Actor> ActorSnapshot(int tick, List<A> source, ActorSnapshot<W> previous,
+            Function<A, W> factory, DefinitionCache definitions, String[] playerOptions)
+    {
+        this.tick = tick;
+        this.size = source.size();
+        this.actors = new Actor[size];
+        this.indexes = new int[size];
+        this.ids = new int[size];
+        this.nameIds = new int[size];
+        this.combatLevels = new int[size];
+        this.worldX = new int[size];
+        this.worldY = new int[size];
+        this.planes = new int[size];
+        this.animations = new int[size];
+        this.worldViews = new int[size];
+        this.interacting = new Actor[size];
+        this.actions = new String[size][];
+        this.nameNext = new int[size];
+        this.idNext = new int[size];
+        this.idHead = new TIntIntHashMap(Math.max(16, size), 0.5f, NONE, NONE);
+        this.wrapperByActor = new IdentityHashMap<>(size * 2);
+
+        List<String> nameTable = new ArrayList<>();
+        Map<String, Integer> lookup = new HashMap<>();
+        List<Integer> heads = new ArrayList<>();
+        W[] pooled = (W[]) new ActorEx<?>[size];
+
+        for (int i = 0; i < size; i++)
+        {
+            A actor = source.get(i);
+            actors[i] = actor;
+
+            String name;
+            String key;
+            if (actor instanceof NPC)
+            {
+                NPC npc = (NPC) actor;
+                NPCComposition composition = npc.getComposition();
+                if (composition != null && composition.getConfigs() != null)
+                    composition = composition.transform();
+                DefinitionCache.Definition<NPCComposition> definition = definitions.npc(composition);
+                indexes[i] = npc.getIndex();
+                ids[i] = composition == null ? NONE : composition.getId();
+                name = definition == null ? null : definition.getName();
+                key = definition == null ? null : definition.getLowerName();
+                actions[i] = composition == null ? null : composition.getActions();
+            }
+            else
+            {
+                Player player = (Player) actor;
+                indexes[i] = player.getId();
+                ids[i] = player.getId();
+                name = TextUtil.sanitize(player.getName());
+                key = name == null ? null : name.toLowerCase();
+                actions[i] = playerOptions;
+            }
+
+            combatLevels[i] = actor.getCombatLevel();
+            animations[i] = actor.getAnimation();
+            interacting[i] = actor.getInteracting();
+            WorldPoint location = actor.getWorldLocation();
+            worldX[i] = location == null ? NONE : location.getX();
+            worldY[i] = location == null ? NONE : location.getY();
+            planes[i] = location == null ? NONE : location.getPlane();
+            WorldView worldView = actor.getWorldView();
+            worldViews[i] = worldView == null ? NONE : worldView.getId();
+
+            int nameId = NONE;
+            if (name != null)
+            {
+                Integer existing = lookup.get(key);
+                if (existing == null)
+                {
+                    existing = nameTable.size();
+                    nameTable.add(name);
+                    lookup.put(key, existing);
+                    heads.add(NONE);
+                }
+                nameId = existing;
+                nameNext[i] = heads.get(nameId);
+                heads.set(nameId, i);
+            }
+            nameIds[i] = nameId;
+
+            idNext[i] = idHead.get(ids[i]);
+            idHead.put(ids[i], i);
+
+            W wrapper = previous == null ? null : previous.wrapperByActor.get(actor);
+            if (wrapper == null)
+                wrapper = factory.apply(actor);
+            pooled[i] = wrapper;
+            wrapperByActor.put(actor, wrapper);
+        }
+
+        if (previous != null)
+        {
+            for (Map.Entry<Actor, W> entry : previous.wrapperByActor.entrySet())
+            {
+                if (!wrapperByActor.containsKey(entry.getKey()))
+                    entry.getValue().detach();
+            }
+        }
+
+        this.wrappers = Collections.unmodifiableList(Arrays.asList(pooled));
+        this.names = nameTable.toArray(new String[0]);
+        this.nameLookup = lookup;
+        this.nameHead = new int[heads.size()];
+        for (int n = 0; n < nameHead.length; n++)
+            nameHead[n] = heads.get(n);
+
+        //publish to the wrappers last, once every column is filled in
+        for (int i = 0; i < size; i++)
+            pooled[i].attach(this, i);
+    }
+
+    public int getTick()
+    {
+        return tick;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @return the pooled wrappers of this tick, in scene order
+     */
+    public List<W> getList()
+    {
+        return wrappers;
+    }
+
+    /**
+     * @return the pooled wrapper of an actor in this snapshot, or null
+     */
+    public W get(Actor actor)
+    {
+        return actor == null ? null : wrapperByActor.get(actor);
+    }
+
+    /**
+     * Actors with any of the given ids (NPC definition ids after transforms, player indexes), via the id index
+     */
+    public List<W> withId(int... ids)
+    {
+        List<W> out = new ArrayList<>();
+        for (int k = 0; k < ids.length; k++)
+        {
+            if (isRepeated(ids, k))
+                continue;
+            for (int i = idHead.get(ids[k]); i != NONE; i = idNext[i])
+                out.add(wrappers.get(i));
+        }
+        return out;
+    }
+
+    /**
+     * Actors with the given name, ignoring case, via the name index
+     */
+    public List<W> withName(String name)
+    {
+        List<W> out = new ArrayList<>();
+        Integer nameId = name == null ? null : nameLookup.get(name.toLowerCase());
+        if (nameId == null)
+            return out;
+        for (int i = nameHead[nameId]; i != NONE; i = nameNext[i])
+            out.add(wrappers.get(i));
+        return out;
+    }
+
+    Actor getActor(int row)
+    {
+        return row >= 0 && row < size ? actors[row] : null;
+    }
+
+    public int getIndex(int row)
+    {
+        return indexes[row];
+    }
+
+    public int getId(int row)
+    {
+        return ids[row];
+    }
+
+    public String getName(int row)
+    {
+        int nameId = nameIds[row];
+        return nameId == NONE ? null : names[nameId];
+    }
+
+    public String[] getActions(int row)
+    {
+        return actions[row];
+    }
+
+    public int getCombatLevel(int row)
+    {
+        return combatLevels[row];
+    }
+
+    public int getAnimation(int row)
+    {
+        return animations[row];
+    }
+
+    public int getWorldViewId(int row)
+    {
+        return worldViews[row];
+    }
+
+    public Actor getInteracting(int row)
+    {
+        return interacting[row];
+    }
+
+    public WorldPoint getWorldPoint(int row)
+    {
+        return planes[row] == NONE ? null : new WorldPoint(worldX[row], worldY[row], planes[row]);
+    }
+
+    private static boolean isRepeated(int[] ids, int index)
+    {
+        for (int i = 0; i < index; i++)
+        {
+            if (ids[i] == ids[index])
+                return true;
+        }
+        return false;
+    }
+}
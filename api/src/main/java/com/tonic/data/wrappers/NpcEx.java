@@ -35,6 +35,9 @@ public class NpcEx extends ActorEx<NPC>
     }
 
     public int getId() {
+        ActorSnapshot<?> current = snapshot();
+        if(current != null)
+            return current.getId(row());
         return Static.invoke(() -> getComposition().getId());
     }
 
@@ -73,6 +76,9 @@ public class NpcEx extends ActorEx<NPC>
 
     @Override
     public WorldPoint getWorldPoint() {
+        ActorSnapshot<?> current = snapshot();
+        if(current != null)
+            return current.getWorldPoint(row());
         return Static.invoke(actor::getWorldLocation);
     }
 
@@ -103,6 +109,9 @@ public class NpcEx extends ActorEx<NPC>
 
     @Override
     public String[] getActions() {
+        ActorSnapshot<?> current = snapshot();
+        if(current != null)
+            return current.getActions(row());
         return Static.invoke(() -> getComposition().getActions());
     }
 }
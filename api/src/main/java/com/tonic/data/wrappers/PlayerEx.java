@@ -3,6 +3,7 @@ package com.tonic.data.wrappers;
 import com.tonic.Static;
 import com.tonic.api.entities.PlayerAPI;
 import com.tonic.api.game.SceneAPI;
+import com.tonic.services.GameManager;
 import com.tonic.util.Location;
 import com.tonic.util.TextUtil;
 import net.runelite.api.Client;
@@ -22,7 +23,8 @@ public class PlayerEx extends ActorEx<Player>
         Client client = Static.getClient();
         if (localPlayerEx == null || !client.getLocalPlayer().equals(localPlayerEx.getPlayer()))
         {
-            localPlayerEx = new PlayerEx(client.getLocalPlayer());
+            ActorEx<?> pooled = GameManager.getWrapper(client.getLocalPlayer());
+            localPlayerEx = pooled instanceof PlayerEx ? (PlayerEx) pooled : new PlayerEx(client.getLocalPlayer());
         }
         return localPlayerEx;
     }
@@ -53,6 +55,9 @@ public class PlayerEx extends ActorEx<Player>
 
     @Override
     public WorldPoint getWorldPoint() {
+        ActorSnapshot<?> current = snapshot();
+        if(current != null)
+            return current.getWorldPoint(row());
         return Static.invoke(actor::getWorldLocation);
     }
 
@@ -83,6 +88,10 @@ public class PlayerEx extends ActorEx<Player>
 
     @Override
     public String[] getActions() {
+        ActorSnapshot<?> current = snapshot();
+        if(current != null)
+            return current.getActions(row());
+
         Client client = Static.getClient();
         return Static.invoke(() -> {
             String[] actions = client.getPlayerOptions();
@@ -10,7 +10,6 @@ import com.tonic.services.GameManager;
 import com.tonic.util.Distance;
 import com.tonic.util.WorldPointUtil;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import net.runelite.api.*;
 import net.runelite.api.coords.LocalPoint;
 import net.runelite.api.coords.WorldArea;
@@ -20,20 +19,25 @@ import net.runelite.client.game.ItemManager;
 
 import java.awt.*;
 
-@RequiredArgsConstructor
 @Getter
 public class TileItemEx implements Entity
 {
     private final TileItem item;
     private final WorldPoint worldPoint;
-    private final LocalPoint localPoint;
+    /**
+     * The client tick the item was first seen on the ground, or the tick of the scan that found it
+     */
+    private final int firstSeenTick;
     private String[] actions = null;
 
     public TileItemEx(TileItem item, WorldPoint worldPoint) {
+        this(item, worldPoint, ((Client) Static.getClient()).getTickCount());
+    }
+
+    public TileItemEx(TileItem item, WorldPoint worldPoint, int firstSeenTick) {
         this.item = item;
         this.worldPoint = worldPoint;
-        Client client = Static.getClient();
-        this.localPoint = LocalPoint.fromWorld(client, worldPoint);
+        this.firstSeenTick = firstSeenTick;
     }
 
     @Override
@@ -83,6 +87,21 @@ public class TileItemEx implements Entity
         return item.getQuantity();
     }
 
+    /**
+     * @return who may see the item, one of the {@code TileItem.OWNERSHIP_*} constants
+     */
+    public int getOwnership() {
+        return item.getOwnership();
+    }
+
+    /**
+     * @return the number of ticks since the item was first seen, for estimating when it turns public or despawns
+     */
+    public int getTicksSinceSeen() {
+        Client client = Static.getClient();
+        return client.getTickCount() - firstSeenTick;
+    }
+
     @Override
     public void interact(String... actions) {
         TileItemAPI.interact(this, actions);
@@ -168,6 +187,15 @@ public class TileItemEx implements Entity
         return worldPoint.toWorldArea();
     }
 
+    /**
+     * Resolved against the current scene on each call: tracked items outlive scene loads that move the base
+     */
+    @Override
+    public LocalPoint getLocalPoint() {
+        Client client = Static.getClient();
+        return LocalPoint.fromWorld(client, worldPoint);
+    }
+
     @Override
     public Tile getTile() {
         return SceneAPI.getTile(worldPoint);
@@ -176,6 +204,7 @@ public class TileItemEx implements Entity
     @Override
     public Shape getShape() {
         Client client = Static.getClient();
-        return Perspective.getCanvasTilePoly(client, getLocalPoint());
+        LocalPoint localPoint = LocalPoint.fromWorld(client, worldPoint);
+        return localPoint == null ? null : Perspective.getCanvasTilePoly(client, localPoint);
     }
 }
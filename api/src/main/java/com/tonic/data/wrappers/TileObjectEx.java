@@ -7,10 +7,10 @@ import com.tonic.api.game.SceneAPI;
 import com.tonic.data.ObjectBlockAccessFlags;
 import com.tonic.data.Walls;
 import com.tonic.data.wrappers.abstractions.Entity;
+import com.tonic.services.DefinitionCache;
 import com.tonic.services.GameManager;
 import com.tonic.services.pathfinder.local.LocalCollisionMap;
 import com.tonic.util.Distance;
-import com.tonic.util.TextUtil;
 import lombok.Getter;
 import net.runelite.api.*;
 import net.runelite.api.Point;
@@ -32,7 +32,6 @@ public class TileObjectEx implements Entity
 
     @Getter
     private final TileObject tileObject;
-    private String[] actions;
 
     public TileObjectEx(TileObject tileObject)
     {
@@ -44,19 +43,16 @@ public class TileObjectEx implements Entity
         return tileObject.getId();
     }
 
+    /**
+     * The cached definition the object shows right now, impostors resolved
+     */
+    public DefinitionCache.Definition<ObjectComposition> getDefinition() {
+        return GameManager.definitions().object(tileObject.getId());
+    }
+
     @Override
     public String getName() {
-        Client client = Static.getClient();
-        return Static.invoke(() -> {
-            ObjectComposition composition = client.getObjectDefinition(tileObject.getId());
-            if(composition.getImpostorIds() != null)
-            {
-                composition = composition.getImpostor();
-            }
-            if(composition == null)
-                return null;
-            return TextUtil.sanitize(composition.getName());
-        });
+        return getDefinition().getName();
     }
 
     public boolean hasAction(String action) {
@@ -75,21 +71,7 @@ public class TileObjectEx implements Entity
 
     @Override
     public String[] getActions() {
-        if(actions == null)
-        {
-            Client client = Static.getClient();
-            actions = Static.invoke(() -> {
-                ObjectComposition composition = client.getObjectDefinition(tileObject.getId());
-                if(composition.getImpostorIds() != null)
-                {
-                    composition = composition.getImpostor();
-                }
-                if(composition == null)
-                    return new String[]{};
-                return composition.getActions();
-            });
-        }
-        return actions;
+        return getDefinition().getActions();
     }
 
     public int getActionIndex(String action) {
@@ -167,15 +149,7 @@ public class TileObjectEx implements Entity
 
     public ObjectComposition getObjectComposition()
     {
-        Client client = Static.getClient();
-        return Static.invoke(() -> {
-            ObjectComposition composition = client.getObjectDefinition(getId());
-            if(composition.getImpostorIds() != null)
-            {
-                composition = composition.getImpostor();
-            }
-            return composition;
-        });
+        return getDefinition().getComposition();
     }
 
     public boolean isReachable()
@@ -5,6 +5,7 @@ import com.tonic.api.game.SceneAPI;
 import com.tonic.data.wrappers.PlayerEx;
 import com.tonic.queries.abstractions.AbstractQuery;
 import com.tonic.services.GameManager;
+import com.tonic.services.pathfinder.local.SceneDistanceField;
 import com.tonic.util.Distance;
 import com.tonic.util.Location;
 import net.runelite.api.Tile;
@@ -33,9 +34,8 @@ public class LocationQuery extends AbstractQuery<Tile, LocationQuery>
      * @return LocationQuery
      */
     public LocationQuery isReachable() {
-        Tile player = SceneAPI.getTile(PlayerEx.getLocal().getWorldPoint());
-        keepIf(tile -> SceneAPI.isReachable(player, tile));
-        return this;
+        SceneDistanceField field = SceneDistanceField.of(PlayerEx.getLocal().getWorldPoint());
+        return keepIf(tile -> field.isReachable(tile.getWorldLocation()));
     }
 
     /**
@@ -77,11 +77,8 @@ public class LocationQuery extends AbstractQuery<Tile, LocationQuery>
      * @return LocationQuery
      */
     public LocationQuery withinPathingDistance(int distance) {
-        Tile player = SceneAPI.getTile(PlayerEx.getLocal().getWorldPoint());
-        return keepIf(tile -> {
-            var path = SceneAPI.pathTo(player, tile);
-            return path != null && path.size() <= distance;
-        });
+        SceneDistanceField field = SceneDistanceField.of(PlayerEx.getLocal().getWorldPoint());
+        return keepIf(tile -> field.pathLength(tile.getWorldLocation()) <= distance);
     }
 
     /**
@@ -91,11 +88,8 @@ public class LocationQuery extends AbstractQuery<Tile, LocationQuery>
      * @return LocationQuery
      */
     public LocationQuery beyondPathingDistance(int distance) {
-        Tile player = SceneAPI.getTile(PlayerEx.getLocal().getWorldPoint());
-        return removeIf(tile -> {
-            var path = SceneAPI.pathTo(player, tile);
-            return path != null && path.size() <= distance;
-        });
+        SceneDistanceField field = SceneDistanceField.of(PlayerEx.getLocal().getWorldPoint());
+        return removeIf(tile -> field.pathLength(tile.getWorldLocation()) <= distance);
     }
 
     /**
@@ -6,6 +6,7 @@ import com.tonic.services.GameManager;
 import com.tonic.util.TextUtil;
 import net.runelite.api.NPC;
 import net.runelite.api.NPCComposition;
+import java.util.List;
 
 /**
  * A query class to filter and retrieve NPCs based on various criteria.
@@ -17,7 +18,16 @@ public class NpcQuery extends AbstractActorQuery<NpcEx, NpcQuery>
      */
     public NpcQuery()
     {
-        super(GameManager.npcList());
+        super(GameManager.npcList(), true);
+    }
+
+    /**
+     * Initializes the NpcQuery with a list of NPCs.
+     * @param npcs The NPCs to query, copied on the client thread each time the query runs.
+     */
+    public NpcQuery(List<NpcEx> npcs)
+    {
+        super(npcs);
     }
 
     /**
@@ -38,7 +48,7 @@ public class NpcQuery extends AbstractActorQuery<NpcEx, NpcQuery>
                 }
             }
             return false;
-        });
+        }, false);
     }
 
     /**
@@ -49,7 +59,7 @@ public class NpcQuery extends AbstractActorQuery<NpcEx, NpcQuery>
      */
     public NpcQuery withIndex(int index)
     {
-        return keepIf(n -> n.getIndex() == index);
+        return keepIf(n -> n.getIndex() == index, false);
     }
 
     /**
@@ -61,7 +71,12 @@ public class NpcQuery extends AbstractActorQuery<NpcEx, NpcQuery>
     public NpcQuery withAction(String action)
     {
         return keepIf(n -> {
-            for (String a : n.getActions())
+            String[] actions = n.getActions();
+            if (actions == null)
+            {
+                return false;
+            }
+            for (String a : actions)
             {
                 if (a != null && a.equalsIgnoreCase(action))
                 {
@@ -69,7 +84,7 @@ public class NpcQuery extends AbstractActorQuery<NpcEx, NpcQuery>
                 }
             }
             return false;
-        });
+        }, false);
     }
 
     /**
@@ -81,19 +96,19 @@ public class NpcQuery extends AbstractActorQuery<NpcEx, NpcQuery>
     @Override
     public NpcQuery withName(String name)
     {
-        return removeIf(o -> !name.equalsIgnoreCase(o.getName()));
+        return keepIf(o -> name.equalsIgnoreCase(o.getName()), false);
     }
 
     public NpcQuery withNames(String... names)
     {
-        return removeIf(o -> {
+        return keepIf(o -> {
             for(String name : names)
             {
                 if(name.equalsIgnoreCase(o.getName()))
-                    return false;
+                    return true;
             }
-            return true;
-        });
+            return false;
+        }, false);
     }
 
     /**
@@ -105,6 +120,7 @@ public class NpcQuery extends AbstractActorQuery<NpcEx, NpcQuery>
     @Override
     public NpcQuery withNameContains(String name)
     {
-        return removeIf(o -> o.getName() == null || !TextUtil.sanitize(o.getName()).toLowerCase().contains(name.toLowerCase()));
+        String lower = name.toLowerCase();
+        return keepIf(o -> o.getName() != null && TextUtil.sanitize(o.getName()).toLowerCase().contains(lower), false);
     }
 }
\ No newline at end of file
@@ -15,6 +15,6 @@ public class PlayerQuery extends AbstractActorQuery<PlayerEx, PlayerQuery>
      * Initializes the query with the list of all players from the GameManager.
      */
     public PlayerQuery() {
-        super(GameManager.playerList());
+        super(GameManager.playerList(), true);
     }
 }
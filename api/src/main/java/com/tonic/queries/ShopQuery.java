@@ -10,9 +10,9 @@ import net.runelite.api.coords.WorldPoint;
 import net.runelite.client.util.WildcardMatcher;
 
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.Set;
 import java.util.function.BiFunction;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -213,7 +213,7 @@ public class ShopQuery extends AbstractQuery<Shop, ShopQuery> {
      * @return this ShopQuery for method chaining
      */
     public ShopQuery sortNearest(WorldPoint center) {
-        return sort(byDistance(center, Distance::euclidean, false));
+        return sortBy(byDistance(center, Distance::euclidean), false, false);
     }
 
     /**
@@ -231,7 +231,7 @@ public class ShopQuery extends AbstractQuery<Shop, ShopQuery> {
      * @return this ShopQuery for method chaining
      */
     public ShopQuery sortFurthest(WorldPoint center) {
-        return sort(byDistance(center, Distance::euclidean, true));
+        return sortBy(byDistance(center, Distance::euclidean), true, false);
     }
 
     // ========== SORT OPERATIONS - PATH DISTANCE ==========
@@ -252,7 +252,7 @@ public class ShopQuery extends AbstractQuery<Shop, ShopQuery> {
      * @return this ShopQuery for method chaining
      */
     public ShopQuery sortShortestPath(WorldPoint center) {
-        return sort(byDistance(center, Distance::pathDistanceTo, false));
+        return sortBy(byDistance(center, Distance::pathDistanceTo));
     }
 
     /**
@@ -270,7 +270,7 @@ public class ShopQuery extends AbstractQuery<Shop, ShopQuery> {
      * @return this ShopQuery for method chaining
      */
     public ShopQuery sortLongestPath(WorldPoint center) {
-        return sort(byDistance(center, Distance::pathDistanceTo, true));
+        return sortByDescending(byDistance(center, Distance::pathDistanceTo));
     }
 
     // ========== SORT OPERATIONS - GLOBAL PATH ==========
@@ -281,7 +281,7 @@ public class ShopQuery extends AbstractQuery<Shop, ShopQuery> {
      * @return this ShopQuery for method chaining
      */
     public ShopQuery sortShortestGlobalPath() {
-        return sort(byGlobalPathLength(false));
+        return sortBy(byGlobalPathLength());
     }
 
     /**
@@ -290,7 +290,7 @@ public class ShopQuery extends AbstractQuery<Shop, ShopQuery> {
      * @return this ShopQuery for method chaining
      */
     public ShopQuery sortLongestGlobalPath() {
-        return sort(byGlobalPathLength(true));
+        return sortByDescending(byGlobalPathLength());
     }
 
     // ========== TERMINAL OPERATIONS ==========
@@ -389,48 +389,24 @@ public class ShopQuery extends AbstractQuery<Shop, ShopQuery> {
     }
 
     /**
-     * Creates a comparator that sorts shops by distance.
-     * Shops with null locations are sorted last.
-     * @param center the center point to measure distance from.
-     * @param distanceFunction function to calculate distance between two points (e.g., Distance::euclidean).
-     * @param reversed if true, sort furthest first; if false, sort nearest first.
-     * @return comparator for sorting shops.
+     * Sort key for distance from a point, computed once per shop.
+     * Shops with null locations get NaN, which sorts last regardless of direction.
+     * @param center center point
+     * @param distanceFunction function to calculate distance between two points
+     * @return sort key
      */
-    private Comparator<Shop> byDistance(WorldPoint center,
-                                        BiFunction<WorldPoint, WorldPoint, Integer> distanceFunction,
-                                        boolean reversed) {
-        Comparator<WorldPoint> distanceComparator = Comparator.comparingInt(
-                location -> distanceFunction.apply(center, location));
-
-        if (reversed) {
-            distanceComparator = distanceComparator.reversed();
-        }
-
-        // the behavior of nullsLast is preserved regardless of reversal
-        return Comparator.comparing(
-                Shop::getLocation,
-                Comparator.nullsLast(distanceComparator)
-        );
+    private ToDoubleFunction<Shop> byDistance(WorldPoint center,
+                                              BiFunction<WorldPoint, WorldPoint, Integer> distanceFunction) {
+        return shop -> shop.getLocation() == null ? Double.NaN : distanceFunction.apply(center, shop.getLocation());
     }
 
     /**
-     * Create a comparator that sorts shops by global path length.
-     * Shops with null locations or paths are sorted last.
-     * @param reversed if true, sort longest first; if false, sort shortest first
-     * @return comparator for sorting shops
+     * Sort key for global path length, computed once per shop.
+     * Shops with null locations get NaN, which sorts last regardless of direction.
+     * @return sort key
      */
-    private Comparator<Shop> byGlobalPathLength(boolean reversed) {
-        Comparator<WorldPoint> lengthComparator = Comparator.comparingInt(this::getGlobalPathLength);
-
-        if (reversed) {
-            lengthComparator = lengthComparator.reversed();
-        }
-
-        // the behavior of nullsLast is preserved regardless of reversal
-        return Comparator.comparing(
-                Shop::getLocation,
-                Comparator.nullsLast(lengthComparator)
-        );
+    private ToDoubleFunction<Shop> byGlobalPathLength() {
+        return shop -> shop.getLocation() == null ? Double.NaN : getGlobalPathLength(shop.getLocation());
     }
 
     /**
@@ -1,6 +1,5 @@
 package com.tonic.queries;
 
-import com.tonic.api.game.SceneAPI;
 import com.tonic.data.wrappers.PlayerEx;
 import com.tonic.queries.abstractions.AbstractQuery;
 import com.tonic.services.GameManager;
@@ -8,6 +7,7 @@ import com.tonic.data.wrappers.TileItemEx;
 import com.tonic.util.Distance;
 import com.tonic.util.Location;
 import com.tonic.util.TextUtil;
+import com.tonic.services.pathfinder.local.SceneDistanceField;
 import net.runelite.api.coords.WorldPoint;
 import net.runelite.client.util.Text;
 import net.runelite.client.util.WildcardMatcher;
@@ -25,7 +25,15 @@ public class TileItemQuery extends AbstractQuery<TileItemEx, TileItemQuery>
      * Creates a new TileItemQuery instance initialized with all tile items in the game.
      */
     public TileItemQuery() {
-        super(GameManager.tileItemList());
+        super(GameManager.tileItemList(), true);
+    }
+
+    /**
+     * Creates a new TileItemQuery instance over a list of tile items.
+     * @param items the items to query, copied on the client thread each time the query runs
+     */
+    public TileItemQuery(List<TileItemEx> items) {
+        super(items);
     }
 
     /**
@@ -217,10 +225,9 @@ public class TileItemQuery extends AbstractQuery<TileItemEx, TileItemQuery>
     public TileItemQuery sortNearest(WorldPoint center)
     {
         Point2D point = new Point2D.Double(center.getX(), center.getY());
-        return sort((o1, o2) -> {
-            Point2D p0 = new Point2D.Double(o1.getWorldPoint().getX(), o1.getWorldPoint().getY());
-            Point2D p1 = new Point2D.Double(o2.getWorldPoint().getX(), o2.getWorldPoint().getY());
-            return Double.compare(point.distance(p0), point.distance(p1));
+        return sortBy(o -> {
+            WorldPoint wp = o.getWorldPoint();
+            return point.distance(wp.getX(), wp.getY());
         });
     }
 
@@ -241,10 +248,9 @@ public class TileItemQuery extends AbstractQuery<TileItemEx, TileItemQuery>
     public TileItemQuery sortFurthest(WorldPoint center)
     {
         Point2D point = new Point2D.Double(center.getX(), center.getY());
-        return sort((o1, o2) -> {
-            Point2D p0 = new Point2D.Double(o1.getWorldPoint().getX(), o1.getWorldPoint().getY());
-            Point2D p1 = new Point2D.Double(o2.getWorldPoint().getX(), o2.getWorldPoint().getY());
-            return Double.compare(point.distance(p1), point.distance(p0));
+        return sortByDescending(o -> {
+            WorldPoint wp = o.getWorldPoint();
+            return point.distance(wp.getX(), wp.getY());
         });
     }
 
@@ -264,13 +270,8 @@ public class TileItemQuery extends AbstractQuery<TileItemEx, TileItemQuery>
      */
     public TileItemQuery sortShortestPath(WorldPoint center)
     {
-        return sort((o1, o2) -> {
-            List<WorldPoint> path1 = SceneAPI.pathTo(center, o1.getWorldPoint());
-            List<WorldPoint> path2 = SceneAPI.pathTo(center, o2.getWorldPoint());
-            int len1 = path1 == null ? Integer.MAX_VALUE : path1.size();
-            int len2 = path2 == null ? Integer.MAX_VALUE : path2.size();
-            return Integer.compare(len1, len2);
-        });
+        SceneDistanceField field = SceneDistanceField.of(center);
+        return sortBy(o -> field.pathLength(o.getWorldPoint()), false, false);
     }
 
     /**
@@ -289,13 +290,8 @@ public class TileItemQuery extends AbstractQuery<TileItemEx, TileItemQuery>
      */
     public TileItemQuery sortLongestPath(WorldPoint center)
     {
-        return sort((o1, o2) -> {
-            List<WorldPoint> path1 = SceneAPI.pathTo(center, o1.getWorldPoint());
-            List<WorldPoint> path2 = SceneAPI.pathTo(center, o2.getWorldPoint());
-            int len1 = path1 == null ? Integer.MAX_VALUE : path1.size();
-            int len2 = path2 == null ? Integer.MAX_VALUE : path2.size();
-            return Integer.compare(len2, len1);
-        });
+        SceneDistanceField field = SceneDistanceField.of(center);
+        return sortBy(o -> field.pathLength(o.getWorldPoint()), true, false);
     }
 
     /**
@@ -1,6 +1,5 @@
 package com.tonic.queries;
 
-import com.tonic.api.game.SceneAPI;
 import com.tonic.data.wrappers.PlayerEx;
 import com.tonic.queries.abstractions.AbstractQuery;
 import com.tonic.services.GameManager;
@@ -8,6 +7,7 @@ import com.tonic.data.wrappers.TileObjectEx;
 import com.tonic.util.Distance;
 import com.tonic.util.Location;
 import com.tonic.util.TextUtil;
+import com.tonic.services.pathfinder.local.SceneDistanceField;
 import net.runelite.api.coords.WorldPoint;
 import net.runelite.client.util.Text;
 import net.runelite.client.util.WildcardMatcher;
@@ -25,7 +25,16 @@ public class TileObjectQuery extends AbstractQuery<TileObjectEx, TileObjectQuery
      */
     public TileObjectQuery()
     {
-        super(GameManager.objectList());
+        super(GameManager.objectList(), true);
+    }
+
+    /**
+     * Creates a new TileObjectQuery over a list of objects.
+     * @param objects The objects to query, copied on the client thread each time the query runs.
+     */
+    public TileObjectQuery(List<TileObjectEx> objects)
+    {
+        super(objects);
     }
 
     public TileObjectQuery fromWorldView()
@@ -50,7 +59,7 @@ public class TileObjectQuery extends AbstractQuery<TileObjectEx, TileObjectQuery
      */
     public TileObjectQuery withName(String name)
     {
-        return keepIf(o -> o.getName() != null && o.getName().equalsIgnoreCase(name));
+        return keepIf(o -> o.getName() != null && o.getName().equalsIgnoreCase(name), false);
     }
 
     /**
@@ -60,7 +69,11 @@ public class TileObjectQuery extends AbstractQuery<TileObjectEx, TileObjectQuery
      */
     public TileObjectQuery withNameContains(String name)
     {
-        return keepIf(o -> o.getName() != null && o.getName().toLowerCase().contains(name.toLowerCase()));
+        String lower = name.toLowerCase();
+        return keepIf(o -> {
+            String objectName = o.getDefinition().getLowerName();
+            return objectName != null && objectName.contains(lower);
+        }, false);
     }
 
     /**
@@ -70,7 +83,7 @@ public class TileObjectQuery extends AbstractQuery<TileObjectEx, TileObjectQuery
      */
     public TileObjectQuery withNames(String... names)
     {
-        return keepIf(o -> o.getName() != null && ArrayUtils.contains(names, o.getName()));
+        return keepIf(o -> o.getName() != null && ArrayUtils.contains(names, o.getName()), false);
     }
 
     /**
@@ -80,7 +93,7 @@ public class TileObjectQuery extends AbstractQuery<TileObjectEx, TileObjectQuery
      */
     public TileObjectQuery withNamesContains(String... names)
     {
-        return keepIf(o -> o.getName() != null && TextUtil.containsIgnoreCase(o.getName(), names));
+        return keepIf(o -> o.getName() != null && TextUtil.containsIgnoreCase(o.getName(), names), false);
     }
 
     /**
@@ -90,7 +103,11 @@ public class TileObjectQuery extends AbstractQuery<TileObjectEx, TileObjectQuery
      */
     public TileObjectQuery withNameMatches(String namePart)
     {
-        return keepIf(o -> o.getName() != null && WildcardMatcher.matches(namePart.toLowerCase(), Text.removeTags(o.getName().toLowerCase())));
+        String pattern = namePart.toLowerCase();
+        return keepIf(o -> {
+            String objectName = o.getDefinition().getLowerName();
+            return objectName != null && WildcardMatcher.matches(pattern, Text.removeTags(objectName));
+        }, false);
     }
 
     /**
@@ -100,7 +117,7 @@ public class TileObjectQuery extends AbstractQuery<TileObjectEx, TileObjectQuery
      */
     public TileObjectQuery withAction(String action)
     {
-        return keepIf(o -> o.getActions() != null && TextUtil.containsIgnoreCaseInverse(action, o.getActions()));
+        return keepIf(o -> o.getDefinition().hasActionContaining(action), false);
     }
 
     /**
@@ -160,11 +177,7 @@ public class TileObjectQuery extends AbstractQuery<TileObjectEx, TileObjectQuery
      */
     public TileObjectQuery sortNearest(WorldPoint center)
     {
-        return sort((o1, o2) -> {
-            int dist1 = Distance.chebyshev(center, o1.getWorldPoint());
-            int dist2 = Distance.chebyshev(center, o2.getWorldPoint());
-            return Integer.compare(dist1, dist2);
-        });
+        return sortBy(o -> Distance.chebyshev(center, o.getWorldPoint()));
     }
 
     /**
@@ -183,11 +196,7 @@ public class TileObjectQuery extends AbstractQuery<TileObjectEx, TileObjectQuery
      */
     public TileObjectQuery sortFurthest(WorldPoint center)
     {
-        return sort((o1, o2) -> {
-            int dist1 = Distance.chebyshev(center, o1.getWorldPoint());
-            int dist2 = Distance.chebyshev(center, o2.getWorldPoint());
-            return Integer.compare(dist2, dist1);
-        });
+        return sortByDescending(o -> Distance.chebyshev(center, o.getWorldPoint()));
     }
 
     /**
@@ -206,13 +215,8 @@ public class TileObjectQuery extends AbstractQuery<TileObjectEx, TileObjectQuery
      */
     public TileObjectQuery sortShortestPath(WorldPoint center)
     {
-        return sort((o1, o2) -> {
-            List<WorldPoint> path1 = SceneAPI.pathTo(center, o1.getInteractionPoint());
-            List<WorldPoint> path2 = SceneAPI.pathTo(center, o2.getInteractionPoint());
-            int len1 = path1 == null ? Integer.MAX_VALUE : path1.size();
-            int len2 = path2 == null ? Integer.MAX_VALUE : path2.size();
-            return Integer.compare(len1, len2);
-        });
+        SceneDistanceField field = SceneDistanceField.of(center);
+        return sortBy(o -> field.pathLength(o.getInteractionPoint()));
     }
 
     /**
@@ -231,13 +235,8 @@ public class TileObjectQuery extends AbstractQuery<TileObjectEx, TileObjectQuery
      */
     public TileObjectQuery sortLongestPath(WorldPoint center)
     {
-        return sort((o1, o2) -> {
-            List<WorldPoint> path1 = SceneAPI.pathTo(center, o1.getInteractionPoint());
-            List<WorldPoint> path2 = SceneAPI.pathTo(center, o2.getInteractionPoint());
-            int len1 = path1 == null ? Integer.MAX_VALUE : path1.size();
-            int len2 = path2 == null ? Integer.MAX_VALUE : path2.size();
-            return Integer.compare(len2, len1);
-        });
+        SceneDistanceField field = SceneDistanceField.of(center);
+        return sortByDescending(o -> field.pathLength(o.getInteractionPoint()));
     }
 
     /**
@@ -246,7 +245,7 @@ public class TileObjectQuery extends AbstractQuery<TileObjectEx, TileObjectQuery
      * @return TileObjectQuery
      */
     public TileObjectQuery withPartialAction(String partial) {
-        return keepIf(o -> o.getActions() != null && TextUtil.containsIgnoreCaseInverse(partial, o.getActions()));
+        return keepIf(o -> o.getDefinition().hasActionContaining(partial), false);
     }
 
     /**
@@ -18,23 +18,32 @@ public class WidgetQuery extends AbstractQuery<Widget, WidgetQuery>
      * Initializes the query with all widgets from the client.
      */
     public WidgetQuery() {
-        super(GameManager.widgetList());
+        super(GameManager.widgetList(), true);
     }
 
+    /**
+     * Initializes the query with the given widgets and all of their descendants.
+     * @param roots the root widgets
+     */
     public WidgetQuery(Widget... roots) {
-        super(GameManager.widgetList(roots));
+        super(GameManager.widgetList(roots), true);
     }
 
+    /**
+     * Initializes the query with the given widgets and all of their descendants.
+     * @param roots the packed ids of the root widgets
+     */
     public WidgetQuery(int... roots) {
-        super(GameManager.widgetList(roots));
+        super(GameManager.widgetList(roots), true);
     }
 
     /**
      * Initializes the query with a provided collection of widgets.
-     * @param cache A collection of widgets to initialize the query with.
+     * @param cache A collection of widgets to initialize the query with, copied on the client thread each
+     *              time the query runs.
      */
     public WidgetQuery(List<Widget> cache) {
-        super(new ArrayList<>(cache));
+        super(cache);
     }
 
     /**
@@ -42,7 +51,7 @@ public class WidgetQuery extends AbstractQuery<Widget, WidgetQuery>
      * @param cache A set of widgets to initialize the query with.
      */
     public WidgetQuery(HashSet<Widget> cache) {
-        super(new ArrayList<>(cache));
+        super(new ArrayList<>(cache), true);
     }
 
     public WidgetQuery withName(String name)
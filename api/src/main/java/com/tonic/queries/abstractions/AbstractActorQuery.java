@@ -7,6 +7,7 @@ import com.tonic.data.wrappers.PlayerEx;
 import com.tonic.util.Distance;
 import com.tonic.util.Location;
 import com.tonic.util.TextUtil;
+import com.tonic.services.pathfinder.local.SceneDistanceField;
 import net.runelite.api.Actor;
 import net.runelite.api.coords.WorldPoint;
 import java.awt.geom.Point2D;
@@ -18,6 +19,10 @@ public abstract class AbstractActorQuery<T extends ActorEx<?>, Q extends Abstrac
         super(cache);
     }
 
+    protected AbstractActorQuery(List<T> cache, boolean immutable) {
+        super(cache, immutable);
+    }
+
     /**
      * filter by name
      * @param name actor name
@@ -25,7 +30,7 @@ public abstract class AbstractActorQuery<T extends ActorEx<?>, Q extends Abstrac
      */
     public Q withName(String name)
     {
-        return removeIf(o -> !name.equalsIgnoreCase(TextUtil.sanitize(o.getName())));
+        return keepIf(o -> name.equalsIgnoreCase(TextUtil.sanitize(o.getName())), false);
     }
 
     /**
@@ -35,7 +40,8 @@ public abstract class AbstractActorQuery<T extends ActorEx<?>, Q extends Abstrac
      */
     public Q withNameContains(String name)
     {
-        return removeIf(o -> o.getName() == null ||  !TextUtil.sanitize(o.getName()).toLowerCase().contains(name.toLowerCase()));
+        String lower = name.toLowerCase();
+        return keepIf(o -> o.getName() != null && TextUtil.sanitize(o.getName()).toLowerCase().contains(lower), false);
     }
 
     /**
@@ -53,8 +59,8 @@ public abstract class AbstractActorQuery<T extends ActorEx<?>, Q extends Abstrac
      */
     public Q isReachable()
     {
-        WorldPoint playerLoc = PlayerEx.getLocal().getWorldPoint();
-        return keepIf(o -> SceneAPI.isReachable(playerLoc, o.getWorldPoint()));
+        SceneDistanceField field = SceneDistanceField.of(PlayerEx.getLocal().getWorldPoint());
+        return keepIf(o -> field.isReachable(o.getWorldPoint()), false);
     }
 
     /**
@@ -92,10 +98,10 @@ public abstract class AbstractActorQuery<T extends ActorEx<?>, Q extends Abstrac
      * @return ActorQuery
      */
     public Q within(int distance) {
-        return keepIf(o -> {
-            WorldPoint playerLoc = client.getLocalPlayer().getWorldLocation();
-            return Distance.chebyshev(playerLoc, o.getWorldPoint()) <= distance;
-        });
+        return keepIfWhenRun(() -> {
+            WorldPoint playerLoc = PlayerEx.getLocal().getWorldPoint();
+            return o -> Distance.chebyshev(playerLoc, o.getWorldPoint()) <= distance;
+        }, false);
     }
 
     /**
@@ -106,7 +112,7 @@ public abstract class AbstractActorQuery<T extends ActorEx<?>, Q extends Abstrac
      */
     public Q within(WorldPoint center, int distance)
     {
-        return keepIf(o -> Distance.chebyshev(center, o.getWorldPoint()) <= distance);
+        return keepIf(o -> Distance.chebyshev(center, o.getWorldPoint()) <= distance, false);
     }
 
     /**
@@ -116,7 +122,7 @@ public abstract class AbstractActorQuery<T extends ActorEx<?>, Q extends Abstrac
      */
     public Q atLocation(WorldPoint location)
     {
-        return keepIf(o -> o.getWorldPoint().equals(location));
+        return keepIf(o -> location.equals(o.getWorldPoint()), false);
     }
 
     /**
@@ -125,7 +131,7 @@ public abstract class AbstractActorQuery<T extends ActorEx<?>, Q extends Abstrac
      */
     public Q sortNearest()
     {
-        return sortNearest(client.getLocalPlayer().getWorldLocation());
+        return sortNearest(PlayerEx.getLocal().getWorldPoint());
     }
 
     /**
@@ -136,11 +142,10 @@ public abstract class AbstractActorQuery<T extends ActorEx<?>, Q extends Abstrac
     public Q sortNearest(WorldPoint center)
     {
         Point2D point = new Point2D.Double(center.getX(), center.getY());
-        return sort((o1, o2) -> {
-            Point2D p0 = new Point2D.Double(o1.getWorldPoint().getX(), o1.getWorldPoint().getY());
-            Point2D p1 = new Point2D.Double(o2.getWorldPoint().getX(), o2.getWorldPoint().getY());
-            return Double.compare(point.distance(p0), point.distance(p1));
-        });
+        return sortBy(o -> {
+            WorldPoint wp = o.getWorldPoint();
+            return point.distance(wp.getX(), wp.getY());
+        }, false, false);
     }
 
     /**
@@ -149,7 +154,7 @@ public abstract class AbstractActorQuery<T extends ActorEx<?>, Q extends Abstrac
      */
     public Q sortFurthest()
     {
-        return sortFurthest(client.getLocalPlayer().getWorldLocation());
+        return sortFurthest(PlayerEx.getLocal().getWorldPoint());
     }
 
     /**
@@ -160,11 +165,10 @@ public abstract class AbstractActorQuery<T extends ActorEx<?>, Q extends Abstrac
     public Q sortFurthest(WorldPoint center)
     {
         Point2D point = new Point2D.Double(center.getX(), center.getY());
-        return sort((o1, o2) -> {
-            Point2D p0 = new Point2D.Double(o1.getWorldPoint().getX(), o1.getWorldPoint().getY());
-            Point2D p1 = new Point2D.Double(o2.getWorldPoint().getX(), o2.getWorldPoint().getY());
-            return Double.compare(point.distance(p1), point.distance(p0));
-        });
+        return sortBy(o -> {
+            WorldPoint wp = o.getWorldPoint();
+            return point.distance(wp.getX(), wp.getY());
+        }, true, false);
     }
 
     /**
@@ -183,13 +187,8 @@ public abstract class AbstractActorQuery<T extends ActorEx<?>, Q extends Abstrac
      */
     public Q sortShortestPath(WorldPoint center)
     {
-        return sort((o1, o2) -> {
-            List<WorldPoint> path1 = SceneAPI.pathTo(center, o1.getWorldPoint());
-            List<WorldPoint> path2 = SceneAPI.pathTo(center, o2.getWorldPoint());
-            int len1 = path1 == null ? Integer.MAX_VALUE : path1.size();
-            int len2 = path2 == null ? Integer.MAX_VALUE : path2.size();
-            return Integer.compare(len1, len2);
-        });
+        SceneDistanceField field = SceneDistanceField.of(center);
+        return sortBy(o -> field.pathLength(o.getWorldPoint()), false, false);
     }
 
     /**
@@ -208,13 +207,8 @@ public abstract class AbstractActorQuery<T extends ActorEx<?>, Q extends Abstrac
      */
     public Q sortLongestPath(WorldPoint center)
     {
-        return sort((o1, o2) -> {
-            List<WorldPoint> path1 = SceneAPI.pathTo(center, o1.getWorldPoint());
-            List<WorldPoint> path2 = SceneAPI.pathTo(center, o2.getWorldPoint());
-            int len1 = path1 == null ? Integer.MAX_VALUE : path1.size();
-            int len2 = path2 == null ? Integer.MAX_VALUE : path2.size();
-            return Integer.compare(len2, len1);
-        });
+        SceneDistanceField field = SceneDistanceField.of(center);
+        return sortBy(o -> field.pathLength(o.getWorldPoint()), true, false);
     }
 
     /**
@@ -265,4 +259,4 @@ public abstract class AbstractActorQuery<T extends ActorEx<?>, Q extends Abstrac
     public T longestPath() {
         return this.sortLongestPath().first();
     }
-}
\ No newline at end of file
+}
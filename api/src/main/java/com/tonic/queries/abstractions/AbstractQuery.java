@@ -7,10 +7,23 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collector;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * Base of the lazy entity queries. Stages are recorded as they are added and run when a terminal
+ * operation is called:
+ * <ul>
+ *     <li>all filters run as one fused loop over the source list; immutable sources are not copied, others
+ *     are copied on the client thread</li>
+ *     <li>sort keys from {@link #sortBy} are computed once per matching element, not once per comparison</li>
+ *     <li>{@link #first()} and {@link #limit(int)} keep only the best k elements (min-scan or bounded heap)
+ *     instead of sorting everything</li>
+ *     <li>the query hops to the client thread only if one of its stages needs client state; stages that
+ *     are safe elsewhere are added with {@code clientThread = false}</li>
+ * </ul>
+ */
 public abstract class AbstractQuery<T, Q extends AbstractQuery<T, Q>> {
     protected final Supplier<List<T>> dataSource;
     protected final Client client;
@@ -18,13 +31,27 @@ public abstract class AbstractQuery<T, Q extends AbstractQuery<T, Q>> {
     private int limitValue = -1;
     private int skipValue = 0;
     private boolean distinctValue = false;
-    private final List<Predicate<T>> filters = new ArrayList<>();
-    private final List<Comparator<T>> sorters = new ArrayList<>();
+    private boolean clientThread = false;
+    private final List<Supplier<Predicate<T>>> filters = new ArrayList<>();
+    private final List<SortKey<T>> sorters = new ArrayList<>();
     private final List<Consumer<T>> peekActions = new ArrayList<>();
 
+    /**
+     * @param cache the elements to query, copied on the client thread each time the query runs
+     */
     public AbstractQuery(List<T> cache) {
-        this.dataSource = () -> new ArrayList<>(cache);
+        this(cache, false);
+    }
+
+    /**
+     * @param cache the elements to query
+     * @param immutable true if {@code cache} never changes once handed out, like the per-tick and per-change
+     *                  lists of {@code GameManager}, so it can be read on any thread without a copy
+     */
+    protected AbstractQuery(List<T> cache, boolean immutable) {
+        this.dataSource = immutable ? () -> cache : () -> new ArrayList<>(cache);
         this.client = Static.getClient();
+        this.clientThread = !immutable;
     }
 
     @SuppressWarnings("unchecked")
@@ -37,8 +64,7 @@ public abstract class AbstractQuery<T, Q extends AbstractQuery<T, Q>> {
      * @return the query instance
      */
     public Q removeIf(Predicate<T> predicate) {
-        filters.add(predicate.negate());
-        return self();
+        return keepIf(predicate.negate(), true);
     }
 
     /**
@@ -46,7 +72,28 @@ public abstract class AbstractQuery<T, Q extends AbstractQuery<T, Q>> {
      * @return the query instance
      */
     public Q keepIf(Predicate<T> predicate) {
+        return keepIf(predicate, true);
+    }
+
+    /**
+     * Lazily filter by predicate (keeps matching items)
+     * @param clientThread false if the predicate is safe to run off the client thread, e.g. because it
+     *                     only reads snapshot-backed wrapper fields
+     * @return the query instance
+     */
+    protected Q keepIf(Predicate<T> predicate, boolean clientThread) {
+        return keepIfWhenRun(() -> predicate, clientThread);
+    }
+
+    /**
+     * Lazily filter by a predicate created each time the query runs, for filters relative to state that
+     * may change between building and running the query, such as the local player's location
+     * @param clientThread false if creating and testing the predicate is safe off the client thread
+     * @return the query instance
+     */
+    protected Q keepIfWhenRun(Supplier<Predicate<T>> predicate, boolean clientThread) {
         filters.add(predicate);
+        this.clientThread |= clientThread;
         return self();
     }
 
@@ -55,7 +102,37 @@ public abstract class AbstractQuery<T, Q extends AbstractQuery<T, Q>> {
      * @return the query instance
      */
     public Q sort(Comparator<T> comparator) {
-        sorters.add(comparator);
+        sorters.add(new SortKey<>(comparator, null, false));
+        clientThread = true;
+        return self();
+    }
+
+    /**
+     * Lazily sort by a key, lowest first. The key is computed once per matching element, so prefer this
+     * over {@link #sort(Comparator)} for expensive keys such as distances or path lengths.
+     * NaN keys sort last.
+     * @return the query instance
+     */
+    public Q sortBy(ToDoubleFunction<T> key) {
+        return sortBy(key, false, true);
+    }
+
+    /**
+     * Lazily sort by a key, highest first. NaN keys sort last.
+     * @return the query instance
+     */
+    public Q sortByDescending(ToDoubleFunction<T> key) {
+        return sortBy(key, true, true);
+    }
+
+    /**
+     * Lazily sort by a key computed once per matching element. NaN keys sort last either way.
+     * @param clientThread false if the key is safe to compute off the client thread
+     * @return the query instance
+     */
+    protected Q sortBy(ToDoubleFunction<T> key, boolean descending, boolean clientThread) {
+        sorters.add(new SortKey<>(null, key, descending));
+        this.clientThread |= clientThread;
         return self();
     }
 
@@ -93,6 +170,7 @@ public abstract class AbstractQuery<T, Q extends AbstractQuery<T, Q>> {
      */
     public Q peek(Consumer<T> action) {
         peekActions.add(action);
+        clientThread = true;
         return self();
     }
 
@@ -100,45 +178,235 @@ public abstract class AbstractQuery<T, Q extends AbstractQuery<T, Q>> {
      * Execute the query and get results
      */
     private List<T> execute() {
-        return Static.invoke(() -> {
-            Stream<T> stream = dataSource.get().stream();
+        return inContext(() -> run(true, -1));
+    }
+
+    /**
+     * Run the plan on the client thread if any stage needs it, otherwise on the calling thread
+     */
+    private <R> R inContext(Supplier<R> work) {
+        return clientThread ? Static.invoke(work) : work.get();
+    }
+
+    /**
+     * Filter, sort and window the source
+     * @param window whether peek, distinct, skip and limit apply (some terminal operations ignore them)
+     * @param maxResults the most results the caller needs, or -1 for all of them
+     */
+    private List<T> run(boolean window, int maxResults) {
+        int skip = window ? skipValue : 0;
+        int limit = window && limitValue > 0 ? limitValue : -1;
+        if (maxResults >= 0) {
+            limit = limit < 0 ? maxResults : Math.min(limit, maxResults);
+        }
+        int take = limit < 0 ? -1 : (int) Math.min(Integer.MAX_VALUE, (long) skip + limit);
 
-            for (Predicate<T> filter : filters) {
-                stream = stream.filter(filter);
+        List<T> results = filter(window, sorters.isEmpty() ? take : -1);
+        if (!sorters.isEmpty()) {
+            results = order(results, take);
+        }
+        if (skip > 0) {
+            results = skip >= results.size() ? new ArrayList<>() : new ArrayList<>(results.subList(skip, results.size()));
+        }
+        if (limit >= 0 && results.size() > limit) {
+            results = new ArrayList<>(results.subList(0, limit));
+        }
+        return results;
+    }
+
+    /**
+     * One pass over the source with all filters fused, in source order
+     * @param stopAfter stop once this many elements matched, or -1 to scan everything
+     */
+    private List<T> filter(boolean window, int stopAfter) {
+        List<T> source = dataSource.get();
+        List<Predicate<T>> filters = bindFilters();
+        Set<T> seen = window && distinctValue ? new HashSet<>() : null;
+        List<T> out = new ArrayList<>();
+        if (stopAfter == 0) {
+            return out;
+        }
+
+        if (source instanceof RandomAccess) {
+            for (int i = 0, size = source.size(); i < size; i++) {
+                if (accept(filters, source.get(i), window, seen, out) && out.size() == stopAfter) {
+                    break;
+                }
+            }
+        } else {
+            for (T item : source) {
+                if (accept(filters, item, window, seen, out) && out.size() == stopAfter) {
+                    break;
+                }
             }
+        }
+        return out;
+    }
 
-            for (Consumer<T> peekAction : peekActions) {
-                stream = stream.peek(peekAction);
+    private boolean accept(List<Predicate<T>> filters, T item, boolean window, Set<T> seen, List<T> out) {
+        if (!matches(filters, item)) {
+            return false;
+        }
+        if (window) {
+            for (int i = 0, size = peekActions.size(); i < size; i++) {
+                peekActions.get(i).accept(item);
             }
+            if (seen != null && !seen.add(item)) {
+                return false;
+            }
+        }
+        out.add(item);
+        return true;
+    }
+
+    /**
+     * The filters of one run
+     */
+    private List<Predicate<T>> bindFilters() {
+        List<Predicate<T>> bound = new ArrayList<>(filters.size());
+        for (Supplier<Predicate<T>> filter : filters) {
+            bound.add(filter.get());
+        }
+        return bound;
+    }
 
-            if (distinctValue) {
-                stream = stream.distinct();
+    private static <T> boolean matches(List<Predicate<T>> filters, T item) {
+        for (int i = 0, size = filters.size(); i < size; i++) {
+            if (!filters.get(i).test(item)) {
+                return false;
             }
+        }
+        return true;
+    }
 
-            if (!sorters.isEmpty()) {
-                Comparator<T> combined = sorters.stream()
-                        .reduce(Comparator::thenComparing)
-                        .orElse(null);
-                stream = stream.sorted(combined);
+    /**
+     * Sort matches by the sort stages, keeping only the first {@code take} if that is fewer than all of them.
+     * Keys are computed once per element, ties keep source order.
+     */
+    private List<T> order(List<T> matches, int take) {
+        int n = matches.size();
+        if (n < 2) {
+            return matches;
+        }
+
+        double[][] keys = new double[sorters.size()][];
+        for (int s = 0; s < keys.length; s++) {
+            ToDoubleFunction<T> key = sorters.get(s).key;
+            if (key == null) {
+                continue;
+            }
+            double[] values = new double[n];
+            for (int i = 0; i < n; i++) {
+                values[i] = key.applyAsDouble(matches.get(i));
             }
+            keys[s] = values;
+        }
+        Comparator<Integer> order = (a, b) -> compare(matches, keys, a, b);
+
+        if (take == 1) {
+            int best = 0;
+            for (int i = 1; i < n; i++) {
+                if (order.compare(i, best) < 0) {
+                    best = i;
+                }
+            }
+            List<T> result = new ArrayList<>(1);
+            result.add(matches.get(best));
+            return result;
+        }
 
-            if (skipValue > 0) {
-                stream = stream.skip(skipValue);
+        Integer[] rows;
+        if (take >= 0 && take < n) {
+            rows = selectTop(n, take, order);
+        } else {
+            rows = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                rows[i] = i;
             }
+        }
+        Arrays.sort(rows, order);
+
+        List<T> result = new ArrayList<>(rows.length);
+        for (Integer row : rows) {
+            result.add(matches.get(row));
+        }
+        return result;
+    }
 
-            if (limitValue > 0) {
-                stream = stream.limit(limitValue);
+    /**
+     * Indices of the {@code take} best rows, unordered, using a bounded max-heap whose root is the worst kept row
+     */
+    private static Integer[] selectTop(int n, int take, Comparator<Integer> order) {
+        Integer[] heap = new Integer[take];
+        for (int i = 0; i < n; i++) {
+            if (i < take) {
+                heap[i] = i;
+                int child = i;
+                while (child > 0) {
+                    int parent = (child - 1) >>> 1;
+                    if (order.compare(heap[child], heap[parent]) <= 0) {
+                        break;
+                    }
+                    Integer tmp = heap[parent];
+                    heap[parent] = heap[child];
+                    heap[child] = tmp;
+                    child = parent;
+                }
+            } else if (order.compare(i, heap[0]) < 0) {
+                heap[0] = i;
+                int parent = 0;
+                while (true) {
+                    int worst = parent;
+                    int left = 2 * parent + 1;
+                    int right = left + 1;
+                    if (left < take && order.compare(heap[left], heap[worst]) > 0) {
+                        worst = left;
+                    }
+                    if (right < take && order.compare(heap[right], heap[worst]) > 0) {
+                        worst = right;
+                    }
+                    if (worst == parent) {
+                        break;
+                    }
+                    Integer tmp = heap[parent];
+                    heap[parent] = heap[worst];
+                    heap[worst] = tmp;
+                    parent = worst;
+                }
             }
+        }
+        return heap;
+    }
 
-            return stream.collect(Collectors.toList());
-        });
+    private int compare(List<T> matches, double[][] keys, int a, int b) {
+        for (int s = 0; s < keys.length; s++) {
+            SortKey<T> sorter = sorters.get(s);
+            int c;
+            if (keys[s] == null) {
+                c = sorter.comparator.compare(matches.get(a), matches.get(b));
+            } else {
+                double x = keys[s][a];
+                double y = keys[s][b];
+                boolean xNaN = Double.isNaN(x);
+                boolean yNaN = Double.isNaN(y);
+                if (xNaN || yNaN) {
+                    c = xNaN == yNaN ? 0 : (xNaN ? 1 : -1);
+                } else {
+                    c = sorter.descending ? Double.compare(y, x) : Double.compare(x, y);
+                }
+            }
+            if (c != 0) {
+                return c;
+            }
+        }
+        return Integer.compare(a, b);
     }
 
     /**
      * Get the first element from the filtered/sorted list
      */
     public T first() {
-        List<T> results = execute();
+        List<T> results = inContext(() -> run(true, 1));
         return results.isEmpty() ? null : results.get(0);
     }
 
@@ -156,7 +424,7 @@ public abstract class AbstractQuery<T, Q extends AbstractQuery<T, Q>> {
      * @param elseAction action to perform if no results
      */
     public void firstOrElse(Consumer<T> action, Runnable elseAction) {
-        List<T> results = execute();
+        List<T> results = inContext(() -> run(true, 1));
         if (results.isEmpty()) {
             elseAction.run();
         } else {
@@ -179,7 +447,7 @@ public abstract class AbstractQuery<T, Q extends AbstractQuery<T, Q>> {
     }
 
     public void firstIfPresent(Consumer<T> action) {
-        List<T> results = execute();
+        List<T> results = inContext(() -> run(true, 1));
         if (!results.isEmpty()) {
             action.accept(results.get(0));
         }
@@ -189,8 +457,16 @@ public abstract class AbstractQuery<T, Q extends AbstractQuery<T, Q>> {
      * Get a random element from the filtered/sorted list
      */
     public T random() {
-        List<T> results = execute();
-        return results.isEmpty() ? null : results.get(random.nextInt(results.size()));
+        if (skipValue > 0 || limitValue > 0) {
+            List<T> results = execute();
+            return results.isEmpty() ? null : results.get(random.nextInt(results.size()));
+        }
+
+        // order does not matter for a uniform pick, so skip sorting
+        return inContext(() -> {
+            List<T> results = filter(true, -1);
+            return results.isEmpty() ? null : results.get(random.nextInt(results.size()));
+        });
     }
 
     /**
@@ -205,22 +481,10 @@ public abstract class AbstractQuery<T, Q extends AbstractQuery<T, Q>> {
      */
     public void forEach(Consumer<T> action) {
         Static.invoke(() -> {
-            Stream<T> stream = dataSource.get().stream();
-
-            // Apply all filters
-            for (Predicate<T> filter : filters) {
-                stream = stream.filter(filter);
+            for (T item : run(false, -1)) {
+                action.accept(item);
             }
-
-            // Apply sorting if it exists, as forEach is terminal
-            if (!sorters.isEmpty()) {
-                Comparator<T> combined = sorters.stream()
-                        .reduce(Comparator::thenComparing)
-                        .orElse(null);
-                stream = stream.sorted(combined);
-            }
-
-            stream.forEach(action);
+            return null;
         });
     }
 
@@ -228,12 +492,15 @@ public abstract class AbstractQuery<T, Q extends AbstractQuery<T, Q>> {
      * Get count of filtered results
      */
     public int count() {
-        return Static.invoke(() -> {
-            Stream<T> stream = dataSource.get().stream();
-            for (Predicate<T> filter : filters) {
-                stream = stream.filter(filter);
+        return inContext(() -> {
+            List<Predicate<T>> filters = bindFilters();
+            int count = 0;
+            for (T item : dataSource.get()) {
+                if (matches(filters, item)) {
+                    count++;
+                }
             }
-            return (int) stream.count();
+            return count;
         });
     }
 
@@ -242,12 +509,14 @@ public abstract class AbstractQuery<T, Q extends AbstractQuery<T, Q>> {
      * @return true if no results after filtering, false otherwise
      */
     public boolean isEmpty() {
-        return Static.invoke(() -> {
-            Stream<T> stream = dataSource.get().stream();
-            for (Predicate<T> filter : filters) {
-                stream = stream.filter(filter);
+        return inContext(() -> {
+            List<Predicate<T>> filters = bindFilters();
+            for (T item : dataSource.get()) {
+                if (matches(filters, item)) {
+                    return false;
+                }
             }
-            return stream.findAny().isEmpty();
+            return true;
         });
     }
 
@@ -258,11 +527,13 @@ public abstract class AbstractQuery<T, Q extends AbstractQuery<T, Q>> {
      */
     public boolean any(Predicate<T> predicate) {
         return Static.invoke(() -> {
-            Stream<T> stream = dataSource.get().stream();
-            for (Predicate<T> filter : filters) {
-                stream = stream.filter(filter);
+            List<Predicate<T>> filters = bindFilters();
+            for (T item : dataSource.get()) {
+                if (matches(filters, item) && predicate.test(item)) {
+                    return true;
+                }
             }
-            return stream.anyMatch(predicate);
+            return false;
         });
     }
 
@@ -273,11 +544,13 @@ public abstract class AbstractQuery<T, Q extends AbstractQuery<T, Q>> {
      */
     public boolean all(Predicate<T> predicate) {
         return Static.invoke(() -> {
-            Stream<T> stream = dataSource.get().stream();
-            for (Predicate<T> filter : filters) {
-                stream = stream.filter(filter);
+            List<Predicate<T>> filters = bindFilters();
+            for (T item : dataSource.get()) {
+                if (matches(filters, item) && !predicate.test(item)) {
+                    return false;
+                }
             }
-            return stream.allMatch(predicate);
+            return true;
         });
     }
 
@@ -287,13 +560,7 @@ public abstract class AbstractQuery<T, Q extends AbstractQuery<T, Q>> {
      * @return true if none match, false otherwise
      */
     public boolean none(Predicate<T> predicate) {
-        return Static.invoke(() -> {
-            Stream<T> stream = dataSource.get().stream();
-            for (Predicate<T> filter : filters) {
-                stream = stream.filter(filter);
-            }
-            return stream.noneMatch(predicate);
-        });
+        return !any(predicate);
     }
 
     /**
@@ -302,13 +569,8 @@ public abstract class AbstractQuery<T, Q extends AbstractQuery<T, Q>> {
      */
     public <R> R aggregate(Function<Stream<T>, R> aggregator) {
         return Static.invoke(() -> {
-            Stream<T> stream = dataSource.get().stream();
-
-            for (Predicate<T> filter : filters) {
-                stream = stream.filter(filter);
-            }
-
-            return aggregator.apply(stream);
+            List<Predicate<T>> filters = bindFilters();
+            return aggregator.apply(dataSource.get().stream().filter(item -> matches(filters, item)));
         });
     }
 
@@ -316,21 +578,18 @@ public abstract class AbstractQuery<T, Q extends AbstractQuery<T, Q>> {
      * Execute filters and process with custom collector
      */
     public <R> R collect(Collector<T, ?, R> collector) {
-        return Static.invoke(() -> {
-            Stream<T> stream = dataSource.get().stream();
+        return Static.invoke(() -> run(false, -1).stream().collect(collector));
+    }
 
-            for (Predicate<T> filter : filters) {
-                stream = stream.filter(filter);
-            }
+    private static final class SortKey<T> {
+        private final Comparator<T> comparator;
+        private final ToDoubleFunction<T> key;
+        private final boolean descending;
 
-            if (!sorters.isEmpty()) {
-                Comparator<T> combined = sorters.stream()
-                        .reduce(Comparator::thenComparing)
-                        .orElse(null);
-                stream = stream.sorted(combined);
-            }
-
-            return stream.collect(collector);
-        });
+        private SortKey(Comparator<T> comparator, ToDoubleFunction<T> key, boolean descending) {
+            this.comparator = comparator;
+            this.key = key;
+            this.descending = descending;
+        }
     }
-}
\ No newline at end of file
+}
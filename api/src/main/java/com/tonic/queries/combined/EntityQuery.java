@@ -1,6 +1,5 @@
 package com.tonic.queries.combined;
 
-import com.tonic.api.game.SceneAPI;
 import com.tonic.data.wrappers.NpcEx;
 import com.tonic.data.wrappers.PlayerEx;
 import com.tonic.data.wrappers.TileItemEx;
@@ -9,13 +8,13 @@ import com.tonic.data.wrappers.abstractions.Entity;
 import com.tonic.queries.abstractions.AbstractQuery;
 import com.tonic.util.Distance;
 import com.tonic.util.TextUtil;
+import com.tonic.services.pathfinder.local.SceneDistanceField;
 import net.runelite.api.coords.WorldPoint;
 import net.runelite.client.util.Text;
 import net.runelite.client.util.WildcardMatcher;
 import org.apache.commons.lang3.ArrayUtils;
 
 import java.util.Collection;
-import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -28,7 +27,7 @@ public class EntityQuery extends AbstractQuery<Entity, EntityQuery> {
     public EntityQuery() {
         super(Stream.of(npcList(), playerList(), tileItemList(), objectList())
                 .flatMap(Collection::stream)
-                .collect(Collectors.toList()));
+                .collect(Collectors.toList()), true);
     }
 
     /**
@@ -197,11 +196,7 @@ public class EntityQuery extends AbstractQuery<Entity, EntityQuery> {
      */
     public EntityQuery sortNearest(WorldPoint center)
     {
-        return sort((o1, o2) -> {
-            int dist1 = Distance.chebyshev(center, o1.getWorldPoint());
-            int dist2 = Distance.chebyshev(center, o2.getWorldPoint());
-            return Integer.compare(dist1, dist2);
-        });
+        return sortBy(o -> Distance.chebyshev(center, o.getWorldPoint()));
     }
 
     /**
@@ -220,11 +215,7 @@ public class EntityQuery extends AbstractQuery<Entity, EntityQuery> {
      */
     public EntityQuery sortFurthest(WorldPoint center)
     {
-        return sort((o1, o2) -> {
-            int dist1 = Distance.chebyshev(center, o1.getWorldPoint());
-            int dist2 = Distance.chebyshev(center, o2.getWorldPoint());
-            return Integer.compare(dist2, dist1);
-        });
+        return sortByDescending(o -> Distance.chebyshev(center, o.getWorldPoint()));
     }
 
     /**
@@ -243,13 +234,8 @@ public class EntityQuery extends AbstractQuery<Entity, EntityQuery> {
      */
     public EntityQuery sortShortestPath(WorldPoint center)
     {
-        return sort((o1, o2) -> {
-            List<WorldPoint> path1 = SceneAPI.pathTo(center, o1.getInteractionPoint());
-            List<WorldPoint> path2 = SceneAPI.pathTo(center, o2.getInteractionPoint());
-            int len1 = path1 == null ? Integer.MAX_VALUE : path1.size();
-            int len2 = path2 == null ? Integer.MAX_VALUE : path2.size();
-            return Integer.compare(len1, len2);
-        });
+        SceneDistanceField field = SceneDistanceField.of(center);
+        return sortBy(o -> field.pathLength(o.getInteractionPoint()));
     }
 
     /**
@@ -268,13 +254,8 @@ public class EntityQuery extends AbstractQuery<Entity, EntityQuery> {
      */
     public EntityQuery sortLongestPath(WorldPoint center)
     {
-        return sort((o1, o2) -> {
-            List<WorldPoint> path1 = SceneAPI.pathTo(center, o1.getInteractionPoint());
-            List<WorldPoint> path2 = SceneAPI.pathTo(center, o2.getInteractionPoint());
-            int len1 = path1 == null ? Integer.MAX_VALUE : path1.size();
-            int len2 = path2 == null ? Integer.MAX_VALUE : path2.size();
-            return Integer.compare(len2, len1);
-        });
+        SceneDistanceField field = SceneDistanceField.of(center);
+        return sortByDescending(o -> field.pathLength(o.getInteractionPoint()));
     }
 
     /**
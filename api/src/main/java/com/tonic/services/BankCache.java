@@ -2,53 +2,72 @@ package com.tonic.services;
 
 import com.tonic.Logger;
 import com.tonic.Static;
-import com.tonic.api.widgets.BankAPI;
-import com.tonic.data.wrappers.ItemEx;
 import com.tonic.events.BankCacheChanged;
-import com.tonic.queries.InventoryQuery;
+import com.tonic.util.ThreadPool;
 import it.unimi.dsi.fastutil.ints.Int2IntMap;
 import it.unimi.dsi.fastutil.ints.Int2IntMaps;
 import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 import net.runelite.api.Client;
 import net.runelite.api.GameState;
+import net.runelite.api.Item;
 import net.runelite.api.events.GameStateChanged;
 import net.runelite.api.events.GameTick;
+import net.runelite.api.events.ItemContainerChanged;
 import net.runelite.api.gameval.InventoryID;
 import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.game.ItemManager;
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Base64;
-import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Caches the contents of the bank while it is open, allowing for
- * quick lookups without repeatedly querying the bank widget.
+ * Caches the bank of each account as a {@link BankSnapshot}, allowing for
+ * quick lookups without the bank being open.
+ *
+ * The snapshot is updated from bank container changes, canonicalizing only the slots that changed, and is
+ * written to a per-account {@link BankStore} file a few ticks after the bank settles rather than on every
+ * change. Banks cached by older versions in the config are migrated on first load, and their config entry
+ * is removed once the migrated snapshot is written.
  */
 public class BankCache
 {
     private static BankCache INSTANCE;
 
+    /**
+     * Ticks without a change before a snapshot is written
+     */
+    private static final int WRITE_DELAY = 5;
+    /**
+     * Varbits holding the sizes of bank tabs 1-9
+     */
+    private static final int[] TAB_SIZE_VARBITS = {4171, 4172, 4173, 4174, 4175, 4176, 4177, 4178, 4179};
+
     /**
      * Retrieves the cached bank items for the current player.
-     * If the bank is not open or the player is not logged in, returns an empty list.
+     * If the player is not logged in or has no cached bank, returns an empty map.
      *
      * @return Map of item IDs to their quantities in the cached bank.
      */
     public static Map<Integer, Integer> getCachedBank()
     {
-        Client client = Static.getClient();
-        if(client.getLocalPlayer() == null || client.getLocalPlayer().getName() == null)
-            return EMPTY;
-        return bankCache.getOrDefault(client.getLocalPlayer().getName(), EMPTY);
+        return getSnapshot().getTotals();
     }
 
-    private static Int2IntMap _getCachedBank()
+    /**
+     * Retrieves the cached bank of the current player with its slots and tabs.
+     *
+     * @return The snapshot, or {@link BankSnapshot#EMPTY} if there is none.
+     */
+    public static BankSnapshot getSnapshot()
     {
-        Client client = Static.getClient();
-        if(client.getLocalPlayer() == null || client.getLocalPlayer().getName() == null)
-            return EMPTY;
-        return bankCache.getOrDefault(client.getLocalPlayer().getName(), EMPTY);
+        String playerName = playerName();
+        if(playerName == null)
+            return BankSnapshot.EMPTY;
+        return bankCache.getOrDefault(playerName, BankSnapshot.EMPTY);
     }
 
     /**
@@ -59,7 +78,29 @@ public class BankCache
      */
     public static boolean cachedBankContains(int itemId)
     {
-        return cachedBankCount(itemId) != 0;
+        return getSnapshot().contains(itemId);
+    }
+
+    /**
+     * Checks if the cached bank contains any of the specified item IDs.
+     *
+     * @param itemIds Array of item IDs to check for.
+     * @return true if at least one of the items is present, false otherwise.
+     */
+    public static boolean cachedBankContainsAny(int... itemIds)
+    {
+        return getSnapshot().containsAny(itemIds);
+    }
+
+    /**
+     * Checks if the cached bank contains all of the specified item IDs.
+     *
+     * @param itemIds Array of item IDs to check for.
+     * @return true if every item is present, false otherwise.
+     */
+    public static boolean cachedBankContainsAll(int... itemIds)
+    {
+        return getSnapshot().containsAll(itemIds);
     }
 
     /**
@@ -69,12 +110,7 @@ public class BankCache
      * @return The first matching item ID, or -1 if none are found.
      */
     public static int cachedBankGetFirst(int... itemIds) {
-        Int2IntMap bank = _getCachedBank();
-        for(int id : itemIds) {
-            if(bank.containsKey(id)) // Direct containsKey is faster
-                return id;
-        }
-        return -1;
+        return getSnapshot().getFirst(itemIds);
     }
 
     /**
@@ -84,79 +120,241 @@ public class BankCache
      * @return The count of the specified item ID in the cached bank.
      */
     public static int cachedBankCount(int itemId) {
-        var bank = _getCachedBank();
-        return bank.getOrDefault(itemId, 0);
+        return getSnapshot().count(itemId);
     }
 
-    private static final ConcurrentHashMap<String,Int2IntMap> bankCache = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String,BankSnapshot> bankCache = new ConcurrentHashMap<>();
     private static final Int2IntMap EMPTY = Int2IntMaps.unmodifiable(new Int2IntOpenHashMap());
     private final ConfigManager configManager = new ConfigManager("CachedBanks");
+    private final BankStore store = new BankStore(Static.VITA_DIR.resolve("banks"));
+    //account -> tick of its last unwritten change
+    private final Map<String, Integer> pendingWrites = new ConcurrentHashMap<>();
+    //accounts whose snapshot came from the config and still has an entry there
+    private final Set<String> migrated = ConcurrentHashMap.newKeySet();
+
+    //bank container as last seen, client thread only
+    private String slotsOwner = null;
+    private int[] rawIds = new int[0];
+    private int[] rawQuantities = new int[0];
+    private int[] canonicalIds = new int[0];
+    private int[] quantities = new int[0];
+    private final Int2IntOpenHashMap totals = new Int2IntOpenHashMap();
 
     @Subscribe
     protected void onGameTick(GameTick event)
     {
         Client client = Static.getClient();
-
-        if(client.getLocalPlayer() == null)
-            return;
-        String playerName = client.getLocalPlayer().getName();
+        String playerName = playerName();
         if(playerName == null)
             return;
 
         if(!bankCache.containsKey(playerName) && Static.getVitaConfig().shouldCacheBank())
         {
-            fetch();
+            fetch(playerName);
         }
 
-        if(BankAPI.isOpen())
+        if(!pendingWrites.isEmpty())
         {
-            Int2IntMap emptyMap = new Int2IntOpenHashMap();
-            List<ItemEx> items = InventoryQuery.fromInventoryId(InventoryID.BANK).collect();
-            for(ItemEx item : items)
-            {
-                if (item.isPlaceholder())
-                {
-                    continue;
-                }
-
-                int canonicalId = item.getCanonicalId();
-                int currentQty = emptyMap.getOrDefault(canonicalId, 0);
-                emptyMap.put(canonicalId, item.getQuantity() + currentQty);
-            }
+            flush(client.getTickCount() - WRITE_DELAY);
+        }
+    }
 
-            Int2IntMap itemMap = bankCache.getOrDefault(playerName, EMPTY);
-            if(!itemMap.equals(emptyMap))
-            {
-                bankCache.put(playerName, emptyMap);
-                Static.post(BankCacheChanged.INSTANCE);
-                if(Static.getVitaConfig().shouldCacheBank())
-                {
-                    String serialized = serialize(emptyMap);
-                    configManager.setProperty(playerName, serialized);
-                }
-            }
+    @Subscribe
+    public void onItemContainerChanged(ItemContainerChanged event)
+    {
+        if(event.getContainerId() != InventoryID.BANK)
+            return;
+        String playerName = playerName();
+        if(playerName == null)
+            return;
+
+        if(!playerName.equals(slotsOwner))
+        {
+            slotsOwner = playerName;
+            rawIds = new int[0];
+            rawQuantities = new int[0];
+            canonicalIds = new int[0];
+            quantities = new int[0];
+            totals.clear();
         }
+
+        if(!applyDiff(event.getItemContainer().getItems()))
+            return;
+
+        int[] tabSizes = readTabSizes();
+        BankSnapshot previous = bankCache.get(playerName);
+        BankSnapshot snapshot = new BankSnapshot(canonicalIds.clone(), quantities.clone(), tabSizes, new Int2IntOpenHashMap(totals));
+        if(snapshot.sameContents(previous))
+            return;
+
+        bankCache.put(playerName, snapshot);
+        Static.post(BankCacheChanged.INSTANCE);
+        pendingWrites.put(playerName, ((Client) Static.getClient()).getTickCount());
     }
 
     @Subscribe
     public void onGameStateChanged(GameStateChanged event)
     {
+        if (event.getGameState() == GameState.LOGIN_SCREEN || event.getGameState() == GameState.HOPPING) {
+            flush(Integer.MAX_VALUE);
+        }
         if (event.getGameState() == GameState.LOGIN_SCREEN) {
             Static.post(BankCacheChanged.INSTANCE);
         }
     }
 
-    private void fetch()
+    /**
+     * Bring the slot arrays and totals in line with the container, resolving definitions only for the
+     * slots whose item or quantity changed.
+     *
+     * @return true if anything changed
+     */
+    private boolean applyDiff(Item[] items)
     {
         Client client = Static.getClient();
-        if(client.getLocalPlayer() == null || client.getLocalPlayer().getName() == null)
+        ItemManager itemManager = Static.getInjector().getInstance(ItemManager.class);
+        int size = items.length;
+        int oldSize = rawIds.length;
+        boolean changed = size != oldSize;
+        if(changed)
+        {
+            for(int slot = size; slot < oldSize; slot++)
+                subtract(canonicalIds[slot], quantities[slot]);
+            rawIds = Arrays.copyOf(rawIds, size);
+            rawQuantities = Arrays.copyOf(rawQuantities, size);
+            canonicalIds = Arrays.copyOf(canonicalIds, size);
+            quantities = Arrays.copyOf(quantities, size);
+            //new slots never match, so they are resolved below
+            if(size > oldSize)
+                Arrays.fill(rawIds, oldSize, size, Integer.MIN_VALUE);
+        }
+
+        for(int slot = 0; slot < size; slot++)
+        {
+            Item item = items[slot];
+            int id = item == null ? -1 : item.getId();
+            int quantity = item == null ? 0 : item.getQuantity();
+            if(id == rawIds[slot] && quantity == rawQuantities[slot])
+                continue;
+
+            subtract(canonicalIds[slot], quantities[slot]);
+            rawIds[slot] = id;
+            rawQuantities[slot] = quantity;
+            if(id < 0)
+            {
+                canonicalIds[slot] = -1;
+                quantities[slot] = 0;
+            }
+            else
+            {
+                boolean placeholder = client.getItemDefinition(id).getPlaceholderTemplateId() >= 0;
+                canonicalIds[slot] = itemManager.canonicalize(id);
+                quantities[slot] = placeholder ? 0 : quantity;
+                if(quantities[slot] > 0)
+                    totals.addTo(canonicalIds[slot], quantities[slot]);
+            }
+            changed = true;
+        }
+        return changed;
+    }
+
+    private void subtract(int canonicalId, int quantity)
+    {
+        if(quantity <= 0)
             return;
+        if(totals.addTo(canonicalId, -quantity) == quantity)
+            totals.remove(canonicalId);
+    }
 
-        String serialized = configManager.getStringOrDefault(client.getLocalPlayer().getName(), "");
-        Int2IntMap map = deserialize(serialized);
-        bankCache.put(client.getLocalPlayer().getName(), map);
+    private int[] readTabSizes()
+    {
+        Client client = Static.getClient();
+        int[] sizes = new int[TAB_SIZE_VARBITS.length];
+        int count = 0;
+        for(int i = 0; i < sizes.length; i++)
+        {
+            sizes[i] = client.getVarbitValue(TAB_SIZE_VARBITS[i]);
+            if(sizes[i] > 0)
+                count = i + 1;
+        }
+        return Arrays.copyOf(sizes, count);
+    }
+
+    /**
+     * Write the snapshots whose last change was on or before {@code settledTick}. The write itself happens
+     * off the client thread and always takes the latest snapshot, so writes that race each other agree.
+     */
+    private void flush(int settledTick)
+    {
+        for(Map.Entry<String, Integer> pending : pendingWrites.entrySet())
+        {
+            String playerName = pending.getKey();
+            int changeTick = pending.getValue();
+            //a change that came in meanwhile keeps the account pending
+            if(changeTick > settledTick || !pendingWrites.remove(playerName, changeTick))
+                continue;
+            if(!Static.getVitaConfig().shouldCacheBank())
+                continue;
+            ThreadPool.submit(() -> write(playerName));
+        }
+    }
+
+    private void write(String playerName)
+    {
+        BankSnapshot snapshot = bankCache.get(playerName);
+        if(snapshot == null)
+            return;
+        try
+        {
+            store.write(playerName, snapshot);
+            if(migrated.remove(playerName))
+                configManager.clearProperty(playerName);
+        }
+        catch (IOException e)
+        {
+            Logger.error("Failed to write bank cache for " + playerName + ": " + e.getMessage());
+        }
+    }
+
+    private void fetch(String playerName)
+    {
+        BankSnapshot snapshot = store.read(playerName);
+        if(snapshot == null)
+        {
+            snapshot = migrate(playerName);
+        }
+        bankCache.putIfAbsent(playerName, snapshot);
         Static.post(BankCacheChanged.INSTANCE);
-        Logger.info("[Loaded] cached bank for " + client.getLocalPlayer().getName());
+        Logger.info("[Loaded] cached bank for " + playerName);
+    }
+
+    /**
+     * Build a snapshot from a bank cached in the config by older versions. Those only kept totals, so the
+     * snapshot has one slot per item and no tabs until the bank is next opened.
+     */
+    private BankSnapshot migrate(String playerName)
+    {
+        Int2IntMap map = deserialize(configManager.getStringOrDefault(playerName, ""));
+        if(map.isEmpty())
+            return BankSnapshot.EMPTY;
+
+        int[] ids = map.keySet().toIntArray();
+        Arrays.sort(ids);
+        int[] quantities = new int[ids.length];
+        for(int i = 0; i < ids.length; i++)
+            quantities[i] = map.get(ids[i]);
+        BankSnapshot snapshot = new BankSnapshot(ids, quantities, new int[0]);
+        migrated.add(playerName);
+        pendingWrites.put(playerName, ((Client) Static.getClient()).getTickCount());
+        return snapshot;
+    }
+
+    private static String playerName()
+    {
+        Client client = Static.getClient();
+        if(client.getLocalPlayer() == null)
+            return null;
+        return client.getLocalPlayer().getName();
     }
 
     static void init()
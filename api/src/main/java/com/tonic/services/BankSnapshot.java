@@ -0,0 +1,149 @@
+package com.tonic.services;
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntMaps;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+
+import java.util.Arrays;
+
+/**
+ * The bank of one account as last seen: every slot in bank order, the size of each tab, and the total
+ * quantity per (canonical) item id for O(1) lookups. Placeholders keep their slot with a quantity of 0
+ * and don't count towards the totals. Immutable, so it can be read from any thread.
+ */
+public final class BankSnapshot
+{
+    public static final BankSnapshot EMPTY = new BankSnapshot(new int[0], new int[0], new int[0]);
+
+    private final int[] ids;
+    private final int[] quantities;
+    private final int[] tabSizes;
+    private final Int2IntMap totals;
+
+    /**
+     * @param ids canonical item id per slot
+     * @param quantities quantity per slot, 0 for a placeholder
+     * @param tabSizes number of slots in each of the numbered tabs; the main tab holds the rest
+     */
+    public BankSnapshot(int[] ids, int[] quantities, int[] tabSizes)
+    {
+        this(ids, quantities, tabSizes, totalsOf(ids, quantities));
+    }
+
+    BankSnapshot(int[] ids, int[] quantities, int[] tabSizes, Int2IntMap totals)
+    {
+        if (ids.length != quantities.length)
+            throw new IllegalArgumentException("ids and quantities differ in length");
+        this.ids = ids;
+        this.quantities = quantities;
+        this.tabSizes = tabSizes;
+        this.totals = Int2IntMaps.unmodifiable(totals);
+    }
+
+    private static Int2IntMap totalsOf(int[] ids, int[] quantities)
+    {
+        Int2IntOpenHashMap totals = new Int2IntOpenHashMap(ids.length);
+        for (int i = 0; i < ids.length; i++)
+        {
+            if (quantities[i] > 0)
+                totals.addTo(ids[i], quantities[i]);
+        }
+        return totals;
+    }
+
+    /**
+     * @return true if the bank holds at least one of the item, placeholders excluded
+     */
+    public boolean contains(int itemId)
+    {
+        return totals.containsKey(itemId);
+    }
+
+    /**
+     * @return the total quantity of the item, 0 if there is none
+     */
+    public int count(int itemId)
+    {
+        return totals.getOrDefault(itemId, 0);
+    }
+
+    public boolean containsAny(int... itemIds)
+    {
+        for (int id : itemIds)
+        {
+            if (totals.containsKey(id))
+                return true;
+        }
+        return false;
+    }
+
+    public boolean containsAll(int... itemIds)
+    {
+        for (int id : itemIds)
+        {
+            if (!totals.containsKey(id))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the first of the given ids that the bank holds, or -1
+     */
+    public int getFirst(int... itemIds)
+    {
+        for (int id : itemIds)
+        {
+            if (totals.containsKey(id))
+                return id;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the total quantity per item id, read-only
+     */
+    public Int2IntMap getTotals()
+    {
+        return totals;
+    }
+
+    public int getSlotCount()
+    {
+        return ids.length;
+    }
+
+    public int getId(int slot)
+    {
+        return ids[slot];
+    }
+
+    public int getQuantity(int slot)
+    {
+        return quantities[slot];
+    }
+
+    public boolean isPlaceholder(int slot)
+    {
+        return quantities[slot] == 0;
+    }
+
+    public int getTabCount()
+    {
+        return tabSizes.length;
+    }
+
+    public int getTabSize(int tab)
+    {
+        return tabSizes[tab];
+    }
+
+    /**
+     * @return true if both have the same slots and tabs
+     */
+    public boolean sameContents(BankSnapshot other)
+    {
+        return other != null && Arrays.equals(ids, other.ids) && Arrays.equals(quantities, other.quantities)
+                && Arrays.equals(tabSizes, other.tabSizes);
+    }
+}
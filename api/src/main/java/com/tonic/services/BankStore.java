@@ -0,0 +1,217 @@
+package com.tonic.services;
+
+import com.tonic.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/**
+ * Binary bank snapshots, one file per account.
+ *
+ * Layout: the magic {@code VBNK}, a format version byte, the slot count and then each slot's item id and
+ * quantity, the tab count and each tab's size, all as unsigned varints, and finally a CRC32 of everything
+ * before it. Files are written to a temporary file and renamed over the old one, so a crash mid-write
+ * leaves the previous snapshot intact. A file that fails to parse is moved aside as {@code .corrupt} and
+ * reads as missing.
+ */
+public final class BankStore
+{
+    static final int MAGIC = 0x56424E4B; // VBNK
+    static final int VERSION = 1;
+    private static final String EXTENSION = ".bank";
+
+    private final Path directory;
+
+    public BankStore(Path directory)
+    {
+        this.directory = directory;
+    }
+
+    /**
+     * @return the file of an account; names are case-insensitive and spaces and underscores are the same
+     */
+    public Path fileOf(String account)
+    {
+        StringBuilder name = new StringBuilder(account.length());
+        for (char c : account.toLowerCase().toCharArray())
+        {
+            boolean plain = (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-';
+            name.append(plain ? c : '_');
+        }
+        return directory.resolve(name + EXTENSION);
+    }
+
+    public boolean exists(String account)
+    {
+        return Files.exists(fileOf(account));
+    }
+
+    /**
+     * @return the stored snapshot, or null if there is none or it could not be read
+     */
+    public BankSnapshot read(String account)
+    {
+        Path file = fileOf(account);
+        if (!Files.exists(file))
+            return null;
+
+        try
+        {
+            return decode(Files.readAllBytes(file));
+        }
+        catch (IOException | IllegalArgumentException e)
+        {
+            Logger.error("Failed to read bank cache " + file.getFileName() + ": " + e.getMessage());
+            try
+            {
+                Files.move(file, file.resolveSibling(file.getFileName() + ".corrupt"), StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch (IOException ignored)
+            {
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Replace the stored snapshot of an account
+     */
+    public synchronized void write(String account, BankSnapshot snapshot) throws IOException
+    {
+        Path file = fileOf(account);
+        Files.createDirectories(directory);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, encode(snapshot));
+        try
+        {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (AtomicMoveNotSupportedException e)
+        {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static byte[] encode(BankSnapshot snapshot)
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + snapshot.getSlotCount() * 4);
+        writeInt(out, MAGIC);
+        out.write(VERSION);
+        writeVarInt(out, snapshot.getSlotCount());
+        for (int i = 0; i < snapshot.getSlotCount(); i++)
+        {
+            writeVarInt(out, snapshot.getId(i));
+            writeVarInt(out, snapshot.getQuantity(i));
+        }
+        writeVarInt(out, snapshot.getTabCount());
+        for (int i = 0; i < snapshot.getTabCount(); i++)
+            writeVarInt(out, snapshot.getTabSize(i));
+
+        CRC32 crc = new CRC32();
+        crc.update(out.toByteArray());
+        writeInt(out, (int) crc.getValue());
+        return out.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the data is not a complete snapshot of a known version
+     */
+    static BankSnapshot decode(byte[] data)
+    {
+        if (data.length < 9)
+            throw new IllegalArgumentException("truncated");
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - 4);
+        if ((int) crc.getValue() != readInt(data, data.length - 4))
+            throw new IllegalArgumentException("checksum mismatch");
+        if (readInt(data, 0) != MAGIC)
+            throw new IllegalArgumentException("not a bank cache");
+        if (data[4] != VERSION)
+            throw new IllegalArgumentException("unsupported version " + data[4]);
+
+        Reader reader = new Reader(data, 5, data.length - 4);
+        int slots = reader.count();
+        int[] ids = new int[slots];
+        int[] quantities = new int[slots];
+        for (int i = 0; i < slots; i++)
+        {
+            ids[i] = reader.varInt();
+            quantities[i] = reader.varInt();
+        }
+        int[] tabs = new int[reader.count()];
+        for (int i = 0; i < tabs.length; i++)
+            tabs[i] = reader.varInt();
+        if (reader.position != reader.end)
+            throw new IllegalArgumentException("trailing data");
+        return new BankSnapshot(ids, quantities, tabs);
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value)
+    {
+        while ((value & ~0x7F) != 0)
+        {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value)
+    {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private static int readInt(byte[] data, int offset)
+    {
+        return (data[offset] & 0xFF) << 24 | (data[offset + 1] & 0xFF) << 16
+                | (data[offset + 2] & 0xFF) << 8 | (data[offset + 3] & 0xFF);
+    }
+
+    private static final class Reader
+    {
+        private final byte[] data;
+        private final int end;
+        private int position;
+
+        private Reader(byte[] data, int position, int end)
+        {
+            this.data = data;
+            this.position = position;
+            this.end = end;
+        }
+
+        private int varInt()
+        {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7)
+            {
+                if (position >= end)
+                    throw new IllegalArgumentException("truncated");
+                int b = data[position++];
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                    return value;
+            }
+            throw new IllegalArgumentException("malformed varint");
+        }
+
+        /**
+         * A length, checked against what is left so a damaged count can't allocate a huge array
+         */
+        private int count()
+        {
+            int count = varInt();
+            if (count < 0 || count > end - position)
+                throw new IllegalArgumentException("bad length " + count);
+            return count;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.tonic.services;
+
+import com.tonic.Static;
+import com.tonic.util.TextUtil;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import lombok.Getter;
+import net.runelite.api.Client;
+import net.runelite.api.NPCComposition;
+import net.runelite.api.ObjectComposition;
+
+/**
+ * Object and NPC definitions as wrappers and queries read them: sanitized name, lower-cased name and
+ * actions, resolved once per definition instead of on every getter call.
+ *
+ * An object with impostors (e.g. a door or farming patch) shows the impostor picked by a varbit or varp.
+ * Its resolved definitions are kept per var value, and which one is current is forgotten when the var
+ * changes ({@link #onVarChanged(int, int)}), so the next read resolves it again from the kept ones.
+ * Reads from any thread hit the cache without a client thread round-trip; only misses resolve on it.
+ *
+ * NPC compositions don't expose their vars, so NPC impostors are still transformed per tick by the actor
+ * snapshots; what is cached is the definition they transform into.
+ */
+public class DefinitionCache
+{
+    private final TIntObjectHashMap<Definition<ObjectComposition>> objects = new TIntObjectHashMap<>();
+    private final TIntObjectHashMap<Impostor> impostors = new TIntObjectHashMap<>();
+    private final TIntObjectHashMap<TIntArrayList> byVarbit = new TIntObjectHashMap<>();
+    private final TIntObjectHashMap<TIntArrayList> byVarp = new TIntObjectHashMap<>();
+    private final TIntObjectHashMap<Definition<NPCComposition>> npcs = new TIntObjectHashMap<>();
+
+    /**
+     * The definition an object with the given id shows right now, impostors resolved
+     */
+    public Definition<ObjectComposition> object(int id)
+    {
+        synchronized (this)
+        {
+            Definition<ObjectComposition> definition = objects.get(id);
+            if (definition != null)
+                return definition;
+            Impostor impostor = impostors.get(id);
+            if (impostor != null && impostor.current != null)
+                return impostor.current;
+        }
+        return Static.invoke(() -> resolveObject(id));
+    }
+
+    /**
+     * The cached definition of an NPC composition, already transformed. Must run on the client thread.
+     */
+    public synchronized Definition<NPCComposition> npc(NPCComposition composition)
+    {
+        if (composition == null)
+            return null;
+        Definition<NPCComposition> definition = npcs.get(composition.getId());
+        if (definition == null)
+        {
+            definition = new Definition<>(composition, composition.getName(), composition.getActions());
+            npcs.put(composition.getId(), definition);
+        }
+        return definition;
+    }
+
+    /**
+     * Forget which impostor is current for the objects controlled by a var
+     *
+     * @param varbitId the varbit that changed, or -1 if a whole varp changed
+     */
+    public synchronized void onVarChanged(int varpId, int varbitId)
+    {
+        TIntArrayList ids = varbitId != -1 ? byVarbit.get(varbitId) : byVarp.get(varpId);
+        if (ids == null)
+            return;
+        for (int i = 0; i < ids.size(); i++)
+            impostors.get(ids.get(i)).current = null;
+    }
+
+    /**
+     * Forget which impostors are current, e.g. after vars were loaded at login
+     */
+    public synchronized void invalidateImpostors()
+    {
+        for (Impostor impostor : impostors.valueCollection())
+            impostor.current = null;
+    }
+
+    public synchronized void clear()
+    {
+        objects.clear();
+        impostors.clear();
+        byVarbit.clear();
+        byVarp.clear();
+        npcs.clear();
+    }
+
+    private synchronized Definition<ObjectComposition> resolveObject(int id)
+    {
+        Client client = Static.getClient();
+        ObjectComposition composition = client.getObjectDefinition(id);
+        if (composition == null)
+            return Definition.object(null);
+
+        if (composition.getImpostorIds() == null)
+        {
+            Definition<ObjectComposition> definition = Definition.object(composition);
+            objects.put(id, definition);
+            return definition;
+        }
+
+        Impostor impostor = impostors.get(id);
+        if (impostor == null)
+        {
+            impostor = new Impostor(composition.getVarbitId(), composition.getVarPlayerId());
+            impostors.put(id, impostor);
+            if (impostor.varbitId != -1)
+                index(byVarbit, impostor.varbitId, id);
+            else if (impostor.varpId != -1)
+                index(byVarp, impostor.varpId, id);
+        }
+
+        int value = impostor.varbitId != -1 ? client.getVarbitValue(impostor.varbitId)
+                : impostor.varpId != -1 ? client.getVarpValue(impostor.varpId) : -1;
+        Definition<ObjectComposition> definition = impostor.byValue.get(value);
+        if (definition == null)
+        {
+            definition = Definition.object(composition.getImpostor());
+            impostor.byValue.put(value, definition);
+        }
+        impostor.current = definition;
+        return definition;
+    }
+
+    private static void index(TIntObjectHashMap<TIntArrayList> map, int var, int id)
+    {
+        TIntArrayList ids = map.get(var);
+        if (ids == null)
+        {
+            ids = new TIntArrayList(2);
+            map.put(var, ids);
+        }
+        ids.add(id);
+    }
+
+    /**
+     * A resolved definition. A missing composition (an impostor that resolves to nothing) has no name and
+     * no actions.
+     */
+    @Getter
+    public static final class Definition<C>
+    {
+        private static final String[] NO_ACTIONS = new String[0];
+
+        private final C composition;
+        private final String name;
+        private final String lowerName;
+        private final String[] actions;
+        /**
+         * Sanitized and lower-cased, null where the action is
+         */
+        private final String[] lowerActions;
+
+        private Definition(C composition, String rawName, String[] actions)
+        {
+            this.composition = composition;
+            this.name = rawName == null ? null : TextUtil.sanitize(rawName);
+            this.lowerName = name == null ? null : name.toLowerCase();
+            this.actions = actions == null ? NO_ACTIONS : actions;
+            this.lowerActions = new String[this.actions.length];
+            for (int i = 0; i < this.actions.length; i++)
+            {
+                if (this.actions[i] != null)
+                    lowerActions[i] = TextUtil.sanitize(this.actions[i]).toLowerCase();
+            }
+        }
+
+        private static Definition<ObjectComposition> object(ObjectComposition composition)
+        {
+            if (composition == null)
+                return new Definition<>(null, null, null);
+            return new Definition<>(composition, composition.getName(), composition.getActions());
+        }
+
+        /**
+         * @return true if any action contains {@code part}, ignoring case
+         */
+        public boolean hasActionContaining(String part)
+        {
+            String lower = part.toLowerCase();
+            for (String action : lowerActions)
+            {
+                if (action != null && action.contains(lower))
+                    return true;
+            }
+            return false;
+        }
+    }
+
+    private static final class Impostor
+    {
+        private final int varbitId;
+        private final int varpId;
+        private final TIntObjectHashMap<Definition<ObjectComposition>> byValue = new TIntObjectHashMap<>();
+        private volatile Definition<ObjectComposition> current;
+
+        private Impostor(int varbitId, int varpId)
+        {
+            this.varbitId = varbitId;
+            this.varpId = varpId;
+        }
+    }
+}
@@ -64,7 +64,7 @@ public class DistanceOverlays extends Overlay
     private void renderTileObjects(Graphics2D graphics)
     {
         WorldPoint player = PlayerEx.getLocal().getWorldPoint();
-        for(TileObjectEx tileObjectEx : GameManager.objectList())
+        for(TileObjectEx tileObjectEx : GameManager.objectsWithin(player, 15))
         {
             if(Distance.chebyshev(player, tileObjectEx.getWorldPoint()) > 15)
                 continue;
@@ -3,13 +3,14 @@ package com.tonic.services;
 import com.tonic.Logger;
 import com.tonic.Static;
 import com.tonic.api.entities.TileObjectAPI;
-import com.tonic.api.game.SceneAPI;
 import com.tonic.api.threaded.Delays;
 import com.tonic.api.widgets.MiniMapAPI;
 import com.tonic.api.widgets.WidgetAPI;
 import com.tonic.api.widgets.WorldMapAPI;
 import com.tonic.data.LayoutView;
 import com.tonic.data.LoginResponse;
+import com.tonic.data.wrappers.ActorEx;
+import com.tonic.data.wrappers.ActorSnapshot;
 import com.tonic.data.wrappers.NpcEx;
 import com.tonic.data.wrappers.PlayerEx;
 import com.tonic.data.wrappers.TileItemEx;
@@ -20,14 +21,13 @@ import com.tonic.services.mouse.MovementVisualizationOverlay;
 import com.tonic.services.pathfinder.abstractions.IPathfinder;
 import com.tonic.services.pathfinder.abstractions.IStep;
 import com.tonic.services.pathfinder.Walker;
+import com.tonic.services.pathfinder.local.ReachabilityMap;
 import com.tonic.services.pathfinder.model.WalkerPath;
 import com.tonic.services.pathfinder.transports.TransportLoader;
 import com.tonic.services.stratpath.StratPathOverlay;
 import com.tonic.util.RuneliteConfigUtil;
+import com.tonic.util.TextUtil;
 import com.tonic.util.ThreadPool;
-import com.tonic.util.WorldPointUtil;
-import gnu.trove.set.TIntSet;
-import gnu.trove.set.hash.TIntHashSet;
 import lombok.Getter;
 import net.runelite.api.*;
 import net.runelite.api.Point;
@@ -44,15 +44,11 @@ import java.awt.*;
 import java.util.*;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import java.util.ArrayDeque;
-import java.util.Deque;
 import java.util.ArrayList;
 import java.util.Set;
 import java.util.Collections;
-import java.util.IdentityHashMap;
 
 /**
  * GameManager
@@ -63,18 +59,20 @@ public class GameManager extends Overlay {
     {
         return INSTANCE.tickCount;
     }
-    private static int lastUpdateTileObjects = 0;
-    private static int lastUpdatePlayers = 0;
-    private static int lastUpdateNpcs = 0;
-    private static int lastUpdateReachableTiles = 0;
-    private static int lastUpdateTileItems = 0;
-    private static final List<TileObjectEx> tileObjects = new ArrayList<>();
-    private static final List<NpcEx> npcs = new ArrayList<>();
-    private static final List<PlayerEx> players = new ArrayList<>();
-    private static final List<TileItemEx> tileItemCache = new CopyOnWriteArrayList<>();
+    private static final SceneObjectIndex objectIndex = new SceneObjectIndex();
+    private static final Set<Integer> dirtyObjectViews = ConcurrentHashMap.newKeySet();
+    private static volatile List<TileObjectEx> tileObjects = Collections.emptyList();
+    private static volatile int tileObjectsVersion = -1;
+    private static volatile ActorSnapshot<NpcEx> npcSnapshot;
+    private static volatile ActorSnapshot<PlayerEx> playerSnapshot;
+    private static final GroundItemTracker groundItems = new GroundItemTracker();
     private static WalkerPath walkerPath;
-    private static final TIntSet reachableTiles = new TIntHashSet();
+    private static final ReachabilityMap reachability = new ReachabilityMap();
+    private static volatile int reachabilityTick = -1;
+    private static volatile int reachabilityVersion = -1;
     private static final Set<Integer> worldViews = ConcurrentHashMap.newKeySet();
+    private static final WidgetIndex widgetIndex = new WidgetIndex();
+    private static final DefinitionCache definitions = new DefinitionCache();
 
     public static Stream<PlayerEx> playerStream()
     {
@@ -87,73 +85,146 @@ public class GameManager extends Overlay {
     }
 
     public static List<PlayerEx> playerList()
+    {
+        return playerSnapshot().getList();
+    }
+
+    public static List<NpcEx> npcList()
+    {
+        return npcSnapshot().getList();
+    }
+
+    /**
+     * The players of the current tick, with id and name indexes. Built once per tick on the client thread.
+     */
+    public static ActorSnapshot<PlayerEx> playerSnapshot()
     {
         Client client = Static.getClient();
+        ActorSnapshot<PlayerEx> snapshot = playerSnapshot;
+        if(snapshot == null || snapshot.getTick() != client.getTickCount())
+        {
+            Static.invoke(() -> {
+                refreshActorSnapshots();
+                return null;
+            });
+            snapshot = playerSnapshot;
+        }
+        return snapshot;
+    }
 
-        if (lastUpdatePlayers < client.getTickCount())
+    /**
+     * The NPCs of the current tick, with id and name indexes. Built once per tick on the client thread.
+     */
+    public static ActorSnapshot<NpcEx> npcSnapshot()
+    {
+        Client client = Static.getClient();
+        ActorSnapshot<NpcEx> snapshot = npcSnapshot;
+        if(snapshot == null || snapshot.getTick() != client.getTickCount())
         {
-            players.clear();
-            for(int id : worldViews)
-            {
-                WorldView wv = client.getWorldView(id);
-                if(wv == null)
-                    continue;
-                players.addAll(Static.invoke(() ->
-                        wv.players().stream()
-                                .map(PlayerEx::new)
-                                .collect(Collectors.toList())
-                ));
-            }
-            lastUpdatePlayers = client.getTickCount();
+            Static.invoke(() -> {
+                refreshActorSnapshots();
+                return null;
+            });
+            snapshot = npcSnapshot;
         }
+        return snapshot;
+    }
 
-        return players;
+    /**
+     * @return the pooled wrapper of an actor from the latest snapshots, or null if it is not in them
+     */
+    public static ActorEx<?> getWrapper(Actor actor)
+    {
+        if(actor instanceof NPC)
+        {
+            ActorSnapshot<NpcEx> snapshot = npcSnapshot;
+            return snapshot == null ? null : snapshot.get(actor);
+        }
+        ActorSnapshot<PlayerEx> snapshot = playerSnapshot;
+        return snapshot == null ? null : snapshot.get(actor);
     }
 
-    public static List<NpcEx> npcList()
+    /**
+     * Read every NPC and player of the loaded world views into new snapshots, reusing the wrappers of
+     * actors that are still there. Runs on the client thread, at most once per tick.
+     */
+    private static void refreshActorSnapshots()
     {
         Client client = Static.getClient();
+        int tick = client.getTickCount();
+        ActorSnapshot<NpcEx> lastNpcs = npcSnapshot;
+        ActorSnapshot<PlayerEx> lastPlayers = playerSnapshot;
+        if(lastNpcs != null && lastPlayers != null && lastNpcs.getTick() == tick && lastPlayers.getTick() == tick)
+            return;
 
-        if (lastUpdateNpcs < client.getTickCount())
+        List<NPC> npcs = new ArrayList<>();
+        List<Player> players = new ArrayList<>();
+        for(int id : worldViews)
         {
-            npcs.clear();
-            for(int id : worldViews)
-            {
-                WorldView wv = client.getWorldView(id);
-                if(wv == null)
-                    continue;
-                npcs.addAll(Static.invoke(() ->
-                        wv.npcs().stream()
-                                .map(NpcEx::new)
-                                .collect(Collectors.toList())
-                ));
-            }
-            lastUpdateNpcs = client.getTickCount();
+            WorldView wv = client.getWorldView(id);
+            if(wv == null)
+                continue;
+            for(NPC npc : wv.npcs())
+                npcs.add(npc);
+            for(Player player : wv.players())
+                players.add(player);
         }
 
-        return npcs;
+        String[] options = client.getPlayerOptions();
+        String[] playerOptions = new String[options.length];
+        for(int i = 0; i < options.length; i++)
+        {
+            playerOptions[i] = options[i] == null ? null : TextUtil.sanitize(options[i]);
+        }
+
+        npcSnapshot = ActorSnapshot.build(tick, npcs, lastNpcs, NpcEx::new, definitions, null);
+        playerSnapshot = ActorSnapshot.build(tick, players, lastPlayers, PlayerEx::new, definitions, playerOptions);
+    }
+
+    /**
+     * Changes whenever an object spawns or despawns or a scene is rescanned, which is when collision
+     * flags change, so anything derived from the flags can tell whether it is stale
+     */
+    public static int getCollisionVersion()
+    {
+        return objectIndex.getVersion();
     }
 
     public static boolean isReachable(WorldPoint worldPoint)
     {
-        return isReachable(WorldPointUtil.compress(worldPoint));
+        return reachability().isReachable(worldPoint);
     }
 
     public static boolean isReachable(int x, int y, int plane)
     {
-        return isReachable(WorldPointUtil.compress(x, y, plane));
+        return reachability().isReachable(x, y, plane);
     }
 
     public static boolean isReachable(int compressed)
+    {
+        return reachability().isReachable(compressed);
+    }
+
+    /**
+     * The tiles reachable from the local player. Checked at most once per tick or collision change on the
+     * client thread, and only searched again when the player left the reachable area or collision changed.
+     */
+    public static ReachabilityMap reachability()
     {
         Client client = Static.getClient();
-        if(lastUpdateReachableTiles < client.getTickCount())
+        int tick = client.getTickCount();
+        int version = getCollisionVersion();
+        if(reachabilityTick != tick || reachabilityVersion != version)
         {
-            reachableTiles.clear();
-            reachableTiles.addAll(SceneAPI.reachableTilesCompressed(PlayerEx.getLocal().getWorldPoint()));
-            lastUpdateReachableTiles = client.getTickCount();
+            Static.invoke(() -> {
+                Player local = client.getLocalPlayer();
+                reachability.update(client.getTopLevelWorldView(), local == null ? null : local.getWorldLocation(), version);
+                return null;
+            });
+            reachabilityTick = tick;
+            reachabilityVersion = version;
         }
-        return reachableTiles.contains(compressed);
+        return reachability;
     }
 
     public static List<Tile> getTiles()
@@ -181,56 +252,134 @@ public class GameManager extends Overlay {
         return objectList().stream();
     }
 
+    /**
+     * Objects on the current plane of every loaded world view. Read from the object index, which the
+     * client thread keeps up to date, so this never waits for the client thread.
+     */
     public static List<TileObjectEx> objectList()
     {
-        Client client = Static.getClient();
-
-        if (lastUpdateTileObjects < client.getTickCount())
+        int version = objectIndex.getVersion();
+        if (version != tileObjectsVersion)
         {
-            tileObjects.clear();
+            List<TileObjectEx> objects = new ArrayList<>(Math.max(16, tileObjects.size()));
+            objectIndex.collect(objects);
+            tileObjects = Collections.unmodifiableList(objects);
+            tileObjectsVersion = version;
+        }
 
-            ArrayList<TileObjectEx> objects = Static.invoke(() -> {
-                ArrayList<TileObjectEx> temp = new ArrayList<>();
-                for(int wv : worldViews)
-                {
-                    WorldView worldView = client.getWorldView(wv);
-                    if(worldView == null)
-                        continue;
-
-                    Tile[][] value = worldView.getScene().getTiles()[worldView.getPlane()];
-                    for (Tile[] item : value) {
-                        for (Tile tile : item) {
-                            if (tile != null) {
-                                if (tile.getGameObjects() != null) {
-                                    for (GameObject gameObject : tile.getGameObjects()) {
-                                        if (gameObject != null && gameObject.getSceneMinLocation().equals(tile.getSceneLocation())) {
-                                            if((gameObject.getHash() >>> 16 & 0x7L) != 2)
-                                                continue;
-                                            temp.add(new TileObjectEx(gameObject));
-                                        }
-                                    }
-                                }
-                                if (tile.getWallObject() != null) {
-                                    temp.add(new TileObjectEx(tile.getWallObject()));
-                                }
-                                if (tile.getDecorativeObject() != null) {
-                                    temp.add(new TileObjectEx(tile.getDecorativeObject()));
-                                }
-                                if (tile.getGroundObject() != null) {
-                                    temp.add(new TileObjectEx(tile.getGroundObject()));
-                                }
+        return tileObjects;
+    }
+
+    /**
+     * Objects on the current plane with any of the given ids, looked up in the object index
+     * without going through the full object list.
+     */
+    public static List<TileObjectEx> objectsWithId(int... ids)
+    {
+        List<TileObjectEx> objects = new ArrayList<>();
+        objectIndex.collectById(ids, objects);
+        return objects;
+    }
+
+    /**
+     * Objects on the current plane whose south-west tile is within {@code radius} tiles (Chebyshev)
+     * of a point. Only the 8x8 chunks overlapping the area are visited.
+     */
+    public static List<TileObjectEx> objectsWithin(WorldPoint center, int radius)
+    {
+        List<TileObjectEx> objects = new ArrayList<>();
+        objectIndex.collectWithin(center.getX(), center.getY(), radius, objects);
+        return objects;
+    }
+
+    /**
+     * Rescan the objects of a world view. Runs on the client thread once its scene has loaded, holding the
+     * index so readers see either the old objects or all of the new ones.
+     */
+    private static void rescanObjects(Client client, int id)
+    {
+        dirtyObjectViews.remove(id);
+        WorldView worldView = client.getWorldView(id);
+        synchronized (objectIndex)
+        {
+            objectIndex.clearView(id);
+            if(worldView == null || worldView.getScene() == null)
+                return;
+
+            objectIndex.setView(id, worldView.getPlane(), worldView.getBaseX(), worldView.getBaseY());
+            Tile[][][] tiles = worldView.getScene().getTiles();
+            for (Tile[][] plane : tiles) {
+                for (Tile[] row : plane) {
+                    for (Tile tile : row) {
+                        if (tile == null)
+                            continue;
+                        if (tile.getGameObjects() != null) {
+                            for (GameObject gameObject : tile.getGameObjects()) {
+                                indexObject(id, tile, gameObject);
                             }
                         }
+                        indexObject(id, tile, tile.getWallObject());
+                        indexObject(id, tile, tile.getDecorativeObject());
+                        indexObject(id, tile, tile.getGroundObject());
                     }
                 }
-                return temp;
-            });
+            }
+        }
+    }
 
-            tileObjects.addAll(objects);
-            lastUpdateTileObjects = client.getTickCount();
+    /**
+     * Copy the current plane of every loaded world view into the object index. Runs on the client thread.
+     * Views waiting for their rescan keep the base their indexed objects belong to.
+     */
+    private static void syncObjectViews(Client client)
+    {
+        for(int id : worldViews)
+        {
+            WorldView worldView = client.getWorldView(id);
+            if(worldView != null && !dirtyObjectViews.contains(id))
+                objectIndex.setView(id, worldView.getPlane(), worldView.getBaseX(), worldView.getBaseY());
         }
+    }
+
+    private static void indexObject(int worldView, Tile tile, TileObject object)
+    {
+        if(object == null)
+            return;
+
+        if(object instanceof GameObject)
+        {
+            //scene entities (players, npcs, projectiles) are game objects too
+            if((object.getHash() >>> 16 & 0x7L) != 2)
+                return;
+            Point min = ((GameObject) object).getSceneMinLocation();
+            objectIndex.add(object, worldView, tile.getPlane(), min.getX(), min.getY());
+            return;
+        }
+
+        Point location = tile.getSceneLocation();
+        objectIndex.add(object, worldView, tile.getPlane(), location.getX(), location.getY());
+    }
+
+    private static void onObjectSpawned(Tile tile, TileObject object)
+    {
+        if(tile == null || object == null)
+            return;
+        //also indexed while the view is waiting for its rescan, which replaces whatever was collected meanwhile
+        indexObject(worldViewOf(object), tile, object);
+    }
 
-        return GameManager.tileObjects;
+    private static void onObjectDespawned(TileObject object)
+    {
+        if(object != null)
+            objectIndex.remove(object);
+    }
+
+    private static int worldViewOf(TileObject object)
+    {
+        WorldView worldView = object.getWorldView();
+        if(worldView == null)
+            worldView = ((Client) Static.getClient()).getTopLevelWorldView();
+        return worldView == null ? -1 : worldView.getId();
     }
 
     public static Stream<TileItemEx> tileItemStream()
@@ -238,44 +387,76 @@ public class GameManager extends Overlay {
         return tileItemList().stream();
     }
 
+    /**
+     * Ground items on the current plane of the top level scene, read-only, tracked from item events
+     */
     public static List<TileItemEx> tileItemList()
     {
         Client client = Static.getClient();
-        if(lastUpdateTileItems < client.getTickCount())
-        {
-            tileItemCache.clear();
-            tileItemCache.addAll(Static.invoke(() -> {
-                ArrayList<TileItemEx> temp = new ArrayList<>();
-                WorldView wv = client.getTopLevelWorldView();
-                Tile[][] value = wv.getScene().getTiles()[wv.getPlane()];
-                for(int x = 0; x < value.length; x++)
-                {
-                    for (int y = 0; y < value[x].length; y++)
-                    {
-                        Tile tile = value[x][y];
-                        if (tile != null) {
-                            if(tile.getGroundItems() != null)
-                            {
-                                for(TileItem tileItem : tile.getGroundItems())
-                                {
-                                    if(tileItem != null)
-                                    {
-                                        WorldPoint wp = WorldPoint.fromScene(wv, x, y, wv.getPlane());
-                                        TileItemEx itemEx = new TileItemEx(tileItem, wp);
-                                        temp.add(itemEx);
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-                return temp;
-            }));
+        refreshGroundItems();
+        WorldView worldView = client.getTopLevelWorldView();
+        return worldView == null ? Collections.emptyList() : groundItems.list(worldView.getPlane());
+    }
 
-            lastUpdateTileItems = client.getTickCount();
-        }
+    /**
+     * Ground items on a tile, looked up without going through the full item list
+     */
+    public static List<TileItemEx> tileItemsAt(WorldPoint worldPoint)
+    {
+        refreshGroundItems();
+        List<TileItemEx> items = new ArrayList<>();
+        groundItems.collectAt(worldPoint, items);
+        return items;
+    }
 
-        return tileItemCache;
+    /**
+     * Ground items on the current plane with any of the given ids, looked up without going through the
+     * full item list
+     */
+    public static List<TileItemEx> tileItemsWithId(int... ids)
+    {
+        Client client = Static.getClient();
+        refreshGroundItems();
+        List<TileItemEx> items = new ArrayList<>();
+        WorldView worldView = client.getTopLevelWorldView();
+        if(worldView != null)
+            groundItems.collectById(worldView.getPlane(), ids, items);
+        return items;
+    }
+
+    /**
+     * Rescan the top level scene if its items were not tracked by events, e.g. while it was loading.
+     */
+    private static void refreshGroundItems()
+    {
+        if(!groundItems.isDirty())
+            return;
+
+        Static.invoke(() -> {
+            Client client = Static.getClient();
+            if(groundItems.isDirty())
+                groundItems.reconcile(client.getTopLevelWorldView(), client.getTickCount());
+            return null;
+        });
+    }
+
+    /**
+     * @return the tile's position if it belongs to the top level scene, which is all the item list covers
+     */
+    private static WorldPoint topLevelLocation(Tile tile)
+    {
+        Client client = Static.getClient();
+        WorldView worldView = client.getTopLevelWorldView();
+        if(tile == null || worldView == null || worldView.getScene() == null)
+            return null;
+        Point location = tile.getSceneLocation();
+        int plane = tile.getPlane();
+        Tile[][][] tiles = worldView.getScene().getTiles();
+        if(plane < 0 || plane >= tiles.length || location.getX() < 0 || location.getY() < 0
+                || location.getX() >= tiles[plane].length || location.getY() >= tiles[plane][location.getX()].length
+                || tiles[plane][location.getX()][location.getY()] != tile)
+            return null;
+        return WorldPoint.fromScene(worldView, location.getX(), location.getY(), plane);
     }
 
     public static Stream<Widget> widgetStream()
@@ -284,93 +465,31 @@ public class GameManager extends Overlay {
     }
 
     public static List<Widget> widgetList() {
-        return Static.invoke(() -> {
-            Widget[] roots = ((Client) Static.getClient()).getWidgetRoots();
-
-            List<Widget> result = new ArrayList<>(256);
-            Set<Widget> visited = Collections.newSetFromMap(new IdentityHashMap<>());
-            Deque<Widget> toProcess = new ArrayDeque<>();
-            addNonNull(toProcess, roots);
-            while (!toProcess.isEmpty()) {
-                Widget widget = toProcess.pop();
-
-                if (!visited.add(widget)) {
-                    continue;
-                }
-
-                result.add(widget);
-                addNonNull(toProcess, widget.getChildren());
-                addNonNull(toProcess, widget.getStaticChildren());
-                addNonNull(toProcess, widget.getDynamicChildren());
-                addNonNull(toProcess, widget.getNestedChildren());
-            }
-
-            return result;
-        });
+        return widgetIndex.getAll();
     }
 
     public static List<Widget> widgetList(Widget... roots) {
-        return Static.invoke(() -> {
-            List<Widget> result = new ArrayList<>(256);
-            Set<Widget> visited = Collections.newSetFromMap(new IdentityHashMap<>());
-            Deque<Widget> toProcess = new ArrayDeque<>();
-            addNonNull(toProcess, roots);
-            while (!toProcess.isEmpty()) {
-                Widget widget = toProcess.pop();
-
-                if (!visited.add(widget)) {
-                    continue;
-                }
-
-                result.add(widget);
-                addNonNull(toProcess, widget.getChildren());
-                addNonNull(toProcess, widget.getStaticChildren());
-                addNonNull(toProcess, widget.getDynamicChildren());
-                addNonNull(toProcess, widget.getNestedChildren());
-            }
-
-            return result;
-        });
+        return widgetIndex.subtree(roots);
     }
 
     public static List<Widget> widgetList(int... rootIds) {
-        Widget[] roots = new Widget[rootIds.length];
-        for(int i = 0; i < rootIds.length; i++)
-        {
-            roots[i] = WidgetAPI.get(rootIds[i]);
-        }
-
-        return Static.invoke(() -> {
-            List<Widget> result = new ArrayList<>(256);
-            Set<Widget> visited = Collections.newSetFromMap(new IdentityHashMap<>());
-            Deque<Widget> toProcess = new ArrayDeque<>();
-            addNonNull(toProcess, roots);
-            while (!toProcess.isEmpty()) {
-                Widget widget = toProcess.pop();
-
-                if (!visited.add(widget)) {
-                    continue;
-                }
-
-                result.add(widget);
-                addNonNull(toProcess, widget.getChildren());
-                addNonNull(toProcess, widget.getStaticChildren());
-                addNonNull(toProcess, widget.getDynamicChildren());
-                addNonNull(toProcess, widget.getNestedChildren());
-            }
+        return widgetIndex.subtree(rootIds);
+    }
 
-            return result;
-        });
+    /**
+     * The widget tree, walked once per change instead of once per query, with group, text and action lookups
+     */
+    public static WidgetIndex widgetIndex()
+    {
+        return widgetIndex;
     }
 
-    private static void addNonNull(Deque<Widget> stack, Widget[] widgets) {
-        if (widgets != null) {
-            for (Widget w : widgets) {
-                if (w != null) {
-                    stack.push(w);
-                }
-            }
-        }
+    /**
+     * Object and NPC definitions with sanitized names and actions, resolved once instead of per getter call
+     */
+    public static DefinitionCache definitions()
+    {
+        return definitions;
     }
 
 
@@ -501,6 +620,9 @@ public class GameManager extends Overlay {
     protected void onGameTick(GameTick event)
     {
         tickCount++;
+        refreshActorSnapshots();
+        //world views such as boats don't report their plane changes
+        syncObjectViews(Static.getClient());
         if(walkerPath != null && !walkerPath.step())
         {
             walkerPath = null;
@@ -525,18 +647,147 @@ public class GameManager extends Overlay {
     {
         if(event.getGameState() == GameState.LOGIN_SCREEN || event.getGameState() == GameState.HOPPING)
             tickCount = 0;
+
+        widgetIndex.invalidate();
+        //vars are reloaded on login and their change events can't be relied on meanwhile
+        definitions.invalidateImpostors();
+
+        //the scene is rebuilt while loading, rescan it once it is loaded instead of trusting the events
+        if(event.getGameState() == GameState.LOADING || event.getGameState() == GameState.LOGIN_SCREEN
+                || event.getGameState() == GameState.HOPPING)
+        {
+            dirtyObjectViews.addAll(worldViews);
+            groundItems.markDirty();
+        }
+        else if(event.getGameState() == GameState.LOGGED_IN)
+        {
+            Client client = Static.getClient();
+            for(int id : dirtyObjectViews)
+                rescanObjects(client, id);
+        }
+    }
+
+    @Subscribe
+    public void onVarbitChanged(VarbitChanged event)
+    {
+        definitions.onVarChanged(event.getVarpId(), event.getVarbitId());
+    }
+
+    @Subscribe
+    public void onWidgetLoaded(WidgetLoaded event)
+    {
+        widgetIndex.invalidate();
+    }
+
+    @Subscribe
+    public void onWidgetClosed(WidgetClosed event)
+    {
+        widgetIndex.invalidate();
+    }
+
+    @Subscribe
+    public void onScriptPostFired(ScriptPostFired event)
+    {
+        widgetIndex.invalidateNextFrame();
+    }
+
+    @Subscribe
+    public void onClientTick(ClientTick event)
+    {
+        widgetIndex.onFrame();
     }
 
     @Subscribe
     public void onWorldViewLoaded(WorldViewLoaded event)
     {
-        worldViews.add(event.getWorldView().getId());
+        int id = event.getWorldView().getId();
+        worldViews.add(id);
+        rescanObjects(Static.getClient(), id);
     }
 
     @Subscribe
     public void onWorldViewUnloaded(WorldViewUnloaded event)
     {
-        worldViews.remove(event.getWorldView().getId());
+        int id = event.getWorldView().getId();
+        worldViews.remove(id);
+        dirtyObjectViews.remove(id);
+        objectIndex.clearView(id);
+    }
+
+    @Subscribe
+    public void onPlaneChanged(PlaneChanged event)
+    {
+        syncObjectViews(Static.getClient());
+    }
+
+    @Subscribe
+    public void onItemSpawned(ItemSpawned event)
+    {
+        WorldPoint worldPoint = topLevelLocation(event.getTile());
+        if(worldPoint != null && event.getItem() != null)
+            groundItems.add(event.getItem(), worldPoint, ((Client) Static.getClient()).getTickCount());
+    }
+
+    @Subscribe
+    public void onItemDespawned(ItemDespawned event)
+    {
+        if(event.getItem() != null)
+            groundItems.remove(event.getItem());
+    }
+
+    @Subscribe
+    public void onItemQuantityChanged(ItemQuantityChanged event)
+    {
+        if(event.getItem() != null)
+            groundItems.quantityChanged(event.getItem());
+    }
+
+    @Subscribe
+    public void onGameObjectSpawned(GameObjectSpawned event)
+    {
+        onObjectSpawned(event.getTile(), event.getGameObject());
+    }
+
+    @Subscribe
+    public void onGameObjectDespawned(GameObjectDespawned event)
+    {
+        onObjectDespawned(event.getGameObject());
+    }
+
+    @Subscribe
+    public void onWallObjectSpawned(WallObjectSpawned event)
+    {
+        onObjectSpawned(event.getTile(), event.getWallObject());
+    }
+
+    @Subscribe
+    public void onWallObjectDespawned(WallObjectDespawned event)
+    {
+        onObjectDespawned(event.getWallObject());
+    }
+
+    @Subscribe
+    public void onDecorativeObjectSpawned(DecorativeObjectSpawned event)
+    {
+        onObjectSpawned(event.getTile(), event.getDecorativeObject());
+    }
+
+    @Subscribe
+    public void onDecorativeObjectDespawned(DecorativeObjectDespawned event)
+    {
+        onObjectDespawned(event.getDecorativeObject());
+    }
+
+    @Subscribe
+    public void onGroundObjectSpawned(GroundObjectSpawned event)
+    {
+        onObjectSpawned(event.getTile(), event.getGroundObject());
+    }
+
+    @Subscribe
+    public void onGroundObjectDespawned(GroundObjectDespawned event)
+    {
+        onObjectDespawned(event.getGroundObject());
     }
 
     @Subscribe
@@ -0,0 +1,300 @@
+package com.tonic.services;
+
+import com.tonic.data.wrappers.TileItemEx;
+import com.tonic.util.WorldPointUtil;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import net.runelite.api.Tile;
+import net.runelite.api.TileItem;
+import net.runelite.api.WorldView;
+import net.runelite.api.coords.WorldPoint;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ground items of the top level scene, kept up to date from spawn, despawn and quantity events instead of
+ * rescanning every tile each tick.
+ *
+ * Each item gets one {@link TileItemEx} for as long as it is on the ground, so the same item compares equal
+ * between queries and keeps the tick it was first seen. Items are bucketed by compressed world point
+ * ({@link WorldPointUtil#compress(WorldPoint)}) and into an id multimap.
+ *
+ * Events can't be trusted while a region loads, so the tracker is marked dirty then and the next read
+ * reconciles it against one full scan, keeping the wrappers of items that are still there.
+ *
+ * Mutations happen on the client thread; reads may come from any thread, so every method locks the tracker.
+ */
+public class GroundItemTracker
+{
+    private static final Comparator<Entry> SCAN_ORDER = Comparator
+            .comparingInt((Entry e) -> WorldPointUtil.getCompressedX(e.key))
+            .thenComparingInt(e -> WorldPointUtil.getCompressedY(e.key))
+            .thenComparingLong(e -> e.order);
+
+    private final Map<TileItem, Entry> entries = new IdentityHashMap<>();
+    private final TIntObjectHashMap<List<Entry>> byTile = new TIntObjectHashMap<>();
+    private final TIntObjectHashMap<List<Entry>> byId = new TIntObjectHashMap<>();
+    private volatile int version = 0;
+    private volatile boolean dirty = true;
+    private long order = 0;
+    private List<TileItemEx> list = Collections.emptyList();
+    private int listVersion = -1;
+    private int listPlane = -1;
+
+    /**
+     * Track an item that appeared on the ground
+     *
+     * @return false if the item was already tracked at that point
+     */
+    public synchronized boolean add(TileItem item, WorldPoint worldPoint, int tick)
+    {
+        int key = WorldPointUtil.compress(worldPoint);
+        Entry entry = entries.get(item);
+        if (entry != null)
+        {
+            if (entry.key == key)
+                return false;
+            //same item, new point: keep when it was first seen
+            tick = entry.item.getFirstSeenTick();
+            removeEntry(entry);
+        }
+
+        entry = new Entry(new TileItemEx(item, worldPoint, tick), key, item.getId(), order++);
+        entries.put(item, entry);
+        bucket(byTile, key).add(entry);
+        bucket(byId, entry.id).add(entry);
+        version++;
+        return true;
+    }
+
+    /**
+     * @return false if the item was not tracked
+     */
+    public synchronized boolean remove(TileItem item)
+    {
+        Entry entry = entries.get(item);
+        if (entry == null)
+            return false;
+        removeEntry(entry);
+        version++;
+        return true;
+    }
+
+    /**
+     * A stack changed size. Wrappers read the quantity from the item, so only the version changes.
+     */
+    public synchronized void quantityChanged(TileItem item)
+    {
+        if (entries.containsKey(item))
+            version++;
+    }
+
+    /**
+     * Reconcile on the next read, e.g. while a region loads
+     */
+    public void markDirty()
+    {
+        dirty = true;
+    }
+
+    public boolean isDirty()
+    {
+        return dirty;
+    }
+
+    /**
+     * Bring the tracker in line with a full scan of the scene: items no longer on the ground are dropped,
+     * new ones are added with {@code tick} as the tick they were first seen. Must run on the client thread.
+     */
+    public synchronized void reconcile(WorldView worldView, int tick)
+    {
+        //cleared first: events that come in from here on are applied on top of this scan
+        dirty = false;
+        Set<TileItem> found = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (worldView != null && worldView.getScene() != null)
+        {
+            Tile[][][] tiles = worldView.getScene().getTiles();
+            for (int z = 0; z < tiles.length; z++)
+            {
+                for (int x = 0; x < tiles[z].length; x++)
+                {
+                    for (int y = 0; y < tiles[z][x].length; y++)
+                    {
+                        Tile tile = tiles[z][x][y];
+                        if (tile == null || tile.getGroundItems() == null)
+                            continue;
+                        for (TileItem item : tile.getGroundItems())
+                        {
+                            if (item == null)
+                                continue;
+                            found.add(item);
+                            add(item, WorldPoint.fromScene(worldView, x, y, z), tick);
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Entry> gone = new ArrayList<>();
+        for (Entry entry : entries.values())
+        {
+            if (!found.contains(entry.item.getItem()))
+                gone.add(entry);
+        }
+        for (Entry entry : gone)
+            removeEntry(entry);
+        version++;
+    }
+
+    public synchronized void clear()
+    {
+        entries.clear();
+        byTile.clear();
+        byId.clear();
+        version++;
+    }
+
+    /**
+     * Incremented on every change, so readers can tell whether a list built earlier is stale
+     */
+    public int getVersion()
+    {
+        return version;
+    }
+
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * @return the wrapper of a tracked item, or null
+     */
+    public synchronized TileItemEx get(TileItem item)
+    {
+        Entry entry = entries.get(item);
+        return entry == null ? null : entry.item;
+    }
+
+    /**
+     * @return every item on a plane, read-only, column by column like a scan of the scene. Rebuilt only
+     * when the tracker changed.
+     */
+    public synchronized List<TileItemEx> list(int plane)
+    {
+        if (listVersion == version && listPlane == plane)
+            return list;
+
+        List<Entry> onPlane = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values())
+        {
+            if (WorldPointUtil.getCompressedPlane(entry.key) == plane)
+                onPlane.add(entry);
+        }
+        onPlane.sort(SCAN_ORDER);
+        List<TileItemEx> items = new ArrayList<>(onPlane.size());
+        for (Entry entry : onPlane)
+            items.add(entry.item);
+        list = Collections.unmodifiableList(items);
+        listVersion = version;
+        listPlane = plane;
+        return list;
+    }
+
+    /**
+     * Add the items on a tile to {@code out}
+     */
+    public synchronized void collectAt(WorldPoint worldPoint, List<TileItemEx> out)
+    {
+        List<Entry> bucket = byTile.get(WorldPointUtil.compress(worldPoint));
+        if (bucket == null)
+            return;
+        for (Entry entry : bucket)
+            out.add(entry.item);
+    }
+
+    /**
+     * Add the items on a plane with any of the given ids to {@code out}
+     */
+    public synchronized void collectById(int plane, int[] ids, List<TileItemEx> out)
+    {
+        for (int i = 0; i < ids.length; i++)
+        {
+            List<Entry> sameId = byId.get(ids[i]);
+            if (sameId == null || isRepeated(ids, i))
+                continue;
+            for (Entry entry : sameId)
+            {
+                if (WorldPointUtil.getCompressedPlane(entry.key) == plane)
+                    out.add(entry.item);
+            }
+        }
+    }
+
+    private void removeEntry(Entry entry)
+    {
+        entries.remove(entry.item.getItem());
+        unbucket(byTile, entry.key, entry);
+        unbucket(byId, entry.id, entry);
+    }
+
+    private static List<Entry> bucket(TIntObjectHashMap<List<Entry>> map, int key)
+    {
+        List<Entry> bucket = map.get(key);
+        if (bucket == null)
+        {
+            bucket = new ArrayList<>(2);
+            map.put(key, bucket);
+        }
+        return bucket;
+    }
+
+    private static void unbucket(TIntObjectHashMap<List<Entry>> map, int key, Entry entry)
+    {
+        List<Entry> bucket = map.get(key);
+        if (bucket == null)
+            return;
+        //keeps the order of the rest, piles are small
+        for (int i = 0; i < bucket.size(); i++)
+        {
+            if (bucket.get(i) == entry)
+            {
+                bucket.remove(i);
+                break;
+            }
+        }
+        if (bucket.isEmpty())
+            map.remove(key);
+    }
+
+    private static boolean isRepeated(int[] ids, int index)
+    {
+        for (int i = 0; i < index; i++)
+        {
+            if (ids[i] == ids[index])
+                return true;
+        }
+        return false;
+    }
+
+    private static final class Entry
+    {
+        private final TileItemEx item;
+        private final int key;
+        private final int id;
+        private final long order;
+
+        private Entry(TileItemEx item, int key, int id, long order)
+        {
+            this.item = item;
+            this.key = key;
+            this.id = id;
+            this.order = order;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.tonic.services;
+
+import com.tonic.data.wrappers.TileObjectEx;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import net.runelite.api.TileObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tile objects of every loaded world view, kept up to date from spawn and despawn events instead of
+ * rescanning the scene.
+ *
+ * Each object gets one {@link TileObjectEx} for as long as it is indexed, so the same object compares
+ * equal between queries. Objects are bucketed per world view and plane into 8x8 chunks of scene tiles
+ * for radius queries, and into an id multimap for id queries.
+ *
+ * The index also holds each world view's current plane and scene base, set with {@link #setView}, so
+ * queries never have to touch the client. Mutations happen on the client thread; reads may come from any
+ * thread, so every method locks the index. Lock it yourself to make several changes visible at once.
+ */
+public class SceneObjectIndex
+{
+    private static final int CHUNK_SHIFT = 3;
+    private static final int PLANES = 4;
+
+    private final Map<TileObject, Entry> entries = new IdentityHashMap<>();
+    private final Map<Integer, View> views = new HashMap<>();
+    private final TIntObjectHashMap<List<Entry>> byId = new TIntObjectHashMap<>();
+    private volatile int version = 0;
+
+    /**
+     * Index an object at the given scene tile. Adding an object that is already indexed does nothing,
+     * so objects that span several tiles may be reported once per tile.
+     *
+     * @return false if the object was already indexed
+     */
+    public synchronized boolean add(TileObject object, int worldView, int plane, int sceneX, int sceneY)
+    {
+        if (entries.containsKey(object) || plane < 0 || plane >= PLANES)
+            return false;
+
+        Entry entry = new Entry(new TileObjectEx(object), worldView, plane, sceneX, sceneY, object.getId());
+        entries.put(object, entry);
+        view(worldView).bucket(plane, sceneX, sceneY, true).add(entry);
+        List<Entry> sameId = byId.get(entry.id);
+        if (sameId == null)
+        {
+            sameId = new ArrayList<>(2);
+            byId.put(entry.id, sameId);
+        }
+        sameId.add(entry);
+        version++;
+        return true;
+    }
+
+    /**
+     * @return false if the object was not indexed
+     */
+    public synchronized boolean remove(TileObject object)
+    {
+        Entry entry = entries.remove(object);
+        if (entry == null)
+            return false;
+
+        View view = views.get(entry.worldView);
+        if (view != null)
+        {
+            List<Entry> bucket = view.bucket(entry.plane, entry.sceneX, entry.sceneY, false);
+            if (bucket != null)
+                removeIdentity(bucket, entry);
+        }
+        List<Entry> sameId = byId.get(entry.id);
+        if (sameId != null)
+        {
+            removeIdentity(sameId, entry);
+            if (sameId.isEmpty())
+                byId.remove(entry.id);
+        }
+        version++;
+        return true;
+    }
+
+    /**
+     * Record the plane and scene base a world view currently shows. Objects of a view are only returned
+     * by queries once this has been called for it.
+     */
+    public synchronized void setView(int worldView, int plane, int baseX, int baseY)
+    {
+        if (plane >= PLANES)
+            plane = -1;
+        View view = view(worldView);
+        if (view.plane == plane && view.baseX == baseX && view.baseY == baseY)
+            return;
+        view.plane = plane;
+        view.baseX = baseX;
+        view.baseY = baseY;
+        version++;
+    }
+
+    /**
+     * Drop every object of a world view and its plane, e.g. before it is rescanned or after it unloads
+     */
+    public synchronized void clearView(int worldView)
+    {
+        View view = views.remove(worldView);
+        if (view == null)
+            return;
+
+        for (List<Entry>[] plane : view.planes)
+        {
+            if (plane == null)
+                continue;
+            for (List<Entry> bucket : plane)
+            {
+                if (bucket == null)
+                    continue;
+                for (Entry entry : bucket)
+                {
+                    entries.remove(entry.object.getTileObject());
+                    List<Entry> sameId = byId.get(entry.id);
+                    if (sameId != null)
+                    {
+                        removeIdentity(sameId, entry);
+                        if (sameId.isEmpty())
+                            byId.remove(entry.id);
+                    }
+                }
+            }
+        }
+        version++;
+    }
+
+    public synchronized void clear()
+    {
+        entries.clear();
+        views.clear();
+        byId.clear();
+        version++;
+    }
+
+    /**
+     * Incremented on every change, so readers can tell whether a list built earlier is stale
+     */
+    public int getVersion()
+    {
+        return version;
+    }
+
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * @return the wrapper of an indexed object, or null
+     */
+    public synchronized TileObjectEx get(TileObject object)
+    {
+        Entry entry = entries.get(object);
+        return entry == null ? null : entry.object;
+    }
+
+    /**
+     * Add every object on the current plane of each world view to {@code out}
+     */
+    public synchronized void collect(List<TileObjectEx> out)
+    {
+        for (View view : views.values())
+        {
+            if (view.plane < 0 || view.planes[view.plane] == null)
+                continue;
+            for (List<Entry> bucket : view.planes[view.plane])
+            {
+                if (bucket == null)
+                    continue;
+                for (Entry entry : bucket)
+                    out.add(entry.object);
+            }
+        }
+    }
+
+    /**
+     * Add the objects on the current plane of each world view with any of the given ids to {@code out}
+     */
+    public synchronized void collectById(int[] ids, List<TileObjectEx> out)
+    {
+        for (int i = 0; i < ids.length; i++)
+        {
+            List<Entry> sameId = byId.get(ids[i]);
+            if (sameId == null || isRepeated(ids, i))
+                continue;
+            for (Entry entry : sameId)
+            {
+                View view = views.get(entry.worldView);
+                if (view != null && entry.plane == view.plane)
+                    out.add(entry.object);
+            }
+        }
+    }
+
+    /**
+     * Add the objects on the current plane of each world view whose scene tile is within {@code radius}
+     * (Chebyshev) of the given world tile to {@code out}. Only the chunks overlapping the square are visited.
+     */
+    public synchronized void collectWithin(int worldX, int worldY, int radius, List<TileObjectEx> out)
+    {
+        for (View view : views.values())
+        {
+            int plane = view.plane;
+            if (plane < 0 || view.planes[plane] == null)
+                continue;
+
+            int sceneX = worldX - view.baseX;
+            int sceneY = worldY - view.baseY;
+            List<Entry>[] buckets = view.planes[plane];
+            int size = view.chunks[plane];
+            int minChunkX = Math.max(0, (sceneX - radius) >> CHUNK_SHIFT);
+            int minChunkY = Math.max(0, (sceneY - radius) >> CHUNK_SHIFT);
+            int maxChunkX = Math.min(size - 1, (sceneX + radius) >> CHUNK_SHIFT);
+            int maxChunkY = Math.min(size - 1, (sceneY + radius) >> CHUNK_SHIFT);
+            for (int cx = minChunkX; cx <= maxChunkX; cx++)
+            {
+                for (int cy = minChunkY; cy <= maxChunkY; cy++)
+                {
+                    List<Entry> bucket = buckets[cx * size + cy];
+                    if (bucket == null)
+                        continue;
+                    for (Entry entry : bucket)
+                    {
+                        if (Math.abs(entry.sceneX - sceneX) <= radius && Math.abs(entry.sceneY - sceneY) <= radius)
+                            out.add(entry.object);
+                    }
+                }
+            }
+        }
+    }
+
+    private View view(int worldView)
+    {
+        return views.computeIfAbsent(worldView, id -> new View());
+    }
+
+    private static boolean isRepeated(int[] ids, int index)
+    {
+        for (int i = 0; i < index; i++)
+        {
+            if (ids[i] == ids[index])
+                return true;
+        }
+        return false;
+    }
+
+    private static void removeIdentity(List<Entry> list, Entry entry)
+    {
+        for (int i = list.size() - 1; i >= 0; i--)
+        {
+            if (list.get(i) == entry)
+            {
+                int last = list.size() - 1;
+                list.set(i, list.get(last));
+                list.remove(last);
+                return;
+            }
+        }
+    }
+
+    private static final class Entry
+    {
+        private final TileObjectEx object;
+        private final int worldView;
+        private final int plane;
+        private final int sceneX;
+        private final int sceneY;
+        private final int id;
+
+        private Entry(TileObjectEx object, int worldView, int plane, int sceneX, int sceneY, int id)
+        {
+            this.object = object;
+            this.worldView = worldView;
+            this.plane = plane;
+            this.sceneX = sceneX;
+            this.sceneY = sceneY;
+            this.id = id;
+        }
+    }
+
+    /**
+     * Chunk buckets of one world view, per plane, as a square grid that grows with the largest
+     * scene coordinate seen (regular and extended scenes, and small world views such as boats)
+     */
+    private static final class View
+    {
+        @SuppressWarnings("unchecked")
+        private final List<Entry>[][] planes = new List[PLANES][];
+        private final int[] chunks = new int[PLANES];
+        private int plane = -1;
+        private int baseX;
+        private int baseY;
+
+        private List<Entry> bucket(int plane, int sceneX, int sceneY, boolean create)
+        {
+            int cx = Math.max(0, sceneX) >> CHUNK_SHIFT;
+            int cy = Math.max(0, sceneY) >> CHUNK_SHIFT;
+            int size = chunks[plane];
+            if (cx >= size || cy >= size)
+            {
+                if (!create)
+                    return null;
+                grow(plane, Math.max(cx, cy) + 1);
+                size = chunks[plane];
+            }
+
+            int index = cx * size + cy;
+            List<Entry> bucket = planes[plane][index];
+            if (bucket == null && create)
+            {
+                bucket = new ArrayList<>(4);
+                planes[plane][index] = bucket;
+            }
+            return bucket;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void grow(int plane, int minSize)
+        {
+            int oldSize = chunks[plane];
+            int newSize = Math.max(minSize, Math.max(13, oldSize * 2));
+            List<Entry>[] grown = new List[newSize * newSize];
+            List<Entry>[] old = planes[plane];
+            for (int cx = 0; cx < oldSize; cx++)
+                System.arraycopy(old, cx * oldSize, grown, cx * newSize, oldSize);
+            planes[plane] = grown;
+            chunks[plane] = newSize;
+        }
+    }
+}
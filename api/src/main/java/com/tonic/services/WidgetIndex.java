@@ -0,0 +1,371 @@
+package com.tonic.services;
+
+import com.tonic.Static;
+import com.tonic.api.widgets.WidgetAPI;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import net.runelite.api.Client;
+import net.runelite.api.widgets.Widget;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Every widget reachable from the widget roots, in the order of the depth-first walk that used to run on
+ * every query, kept until the widget tree changes.
+ *
+ * Loading or closing an interface (and game state changes) invalidate the index at once. Scripts can add
+ * dynamic children or change text too, but they fire many times per frame, so a script only invalidates
+ * the index for the next client tick: the first read after that tick rebuilds. Code that edits the tree
+ * itself can call {@link #invalidate()}.
+ *
+ * Group lookups are indexed during the walk. Text and action lookups are indexed on first use and each
+ * candidate is checked against the live widget, so a widget whose text changed since is never returned.
+ * Walks are done on the client thread; an unchanged index is read from any thread without allocating.
+ */
+public class WidgetIndex
+{
+    private static final int MAX_SUBTREES = 64;
+
+    private volatile Snapshot snapshot;
+    private volatile boolean structureDirty = true;
+    private volatile boolean scriptDirty = false;
+    private volatile int frame = 0;
+    private int builds = 0;
+
+    /**
+     * Rebuild on the next read, e.g. after an interface loaded or closed
+     */
+    public void invalidate()
+    {
+        structureDirty = true;
+    }
+
+    /**
+     * Rebuild on the first read after the current client tick, e.g. after a script ran
+     */
+    public void invalidateNextFrame()
+    {
+        scriptDirty = true;
+    }
+
+    /**
+     * Called once per client tick
+     */
+    public void onFrame()
+    {
+        frame++;
+    }
+
+    /**
+     * @return how many times the tree was walked, for profiling
+     */
+    public int getBuilds()
+    {
+        return builds;
+    }
+
+    /**
+     * @return every widget, read-only
+     */
+    public List<Widget> getAll()
+    {
+        return current().list;
+    }
+
+    /**
+     * Visit every widget without copying the list
+     */
+    public void forEach(Consumer<Widget> action)
+    {
+        for(Widget widget : current().widgets)
+            action.accept(widget);
+    }
+
+    /**
+     * @return the widgets of an interface, read-only
+     */
+    public List<Widget> withGroup(int groupId)
+    {
+        List<Widget> group = current().byGroup.get(groupId);
+        return group == null ? Collections.emptyList() : group;
+    }
+
+    /**
+     * @return the widgets whose text equals {@code text}, ignoring case
+     */
+    public List<Widget> withText(String text)
+    {
+        if(text == null)
+            return new ArrayList<>();
+        Snapshot snapshot = current();
+        String key = text.toLowerCase();
+        return Static.invoke(() -> {
+            List<Widget> out = new ArrayList<>();
+            List<Widget> candidates = snapshot.byText().get(key);
+            if(candidates == null)
+                return out;
+            for(Widget widget : candidates)
+            {
+                if(text.equalsIgnoreCase(widget.getText()))
+                    out.add(widget);
+            }
+            return out;
+        });
+    }
+
+    /**
+     * @return the widgets with the given action, ignoring case
+     */
+    public List<Widget> withAction(String action)
+    {
+        if(action == null)
+            return new ArrayList<>();
+        Snapshot snapshot = current();
+        String key = action.toLowerCase();
+        return Static.invoke(() -> {
+            List<Widget> out = new ArrayList<>();
+            List<Widget> candidates = snapshot.byAction().get(key);
+            if(candidates == null)
+                return out;
+            for(Widget widget : candidates)
+            {
+                if(hasAction(widget, action))
+                    out.add(widget);
+            }
+            return out;
+        });
+    }
+
+    /**
+     * @return the given widgets and everything below them, read-only. Cached per set of roots until the
+     * tree changes.
+     */
+    public List<Widget> subtree(Widget... roots)
+    {
+        Snapshot snapshot = current();
+        Object key = Arrays.asList(roots.clone());
+        List<Widget> list = snapshot.subtrees.get(key);
+        if(list == null)
+        {
+            list = Static.invoke(() -> walk(roots, null, null));
+            snapshot.putSubtree(key, list);
+        }
+        return list;
+    }
+
+    /**
+     * @return the widgets with the given packed ids and everything below them, read-only. Cached per set
+     * of ids until the tree changes.
+     */
+    public List<Widget> subtree(int... rootIds)
+    {
+        Snapshot snapshot = current();
+        Object key = new IdsKey(rootIds);
+        List<Widget> list = snapshot.subtrees.get(key);
+        if(list == null)
+        {
+            Widget[] roots = new Widget[rootIds.length];
+            for(int i = 0; i < rootIds.length; i++)
+            {
+                roots[i] = WidgetAPI.get(rootIds[i]);
+            }
+            list = Static.invoke(() -> walk(roots, null, null));
+            snapshot.putSubtree(key, list);
+        }
+        return list;
+    }
+
+    private Snapshot current()
+    {
+        Snapshot snapshot = this.snapshot;
+        if(snapshot != null && !structureDirty && !(scriptDirty && snapshot.frame != frame))
+            return snapshot;
+
+        return Static.invoke(() -> {
+            Snapshot latest = this.snapshot;
+            if(latest != null && !structureDirty && !(scriptDirty && latest.frame != frame))
+                return latest;
+
+            //cleared first: events that come in from here on belong to the next build
+            structureDirty = false;
+            scriptDirty = false;
+            Widget[] roots = ((Client) Static.getClient()).getWidgetRoots();
+            List<Widget> widgets = new ArrayList<>(latest == null ? 256 : latest.widgets.length);
+            TIntObjectHashMap<List<Widget>> byGroup = new TIntObjectHashMap<>();
+            walk(roots, widgets, byGroup);
+            latest = new Snapshot(frame, widgets, byGroup);
+            this.snapshot = latest;
+            builds++;
+            return latest;
+        });
+    }
+
+    /**
+     * Depth-first walk from the roots, visiting each widget once, in the same order as the old walk
+     */
+    private static List<Widget> walk(Widget[] roots, List<Widget> result, TIntObjectHashMap<List<Widget>> byGroup)
+    {
+        if(result == null)
+            result = new ArrayList<>(256);
+        Set<Widget> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Widget> toProcess = new ArrayDeque<>();
+        addNonNull(toProcess, roots);
+        while (!toProcess.isEmpty()) {
+            Widget widget = toProcess.pop();
+
+            if (!visited.add(widget)) {
+                continue;
+            }
+
+            result.add(widget);
+            if(byGroup != null)
+            {
+                int group = widget.getId() >>> 16;
+                List<Widget> sameGroup = byGroup.get(group);
+                if(sameGroup == null)
+                {
+                    sameGroup = new ArrayList<>();
+                    byGroup.put(group, sameGroup);
+                }
+                sameGroup.add(widget);
+            }
+            addNonNull(toProcess, widget.getChildren());
+            addNonNull(toProcess, widget.getStaticChildren());
+            addNonNull(toProcess, widget.getDynamicChildren());
+            addNonNull(toProcess, widget.getNestedChildren());
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static void addNonNull(Deque<Widget> stack, Widget[] widgets) {
+        if (widgets != null) {
+            for (Widget w : widgets) {
+                if (w != null) {
+                    stack.push(w);
+                }
+            }
+        }
+    }
+
+    private static boolean hasAction(Widget widget, String action)
+    {
+        String[] actions = widget.getActions();
+        if(actions == null)
+            return false;
+        for(String a : actions)
+        {
+            if(a != null && a.equalsIgnoreCase(action))
+                return true;
+        }
+        return false;
+    }
+
+    private static final class Snapshot
+    {
+        private final int frame;
+        private final Widget[] widgets;
+        private final List<Widget> list;
+        private final TIntObjectHashMap<List<Widget>> byGroup;
+        private final Map<Object, List<Widget>> subtrees = new ConcurrentHashMap<>();
+        private Map<String, List<Widget>> byText;
+        private Map<String, List<Widget>> byAction;
+
+        private Snapshot(int frame, List<Widget> widgets, TIntObjectHashMap<List<Widget>> byGroup)
+        {
+            this.frame = frame;
+            this.widgets = widgets.toArray(new Widget[0]);
+            this.list = Collections.unmodifiableList(widgets);
+            this.byGroup = byGroup;
+            for(int group : byGroup.keys())
+                byGroup.put(group, Collections.unmodifiableList(byGroup.get(group)));
+        }
+
+        private void putSubtree(Object key, List<Widget> list)
+        {
+            if(subtrees.size() >= MAX_SUBTREES)
+                subtrees.clear();
+            subtrees.put(key, list);
+        }
+
+        /**
+         * Client thread only
+         */
+        private Map<String, List<Widget>> byText()
+        {
+            if(byText == null)
+            {
+                Map<String, List<Widget>> map = new HashMap<>();
+                for(Widget widget : widgets)
+                {
+                    String text = widget.getText();
+                    if(text != null && !text.isEmpty())
+                        map.computeIfAbsent(text.toLowerCase(), k -> new ArrayList<>(1)).add(widget);
+                }
+                byText = map;
+            }
+            return byText;
+        }
+
+        /**
+         * Client thread only
+         */
+        private Map<String, List<Widget>> byAction()
+        {
+            if(byAction == null)
+            {
+                Map<String, List<Widget>> map = new HashMap<>();
+                for(Widget widget : widgets)
+                {
+                    String[] actions = widget.getActions();
+                    if(actions == null)
+                        continue;
+                    for(String action : actions)
+                    {
+                        if(action == null || action.isEmpty())
+                            continue;
+                        List<Widget> same = map.computeIfAbsent(action.toLowerCase(), k -> new ArrayList<>(1));
+                        //a widget can list the same action twice
+                        if(same.isEmpty() || same.get(same.size() - 1) != widget)
+                            same.add(widget);
+                    }
+                }
+                byAction = map;
+            }
+            return byAction;
+        }
+    }
+
+    private static final class IdsKey
+    {
+        private final int[] ids;
+        private final int hash;
+
+        private IdsKey(int[] ids)
+        {
+            this.ids = ids.clone();
+            this.hash = Arrays.hashCode(ids);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            return o instanceof IdsKey && Arrays.equals(ids, ((IdsKey) o).ids);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+    }
+}
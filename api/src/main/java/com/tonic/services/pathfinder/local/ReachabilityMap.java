@@ -0,0 +1,224 @@
+package com.tonic.services.pathfinder.local;
+
+import com.tonic.util.WorldPointUtil;
+import gnu.trove.set.TIntSet;
+import net.runelite.api.CollisionData;
+import net.runelite.api.CollisionDataFlag;
+import net.runelite.api.WorldView;
+import net.runelite.api.coords.WorldPoint;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The connected set of top level scene tiles around an origin, as a flat grid of generation stamps: a
+ * tile is reachable when its stamp equals the generation of the last search, so a new search never has
+ * to clear the grid. Grids and the search queue are allocated once and reused.
+ *
+ * {@link #update} only searches again when it has to: the scene base or plane changed, the collision
+ * version changed, the origin left the connected set, or a hash of the plane's collision flags changed
+ * (which catches changes that come without an object event). Moving inside the set keeps the result,
+ * since connectivity doesn't depend on where in the set the origin is.
+ *
+ * Updates happen on the client thread. Two grids are swapped on each search, so readers on other threads
+ * always see a finished one.
+ */
+public class ReachabilityMap
+{
+    private final Grid[] grids = { new Grid(), new Grid() };
+    private volatile Grid current;
+    private int collisionVersion;
+    private long flagsHash;
+    private int searches = 0;
+
+    /**
+     * Make sure the map holds the tiles reachable from {@code origin}. Must run on the client thread.
+     *
+     * @param collisionVersion a counter that changes whenever collision flags change
+     * @return true if the map had to be searched again
+     */
+    public boolean update(WorldView worldView, WorldPoint origin, int collisionVersion)
+    {
+        CollisionData[] collisionData = worldView == null ? null : worldView.getCollisionMaps();
+        int plane = worldView == null ? -1 : worldView.getPlane();
+        if(origin == null || collisionData == null || plane < 0 || plane >= collisionData.length || collisionData[plane] == null)
+        {
+            current = null;
+            return false;
+        }
+
+        int[][] flags = collisionData[plane].getFlags();
+        Grid grid = current;
+        boolean stale = grid == null || grid.plane != plane || grid.baseX != worldView.getBaseX()
+                || grid.baseY != worldView.getBaseY() || this.collisionVersion != collisionVersion
+                || !grid.contains(origin.getX(), origin.getY(), plane);
+        //reads the whole plane, but only a fraction of what a search costs
+        long hash = hash(flags);
+        if(!stale && flagsHash == hash)
+        {
+            return false;
+        }
+
+        Grid next = grid == grids[0] ? grids[1] : grids[0];
+        next.search(flags, worldView.getBaseX(), worldView.getBaseY(), plane,
+                origin.getX() - worldView.getBaseX(), origin.getY() - worldView.getBaseY());
+        this.collisionVersion = collisionVersion;
+        this.flagsHash = hash;
+        searches++;
+        current = next;
+        return true;
+    }
+
+    public boolean isReachable(int worldX, int worldY, int plane)
+    {
+        Grid grid = current;
+        return grid != null && grid.contains(worldX, worldY, plane);
+    }
+
+    public boolean isReachable(int compressed)
+    {
+        return isReachable(WorldPointUtil.getCompressedX(compressed), WorldPointUtil.getCompressedY(compressed),
+                WorldPointUtil.getCompressedPlane(compressed));
+    }
+
+    public boolean isReachable(WorldPoint point)
+    {
+        return point != null && isReachable(point.getX(), point.getY(), point.getPlane());
+    }
+
+    /**
+     * Add every reachable tile to {@code out}, column by column
+     */
+    public void collect(List<WorldPoint> out)
+    {
+        Grid grid = current;
+        if(grid == null)
+            return;
+        for(int i = 0; i < grid.size; i++)
+        {
+            if(grid.marks[i] == grid.generation)
+                out.add(new WorldPoint(grid.baseX + i / grid.height, grid.baseY + i % grid.height, grid.plane));
+        }
+    }
+
+    /**
+     * Add every reachable tile to {@code out} as compressed points
+     */
+    public void collect(TIntSet out)
+    {
+        Grid grid = current;
+        if(grid == null)
+            return;
+        for(int i = 0; i < grid.size; i++)
+        {
+            if(grid.marks[i] == grid.generation)
+                out.add(WorldPointUtil.compress(grid.baseX + i / grid.height, grid.baseY + i % grid.height, grid.plane));
+        }
+    }
+
+    /**
+     * @return how many times the map was actually searched, for profiling
+     */
+    public int getSearches()
+    {
+        return searches;
+    }
+
+    private static long hash(int[][] flags)
+    {
+        long hash = 1;
+        for(int[] column : flags)
+        {
+            for(int flag : column)
+                hash = 31 * hash + flag;
+        }
+        return hash;
+    }
+
+    private static final class Grid
+    {
+        private short[] marks = new short[0];
+        private int[] queue = new int[0];
+        private short generation = 0;
+        private int size;
+        private int width;
+        private int height;
+        private int baseX;
+        private int baseY;
+        private int plane;
+
+        private boolean contains(int worldX, int worldY, int worldPlane)
+        {
+            int x = worldX - baseX;
+            int y = worldY - baseY;
+            return worldPlane == plane && x >= 0 && y >= 0 && x < width && y < height
+                    && marks[x * height + y] == generation;
+        }
+
+        private void search(int[][] flags, int baseX, int baseY, int plane, int startX, int startY)
+        {
+            int width = flags.length;
+            int height = width == 0 ? 0 : flags[0].length;
+            int size = width * height;
+            if(marks.length < size)
+            {
+                marks = new short[size];
+                queue = new int[size];
+                generation = 0;
+            }
+            if(generation == Short.MAX_VALUE)
+            {
+                Arrays.fill(marks, (short) 0);
+                generation = 0;
+            }
+            short gen = ++generation;
+            short[] marks = this.marks;
+            int[] queue = this.queue;
+            this.size = size;
+            this.width = width;
+            this.height = height;
+            this.baseX = baseX;
+            this.baseY = baseY;
+            this.plane = plane;
+
+            if(startX < 0 || startY < 0 || startX >= width || startY >= height)
+                return;
+
+            int head = 0;
+            int tail = 0;
+            marks[startX * height + startY] = gen;
+            queue[tail++] = startX * height + startY;
+            while(head != tail)
+            {
+                int index = queue[head++];
+                int x = index / height;
+                int y = index % height;
+                int flag = flags[x][y];
+                if(y > 0 && (flag & CollisionDataFlag.BLOCK_MOVEMENT_SOUTH) == 0
+                        && (flags[x][y - 1] & CollisionDataFlag.BLOCK_MOVEMENT_FULL) == 0 && marks[index - 1] != gen)
+                {
+                    marks[index - 1] = gen;
+                    queue[tail++] = index - 1;
+                }
+                if(y < height - 1 && (flag & CollisionDataFlag.BLOCK_MOVEMENT_NORTH) == 0
+                        && (flags[x][y + 1] & CollisionDataFlag.BLOCK_MOVEMENT_FULL) == 0 && marks[index + 1] != gen)
+                {
+                    marks[index + 1] = gen;
+                    queue[tail++] = index + 1;
+                }
+                if(x > 0 && (flag & CollisionDataFlag.BLOCK_MOVEMENT_WEST) == 0
+                        && (flags[x - 1][y] & CollisionDataFlag.BLOCK_MOVEMENT_FULL) == 0 && marks[index - height] != gen)
+                {
+                    marks[index - height] = gen;
+                    queue[tail++] = index - height;
+                }
+                if(x < width - 1 && (flag & CollisionDataFlag.BLOCK_MOVEMENT_EAST) == 0
+                        && (flags[x + 1][y] & CollisionDataFlag.BLOCK_MOVEMENT_FULL) == 0 && marks[index + height] != gen)
+                {
+                    marks[index + height] = gen;
+                    queue[tail++] = index + height;
+                }
+            }
+        }
+    }
+}
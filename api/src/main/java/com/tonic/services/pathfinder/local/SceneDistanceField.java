@@ -0,0 +1,261 @@
+package com.tonic.services.pathfinder.local;
+
+import com.tonic.Static;
+import com.tonic.services.GameManager;
+import net.runelite.api.Client;
+import net.runelite.api.CollisionData;
+import net.runelite.api.Tile;
+import net.runelite.api.WorldView;
+import net.runelite.api.coords.WorldPoint;
+
+import java.util.Arrays;
+
+/**
+ * Path lengths from one origin to every tile of the top level scene, from a single breadth-first search
+ * over the collision flags with the same movement rules as {@link com.tonic.api.game.SceneAPI#checkPointsTo(Tile, Tile)}.
+ * Tiles whose path needs more than the client's 25 checkpoints count as unreachable, as they do for
+ * {@code SceneAPI.pathTo}.
+ *
+ * Sorting or filtering n candidates by path length then costs one search instead of n, and every lookup is
+ * an array read that is safe from any thread. Fields are cached per origin, tick and collision version
+ * ({@link GameManager#getCollisionVersion()}), so queries in the same tick share them.
+ */
+public class SceneDistanceField
+{
+    public static final int UNREACHABLE = -1;
+
+    //the client's pathfinder searches a 128x128 window centred on the origin
+    private static final int WINDOW_MIN = -64;
+    private static final int WINDOW_MAX = 63;
+
+    private static final int CACHE_SIZE = 4;
+    private static final SceneDistanceField[] cache = new SceneDistanceField[CACHE_SIZE];
+    private static int cacheNext = 0;
+
+    //only touched on the client thread
+    private static int[] queue = new int[0];
+    private static int[] directions = new int[0];
+    private static int[] checkpoints = new int[0];
+
+    private final int originX;
+    private final int originY;
+    private final int plane;
+    private final int baseX;
+    private final int baseY;
+    private final int tick;
+    private final int version;
+    private final int width;
+    private final int height;
+    private final int[] distances;
+
+    private SceneDistanceField(WorldPoint origin, int baseX, int baseY, int tick, int version, int width, int height)
+    {
+        this.originX = origin.getX();
+        this.originY = origin.getY();
+        this.plane = origin.getPlane();
+        this.baseX = baseX;
+        this.baseY = baseY;
+        this.tick = tick;
+        this.version = version;
+        this.width = width;
+        this.height = height;
+        this.distances = new int[width * height];
+        Arrays.fill(distances, UNREACHABLE);
+    }
+
+    /**
+     * The distance field of an origin in the current tick, reusing a cached one when the origin, tick,
+     * scene base and collision version all match. A new field is searched on the client thread.
+     */
+    public static SceneDistanceField of(WorldPoint origin)
+    {
+        Client client = Static.getClient();
+        int tick = client.getTickCount();
+        int version = GameManager.getCollisionVersion();
+        WorldView worldView = client.getTopLevelWorldView();
+        if(worldView == null)
+        {
+            return new SceneDistanceField(origin, 0, 0, tick, version, 0, 0);
+        }
+
+        synchronized (cache)
+        {
+            for(SceneDistanceField field : cache)
+            {
+                if(field != null && field.matches(origin, worldView.getBaseX(), worldView.getBaseY(), tick, version))
+                    return field;
+            }
+        }
+
+        SceneDistanceField field = Static.invoke(() -> build(origin, tick, version));
+        synchronized (cache)
+        {
+            cache[cacheNext] = field;
+            cacheNext = (cacheNext + 1) % CACHE_SIZE;
+        }
+        return field;
+    }
+
+    private boolean matches(WorldPoint origin, int baseX, int baseY, int tick, int version)
+    {
+        return this.tick == tick && this.version == version && this.baseX == baseX && this.baseY == baseY
+                && originX == origin.getX() && originY == origin.getY() && plane == origin.getPlane();
+    }
+
+    private static SceneDistanceField build(WorldPoint origin, int tick, int version)
+    {
+        Client client = Static.getClient();
+        WorldView worldView = client.getTopLevelWorldView();
+        CollisionData[] collisionData = worldView.getCollisionMaps();
+        int z = origin.getPlane();
+        if(collisionData == null || z < 0 || z >= collisionData.length || collisionData[z] == null)
+        {
+            return new SceneDistanceField(origin, worldView.getBaseX(), worldView.getBaseY(), tick, version, 0, 0);
+        }
+
+        return build(origin, worldView.getBaseX(), worldView.getBaseY(), collisionData[z].getFlags(),
+                worldView.getScene().getTiles()[z], tick, version);
+    }
+
+    static SceneDistanceField build(WorldPoint origin, int baseX, int baseY, int[][] flags, Tile[][] tiles, int tick, int version)
+    {
+        SceneDistanceField field = new SceneDistanceField(origin, baseX, baseY, tick, version,
+                flags.length, flags.length == 0 ? 0 : flags[0].length);
+        field.search(flags, tiles);
+        return field;
+    }
+
+    private void search(int[][] flags, Tile[][] tiles)
+    {
+        int startX = originX - baseX;
+        int startY = originY - baseY;
+        if(!inScene(startX, startY) || tiles[startX][startY] == null)
+            return;
+
+        int minX = Math.max(0, startX + WINDOW_MIN);
+        int minY = Math.max(0, startY + WINDOW_MIN);
+        int maxX = Math.min(width - 1, startX + WINDOW_MAX);
+        int maxY = Math.min(height - 1, startY + WINDOW_MAX);
+
+        if(queue.length < distances.length)
+        {
+            queue = new int[distances.length];
+            directions = new int[distances.length];
+            checkpoints = new int[distances.length];
+        }
+        int[] queue = SceneDistanceField.queue;
+        int head = 0;
+        int tail = 0;
+        int start = startX * height + startY;
+        distances[start] = 0;
+        checkpoints[start] = 1;
+        queue[tail++] = start;
+
+        while(head != tail)
+        {
+            int index = queue[head++];
+            int x = index / height;
+            int y = index % height;
+            int next = distances[index] + 1;
+
+            boolean west = x > minX && (flags[x - 1][y] & SceneGeometry.BLOCK_WEST) == 0;
+            boolean east = x < maxX && (flags[x + 1][y] & SceneGeometry.BLOCK_EAST) == 0;
+            boolean south = y > minY && (flags[x][y - 1] & SceneGeometry.BLOCK_SOUTH) == 0;
+            boolean north = y < maxY && (flags[x][y + 1] & SceneGeometry.BLOCK_NORTH) == 0;
+
+            if(west)
+                tail = visit(tiles, queue, tail, start, index, index - height, 0, next);
+            if(east)
+                tail = visit(tiles, queue, tail, start, index, index + height, 1, next);
+            if(south)
+                tail = visit(tiles, queue, tail, start, index, index - 1, 2, next);
+            if(north)
+                tail = visit(tiles, queue, tail, start, index, index + 1, 3, next);
+            if(west && south && (flags[x - 1][y - 1] & SceneGeometry.BLOCK_SOUTH_WEST) == 0)
+                tail = visit(tiles, queue, tail, start, index, index - height - 1, 4, next);
+            if(east && south && (flags[x + 1][y - 1] & SceneGeometry.BLOCK_SOUTH_EAST) == 0)
+                tail = visit(tiles, queue, tail, start, index, index + height - 1, 5, next);
+            if(west && north && (flags[x - 1][y + 1] & SceneGeometry.BLOCK_NORTH_WEST) == 0)
+                tail = visit(tiles, queue, tail, start, index, index - height + 1, 6, next);
+            if(east && north && (flags[x + 1][y + 1] & SceneGeometry.BLOCK_NORTH_EAST) == 0)
+                tail = visit(tiles, queue, tail, start, index, index + height + 1, 7, next);
+        }
+
+        //a path can cross tiles without scene data, but never end on one, and the client keeps at most 25 checkpoints
+        for(int i = 0; i < tail; i++)
+        {
+            int index = queue[i];
+            if(tiles[index / height][index % height] == null || checkpoints[index] > SceneGeometry.MAX_CHECKPOINTS)
+                distances[index] = UNREACHABLE;
+        }
+    }
+
+    /**
+     * Visit a tile from its parent in the search tree, which is the same tree the client's search builds,
+     * and count the checkpoints of its path: the tile itself plus every turn before it. A turn on a tile
+     * without scene data ends the path there, so it counts as too many.
+     */
+    private int visit(Tile[][] tiles, int[] queue, int tail, int start, int parent, int index, int direction, int distance)
+    {
+        if(distances[index] != UNREACHABLE)
+            return tail;
+        distances[index] = distance;
+        directions[index] = direction;
+        int count = checkpoints[parent];
+        if(parent != start && directions[parent] != direction)
+            count += tiles[parent / height][parent % height] == null ? SceneGeometry.MAX_CHECKPOINTS + 1 : 1;
+        checkpoints[index] = count;
+        queue[tail] = index;
+        return tail + 1;
+    }
+
+    private boolean inScene(int sceneX, int sceneY)
+    {
+        return sceneX >= 0 && sceneY >= 0 && sceneX < width && sceneY < height;
+    }
+
+    /**
+     * @return the number of steps from the origin to the tile, or {@link #UNREACHABLE}
+     */
+    public int distanceTo(int worldX, int worldY, int worldPlane)
+    {
+        int x = worldX - baseX;
+        int y = worldY - baseY;
+        if(worldPlane != plane || !inScene(x, y))
+            return UNREACHABLE;
+        return distances[x * height + y];
+    }
+
+    /**
+     * @return the number of steps from the origin to the point, or {@link #UNREACHABLE}
+     */
+    public int distanceTo(WorldPoint point)
+    {
+        return point == null ? UNREACHABLE : distanceTo(point.getX(), point.getY(), point.getPlane());
+    }
+
+    public boolean isReachable(WorldPoint point)
+    {
+        return distanceTo(point) != UNREACHABLE;
+    }
+
+    /**
+     * @return the number of tiles on the path including both ends, as in {@code SceneAPI.pathTo(origin, point).size()},
+     * or {@link Integer#MAX_VALUE} if the point can't be reached
+     */
+    public int pathLength(WorldPoint point)
+    {
+        int distance = distanceTo(point);
+        return distance == UNREACHABLE ? Integer.MAX_VALUE : distance + 1;
+    }
+
+    public WorldPoint getOrigin()
+    {
+        return new WorldPoint(originX, originY, plane);
+    }
+
+    public int getTick()
+    {
+        return tick;
+    }
+}
@@ -0,0 +1,558 @@
+package com.tonic.services.pathfinder.local;
+
+import com.tonic.Static;
+import com.tonic.services.GameManager;
+import com.tonic.util.WorldPointUtil;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import net.runelite.api.Client;
+import net.runelite.api.CollisionData;
+import net.runelite.api.CollisionDataFlag;
+import net.runelite.api.Tile;
+import net.runelite.api.WorldView;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A copy of one plane of the top level scene's collision flags, with the line of sight, checkpoint and
+ * path routines of {@link com.tonic.api.game.SceneAPI} running on it directly.
+ *
+ * Points are compressed world points ({@link WorldPointUtil#compress(int, int, int)}) and results go into
+ * caller-provided lists, so the routines allocate nothing. The copy is taken on the client thread once
+ * per plane, tick and collision version; after that the routines run on any thread without a round-trip.
+ * Search scratch space is borrowed from a small pool for the duration of a call, so threads that stop
+ * searching don't keep any.
+ */
+public class SceneGeometry
+{
+    static final int BLOCK_WEST = 0x1240108;
+    static final int BLOCK_EAST = 0x1240180;
+    static final int BLOCK_SOUTH = 0x1240102;
+    static final int BLOCK_NORTH = 0x1240120;
+    static final int BLOCK_SOUTH_WEST = 0x124010E;
+    static final int BLOCK_SOUTH_EAST = 0x1240183;
+    static final int BLOCK_NORTH_WEST = 0x1240138;
+    static final int BLOCK_NORTH_EAST = 0x12401E0;
+    private static final int OUTSIDE = 0xFFFFFF;
+
+    //the client's pathfinder searches a 128x128 window centred on the source
+    private static final int WINDOW = 128;
+    private static final int OFFSET = 64;
+    static final int MAX_CHECKPOINTS = 25;
+    private static final int FALLBACK_RANGE = 10;
+    private static final int FALLBACK_MAX_DISTANCE = 100;
+    private static final int PLANES = 4;
+    private static final int POOLED_SEARCHES = 4;
+
+    //copies are filled in before they are set here, the volatile write publishes their arrays
+    private static final AtomicReferenceArray<SceneGeometry> cache = new AtomicReferenceArray<>(PLANES);
+    private static final ArrayBlockingQueue<Search> searches = new ArrayBlockingQueue<>(POOLED_SEARCHES);
+
+    private final int baseX;
+    private final int baseY;
+    private final int plane;
+    private final int width;
+    private final int height;
+    private final int tick;
+    private final int version;
+    private final int[] flags;
+    private final boolean[] tiles;
+
+    private SceneGeometry(int baseX, int baseY, int plane, int width, int height, int tick, int version)
+    {
+        this.baseX = baseX;
+        this.baseY = baseY;
+        this.plane = plane;
+        this.width = width;
+        this.height = height;
+        this.tick = tick;
+        this.version = version;
+        this.flags = new int[width * height];
+        this.tiles = new boolean[width * height];
+    }
+
+    /**
+     * The collision copy of a plane of the top level scene for the current tick, taken on the client
+     * thread if there is none yet
+     */
+    public static SceneGeometry of(int plane)
+    {
+        Client client = Static.getClient();
+        int tick = client.getTickCount();
+        int version = GameManager.getCollisionVersion();
+        WorldView worldView = client.getTopLevelWorldView();
+        if(worldView == null || plane < 0 || plane >= PLANES)
+            return new SceneGeometry(0, 0, plane, 0, 0, tick, version);
+
+        SceneGeometry geometry = cache.get(plane);
+        if(geometry != null && geometry.tick == tick && geometry.version == version
+                && geometry.baseX == worldView.getBaseX() && geometry.baseY == worldView.getBaseY())
+            return geometry;
+
+        geometry = Static.invoke(() -> copy(worldView, plane, tick, version));
+        cache.set(plane, geometry);
+        return geometry;
+    }
+
+    private static SceneGeometry copy(WorldView worldView, int plane, int tick, int version)
+    {
+        CollisionData[] collisionData = worldView.getCollisionMaps();
+        if(collisionData == null || plane >= collisionData.length || collisionData[plane] == null)
+            return new SceneGeometry(worldView.getBaseX(), worldView.getBaseY(), plane, 0, 0, tick, version);
+
+        return copy(worldView.getBaseX(), worldView.getBaseY(), plane, collisionData[plane].getFlags(),
+                worldView.getScene().getTiles()[plane], tick, version);
+    }
+
+    static SceneGeometry copy(int baseX, int baseY, int plane, int[][] source, Tile[][] tiles, int tick, int version)
+    {
+        int width = source.length;
+        int height = width == 0 ? 0 : source[0].length;
+        SceneGeometry geometry = new SceneGeometry(baseX, baseY, plane, width, height, tick, version);
+        for(int x = 0; x < width; x++)
+        {
+            System.arraycopy(source[x], 0, geometry.flags, x * height, height);
+            for(int y = 0; y < height; y++)
+                geometry.tiles[x * height + y] = tiles[x][y] != null;
+        }
+        return geometry;
+    }
+
+    public int getPlane()
+    {
+        return plane;
+    }
+
+    /**
+     * @return the compressed world point of a scene tile
+     */
+    public int point(int sceneX, int sceneY)
+    {
+        return WorldPointUtil.compress(baseX + sceneX, baseY + sceneY, plane);
+    }
+
+    public int sceneX(int point)
+    {
+        return WorldPointUtil.getCompressedX(point) - baseX;
+    }
+
+    public int sceneY(int point)
+    {
+        return WorldPointUtil.getCompressedY(point) - baseY;
+    }
+
+    /**
+     * @return true if the point is on this plane of the scene
+     */
+    public boolean contains(int point)
+    {
+        return WorldPointUtil.getCompressedPlane(point) == plane && inScene(sceneX(point), sceneY(point));
+    }
+
+    /**
+     * @return true if the point is on this plane of the scene and the scene has a tile there
+     */
+    public boolean hasTile(int point)
+    {
+        return contains(point) && tiles[sceneX(point) * height + sceneY(point)];
+    }
+
+    private boolean inScene(int x, int y)
+    {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    private int flag(int x, int y)
+    {
+        return inScene(x, y) ? flags[x * height + y] : OUTSIDE;
+    }
+
+    /**
+     * Line of sight between two tiles, as projectiles and ranged attacks see it
+     */
+    public boolean hasLineOfSight(int source, int target)
+    {
+        if(!hasTile(source) || !hasTile(target))
+            return false;
+        return lineOfSight(sceneX(source), sceneY(source), sceneX(target), sceneY(target));
+    }
+
+    /**
+     * Add the targets that have line of sight to {@code source} to {@code out}, in order
+     */
+    public void filterLineOfSight(int source, IntList targets, IntList out)
+    {
+        if(!hasTile(source))
+            return;
+        int sx = sceneX(source);
+        int sy = sceneY(source);
+        for(int i = 0; i < targets.size(); i++)
+        {
+            int target = targets.getInt(i);
+            if(hasTile(target) && lineOfSight(sx, sy, sceneX(target), sceneY(target)))
+                out.add(target);
+        }
+    }
+
+    // Thanks to Henke for this method :)
+    private boolean lineOfSight(int x1, int y1, int x2, int y2)
+    {
+        if(x1 == x2 && y1 == y2)
+            return true;
+
+        int dx = x2 - x1;
+        int dy = y2 - y1;
+        int dxAbs = Math.abs(dx);
+        int dyAbs = Math.abs(dy);
+
+        int xFlags = CollisionDataFlag.BLOCK_LINE_OF_SIGHT_FULL;
+        int yFlags = CollisionDataFlag.BLOCK_LINE_OF_SIGHT_FULL;
+        xFlags |= dx < 0 ? CollisionDataFlag.BLOCK_LINE_OF_SIGHT_EAST : CollisionDataFlag.BLOCK_LINE_OF_SIGHT_WEST;
+        yFlags |= dy < 0 ? CollisionDataFlag.BLOCK_LINE_OF_SIGHT_NORTH : CollisionDataFlag.BLOCK_LINE_OF_SIGHT_SOUTH;
+
+        if(dxAbs > dyAbs)
+        {
+            int x = x1;
+            int yBig = (y1 << 16) + 0x8000; // half a tile, for rounding
+            int slope = (dy << 16) / dxAbs;
+            if(dy < 0)
+                yBig--;
+            int direction = dx < 0 ? -1 : 1;
+            while(x != x2)
+            {
+                x += direction;
+                int y = yBig >>> 16;
+                if((flag(x, y) & xFlags) != 0)
+                    return false;
+                yBig += slope;
+                int nextY = yBig >>> 16;
+                if(nextY != y && (flag(x, nextY) & yFlags) != 0)
+                    return false;
+            }
+        }
+        else
+        {
+            int y = y1;
+            int xBig = (x1 << 16) + 0x8000;
+            int slope = (dx << 16) / dyAbs;
+            if(dx < 0)
+                xBig--;
+            int direction = dy < 0 ? -1 : 1;
+            while(y != y2)
+            {
+                y += direction;
+                int x = xBig >>> 16;
+                if((flag(x, y) & yFlags) != 0)
+                    return false;
+                xBig += slope;
+                int nextX = xBig >>> 16;
+                if(nextX != x && (flag(nextX, y) & xFlags) != 0)
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The checkpoints (corners) of the client's path from {@code source} to {@code target}, ending with the
+     * target, or with the closest reachable tile near it if the target can't be reached. At most 25
+     * checkpoints are kept, like the client.
+     *
+     * @return false if there is no path at all
+     */
+    public boolean checkpoints(int source, int target, IntList out)
+    {
+        if(!contains(source) || WorldPointUtil.getCompressedPlane(target) != plane)
+            return false;
+
+        Search search = borrow();
+        try
+        {
+            return checkpoints(search, source, target, out);
+        }
+        finally
+        {
+            release(search);
+        }
+    }
+
+    private boolean checkpoints(Search search, int source, int target, IntList out)
+    {
+        int sx = sceneX(source);
+        int sy = sceneY(source);
+        int tx = sceneX(target);
+        int ty = sceneY(target);
+        int end;
+        if(flood(search, sx, sy, tx, ty))
+        {
+            end = OFFSET * WINDOW + OFFSET + (tx - sx) * WINDOW + (ty - sy);
+        }
+        else
+        {
+            end = fallback(search, sx, sy, tx, ty);
+            if(end < 0)
+                return false;
+        }
+
+        int count = corners(search, sx, sy, end);
+        for(int n = 1; count-- > 0; n++)
+        {
+            int corner = search.corners[count];
+            out.add(point(sx + corner / WINDOW - OFFSET, sy + corner % WINDOW - OFFSET));
+            if(n == MAX_CHECKPOINTS)
+                break;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the client's path from {@code source} ends on {@code target}
+     */
+    public boolean isReachable(int source, int target)
+    {
+        if(!hasTile(source) || !hasTile(target))
+            return false;
+        Search search = borrow();
+        try
+        {
+            IntArrayList checkpoints = search.checkpoints;
+            checkpoints.clear();
+            return checkpoints(search, source, target, checkpoints) && checkpoints.getInt(checkpoints.size() - 1) == target;
+        }
+        finally
+        {
+            release(search);
+        }
+    }
+
+    /**
+     * Add the targets that {@link #isReachable(int, int)} from {@code source} to {@code out}, in order,
+     * with a single search
+     */
+    public void filterReachable(int source, IntList targets, IntList out)
+    {
+        if(!hasTile(source))
+            return;
+        Search search = borrow();
+        try
+        {
+            int sx = sceneX(source);
+            int sy = sceneY(source);
+            flood(search, sx, sy, -1, -1);
+            for(int i = 0; i < targets.size(); i++)
+            {
+                int target = targets.getInt(i);
+                if(!hasTile(target))
+                    continue;
+                int mx = sceneX(target) - sx + OFFSET;
+                int my = sceneY(target) - sy + OFFSET;
+                if(mx < 0 || my < 0 || mx >= WINDOW || my >= WINDOW || search.stamps[mx * WINDOW + my] != search.generation)
+                    continue;
+                if(corners(search, sx, sy, mx * WINDOW + my) <= MAX_CHECKPOINTS)
+                    out.add(target);
+            }
+        }
+        finally
+        {
+            release(search);
+        }
+    }
+
+    /**
+     * Expand checkpoints into every tile walked, starting with {@code source}, as {@code SceneAPI.pathTo} does
+     */
+    public static void expand(int source, IntList checkpoints, IntList out)
+    {
+        int x = WorldPointUtil.getCompressedX(source);
+        int y = WorldPointUtil.getCompressedY(source);
+        int z = WorldPointUtil.getCompressedPlane(source);
+        out.add(source);
+        for(int i = 0; i < checkpoints.size(); i++)
+        {
+            int checkpoint = checkpoints.getInt(i);
+            int cx = WorldPointUtil.getCompressedX(checkpoint);
+            int cy = WorldPointUtil.getCompressedY(checkpoint);
+            int dx = Integer.signum(cx - x);
+            int dy = Integer.signum(cy - y);
+            while(x != cx || y != cy)
+            {
+                x += dx;
+                y += dy;
+                out.add(WorldPointUtil.compress(x, y, z));
+            }
+        }
+    }
+
+    /**
+     * Breadth-first search of the window around the source with the client's movement rules, stopping at
+     * the target (pass -1 to search everything)
+     */
+    private boolean flood(Search search, int sx, int sy, int tx, int ty)
+    {
+        int gen = search.nextGeneration();
+        int[] stamps = search.stamps;
+        int[] queue = search.queue;
+        int start = OFFSET * WINDOW + OFFSET;
+        stamps[start] = gen;
+        search.directions[start] = 99;
+        search.distances[start] = 0;
+        int head = 0;
+        int tail = 1;
+        queue[0] = start;
+
+        while(head != tail)
+        {
+            int map = queue[head++];
+            int mx = map / WINDOW;
+            int my = map % WINDOW;
+            int x = sx + mx - OFFSET;
+            int y = sy + my - OFFSET;
+            if(x == tx && y == ty)
+                return true;
+
+            int distance = search.distances[map] + 1;
+            boolean west = mx > 0 && (flag(x - 1, y) & BLOCK_WEST) == 0;
+            boolean east = mx < WINDOW - 1 && (flag(x + 1, y) & BLOCK_EAST) == 0;
+            boolean south = my > 0 && (flag(x, y - 1) & BLOCK_SOUTH) == 0;
+            boolean north = my < WINDOW - 1 && (flag(x, y + 1) & BLOCK_NORTH) == 0;
+            if(west)
+                tail = search.visit(tail, map - WINDOW, 2, distance);
+            if(east)
+                tail = search.visit(tail, map + WINDOW, 8, distance);
+            if(south)
+                tail = search.visit(tail, map - 1, 1, distance);
+            if(north)
+                tail = search.visit(tail, map + 1, 4, distance);
+            if(west && south && (flag(x - 1, y - 1) & BLOCK_SOUTH_WEST) == 0)
+                tail = search.visit(tail, map - WINDOW - 1, 3, distance);
+            if(east && south && (flag(x + 1, y - 1) & BLOCK_SOUTH_EAST) == 0)
+                tail = search.visit(tail, map + WINDOW - 1, 9, distance);
+            if(west && north && (flag(x - 1, y + 1) & BLOCK_NORTH_WEST) == 0)
+                tail = search.visit(tail, map - WINDOW + 1, 6, distance);
+            if(east && north && (flag(x + 1, y + 1) & BLOCK_NORTH_EAST) == 0)
+                tail = search.visit(tail, map + WINDOW + 1, 12, distance);
+        }
+        return false;
+    }
+
+    /**
+     * The reached tile in the 21x21 area around an unreachable target that is closest to it, then
+     * shortest to walk to, or -1
+     */
+    private static int fallback(Search search, int sx, int sy, int tx, int ty)
+    {
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        int bestLength = Integer.MAX_VALUE;
+        for(int i = tx - FALLBACK_RANGE; i <= tx + FALLBACK_RANGE; i++)
+        {
+            for(int j = ty - FALLBACK_RANGE; j <= ty + FALLBACK_RANGE; j++)
+            {
+                int mx = i - sx + OFFSET;
+                int my = j - sy + OFFSET;
+                if(mx < 0 || my < 0 || mx >= WINDOW || my >= WINDOW)
+                    continue;
+                int map = mx * WINDOW + my;
+                if(search.stamps[map] != search.generation || search.distances[map] >= FALLBACK_MAX_DISTANCE)
+                    continue;
+                int dx = i - tx;
+                int dy = j - ty;
+                int distance = dx * dx + dy * dy;
+                if(distance < bestDistance || distance == bestDistance && search.distances[map] < bestLength)
+                {
+                    bestDistance = distance;
+                    bestLength = search.distances[map];
+                    best = map;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Walk back from {@code end} to the source, storing the end tile and every change of direction in
+     * {@link Search#corners}, end first
+     *
+     * @return the number of corners
+     */
+    private static int corners(Search search, int sx, int sy, int end)
+    {
+        int[] directions = search.directions;
+        int[] corners = search.corners;
+        int count = 0;
+        corners[count++] = end;
+        int mx = end / WINDOW;
+        int my = end % WINDOW;
+        int previous = directions[end];
+        while(mx != OFFSET || my != OFFSET)
+        {
+            int direction = directions[mx * WINDOW + my];
+            if(direction != previous)
+            {
+                previous = direction;
+                corners[count++] = mx * WINDOW + my;
+            }
+            if((direction & 2) != 0)
+                mx++;
+            else if((direction & 8) != 0)
+                mx--;
+            if((direction & 1) != 0)
+                my++;
+            else if((direction & 4) != 0)
+                my--;
+        }
+        return count;
+    }
+
+    private static Search borrow()
+    {
+        Search search = searches.poll();
+        return search == null ? new Search() : search;
+    }
+
+    /**
+     * Hand a search back, or drop it if the pool is full, e.g. after a burst of concurrent searches
+     */
+    private static void release(Search search)
+    {
+        searches.offer(search);
+    }
+
+    /**
+     * Search space over the 128x128 window, used by one thread at a time. Tiles count as visited when their
+     * stamp equals the current generation, so nothing is cleared between searches.
+     */
+    private static final class Search
+    {
+        private final int[] stamps = new int[WINDOW * WINDOW];
+        private final int[] directions = new int[WINDOW * WINDOW];
+        private final int[] distances = new int[WINDOW * WINDOW];
+        private final int[] queue = new int[WINDOW * WINDOW];
+        private final int[] corners = new int[WINDOW * WINDOW];
+        private final IntArrayList checkpoints = new IntArrayList(MAX_CHECKPOINTS);
+        private int generation = 0;
+
+        private int nextGeneration()
+        {
+            if(generation == Integer.MAX_VALUE)
+            {
+                Arrays.fill(stamps, 0);
+                generation = 0;
+            }
+            return ++generation;
+        }
+
+        private int visit(int tail, int map, int direction, int distance)
+        {
+            if(stamps[map] == generation)
+                return tail;
+            stamps[map] = generation;
+            directions[map] = direction;
+            distances[map] = distance;
+            queue[tail] = map;
+            return tail + 1;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.tonic.util;
 
 import com.tonic.Logger;
+import com.tonic.services.profiler.threads.ThreadAccounting;
+import com.tonic.services.profiler.threads.ThreadOwner;
 import net.runelite.api.events.GameTick;
 import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.plugins.Plugin;
@@ -36,6 +38,7 @@ public class VitaPlugin extends Plugin
             return;
 
         loopFuture = ThreadPool.submit(new AsyncTask(() -> {
+            ThreadOwner previousOwner = ThreadAccounting.enter(ThreadOwner.plugin(getClass().getClassLoader(), getName()));
             try
             {
                 loop();
@@ -51,6 +54,7 @@ public class VitaPlugin extends Plugin
             }
             finally
             {
+                ThreadAccounting.exit(previousOwner);
                 AsyncTask.dispose();
             }
         }));
@@ -0,0 +1,139 @@
+package com.tonic.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writes and reads back bank snapshots, and checks that every kind of damaged file reads as missing and is
+ * moved aside instead of producing a wrong bank.
+ */
+class BankStoreTest
+{
+    @TempDir
+    Path directory;
+
+    @Test
+    void snapshotsRoundTrip() throws IOException
+    {
+        BankStore store = new BankStore(directory);
+        Random random = new Random(50);
+        int slots = 800;
+        int[] ids = new int[slots];
+        int[] quantities = new int[slots];
+        for (int i = 0; i < slots; i++)
+        {
+            int roll = random.nextInt(10);
+            // empty slots, placeholders, stacks of coins and everything in between
+            ids[i] = roll == 0 ? -1 : random.nextInt(30_000);
+            quantities[i] = roll <= 1 ? 0 : roll == 2 ? Integer.MAX_VALUE : 1 + random.nextInt(10_000);
+        }
+        BankSnapshot snapshot = new BankSnapshot(ids, quantities, new int[]{12, 0, 140, 3});
+
+        store.write("Zezima", snapshot);
+        BankSnapshot read = store.read("Zezima");
+        assertNotNull(read);
+        assertTrue(snapshot.sameContents(read));
+        assertEquals(snapshot.getTotals(), read.getTotals());
+
+        store.write("Zezima", BankSnapshot.EMPTY);
+        assertTrue(BankSnapshot.EMPTY.sameContents(store.read("Zezima")));
+        try (Stream<Path> files = Files.list(directory))
+        {
+            assertEquals(1, files.count(), "temporary file left behind");
+        }
+    }
+
+    @Test
+    void accountNamesShareFiles() throws IOException
+    {
+        BankStore store = new BankStore(directory);
+        store.write("Iron Man", new BankSnapshot(new int[]{995}, new int[]{1}, new int[0]));
+
+        assertEquals(store.fileOf("Iron Man"), store.fileOf("iron_man"));
+        assertTrue(store.exists("IRON MAN"));
+        assertEquals(1, store.read("iron man").count(995));
+        assertNull(store.read("Zezima"));
+        assertFalse(store.exists("Zezima"));
+    }
+
+    @Test
+    void damagedDataIsRejected()
+    {
+        BankSnapshot snapshot = new BankSnapshot(new int[]{995, 4151, -1, 1038}, new int[]{250_000, 1, 0, 1}, new int[]{2});
+        byte[] data = BankStore.encode(snapshot);
+        assertTrue(snapshot.sameContents(BankStore.decode(data)));
+
+        for (int length = 0; length < data.length; length++)
+        {
+            byte[] truncated = Arrays.copyOf(data, length);
+            assertThrows(IllegalArgumentException.class, () -> BankStore.decode(truncated), "truncated to " + length);
+        }
+        for (int i = 0; i < data.length; i++)
+        {
+            for (int bit = 0; bit < 8; bit++)
+            {
+                byte[] flipped = data.clone();
+                flipped[i] ^= 1 << bit;
+                assertThrows(IllegalArgumentException.class, () -> BankStore.decode(flipped), "bit " + bit + " of byte " + i);
+            }
+        }
+
+        byte[] appended = Arrays.copyOf(data, data.length + 1);
+        assertThrows(IllegalArgumentException.class, () -> BankStore.decode(withChecksum(appended)));
+
+        byte[] newer = data.clone();
+        newer[4] = BankStore.VERSION + 1;
+        assertThrows(IllegalArgumentException.class, () -> BankStore.decode(withChecksum(newer)));
+
+        byte[] foreign = data.clone();
+        foreign[0] = 'X';
+        assertThrows(IllegalArgumentException.class, () -> BankStore.decode(withChecksum(foreign)));
+    }
+
+    @Test
+    void corruptFilesAreMovedAside() throws IOException
+    {
+        BankStore store = new BankStore(directory);
+        store.write("Zezima", new BankSnapshot(new int[]{995}, new int[]{100}, new int[0]));
+        Path file = store.fileOf("Zezima");
+        byte[] data = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(data, data.length / 2));
+
+        assertNull(store.read("Zezima"));
+        assertFalse(Files.exists(file));
+        assertTrue(Files.exists(file.resolveSibling(file.getFileName() + ".corrupt")));
+        assertNull(store.read("Zezima"));
+
+        // the next write starts over
+        store.write("Zezima", new BankSnapshot(new int[]{995}, new int[]{200}, new int[0]));
+        assertEquals(200, store.read("Zezima").count(995));
+    }
+
+    /**
+     * Replace the trailing checksum, so only the damage under test is left to catch
+     */
+    private static byte[] withChecksum(byte[] data)
+    {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - 4);
+        int value = (int) crc.getValue();
+        for (int i = 0; i < 4; i++)
+            data[data.length - 4 + i] = (byte) (value >>> (24 - i * 8));
+        return data;
+    }
+}
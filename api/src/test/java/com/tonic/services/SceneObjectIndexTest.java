@@ -0,0 +1,239 @@
+package com.tonic.services;
+
+import com.tonic.data.wrappers.TileObjectEx;
+import net.runelite.api.TileObject;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replays random spawns, duplicate reports, despawns, rescans and plane changes into the index and checks
+ * every query against a brute-force scan of the same objects.
+ */
+class SceneObjectIndexTest
+{
+    private static final int[] VIEWS = {-1, 0, 1};
+    private static final int TOP_LEVEL_BASE_X = 3200;
+    private static final int TOP_LEVEL_BASE_Y = 3200;
+
+    @Test
+    void queriesMatchScene()
+    {
+        Random random = new Random(42);
+        SceneObjectIndex index = new SceneObjectIndex();
+        List<SceneObject> scene = new ArrayList<>();
+        int[] planes = new int[VIEWS.length];
+        for (int v = 0; v < VIEWS.length; v++)
+            setView(index, VIEWS[v], planes[v]);
+
+        for (int step = 0; step < 200_000; step++)
+        {
+            int op = random.nextInt(100);
+            if (op < 50 || scene.isEmpty())
+            {
+                SceneObject object = new SceneObject(random);
+                scene.add(object);
+                // objects spanning several tiles are reported once per tile
+                int reports = 1 + random.nextInt(3);
+                for (int i = 0; i < reports; i++)
+                    index.add(object.tileObject, object.worldView, object.plane, object.sceneX, object.sceneY);
+            }
+            else if (op < 90)
+            {
+                SceneObject object = scene.remove(random.nextInt(scene.size()));
+                index.remove(object.tileObject);
+                index.remove(object.tileObject);
+            }
+            else if (op < 92)
+            {
+                int v = random.nextInt(VIEWS.length);
+                synchronized (index)
+                {
+                    index.clearView(VIEWS[v]);
+                    setView(index, VIEWS[v], planes[v]);
+                    for (SceneObject object : scene)
+                    {
+                        if (object.worldView == VIEWS[v])
+                            index.add(object.tileObject, object.worldView, object.plane, object.sceneX, object.sceneY);
+                    }
+                }
+            }
+            else if (op < 94)
+            {
+                int v = random.nextInt(VIEWS.length);
+                planes[v] = random.nextInt(4);
+                setView(index, VIEWS[v], planes[v]);
+            }
+
+            if (step % 500 == 0)
+                check(index, scene, planes, random);
+        }
+    }
+
+    @Test
+    void wrapperIsStableWhileIndexed()
+    {
+        SceneObjectIndex index = new SceneObjectIndex();
+        setView(index, -1, 0);
+        SceneObject object = new SceneObject(-1, 0, 10, 10, 1234);
+        index.add(object.tileObject, -1, 0, 10, 10);
+
+        TileObjectEx wrapper = index.get(object.tileObject);
+        assertNotNull(wrapper);
+        index.add(object.tileObject, -1, 0, 11, 10);
+        assertSame(wrapper, index.get(object.tileObject));
+
+        List<TileObjectEx> first = new ArrayList<>();
+        List<TileObjectEx> second = new ArrayList<>();
+        index.collect(first);
+        index.collect(second);
+        assertEquals(1, first.size());
+        assertSame(first.get(0), second.get(0));
+    }
+
+    @Test
+    void viewsWithoutPlaneAreNotQueried()
+    {
+        SceneObjectIndex index = new SceneObjectIndex();
+        SceneObject object = new SceneObject(5, 0, 3, 3, 77);
+        index.add(object.tileObject, 5, 0, 3, 3);
+
+        List<TileObjectEx> out = new ArrayList<>();
+        index.collect(out);
+        assertTrue(out.isEmpty());
+
+        int version = index.getVersion();
+        setView(index, 5, 0);
+        assertTrue(index.getVersion() != version);
+        index.collect(out);
+        assertEquals(1, out.size());
+
+        version = index.getVersion();
+        setView(index, 5, 0);
+        assertEquals(version, index.getVersion());
+    }
+
+    private static void check(SceneObjectIndex index, List<SceneObject> scene, int[] planes, Random random)
+    {
+        assertEquals(scene.size(), index.size());
+
+        List<TileObjectEx> all = new ArrayList<>();
+        index.collect(all);
+        assertSameObjects(scene, all, planes, object -> true);
+
+        int[] ids = {random.nextInt(50), random.nextInt(50), random.nextInt(50)};
+        List<TileObjectEx> byId = new ArrayList<>();
+        index.collectById(ids, byId);
+        assertSameObjects(scene, byId, planes, object -> object.id == ids[0] || object.id == ids[1] || object.id == ids[2]);
+
+        int worldX = TOP_LEVEL_BASE_X + random.nextInt(200) - 10;
+        int worldY = TOP_LEVEL_BASE_Y + random.nextInt(200) - 10;
+        int radius = random.nextInt(30);
+        List<TileObjectEx> within = new ArrayList<>();
+        index.collectWithin(worldX, worldY, radius, within);
+        assertSameObjects(scene, within, planes, object ->
+            Math.abs(object.sceneX + baseX(object.worldView) - worldX) <= radius
+                && Math.abs(object.sceneY + baseY(object.worldView) - worldY) <= radius);
+    }
+
+    private static void assertSameObjects(List<SceneObject> scene, List<TileObjectEx> actual, int[] planes,
+                                          Predicate<SceneObject> filter)
+    {
+        Set<TileObject> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (SceneObject object : scene)
+        {
+            if (object.plane == planes[viewIndex(object.worldView)] && filter.test(object))
+                expected.add(object.tileObject);
+        }
+
+        Set<TileObject> found = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (TileObjectEx object : actual)
+            assertTrue(found.add(object.getTileObject()), "object returned twice");
+        assertEquals(expected, found);
+    }
+
+    private static void setView(SceneObjectIndex index, int worldView, int plane)
+    {
+        index.setView(worldView, plane, baseX(worldView), baseY(worldView));
+    }
+
+    private static int baseX(int worldView)
+    {
+        return worldView == -1 ? TOP_LEVEL_BASE_X : TOP_LEVEL_BASE_X + 40 * worldView;
+    }
+
+    private static int baseY(int worldView)
+    {
+        return worldView == -1 ? TOP_LEVEL_BASE_Y : TOP_LEVEL_BASE_Y + 30 * worldView;
+    }
+
+    private static int viewIndex(int worldView)
+    {
+        return worldView + 1;
+    }
+
+    private static final class SceneObject
+    {
+        private final int worldView;
+        private final int plane;
+        private final int sceneX;
+        private final int sceneY;
+        private final int id;
+        private final TileObject tileObject;
+
+        private SceneObject(Random random)
+        {
+            this(random, VIEWS[random.nextInt(VIEWS.length)]);
+        }
+
+        private SceneObject(Random random, int worldView)
+        {
+            // the top level scene is extended, world views such as boats are small
+            this(worldView, random.nextInt(4), random.nextInt(worldView == -1 ? 184 : 20),
+                random.nextInt(worldView == -1 ? 184 : 20), random.nextInt(50));
+        }
+
+        private SceneObject(int worldView, int plane, int sceneX, int sceneY, int id)
+        {
+            this.worldView = worldView;
+            this.plane = plane;
+            this.sceneX = sceneX;
+            this.sceneY = sceneY;
+            this.id = id;
+            this.tileObject = tileObject(id);
+        }
+    }
+
+    /**
+     * A tile object that only knows its id; the index never asks for anything else
+     */
+    private static TileObject tileObject(int id)
+    {
+        return (TileObject) Proxy.newProxyInstance(TileObject.class.getClassLoader(), new Class<?>[]{TileObject.class},
+            (proxy, method, args) -> {
+                switch (method.getName())
+                {
+                    case "getId":
+                        return id;
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+}
@@ -0,0 +1,368 @@
+package com.tonic.services.pathfinder.local;
+
+import net.runelite.api.Tile;
+import net.runelite.api.coords.WorldPoint;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sorts random targets on random scenes by path length from one distance field and checks the order
+ * against the comparators the path sorts used before, which expanded {@code SceneAPI.pathTo} for both
+ * operands of every comparison. The expected lengths come from a copy of the old {@code checkPointsTo}
+ * search and {@code pathTo} expansion, so the test doesn't lean on {@link SceneGeometry}.
+ */
+class SceneDistanceFieldTest
+{
+    private static final int SIZE = 104;
+    private static final int BASE_X = 3136;
+    private static final int BASE_Y = 3136;
+    private static final int PLANE = 0;
+    private static final int BLOCK_OBJECT = 0x100;
+    private static final int WALL_EAST = 0x8;
+    private static final int WALL_WEST = 0x80;
+    private static final int TARGETS = 200;
+    // what the client's collision maps hold at the scene border
+    private static final int OUTSIDE = 0xFFFFFF;
+
+    @Test
+    void pathSortsMatchExpandedPaths()
+    {
+        Random random = new Random(44);
+        Tile tile = (Tile) Proxy.newProxyInstance(Tile.class.getClassLoader(), new Class<?>[]{Tile.class},
+                (proxy, method, args) -> null);
+        int reachable = 0;
+        int unreachable = 0;
+
+        for (int scene = 0; scene < 20; scene++)
+        {
+            int[][] flags = flags(random);
+            Tile[][] tiles = new Tile[SIZE][SIZE];
+            for (Tile[] column : tiles)
+            {
+                Arrays.fill(column, tile);
+                // the odd tile without scene data, which paths may cross but not turn on or end on
+                for (int y = 0; y < SIZE; y++)
+                {
+                    if (random.nextInt(100) < 2)
+                        column[y] = null;
+                }
+            }
+
+            for (int origin = 0; origin < 5; origin++)
+            {
+                WorldPoint center = randomPoint(random);
+                SceneDistanceField field = SceneDistanceField.build(center, BASE_X, BASE_Y, flags, tiles, 0, 0);
+
+                List<WorldPoint> targets = new ArrayList<>();
+                for (int i = 0; i < TARGETS; i++)
+                    targets.add(randomPoint(random));
+                // a target outside the scene and one on another plane never have a path
+                targets.add(new WorldPoint(BASE_X - 5, BASE_Y + 10, PLANE));
+                targets.add(new WorldPoint(center.getX(), center.getY(), PLANE + 1));
+
+                for (WorldPoint target : targets)
+                {
+                    int expected = legacyPathLength(flags, tiles, center, target);
+                    assertEquals(expected, field.pathLength(target), () -> center + " -> " + target);
+                    assertEquals(expected != Integer.MAX_VALUE, field.isReachable(target));
+                    if (expected == Integer.MAX_VALUE)
+                        unreachable++;
+                    else
+                        reachable++;
+                }
+
+                List<WorldPoint> legacyShortest = new ArrayList<>(targets);
+                legacyShortest.sort((a, b) -> Integer.compare(legacyPathLength(flags, tiles, center, a), legacyPathLength(flags, tiles, center, b)));
+                List<WorldPoint> shortest = new ArrayList<>(targets);
+                shortest.sort(Comparator.comparingInt(field::pathLength));
+                assertEquals(legacyShortest, shortest);
+
+                List<WorldPoint> legacyLongest = new ArrayList<>(targets);
+                legacyLongest.sort((a, b) -> Integer.compare(legacyPathLength(flags, tiles, center, b), legacyPathLength(flags, tiles, center, a)));
+                List<WorldPoint> longest = new ArrayList<>(targets);
+                longest.sort(Comparator.comparingInt(field::pathLength).reversed());
+                assertEquals(legacyLongest, longest);
+            }
+        }
+
+        assertTrue(reachable > 1000, "too few reachable targets: " + reachable);
+        assertTrue(unreachable > 100, "too few unreachable targets: " + unreachable);
+    }
+
+    /**
+     * What {@code SceneAPI.pathTo(from, to).size()} returned, or {@link Integer#MAX_VALUE} where it returned null
+     */
+    private static int legacyPathLength(int[][] flags, Tile[][] tiles, WorldPoint from, WorldPoint to)
+    {
+        if (from.getPlane() != to.getPlane())
+            return Integer.MAX_VALUE;
+        int fromX = from.getX() - BASE_X;
+        int fromY = from.getY() - BASE_Y;
+        int toX = to.getX() - BASE_X;
+        int toY = to.getY() - BASE_Y;
+        if (!inScene(fromX, fromY) || !inScene(toX, toY) || tiles[fromX][fromY] == null || tiles[toX][toY] == null)
+            return Integer.MAX_VALUE;
+
+        List<int[]> waypoints = legacyCheckPoints(flags, tiles, fromX, fromY, toX, toY);
+        if (waypoints == null || waypoints.isEmpty())
+            return Integer.MAX_VALUE;
+        int[] last = waypoints.get(waypoints.size() - 1);
+        if (last[0] != toX || last[1] != toY)
+            return Integer.MAX_VALUE;
+
+        waypoints.add(0, new int[]{fromX, fromY});
+        int length = 0;
+        for (int i = 0; i < waypoints.size() - 1; i++)
+        {
+            int[] start = waypoints.get(i);
+            int[] end = waypoints.get(i + 1);
+            int dx = Integer.signum(end[0] - start[0]);
+            int dy = Integer.signum(end[1] - start[1]);
+            int x = start[0];
+            int y = start[1];
+            if (i == 0)
+                length++;
+            while (x != end[0] || y != end[1])
+            {
+                x += dx;
+                y += dy;
+                length++;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * The old {@code SceneAPI.checkPointsTo}: breadth-first search of the 128x128 window around the source,
+     * falling back to the closest reached tile near an unreachable target, then the turns of the path back,
+     * at most 25 and cut at the first tile without scene data
+     */
+    private static List<int[]> legacyCheckPoints(int[][] flags, Tile[][] tiles, int fromX, int fromY, int toX, int toY)
+    {
+        int[][] directions = new int[128][128];
+        int[][] distances = new int[128][128];
+        int[] bufferX = new int[4096];
+        int[] bufferY = new int[4096];
+        for (int[] column : distances)
+            Arrays.fill(column, Integer.MAX_VALUE);
+
+        int middleX = fromX;
+        int middleY = fromY;
+        int currentX = middleX;
+        int currentY = middleY;
+        int offsetX = 64;
+        int offsetY = 64;
+        directions[offsetX][offsetY] = 99;
+        distances[offsetX][offsetY] = 0;
+        int index1 = 0;
+        bufferX[0] = currentX;
+        int index2 = 1;
+        bufferY[0] = currentY;
+        boolean isReachable = false;
+
+        while (index1 != index2)
+        {
+            currentX = bufferX[index1];
+            currentY = bufferY[index1];
+            index1 = index1 + 1 & 4095;
+            int currentMapX = currentX - middleX + offsetX;
+            int currentMapY = currentY - middleY + offsetY;
+            if (currentX == toX && currentY == toY)
+            {
+                isReachable = true;
+                break;
+            }
+
+            int currentDistance = distances[currentMapX][currentMapY] + 1;
+            // west, east, south, north
+            if (currentMapX > 0 && directions[currentMapX - 1][currentMapY] == 0 && (flag(flags, currentX - 1, currentY) & 19136776) == 0)
+            {
+                bufferX[index2] = currentX - 1;
+                bufferY[index2] = currentY;
+                index2 = index2 + 1 & 4095;
+                directions[currentMapX - 1][currentMapY] = 2;
+                distances[currentMapX - 1][currentMapY] = currentDistance;
+            }
+            if (currentMapX < 127 && directions[currentMapX + 1][currentMapY] == 0 && (flag(flags, currentX + 1, currentY) & 19136896) == 0)
+            {
+                bufferX[index2] = currentX + 1;
+                bufferY[index2] = currentY;
+                index2 = index2 + 1 & 4095;
+                directions[currentMapX + 1][currentMapY] = 8;
+                distances[currentMapX + 1][currentMapY] = currentDistance;
+            }
+            if (currentMapY > 0 && directions[currentMapX][currentMapY - 1] == 0 && (flag(flags, currentX, currentY - 1) & 19136770) == 0)
+            {
+                bufferX[index2] = currentX;
+                bufferY[index2] = currentY - 1;
+                index2 = index2 + 1 & 4095;
+                directions[currentMapX][currentMapY - 1] = 1;
+                distances[currentMapX][currentMapY - 1] = currentDistance;
+            }
+            if (currentMapY < 127 && directions[currentMapX][currentMapY + 1] == 0 && (flag(flags, currentX, currentY + 1) & 19136800) == 0)
+            {
+                bufferX[index2] = currentX;
+                bufferY[index2] = currentY + 1;
+                index2 = index2 + 1 & 4095;
+                directions[currentMapX][currentMapY + 1] = 4;
+                distances[currentMapX][currentMapY + 1] = currentDistance;
+            }
+            // south-west, south-east, north-west, north-east
+            if (currentMapX > 0 && currentMapY > 0 && directions[currentMapX - 1][currentMapY - 1] == 0 && (flag(flags, currentX - 1, currentY - 1) & 19136782) == 0 && (flag(flags, currentX - 1, currentY) & 19136776) == 0 && (flag(flags, currentX, currentY - 1) & 19136770) == 0)
+            {
+                bufferX[index2] = currentX - 1;
+                bufferY[index2] = currentY - 1;
+                index2 = index2 + 1 & 4095;
+                directions[currentMapX - 1][currentMapY - 1] = 3;
+                distances[currentMapX - 1][currentMapY - 1] = currentDistance;
+            }
+            if (currentMapX < 127 && currentMapY > 0 && directions[currentMapX + 1][currentMapY - 1] == 0 && (flag(flags, currentX + 1, currentY - 1) & 19136899) == 0 && (flag(flags, currentX + 1, currentY) & 19136896) == 0 && (flag(flags, currentX, currentY - 1) & 19136770) == 0)
+            {
+                bufferX[index2] = currentX + 1;
+                bufferY[index2] = currentY - 1;
+                index2 = index2 + 1 & 4095;
+                directions[currentMapX + 1][currentMapY - 1] = 9;
+                distances[currentMapX + 1][currentMapY - 1] = currentDistance;
+            }
+            if (currentMapX > 0 && currentMapY < 127 && directions[currentMapX - 1][currentMapY + 1] == 0 && (flag(flags, currentX - 1, currentY + 1) & 19136824) == 0 && (flag(flags, currentX - 1, currentY) & 19136776) == 0 && (flag(flags, currentX, currentY + 1) & 19136800) == 0)
+            {
+                bufferX[index2] = currentX - 1;
+                bufferY[index2] = currentY + 1;
+                index2 = index2 + 1 & 4095;
+                directions[currentMapX - 1][currentMapY + 1] = 6;
+                distances[currentMapX - 1][currentMapY + 1] = currentDistance;
+            }
+            if (currentMapX < 127 && currentMapY < 127 && directions[currentMapX + 1][currentMapY + 1] == 0 && (flag(flags, currentX + 1, currentY + 1) & 19136992) == 0 && (flag(flags, currentX + 1, currentY) & 19136896) == 0 && (flag(flags, currentX, currentY + 1) & 19136800) == 0)
+            {
+                bufferX[index2] = currentX + 1;
+                bufferY[index2] = currentY + 1;
+                index2 = index2 + 1 & 4095;
+                directions[currentMapX + 1][currentMapY + 1] = 12;
+                distances[currentMapX + 1][currentMapY + 1] = currentDistance;
+            }
+        }
+
+        if (!isReachable)
+        {
+            int upperboundDistance = Integer.MAX_VALUE;
+            int pathLength = Integer.MAX_VALUE;
+            int checkRange = 10;
+            for (int i = toX - checkRange; i <= checkRange + toX; ++i)
+            {
+                for (int j = toY - checkRange; j <= checkRange + toY; ++j)
+                {
+                    int currentMapX = i - middleX + offsetX;
+                    int currentMapY = j - middleY + offsetY;
+                    if (currentMapX >= 0 && currentMapY >= 0 && currentMapX < 128 && currentMapY < 128 && distances[currentMapX][currentMapY] < 100)
+                    {
+                        int deltaX = Math.abs(i - toX);
+                        int deltaY = Math.abs(j - toY);
+                        int distanceSquared = deltaX * deltaX + deltaY * deltaY;
+                        if (distanceSquared < upperboundDistance || distanceSquared == upperboundDistance && distances[currentMapX][currentMapY] < pathLength)
+                        {
+                            upperboundDistance = distanceSquared;
+                            pathLength = distances[currentMapX][currentMapY];
+                            currentX = i;
+                            currentY = j;
+                        }
+                    }
+                }
+            }
+            if (upperboundDistance == Integer.MAX_VALUE)
+                return null;
+        }
+
+        bufferX[0] = currentX;
+        bufferY[0] = currentY;
+        int index = 1;
+        int directionNew;
+        int directionOld;
+        for (directionNew = directionOld = directions[currentX - middleX + offsetX][currentY - middleY + offsetY]; fromX != currentX || fromY != currentY; directionNew = directions[currentX - middleX + offsetX][currentY - middleY + offsetY])
+        {
+            if (directionNew != directionOld)
+            {
+                directionOld = directionNew;
+                bufferX[index] = currentX;
+                bufferY[index++] = currentY;
+            }
+            if ((directionNew & 2) != 0)
+                ++currentX;
+            else if ((directionNew & 8) != 0)
+                --currentX;
+            if ((directionNew & 1) != 0)
+                ++currentY;
+            else if ((directionNew & 4) != 0)
+                --currentY;
+        }
+
+        List<int[]> checkpoints = new ArrayList<>();
+        int checkpointTileNumber = 1;
+        while (index-- > 0)
+        {
+            if (tiles[bufferX[index]][bufferY[index]] == null)
+                break;
+            checkpoints.add(new int[]{bufferX[index], bufferY[index]});
+            if (checkpointTileNumber == 25)
+                break;
+            checkpointTileNumber++;
+        }
+        return checkpoints;
+    }
+
+    /**
+     * The client's collision maps are {@link #OUTSIDE} around the edge, so the search never read past them;
+     * these scenes have no such border, so reads beyond the scene stand in for it
+     */
+    private static int flag(int[][] flags, int x, int y)
+    {
+        return inScene(x, y) ? flags[x][y] : OUTSIDE;
+    }
+
+    private static boolean inScene(int x, int y)
+    {
+        return x >= 0 && y >= 0 && x < SIZE && y < SIZE;
+    }
+
+    /**
+     * Scattered blocked tiles plus a few walls with gaps, which split the scene into rooms
+     */
+    private static int[][] flags(Random random)
+    {
+        int[][] flags = new int[SIZE][SIZE];
+        for (int x = 0; x < SIZE; x++)
+        {
+            for (int y = 0; y < SIZE; y++)
+            {
+                if (random.nextInt(100) < 12)
+                    flags[x][y] |= BLOCK_OBJECT;
+            }
+        }
+        for (int wall = 0; wall < 4; wall++)
+        {
+            int x = 1 + random.nextInt(SIZE - 2);
+            int gap = random.nextInt(SIZE);
+            for (int y = 0; y < SIZE; y++)
+            {
+                if (Math.abs(y - gap) <= 1)
+                    continue;
+                flags[x][y] |= WALL_EAST;
+                flags[x + 1][y] |= WALL_WEST;
+            }
+        }
+        return flags;
+    }
+
+    private static WorldPoint randomPoint(Random random)
+    {
+        return new WorldPoint(BASE_X + random.nextInt(SIZE), BASE_Y + random.nextInt(SIZE), PLANE);
+    }
+}
@@ -5,6 +5,7 @@ import java.net.URL
 plugins {
     id("java")
     id("maven-publish")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.tonic"
@@ -32,6 +33,17 @@ dependencies {
     implementation("org.antlr:antlr4:4.13.1")
     implementation("com.github.vlsi.mxgraph:jgraphx:4.2.2")
     implementation("org.jfree:jfreechart:1.5.4")
+    testImplementation(platform("org.junit:junit-bom:5.9.1"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    includeTests.set(false)
 }
 
 val apiFilePatterns = mapOf(
@@ -0,0 +1,134 @@
+package com.tonic.packets;
+
+import io.netty.buffer.ByteBuf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * XTEA decryption of one payload: the per-byte {@link ByteBuf} loop {@link PacketBuffer} used before
+ * {@link PacketCrypto}, against the bulk paths over a pooled buffer, a heap array and a direct buffer.
+ * The cipher is applied in place on every invocation, which doesn't matter for its cost.
+ *
+ * <p>The {@code isaac*} cases draw {@code size} words of {@link IsaacKeystream} output, one
+ * {@link IsaacKeystream#nextInt()} per word as the client does per packet, against a single bulk
+ * {@link IsaacKeystream#fill(int[], int, int)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PacketCryptoBenchmark {
+    @Param({"64", "1024", "16384"})
+    public int size;
+
+    private int[] key;
+    private PacketCrypto.XteaKey xteaKey;
+    private byte[] array;
+    private ByteBuffer direct;
+    private ByteBuf legacy;
+    private PacketBuffer packet;
+    private IsaacKeystream isaac;
+    private int[] words;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(29);
+        key = new int[]{random.nextInt(), random.nextInt(), random.nextInt(), random.nextInt()};
+        xteaKey = PacketCrypto.XteaKey.of(key);
+
+        array = new byte[size];
+        random.nextBytes(array);
+        direct = ByteBuffer.allocateDirect(size);
+        direct.put(array).clear();
+        legacy = ByteBufferPool.allocate(size);
+        legacy.writeBytes(array);
+        packet = new PacketBuffer(-1, array);
+        isaac = new IsaacKeystream(key);
+        words = new int[size];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ByteBufferPool.release(legacy);
+        packet.close();
+    }
+
+    @Benchmark
+    public ByteBuf legacyByteLoop() {
+        legacyDecrypt(legacy, key, 0, size);
+        return legacy;
+    }
+
+    @Benchmark
+    public PacketBuffer packetBuffer() {
+        packet.xteaDecrypt(key, 0, size);
+        return packet;
+    }
+
+    @Benchmark
+    public byte[] bulkArray() {
+        PacketCrypto.xteaDecrypt(xteaKey, array, 0, size);
+        return array;
+    }
+
+    @Benchmark
+    public ByteBuffer bulkDirect() {
+        PacketCrypto.xteaDecrypt(xteaKey, direct, 0, size);
+        return direct;
+    }
+
+    @Benchmark
+    public int[] isaacNextInt() {
+        for (int i = 0; i < size; i++) {
+            words[i] = isaac.nextInt();
+        }
+        return words;
+    }
+
+    @Benchmark
+    public int[] isaacFill() {
+        isaac.fill(words, 0, size);
+        return words;
+    }
+
+    /**
+     * The previous {@code PacketBuffer.xteaDecrypt}: one {@code getByte}/{@code setByte} per byte.
+     */
+    private static void legacyDecrypt(ByteBuf buf, int[] key, int start, int end) {
+        int offset = start;
+        int blocks = (end - start) / 8;
+        for (int b = 0; b < blocks; b++) {
+            int v0 = (buf.getByte(offset) & 0xFF) << 24 | (buf.getByte(offset + 1) & 0xFF) << 16
+                    | (buf.getByte(offset + 2) & 0xFF) << 8 | (buf.getByte(offset + 3) & 0xFF);
+            int v1 = (buf.getByte(offset + 4) & 0xFF) << 24 | (buf.getByte(offset + 5) & 0xFF) << 16
+                    | (buf.getByte(offset + 6) & 0xFF) << 8 | (buf.getByte(offset + 7) & 0xFF);
+            int sum = -957401312;
+            for (int r = 32; r-- > 0; v0 -= v1 + (v1 << 4 ^ v1 >>> 5) ^ sum + key[sum & 3]) {
+                v1 -= v0 + (v0 << 4 ^ v0 >>> 5) ^ key[sum >>> 11 & 3] + sum;
+                sum -= -1640531527;
+            }
+            for (int i = 0; i < 4; i++) {
+                buf.setByte(offset + i, (byte) (v0 >> (24 - i * 8)));
+                buf.setByte(offset + 4 + i, (byte) (v1 >> (24 - i * 8)));
+            }
+            offset += 8;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.tonic.services.profiler.sampling;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sampling into a full {@link CallTreeProfile}: every recorded sample evicts the oldest one, and the set
+ * of hot stacks drifts over time so evicted paths die and get compacted away. {@code snapshotAndAnalyze}
+ * is what the Sampling tab does on each refresh.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CallTreeBenchmark {
+    private static final int STACKS = 20_000;
+    private static final int HOT_STACKS = 500;
+
+    @Param({"20000"})
+    public int retained;
+
+    @Param({"40"})
+    public int depth;
+
+    private CallTreeProfile profile;
+    private int[][] stacks;
+    private final SampleAnalyzer analyzer = new SampleAnalyzer();
+    private Random random;
+    private long tick;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        random = new Random(31);
+        profile = new CallTreeProfile(retained);
+        stacks = new int[STACKS][];
+        for (int i = 0; i < STACKS; i++) {
+            int[] stack = new int[depth / 2 + random.nextInt(depth / 2 + 1)];
+            for (int j = 0; j < stack.length; j++) {
+                stack[j] = profile.internFrame("com.example.Class" + random.nextInt(400), "method" + random.nextInt(8));
+            }
+            stacks[i] = stack;
+        }
+        for (int i = 0; i < retained; i++) {
+            record();
+        }
+    }
+
+    @Benchmark
+    public void record() {
+        long t = tick++;
+        // Drift the hot set every few thousand samples so old paths age out of the ring
+        int base = (int) (t / 5_000 * HOT_STACKS % STACKS);
+        int[] stack = stacks[(base + random.nextInt(HOT_STACKS)) % STACKS];
+        profile.addSample(t & 7, "worker", Thread.State.RUNNABLE, t, stack, stack.length, 0);
+    }
+
+    @Benchmark
+    public SampleAnalyzer.CPUAnalysisResults snapshotAndAnalyze() {
+        return analyzer.analyzeCPU(profile.snapshot());
+    }
+}
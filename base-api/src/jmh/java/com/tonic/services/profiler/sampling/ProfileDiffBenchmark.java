@@ -0,0 +1,92 @@
+package com.tonic.services.profiler.sampling;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Diffing two large call trees the way the flame graph tab does when diff mode is switched on: merge the
+ * trees, then build the regression table. The comparison profile shares most paths with the baseline,
+ * drops some and adds its own, and weights them differently.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProfileDiffBenchmark {
+    private static final int DEPTH = 24;
+    private static final int SAMPLES = 400_000;
+
+    /**
+     * Distinct stacks per profile; at 6000 each tree has about 100k nodes
+     */
+    @Param({"6000", "12000"})
+    public int stacks;
+
+    private CallTreeProfile.Snapshot baseline;
+    private CallTreeProfile.Snapshot comparison;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(41);
+        String[][] paths = new String[stacks * 5 / 4][];
+        for (int i = 0; i < paths.length; i++) {
+            String[] path = new String[DEPTH / 2 + random.nextInt(DEPTH / 2 + 1)];
+            for (int j = 0; j < path.length; j++) {
+                // A narrow top of the tree and a wide bottom, as in real profiles
+                int classes = Math.min(2_000, 4 << j);
+                path[j] = "com.example.Class" + random.nextInt(classes) + "#method" + random.nextInt(6);
+            }
+            paths[i] = path;
+        }
+        // Baseline uses the first 4/5 of the paths, the comparison the last 4/5
+        baseline = build(paths, 0, stacks, new Random(43));
+        comparison = build(paths, paths.length - stacks, paths.length, new Random(47));
+    }
+
+    @Benchmark
+    public ProfileDiff compare() {
+        return ProfileDiff.compare(baseline, comparison);
+    }
+
+    @Benchmark
+    public List<ProfileDiff.MethodDelta> compareAndRank() {
+        return ProfileDiff.compare(baseline, comparison).getMethodDeltas();
+    }
+
+    private static CallTreeProfile.Snapshot build(String[][] paths, int from, int to, Random random) {
+        CallTreeProfile profile = new CallTreeProfile(SAMPLES + 1);
+        int[][] frames = new int[to - from][];
+        for (int i = from; i < to; i++) {
+            String[] path = paths[i];
+            // Leaf-first, as stack traces are
+            int[] stack = new int[path.length];
+            for (int j = 0; j < path.length; j++) {
+                String[] name = path[path.length - 1 - j].split("#");
+                stack[j] = profile.internFrame(name[0], name[1]);
+            }
+            frames[i - from] = stack;
+        }
+        // Every stack at least once so the whole tree is live, the rest skewed towards a hot set
+        for (int i = 0; i < SAMPLES; i++) {
+            int[] stack = i < frames.length ? frames[i] : frames[(int) (frames.length * Math.pow(random.nextDouble(), 2))];
+            profile.addSample(i & 7, "worker", Thread.State.RUNNABLE, i, stack, stack.length, 0);
+        }
+        return profile.snapshot();
+    }
+}
@@ -0,0 +1,56 @@
+package com.tonic.services.profiler.timeline;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One append into a {@link TimelineStore} that is already full, so appends keep rolling segments out at
+ * the count limit (and at the age limit when {@code retentionMs} is set) while feeding the rollup tiers.
+ * Timestamps advance by one per append, as a busy collector would produce them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TimelineStoreBenchmark {
+    private static final TimelineEvent.EventType[] TYPES = TimelineEvent.EventType.values();
+
+    @Param({"100000"})
+    public int maxEvents;
+
+    @Param({"0", "5000"})
+    public long retentionMs;
+
+    private TimelineStore store;
+    private long timestamp;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        store = new TimelineStore(maxEvents, retentionMs);
+        timestamp = 0;
+        for (int i = 0; i < maxEvents * 2; i++) {
+            append();
+        }
+    }
+
+    @Benchmark
+    public TimelineStore append() {
+        long t = timestamp++;
+        store.append(t, TYPES[(int) (t % TYPES.length)], t & 15, TimelineEvent.EventSeverity.LOW, "GC", null);
+        return store;
+    }
+}
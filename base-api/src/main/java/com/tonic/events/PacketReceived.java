@@ -22,10 +22,10 @@ public class PacketReceived {
      */
     public static PacketReceived of(int id, int length, byte[] payload)
     {
+        INSTANCE.release();
         INSTANCE.id = id;
         INSTANCE.length = length;
         INSTANCE.payload = payload;
-        INSTANCE.buffer = null;
         return INSTANCE;
     }
 
@@ -49,6 +49,19 @@ public class PacketReceived {
         return buffer;
     }
 
+    /**
+     * Dispose of the cached PacketBuffer. Called after the event has been dispatched;
+     * subscribers that need the buffer longer must copy it or use {@link #getPayload()}.
+     */
+    public void release()
+    {
+        if(buffer != null)
+        {
+            buffer.dispose();
+            buffer = null;
+        }
+    }
+
     public String toHex()
     {
         StringBuilder sb = new StringBuilder();
@@ -69,7 +82,7 @@ public class PacketReceived {
     {
         PacketBuffer pb = getBuffer();
         String out = PacketMapReader.prettify(pb);
-        pb.dispose();
+        release();
         return out;
     }
 }
@@ -23,10 +23,10 @@ public class PacketSent {
      */
     public static PacketSent of(int id, int length, byte[] payload)
     {
+        INSTANCE.release();
         INSTANCE.id = id;
         INSTANCE.length = length;
         INSTANCE.payload = payload;
-        INSTANCE.buffer = null;
         return INSTANCE;
     }
 
@@ -82,6 +82,10 @@ public class PacketSent {
         return MOUSE_CLICK == id ? 1 : 0;
     }
 
+    /**
+     * Dispose of the cached PacketBuffer. Called after the event has been dispatched;
+     * subscribers that need the buffer longer must copy it or use {@link #getPayload()}.
+     */
     public void release()
     {
         if(buffer != null)
@@ -93,7 +97,6 @@ public class PacketSent {
 
     /**
      * Prettify the packet payload using PacketMapReader.
-     * Disposes of the PacketBuffer after use.
      * @return prettified string representation of the packet payload.
      */
     @Override
@@ -0,0 +1,215 @@
+package com.tonic.packets;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in leak tracking for {@link PacketBuffer}s.
+ *
+ * <p>When enabled, every new buffer records its allocation site. A buffer that is garbage collected
+ * without being disposed is reported as a leak against that site; buffers that are still alive can be
+ * listed by age to spot ones that are being held too long. Disabled by default since capturing the
+ * allocation stack costs far more than the allocation itself. Enable with
+ * {@code -Dvitalite.bufferLeakTracking=true} or {@link #setEnabled(boolean)}.
+ */
+public final class BufferLeakTracker
+{
+    private static final int SITE_DEPTH = 6;
+
+    private static volatile boolean enabled = Boolean.getBoolean("vitalite.bufferLeakTracking");
+    private static final ReferenceQueue<PacketBuffer> QUEUE = new ReferenceQueue<>();
+    private static final Set<Record> LIVE = ConcurrentHashMap.newKeySet();
+    private static final Map<String, AtomicLong> LEAKS = new ConcurrentHashMap<>();
+
+    private BufferLeakTracker()
+    {
+    }
+
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Toggle tracking. Only buffers allocated while enabled are tracked.
+     */
+    public static void setEnabled(boolean state)
+    {
+        enabled = state;
+        if (!state)
+        {
+            LIVE.clear();
+            drain();
+        }
+    }
+
+    /**
+     * Forget all recorded leaks and live buffers.
+     */
+    public static void reset()
+    {
+        LIVE.clear();
+        LEAKS.clear();
+        drain();
+    }
+
+    /**
+     * @return leaked buffers (collected without dispose) grouped by allocation site, most frequent first
+     */
+    public static List<Report> getLeaks()
+    {
+        collect();
+        List<Report> reports = new ArrayList<>();
+        for (Map.Entry<String, AtomicLong> entry : LEAKS.entrySet())
+        {
+            reports.add(new Report(entry.getKey(), entry.getValue().get(), 0));
+        }
+        reports.sort(Comparator.comparingLong((Report r) -> r.count).reversed());
+        return reports;
+    }
+
+    /**
+     * @param minAgeMs only count buffers alive for at least this long
+     * @return undisposed live buffers grouped by allocation site, most frequent first
+     */
+    public static List<Report> getOutstanding(long minAgeMs)
+    {
+        collect();
+        long now = System.currentTimeMillis();
+        Map<String, long[]> bySite = new HashMap<>();
+        for (Record record : LIVE)
+        {
+            long age = now - record.created;
+            if (age < minAgeMs)
+            {
+                continue;
+            }
+            long[] stats = bySite.computeIfAbsent(record.site, k -> new long[2]);
+            stats[0]++;
+            stats[1] = Math.max(stats[1], age);
+        }
+
+        List<Report> reports = new ArrayList<>();
+        for (Map.Entry<String, long[]> entry : bySite.entrySet())
+        {
+            reports.add(new Report(entry.getKey(), entry.getValue()[0], entry.getValue()[1]));
+        }
+        reports.sort(Comparator.comparingLong((Report r) -> r.count).reversed());
+        return reports;
+    }
+
+    /**
+     * @return number of tracked buffers not yet disposed
+     */
+    public static int getLiveCount()
+    {
+        collect();
+        return LIVE.size();
+    }
+
+    static Record track(PacketBuffer buffer)
+    {
+        if (!enabled)
+        {
+            return null;
+        }
+        collect();
+        Record record = new Record(buffer, site());
+        LIVE.add(record);
+        return record;
+    }
+
+    static void release(Record record)
+    {
+        if (record != null)
+        {
+            LIVE.remove(record);
+            record.clear();
+        }
+    }
+
+    private static void collect()
+    {
+        Reference<? extends PacketBuffer> ref;
+        while ((ref = QUEUE.poll()) != null)
+        {
+            Record record = (Record) ref;
+            if (LIVE.remove(record))
+            {
+                LEAKS.computeIfAbsent(record.site, k -> new AtomicLong()).incrementAndGet();
+            }
+        }
+    }
+
+    private static void drain()
+    {
+        while (QUEUE.poll() != null)
+        {
+            // discard
+        }
+    }
+
+    private static String site()
+    {
+        StackTraceElement[] stack = new Throwable().getStackTrace();
+        StringBuilder sb = new StringBuilder();
+        int depth = 0;
+        for (StackTraceElement element : stack)
+        {
+            String cls = element.getClassName();
+            if (cls.equals(BufferLeakTracker.class.getName()) || cls.equals(PacketBuffer.class.getName()))
+            {
+                continue;
+            }
+            if (depth > 0)
+            {
+                sb.append(" <- ");
+            }
+            sb.append(cls.substring(cls.lastIndexOf('.') + 1)).append('.').append(element.getMethodName())
+                .append(':').append(element.getLineNumber());
+            if (++depth >= SITE_DEPTH)
+            {
+                break;
+            }
+        }
+        return sb.toString();
+    }
+
+    static final class Record extends PhantomReference<PacketBuffer>
+    {
+        private final String site;
+        private final long created = System.currentTimeMillis();
+
+        private Record(PacketBuffer referent, String site)
+        {
+            super(referent, QUEUE);
+            this.site = site;
+        }
+    }
+
+    /**
+     * Buffers grouped by allocation site.
+     */
+    public static final class Report
+    {
+        public final String site;
+        public final long count;
+        public final long oldestAgeMs;
+
+        private Report(String site, long count, long oldestAgeMs)
+        {
+            this.site = site;
+            this.count = count;
+            this.oldestAgeMs = oldestAgeMs;
+        }
+    }
+}
@@ -4,22 +4,106 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.PooledByteBufAllocator;
 
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pooled buffer source for {@link PacketBuffer}.
+ *
+ * <p>Buffers come from the Netty pooled allocator, whose own per-thread cache serves the small, short
+ * lived buffers packets use. This class only counts requests by size so leaks and the packet length
+ * distribution show up in the profiler.
+ */
 public class ByteBufferPool
 {
     private static final ByteBufAllocator ALLOCATOR = PooledByteBufAllocator.DEFAULT;
     private static final int BUFFER_SIZE = 200;
 
+    /**
+     * Size buckets covering the client packet length distribution: most packets fit in 64 bytes,
+     * mouse movement and chat in 256, and login/RSA blocks in 1024. Larger requests count as oversized.
+     */
+    private static final int[] SIZE_CLASSES = {64, 256, 1024};
+
+    private static final LongAdder allocations = new LongAdder();
+    private static final LongAdder releases = new LongAdder();
+    private static final LongAdder oversized = new LongAdder();
+    private static final LongAdder[] classRequests = new LongAdder[SIZE_CLASSES.length];
+
+    static
+    {
+        for (int i = 0; i < classRequests.length; i++)
+        {
+            classRequests[i] = new LongAdder();
+        }
+    }
+
     public static ByteBuf allocate() {
-        return ALLOCATOR.buffer(BUFFER_SIZE);
+        return allocate(BUFFER_SIZE);
     }
 
     public static ByteBuf allocate(int size) {
+        allocations.increment();
+        int sizeClass = sizeClass(size);
+        if (sizeClass < 0) {
+            oversized.increment();
+        } else {
+            classRequests[sizeClass].increment();
+        }
         return ALLOCATOR.buffer(size);
     }
 
     public static void release(ByteBuf buffer) {
-        if (buffer != null) {
-            buffer.release();
+        if (buffer == null) {
+            return;
+        }
+
+        releases.increment();
+        buffer.release();
+    }
+
+    /**
+     * @return a point-in-time view of pool usage for diagnostics
+     */
+    public static Stats getStats() {
+        long[] perClass = new long[SIZE_CLASSES.length];
+        for (int i = 0; i < perClass.length; i++) {
+            perClass[i] = classRequests[i].sum();
+        }
+        return new Stats(allocations.sum(), releases.sum(), oversized.sum(), SIZE_CLASSES.clone(), perClass);
+    }
+
+    private static int sizeClass(int size) {
+        for (int i = 0; i < SIZE_CLASSES.length; i++) {
+            if (size <= SIZE_CLASSES[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Pool counters.
+     */
+    public static final class Stats {
+        public final long allocations;
+        public final long releases;
+        public final long oversized;
+        public final int[] sizeClasses;
+        public final long[] classRequests;
+
+        private Stats(long allocations, long releases, long oversized, int[] sizeClasses, long[] classRequests) {
+            this.allocations = allocations;
+            this.releases = releases;
+            this.oversized = oversized;
+            this.sizeClasses = sizeClasses;
+            this.classRequests = classRequests;
+        }
+
+        /**
+         * @return allocations minus releases; a steadily growing value points at a leak
+         */
+        public long getOutstanding() {
+            return allocations - releases;
         }
     }
-}
\ No newline at end of file
+}
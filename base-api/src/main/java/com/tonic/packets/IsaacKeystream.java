@@ -0,0 +1,133 @@
+package com.tonic.packets;
+
+/**
+ * ISAAC keystream compatible with the client's opcode cipher.
+ *
+ * <p>The client draws one word per packet, consuming each 256-word batch from the last word to the
+ * first. {@link #nextInt()} reproduces that order exactly; {@link #fill(int[], int, int)} hands out the
+ * same sequence in bulk, copying straight from the batch, which is what offline tooling replaying a
+ * capture wants. Batch generation is unrolled by four so the per-step shift selection disappears.
+ */
+public final class IsaacKeystream {
+    private static final int SIZE = 256;
+    private static final int MASK = (SIZE - 1) << 2;
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+
+    private final int[] results = new int[SIZE];
+    private final int[] memory = new int[SIZE];
+    private int remaining;
+    private int a;
+    private int b;
+    private int c;
+
+    /**
+     * @param seed up to 256 seed words (the client uses the four session keys, +50 for the inbound stream)
+     */
+    public IsaacKeystream(int[] seed) {
+        if (seed.length > SIZE) {
+            throw new IllegalArgumentException("ISAAC seed must be at most " + SIZE + " ints, got " + seed.length);
+        }
+        System.arraycopy(seed, 0, results, 0, seed.length);
+        init();
+    }
+
+    public int nextInt() {
+        if (remaining-- == 0) {
+            generate();
+            remaining = SIZE - 1;
+        }
+        return results[remaining];
+    }
+
+    /**
+     * Write the next {@code length} words of the stream to {@code dst}, equivalent to calling
+     * {@link #nextInt()} that many times.
+     */
+    public void fill(int[] dst, int offset, int length) {
+        int pos = offset;
+        int end = offset + length;
+        while (pos < end) {
+            if (remaining == 0) {
+                generate();
+                remaining = SIZE;
+            }
+            int n = Math.min(remaining, end - pos);
+            for (int i = 0; i < n; i++) {
+                dst[pos + i] = results[remaining - 1 - i];
+            }
+            remaining -= n;
+            pos += n;
+        }
+    }
+
+    private void generate() {
+        final int[] m = memory;
+        final int[] r = results;
+        int x;
+        int y;
+        int aa = a;
+        int bb = b + ++c;
+
+        for (int i = 0; i < SIZE; i += 4) {
+            x = m[i];
+            aa ^= aa << 13;
+            aa += m[(i + 128) & 0xFF];
+            m[i] = y = m[(x & MASK) >> 2] + aa + bb;
+            r[i] = bb = m[(y >> 8 & MASK) >> 2] + x;
+
+            x = m[i + 1];
+            aa ^= aa >>> 6;
+            aa += m[(i + 129) & 0xFF];
+            m[i + 1] = y = m[(x & MASK) >> 2] + aa + bb;
+            r[i + 1] = bb = m[(y >> 8 & MASK) >> 2] + x;
+
+            x = m[i + 2];
+            aa ^= aa << 2;
+            aa += m[(i + 130) & 0xFF];
+            m[i + 2] = y = m[(x & MASK) >> 2] + aa + bb;
+            r[i + 2] = bb = m[(y >> 8 & MASK) >> 2] + x;
+
+            x = m[i + 3];
+            aa ^= aa >>> 16;
+            aa += m[(i + 131) & 0xFF];
+            m[i + 3] = y = m[(x & MASK) >> 2] + aa + bb;
+            r[i + 3] = bb = m[(y >> 8 & MASK) >> 2] + x;
+        }
+
+        a = aa;
+        b = bb;
+    }
+
+    private void init() {
+        int[] s = new int[8];
+        for (int i = 0; i < 8; i++) {
+            s[i] = GOLDEN_RATIO;
+        }
+        for (int i = 0; i < 4; i++) {
+            mix(s);
+        }
+        for (int pass = 0; pass < 2; pass++) {
+            int[] src = pass == 0 ? results : memory;
+            for (int i = 0; i < SIZE; i += 8) {
+                for (int j = 0; j < 8; j++) {
+                    s[j] += src[i + j];
+                }
+                mix(s);
+                System.arraycopy(s, 0, memory, i, 8);
+            }
+        }
+        generate();
+        remaining = SIZE;
+    }
+
+    private static void mix(int[] s) {
+        s[0] ^= s[1] << 11; s[3] += s[0]; s[1] += s[2];
+        s[1] ^= s[2] >>> 2; s[4] += s[1]; s[2] += s[3];
+        s[2] ^= s[3] << 8;  s[5] += s[2]; s[3] += s[4];
+        s[3] ^= s[4] >>> 16; s[6] += s[3]; s[4] += s[5];
+        s[4] ^= s[5] << 10; s[7] += s[4]; s[5] += s[6];
+        s[5] ^= s[6] >>> 4; s[0] += s[5]; s[6] += s[7];
+        s[6] ^= s[7] << 8;  s[1] += s[6]; s[7] += s[0];
+        s[7] ^= s[0] >>> 9; s[2] += s[7]; s[0] += s[1];
+    }
+}
@@ -5,13 +5,24 @@ import com.tonic.api.TClientPacket;
 import com.tonic.api.TPacketBufferNode;
 import com.tonic.util.TextUtil;
 import io.netty.buffer.ByteBuf;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.math.BigInteger;
-
+import java.nio.ByteBuffer;
+
+/**
+ * Packet payload backed by a pooled {@link ByteBuf}.
+ * The pooled memory is only returned by {@link #dispose()}; prefer try-with-resources:
+ * <pre>{@code
+ * try (PacketBuffer buffer = new PacketBuffer(id, payload)) {
+ *     int value = buffer.readInt();
+ * }
+ * }</pre>
+ */
 @Getter
-public class PacketBuffer {
+public class PacketBuffer implements AutoCloseable {
     private final int packetId;
     @Setter
     private ByteBuf payload;
@@ -22,24 +33,35 @@ public class PacketBuffer {
     @Setter
     private int trueLength = 0;
 
+    private boolean released = false;
+
+    @Getter(AccessLevel.NONE)
+    private final BufferLeakTracker.Record leakRecord;
+
     public PacketBuffer(int packetId, byte[] payload) {
         this.packetId = packetId;
         this.payload = ByteBufferPool.allocate(payload.length);
         this.payload.writeBytes(payload);
         this.offset = 0;
+        this.leakRecord = BufferLeakTracker.track(this);
     }
 
     public TPacketBufferNode toPacketBufferNode(TClient client)
     {
         TClientPacket packet = client.newClientPacket(packetId, trueLength);
-        TPacketBufferNode node = client.getPacketBufferNode(packet, client.getPacketWriter().getIsaacCipher());
-        for(int i = 0; i < trueLength; i++)
+        try
         {
-            node.getPacketBuffer().writeByte(payload.getByte(i));
+            TPacketBufferNode node = client.getPacketBufferNode(packet, client.getPacketWriter().getIsaacCipher());
+            for(int i = 0; i < trueLength; i++)
+            {
+                node.getPacketBuffer().writeByte(payload.getByte(i));
+            }
+            return node;
+        }
+        finally
+        {
+            dispose();
         }
-
-        dispose();
-        return node;
     }
 
     public PacketBuffer(int packetId, int size)
@@ -50,6 +72,7 @@ public class PacketBuffer {
         else
             this.payload = ByteBufferPool.allocate(size);
         offset = 0;
+        this.leakRecord = BufferLeakTracker.track(this);
     }
 
     public PacketBuffer(int size)
@@ -60,6 +83,7 @@ public class PacketBuffer {
         else
             this.payload = ByteBufferPool.allocate(size);
         offset = 0;
+        this.leakRecord = BufferLeakTracker.track(this);
     }
 
     public void encryptRsa(BigInteger var1, BigInteger var2) {
@@ -99,34 +123,43 @@ public class PacketBuffer {
         this.offset = 0; // Reset for reading
     }
 
-    public void xteaDecrypt(int[] var1, int var2, int var3) {
-        int var4 = this.offset;
-        this.offset = var2;
-        int var5 = (var3 - var2) / 8;
+    /**
+     * Decrypt the whole 8-byte blocks in {@code [start, end)} in place. Does not move the offset.
+     */
+    public void xteaDecrypt(int[] key, int start, int end) {
+        xtea(PacketCrypto.XteaKey.of(key), start, end, false);
+    }
 
-        for (int var6 = 0; var6 < var5; ++var6) {
-            int var7 = this.readInt();
-            int var8 = this.readInt();
-            int var9 = -957401312;
-            int var10 = -1640531527;
+    /**
+     * Encrypt the whole 8-byte blocks in {@code [start, end)} in place. Does not move the offset.
+     */
+    public void xteaEncrypt(int[] key, int start, int end) {
+        xtea(PacketCrypto.XteaKey.of(key), start, end, true);
+    }
 
-            for (int var11 = 32; var11-- > 0; var7 -= var8 + (var8 << 4 ^ var8 >>> 5) ^ var9 + var1[var9 & 3]) {
-                var8 -= var7 + (var7 << 4 ^ var7 >>> 5) ^ var1[var9 >>> 11 & 3] + var9;
-                var9 -= var10;
+    private void xtea(PacketCrypto.XteaKey key, int start, int end, boolean encrypt) {
+        if (payload.hasArray()) {
+            int base = payload.arrayOffset();
+            if (encrypt) {
+                PacketCrypto.xteaEncrypt(key, payload.array(), base + start, base + end);
+            } else {
+                PacketCrypto.xteaDecrypt(key, payload.array(), base + start, base + end);
             }
-
-            this.offset -= 8;
-            this.writeInt(var7);
-            this.writeInt(var8);
+            return;
         }
 
-        this.offset = var4;
+        // Pooled direct buffers expose their memory as a single NIO view; writes go straight through
+        ByteBuffer view = payload.nioBuffer(start, end - start);
+        if (encrypt) {
+            PacketCrypto.xteaEncrypt(key, view, 0, end - start);
+        } else {
+            PacketCrypto.xteaDecrypt(key, view, 0, end - start);
+        }
     }
 
     public void readBytes(byte[] var1, int var2, int var3) {
-        for(int var4 = var2; var4 < var3 + var2; ++var4) {
-            var1[var4] = payload.getByte(offset++);
-        }
+        payload.getBytes(offset, var1, var2, var3);
+        offset += var3;
     }
 
     public byte readByte() {
@@ -440,9 +473,8 @@ public class PacketBuffer {
 
     public void writeBytes(byte[] src, int srcOffset, int length) {
         this.trueLength += length;
-        for (int i = srcOffset; i < length + srcOffset; i++) {
-            payload.setByte(offset++, src[i]);
-        }
+        payload.setBytes(offset, src, srcOffset, length);
+        offset += length;
     }
 
     public void writeBuffer(byte[] src) {
@@ -625,8 +657,24 @@ public class PacketBuffer {
         return hex.toString().toUpperCase();
     }
 
+    /**
+     * Return the backing buffer to the pool. Safe to call more than once; the buffer must not be
+     * used afterwards.
+     */
     public void dispose()
     {
+        if (released)
+        {
+            return;
+        }
+        released = true;
+        BufferLeakTracker.release(leakRecord);
         ByteBufferPool.release(payload);
     }
+
+    @Override
+    public void close()
+    {
+        dispose();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,334 @@
+package com.tonic.packets;
+
+import com.tonic.Logger;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-opcode traffic and hook cost for client and server packets.
+ *
+ * <p>Fed from the packet writer {@code addNodeHook} and the server packet {@code process} hook.
+ * Each call records the payload size, the time spent in the whole hook body and the part of it spent
+ * in {@code EventBus} post. Counters are {@link LongAdder}s and histograms are {@link LogHistogram}s, so
+ * recording never locks. Also published over JMX as {@value #OBJECT_NAME}.
+ */
+public final class PacketMetrics {
+    public static final String OBJECT_NAME = "com.tonic:type=PacketMetrics";
+
+    private static final int MAX_OPCODE = 512;
+    private static final long MAX_SIZE = 65535;
+    private static final long MAX_NANOS = 10_000_000_000L;
+
+    public enum Direction {
+        SENT, RECEIVED
+    }
+
+    private static volatile boolean enabled = true;
+    private static final AtomicReferenceArray<OpcodeMetrics> SENT = new AtomicReferenceArray<>(MAX_OPCODE);
+    private static final AtomicReferenceArray<OpcodeMetrics> RECEIVED = new AtomicReferenceArray<>(MAX_OPCODE);
+    private static final LogHistogram SENT_HOOK = new LogHistogram(MAX_NANOS);
+    private static final LogHistogram SENT_POST = new LogHistogram(MAX_NANOS);
+    private static final LogHistogram RECEIVED_HOOK = new LogHistogram(MAX_NANOS);
+    private static final LogHistogram RECEIVED_POST = new LogHistogram(MAX_NANOS);
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), new ObjectName(OBJECT_NAME));
+        } catch (Exception e) {
+            Logger.warn("Failed to register packet metrics MBean: " + e.getMessage());
+        }
+    }
+
+    private PacketMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean state) {
+        enabled = state;
+    }
+
+    /**
+     * @param opcode    packet id
+     * @param size      payload size in bytes
+     * @param hookNanos time spent in the hook body, including the post
+     * @param postNanos time spent posting the event to subscribers
+     */
+    public static void recordSent(int opcode, int size, long hookNanos, long postNanos) {
+        record(Direction.SENT, opcode, size, hookNanos, postNanos);
+    }
+
+    /**
+     * See {@link #recordSent(int, int, long, long)}.
+     */
+    public static void recordReceived(int opcode, int size, long hookNanos, long postNanos) {
+        record(Direction.RECEIVED, opcode, size, hookNanos, postNanos);
+    }
+
+    private static void record(Direction direction, int opcode, int size, long hookNanos, long postNanos) {
+        if (!enabled || opcode < 0 || opcode >= MAX_OPCODE) {
+            return;
+        }
+
+        AtomicReferenceArray<OpcodeMetrics> table = table(direction);
+        OpcodeMetrics metrics = table.get(opcode);
+        if (metrics == null) {
+            table.compareAndSet(opcode, null, new OpcodeMetrics());
+            metrics = table.get(opcode);
+        }
+
+        metrics.count.increment();
+        metrics.bytes.add(size);
+        metrics.hookNanos.add(hookNanos);
+        metrics.postNanos.add(postNanos);
+        metrics.sizes.record(size);
+
+        if (direction == Direction.SENT) {
+            SENT_HOOK.record(hookNanos);
+            SENT_POST.record(postNanos);
+        } else {
+            RECEIVED_HOOK.record(hookNanos);
+            RECEIVED_POST.record(postNanos);
+        }
+    }
+
+    /**
+     * @return every opcode seen so far in the given direction
+     */
+    public static List<OpcodeSnapshot> getOpcodes(Direction direction) {
+        AtomicReferenceArray<OpcodeMetrics> table = table(direction);
+        List<OpcodeSnapshot> result = new ArrayList<>();
+        for (int i = 0; i < MAX_OPCODE; i++) {
+            OpcodeMetrics metrics = table.get(i);
+            if (metrics != null) {
+                result.add(new OpcodeSnapshot(direction, i, metrics));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return hook body latency across all opcodes, in nanoseconds
+     */
+    public static LogHistogram getHookLatency(Direction direction) {
+        return direction == Direction.SENT ? SENT_HOOK : RECEIVED_HOOK;
+    }
+
+    /**
+     * @return EventBus post latency across all opcodes, in nanoseconds
+     */
+    public static LogHistogram getPostLatency(Direction direction) {
+        return direction == Direction.SENT ? SENT_POST : RECEIVED_POST;
+    }
+
+    public static void reset() {
+        for (int i = 0; i < MAX_OPCODE; i++) {
+            SENT.set(i, null);
+            RECEIVED.set(i, null);
+        }
+        SENT_HOOK.reset();
+        SENT_POST.reset();
+        RECEIVED_HOOK.reset();
+        RECEIVED_POST.reset();
+    }
+
+    private static AtomicReferenceArray<OpcodeMetrics> table(Direction direction) {
+        return direction == Direction.SENT ? SENT : RECEIVED;
+    }
+
+    private static long totalCount(Direction direction) {
+        long total = 0;
+        for (OpcodeSnapshot snapshot : getOpcodes(direction)) {
+            total += snapshot.count;
+        }
+        return total;
+    }
+
+    private static long totalBytes(Direction direction) {
+        long total = 0;
+        for (OpcodeSnapshot snapshot : getOpcodes(direction)) {
+            total += snapshot.bytes;
+        }
+        return total;
+    }
+
+    private static final class OpcodeMetrics {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder hookNanos = new LongAdder();
+        private final LongAdder postNanos = new LongAdder();
+        private final LogHistogram sizes = new LogHistogram(MAX_SIZE);
+    }
+
+    /**
+     * Point-in-time totals for one opcode.
+     */
+    public static final class OpcodeSnapshot {
+        public final Direction direction;
+        public final int opcode;
+        public final long count;
+        public final long bytes;
+        public final long hookNanos;
+        public final long postNanos;
+        public final long p50Size;
+        public final long p99Size;
+        public final long maxSize;
+
+        private OpcodeSnapshot(Direction direction, int opcode, OpcodeMetrics metrics) {
+            this.direction = direction;
+            this.opcode = opcode;
+            this.count = metrics.count.sum();
+            this.bytes = metrics.bytes.sum();
+            this.hookNanos = metrics.hookNanos.sum();
+            this.postNanos = metrics.postNanos.sum();
+            this.p50Size = metrics.sizes.getPercentile(50);
+            this.p99Size = metrics.sizes.getPercentile(99);
+            this.maxSize = metrics.sizes.getMax();
+        }
+
+        public long getAverageHookNanos() {
+            return count == 0 ? 0 : hookNanos / count;
+        }
+
+        public long getAveragePostNanos() {
+            return count == 0 ? 0 : postNanos / count;
+        }
+    }
+
+    /**
+     * JMX view of the registry.
+     */
+    public interface PacketMetricsMXBean {
+        long getPacketsSent();
+
+        long getPacketsReceived();
+
+        long getBytesSent();
+
+        long getBytesReceived();
+
+        long getSendHookP50Nanos();
+
+        long getSendHookP99Nanos();
+
+        long getSendHookMaxNanos();
+
+        long getReceiveHookP50Nanos();
+
+        long getReceiveHookP99Nanos();
+
+        long getReceiveHookMaxNanos();
+
+        long getSendPostP99Nanos();
+
+        long getReceivePostP99Nanos();
+
+        /**
+         * @return one line per opcode: direction, opcode, count, bytes, avg hook ns, avg post ns, p99 size
+         */
+        String[] getOpcodeSummary();
+
+        boolean isEnabled();
+
+        void setEnabled(boolean enabled);
+
+        void reset();
+    }
+
+    private static final class Bean implements PacketMetricsMXBean {
+        @Override
+        public long getPacketsSent() {
+            return totalCount(Direction.SENT);
+        }
+
+        @Override
+        public long getPacketsReceived() {
+            return totalCount(Direction.RECEIVED);
+        }
+
+        @Override
+        public long getBytesSent() {
+            return totalBytes(Direction.SENT);
+        }
+
+        @Override
+        public long getBytesReceived() {
+            return totalBytes(Direction.RECEIVED);
+        }
+
+        @Override
+        public long getSendHookP50Nanos() {
+            return SENT_HOOK.getPercentile(50);
+        }
+
+        @Override
+        public long getSendHookP99Nanos() {
+            return SENT_HOOK.getPercentile(99);
+        }
+
+        @Override
+        public long getSendHookMaxNanos() {
+            return SENT_HOOK.getMax();
+        }
+
+        @Override
+        public long getReceiveHookP50Nanos() {
+            return RECEIVED_HOOK.getPercentile(50);
+        }
+
+        @Override
+        public long getReceiveHookP99Nanos() {
+            return RECEIVED_HOOK.getPercentile(99);
+        }
+
+        @Override
+        public long getReceiveHookMaxNanos() {
+            return RECEIVED_HOOK.getMax();
+        }
+
+        @Override
+        public long getSendPostP99Nanos() {
+            return SENT_POST.getPercentile(99);
+        }
+
+        @Override
+        public long getReceivePostP99Nanos() {
+            return RECEIVED_POST.getPercentile(99);
+        }
+
+        @Override
+        public String[] getOpcodeSummary() {
+            List<String> lines = new ArrayList<>();
+            for (Direction direction : Direction.values()) {
+                for (OpcodeSnapshot s : getOpcodes(direction)) {
+                    lines.add(direction + " " + s.opcode + " count=" + s.count + " bytes=" + s.bytes
+                        + " hookAvgNs=" + s.getAverageHookNanos() + " postAvgNs=" + s.getAveragePostNanos()
+                        + " p99Size=" + s.p99Size);
+                }
+            }
+            return lines.toArray(new String[0]);
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return PacketMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean state) {
+            PacketMetrics.setEnabled(state);
+        }
+
+        @Override
+        public void reset() {
+            PacketMetrics.reset();
+        }
+    }
+}
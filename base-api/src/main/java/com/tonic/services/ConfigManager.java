@@ -90,6 +90,15 @@ public class ConfigManager {
         builder.getConfiguration().setProperty(propertyName, value);
     }
 
+    /**
+     * remove a config property
+     * @param propertyName name
+     */
+    @SneakyThrows
+    public void clearProperty(String propertyName) {
+        builder.getConfiguration().clearProperty(propertyName);
+    }
+
     /**
      * reset the config to default values
      */
@@ -31,6 +31,15 @@ public class PluginClassLoader extends URLClassLoader {
         this.parent = parent;
     }
 
+    /**
+     * @return file name of the plugin jar, without extension
+     */
+    public String getJarName()
+    {
+        String name = new File(jarFile.getName()).getName();
+        return name.endsWith(".jar") ? name.substring(0, name.length() - 4) : name;
+    }
+
     public List<Class<?>> getPluginClasses() throws IOException {
         return getClasses().stream()
             .filter(this::inheritsPluginClass)
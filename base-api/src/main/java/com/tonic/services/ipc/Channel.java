@@ -1,17 +1,16 @@
 package com.tonic.services.ipc;
 
 import com.tonic.Logger;
+import com.tonic.Static;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.net.DatagramPacket;
-import java.net.InetAddress;
-import java.net.MulticastSocket;
 import java.net.NetworkInterface;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
@@ -19,14 +18,17 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Multicast-based IPC channel for peer-to-peer bidirectional communication.
+ * IPC channel for peer-to-peer bidirectional communication.
  * No master-slave relationship - all nodes are equal participants.
+ * Messages travel over UDP multicast, a shared memory ring for same-host peers, or both
+ * (see {@link TransportMode}).
  *
  * <p>Usage example:
  * <pre>{@code
- * Channel channel = new Channel.Builder("MyClient")
+ * Channel channel = new ChannelBuilder("MyClient")
  *     .port(5000)
  *     .group("230.0.0.1")
+ *     .transport(TransportMode.SHARED_MEMORY)
  *     .build();
  *
  * channel.addHandler(msg -> {
@@ -40,7 +42,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 public class Channel
 {
-	private static final int BUFFER_SIZE = 65536;
+	static final int MAX_MESSAGE_SIZE = 65536;
 
 	private final String clientId;
 	private final String clientName;
@@ -48,17 +50,19 @@ public class Channel
 	private final String multicastGroup;
 	private final int ttl;
 	private final NetworkInterface networkInterface;
+	private final TransportMode transportMode;
+	private final int ringCapacity;
 
-	private MulticastSocket socket;
-	private InetAddress group;
+	private final List<Transport> transports = new CopyOnWriteArrayList<>();
 	private final AtomicBoolean running = new AtomicBoolean(false);
-	private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+	private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
 		Thread t = new Thread(r, "IPC-Channel-Receiver");
 		t.setDaemon(true);
 		return t;
 	});
 
 	private final CopyOnWriteArrayList<MessageHandler> handlers = new CopyOnWriteArrayList<>();
+	private final CopyOnWriteArrayList<MessageHandler> internalHandlers = new CopyOnWriteArrayList<>();
 	private final Map<String, Long> recentMessages = new ConcurrentHashMap<>();
 	private static final long DUPLICATE_WINDOW_MS = 5000;
 
@@ -70,6 +74,8 @@ public class Channel
 		this.multicastGroup = builder.multicastGroup;
 		this.ttl = builder.ttl;
 		this.networkInterface = builder.networkInterface;
+		this.transportMode = builder.transportMode;
+		this.ringCapacity = builder.ringCapacity;
 	}
 
 	/**
@@ -84,19 +90,33 @@ public class Channel
 				return;
 			}
 
-			socket = new MulticastSocket(port);
-			group = InetAddress.getByName(multicastGroup);
-
-			if (networkInterface != null)
+			transports.clear();
+			if (transportMode != TransportMode.MULTICAST)
 			{
-				socket.setNetworkInterface(networkInterface);
+				Transport shared = new SharedMemoryTransport(ringFile(), ringCapacity);
+				try
+				{
+					shared.open();
+					transports.add(shared);
+				}
+				catch (Exception e)
+				{
+					Logger.warn("[IPC] Shared memory ring unavailable, falling back to multicast: " + e.getMessage());
+				}
 			}
 
-			socket.setTimeToLive(ttl);
-			socket.joinGroup(group);
+			if (transportMode != TransportMode.SHARED_MEMORY || transports.isEmpty())
+			{
+				Transport multicast = new MulticastTransport(port, multicastGroup, ttl, networkInterface);
+				multicast.open();
+				transports.add(multicast);
+			}
 
 			running.set(true);
-			executor.submit(this::receiveLoop);
+			for (Transport transport : transports)
+			{
+				executor.submit(() -> receiveLoop(transport));
+			}
 		}
 		catch (Exception e)
 		{
@@ -117,22 +137,11 @@ public class Channel
 
 		running.set(false);
 
-		try
-		{
-			if (socket != null && group != null)
-			{
-				socket.leaveGroup(group);
-			}
-		}
-		catch (Exception e)
+		for (Transport transport : transports)
 		{
-			// Ignore
-		}
-
-		if (socket != null && !socket.isClosed())
-		{
-			socket.close();
+			transport.close();
 		}
+		transports.clear();
 
 		executor.shutdown();
 		recentMessages.clear();
@@ -150,6 +159,20 @@ public class Channel
 		broadcast(message);
 	}
 
+	/**
+	 * Send a message to a single peer. The frame still travels over the shared transport,
+	 * but only the addressed client dispatches it to its handlers.
+	 */
+	public void send(String targetId, String type, Map<String, Object> payload)
+	{
+		Message message = new Message.Builder(clientId, clientName)
+			.to(targetId)
+			.type(type)
+			.putAll(payload)
+			.build();
+		broadcast(message);
+	}
+
 	/**
 	 * Broadcast a pre-built message to all peers.
 	 */
@@ -163,11 +186,14 @@ public class Channel
 			}
 
 			byte[] data = serialize(message);
-			DatagramPacket packet = new DatagramPacket(data, data.length, group, port);
-			socket.send(packet);
 
 			// Track our own message to avoid duplicate processing
 			recentMessages.put(message.getMessageId(), System.currentTimeMillis());
+
+			for (Transport transport : transports)
+			{
+				transport.send(data);
+			}
 		}
 		catch (Exception ex)
 		{
@@ -176,7 +202,7 @@ public class Channel
 	}
 
 	/**
-	 * Add a message handler to receive incoming messages.
+	 * Add a message handler to receive incoming messages. Internal {@link ReliableChannel} frames are not passed to it.
 	 */
 	public void addHandler(MessageHandler handler)
 	{
@@ -194,6 +220,22 @@ public class Channel
 		handlers.remove(handler);
 	}
 
+	/**
+	 * Add a handler that also receives internal {@link ReliableChannel} frames.
+	 */
+	void addInternalHandler(MessageHandler handler)
+	{
+		if (handler != null)
+		{
+			internalHandlers.add(handler);
+		}
+	}
+
+	void removeInternalHandler(MessageHandler handler)
+	{
+		internalHandlers.remove(handler);
+	}
+
 	/**
 	 * Get this client's unique ID.
 	 */
@@ -210,6 +252,14 @@ public class Channel
 		return clientName;
 	}
 
+	/**
+	 * Get the configured transport mode.
+	 */
+	public TransportMode getTransportMode()
+	{
+		return transportMode;
+	}
+
 	/**
 	 * Check if the channel is currently running.
 	 */
@@ -218,23 +268,23 @@ public class Channel
 		return running.get();
 	}
 
-	private void receiveLoop()
+	private void receiveLoop(Transport transport)
 	{
-		byte[] buffer = new byte[BUFFER_SIZE];
+		Thread.currentThread().setName("IPC-Channel-Receiver-" + transport.name());
 
 		while (running.get())
 		{
 			try
 			{
-				DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
-				socket.receive(packet);
-
-				byte[] data = new byte[packet.getLength()];
-				System.arraycopy(packet.getData(), 0, data, 0, packet.getLength());
+				byte[] data = transport.receive();
+				if (data == null)
+				{
+					continue;
+				}
 
 				Message message = deserialize(data);
 
-				if (message != null && !isDuplicate(message))
+				if (message != null && message.isFor(clientId) && !isDuplicate(message))
 				{
 					dispatchMessage(message);
 				}
@@ -263,22 +313,38 @@ public class Channel
 
 	private void dispatchMessage(Message message)
 	{
+		for (MessageHandler handler : internalHandlers)
+		{
+			deliver(handler, message);
+		}
+
+		// Acks, retransmissions and sync frames are only meaningful to ReliableChannel
+		if (message.getType() != null && message.getType().startsWith(ReliableChannel.PREFIX))
+		{
+			return;
+		}
+
 		for (MessageHandler handler : handlers)
+		{
+			deliver(handler, message);
+		}
+	}
+
+	private void deliver(MessageHandler handler, Message message)
+	{
+		try
+		{
+			handler.onMessage(message);
+		}
+		catch (Exception e)
 		{
 			try
 			{
-				handler.onMessage(message);
+				handler.onError(e);
 			}
-			catch (Exception e)
+			catch (Exception ignored)
 			{
-				try
-				{
-					handler.onError(e);
-				}
-				catch (Exception ignored)
-				{
-					// Handler error handling failed - nothing we can do
-				}
+				// Handler error handling failed - nothing we can do
 			}
 		}
 	}
@@ -298,6 +364,11 @@ public class Channel
 		}
 	}
 
+	private Path ringFile()
+	{
+		return Static.VITA_DIR.resolve("ipc").resolve("channel-" + multicastGroup + "-" + port + ".ring");
+	}
+
 	private byte[] serialize(Message message) throws Exception
 	{
 		try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
@@ -10,6 +10,8 @@ public class ChannelBuilder {
     protected String multicastGroup = "230.0.0.0";
     protected int ttl = 1;
     protected NetworkInterface networkInterface;
+    protected TransportMode transportMode = TransportMode.MULTICAST;
+    protected int ringCapacity = 4 * 1024 * 1024;
 
     /**
      * Create a channel builder with auto-generated client ID.
@@ -91,6 +93,34 @@ public class ChannelBuilder {
         return this;
     }
 
+    /**
+     * Set the transport used to reach peers (default: MULTICAST).
+     * SHARED_MEMORY avoids the network stack entirely when all clients run on one host.
+     */
+    public ChannelBuilder transport(TransportMode transportMode)
+    {
+        if (transportMode == null)
+        {
+            throw new IllegalArgumentException("Transport mode cannot be null");
+        }
+        this.transportMode = transportMode;
+        return this;
+    }
+
+    /**
+     * Set the shared memory ring size in bytes (default: 4MB). Must be a power of two.
+     * Only used by SHARED_MEMORY and HYBRID transports; the first client to create the ring decides its size.
+     */
+    public ChannelBuilder ringCapacity(int ringCapacity)
+    {
+        if (Integer.bitCount(ringCapacity) != 1 || ringCapacity < Channel.MAX_MESSAGE_SIZE * 2)
+        {
+            throw new IllegalArgumentException("Ring capacity must be a power of two and at least " + (Channel.MAX_MESSAGE_SIZE * 2));
+        }
+        this.ringCapacity = ringCapacity;
+        return this;
+    }
+
     /**
      * Build the channel instance.
      */
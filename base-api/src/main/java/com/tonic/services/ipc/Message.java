@@ -17,6 +17,7 @@ public class Message implements Serializable
 	private final String messageId;
 	private final String senderId;
 	private final String senderName;
+	private final String targetId;
 	private final long timestamp;
 	private final String type;
 	private final Map<String, Object> payload;
@@ -26,6 +27,7 @@ public class Message implements Serializable
 		this.messageId = builder.messageId != null ? builder.messageId : UUID.randomUUID().toString();
 		this.senderId = builder.senderId;
 		this.senderName = builder.senderName;
+		this.targetId = builder.targetId;
 		this.timestamp = builder.timestamp;
 		this.type = builder.type;
 		this.payload = new HashMap<>(builder.payload);
@@ -46,6 +48,14 @@ public class Message implements Serializable
 		return senderName;
 	}
 
+	/**
+	 * @return the client id this message is addressed to, or null for a broadcast
+	 */
+	public String getTargetId()
+	{
+		return targetId;
+	}
+
 	public long getTimestamp()
 	{
 		return timestamp;
@@ -77,6 +87,19 @@ public class Message implements Serializable
 		return this.senderId.equals(senderId);
 	}
 
+	public boolean isBroadcast()
+	{
+		return targetId == null;
+	}
+
+	/**
+	 * @return true if this message is a broadcast or addressed to the given client
+	 */
+	public boolean isFor(String clientId)
+	{
+		return targetId == null || targetId.equals(clientId);
+	}
+
 	public boolean isType(String type)
 	{
 		return this.type.equals(type);
@@ -94,6 +117,7 @@ public class Message implements Serializable
 		private String messageId;
 		private final String senderId;
 		private final String senderName;
+		private String targetId;
 		private long timestamp = System.currentTimeMillis();
 		private String type = "default";
 		private final Map<String, Object> payload = new HashMap<>();
@@ -118,6 +142,15 @@ public class Message implements Serializable
 			return this;
 		}
 
+		/**
+		 * Address the message to a single client. Other peers drop it on receipt.
+		 */
+		public Builder to(String targetId)
+		{
+			this.targetId = targetId;
+			return this;
+		}
+
 		public Builder timestamp(long timestamp)
 		{
 			this.timestamp = timestamp;
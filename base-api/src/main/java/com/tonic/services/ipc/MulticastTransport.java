@@ -0,0 +1,95 @@
+package com.tonic.services.ipc;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+
+/**
+ * UDP multicast transport. Reaches peers on other hosts within the configured TTL.
+ */
+class MulticastTransport implements Transport
+{
+	private final int port;
+	private final String multicastGroup;
+	private final int ttl;
+	private final NetworkInterface networkInterface;
+	private final byte[] buffer = new byte[Channel.MAX_MESSAGE_SIZE];
+
+	private MulticastSocket socket;
+	private InetAddress group;
+
+	MulticastTransport(int port, String multicastGroup, int ttl, NetworkInterface networkInterface)
+	{
+		this.port = port;
+		this.multicastGroup = multicastGroup;
+		this.ttl = ttl;
+		this.networkInterface = networkInterface;
+	}
+
+	@Override
+	public void open() throws IOException
+	{
+		socket = new MulticastSocket(port);
+		group = InetAddress.getByName(multicastGroup);
+
+		if (networkInterface != null)
+		{
+			socket.setNetworkInterface(networkInterface);
+		}
+
+		socket.setTimeToLive(ttl);
+		socket.joinGroup(group);
+	}
+
+	@Override
+	public void send(byte[] data) throws IOException
+	{
+		DatagramPacket packet = new DatagramPacket(data, data.length, group, port);
+		socket.send(packet);
+	}
+
+	@Override
+	public byte[] receive() throws IOException
+	{
+		if (socket == null || socket.isClosed())
+		{
+			return null;
+		}
+
+		DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+		socket.receive(packet);
+
+		byte[] data = new byte[packet.getLength()];
+		System.arraycopy(packet.getData(), 0, data, 0, packet.getLength());
+		return data;
+	}
+
+	@Override
+	public void close()
+	{
+		try
+		{
+			if (socket != null && group != null)
+			{
+				socket.leaveGroup(group);
+			}
+		}
+		catch (Exception e)
+		{
+			// Ignore
+		}
+
+		if (socket != null && !socket.isClosed())
+		{
+			socket.close();
+		}
+	}
+
+	@Override
+	public String name()
+	{
+		return "Multicast";
+	}
+}
@@ -0,0 +1,487 @@
+package com.tonic.services.ipc;
+
+import com.tonic.Logger;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Acknowledged delivery, request/response and replicated state on top of a {@link Channel}.
+ *
+ * <p>Usage example:
+ * <pre>{@code
+ * Channel channel = new ChannelBuilder("MyClient").transport(TransportMode.SHARED_MEMORY).build();
+ * ReliableChannel reliable = new ReliableChannel(channel);
+ * channel.start();
+ *
+ * reliable.onRequest("whereami", req -> Map.of("tile", packedTile));
+ * reliable.request(peerId, "whereami", Map.of(), 2000)
+ *     .thenAccept(resp -> System.out.println(resp.get("tile")));
+ *
+ * ReplicatedMap<Integer> bank = reliable.replicatedMap("bank");
+ * bank.put("coins", 1_000_000);
+ * }</pre>
+ *
+ * Internal frames use the {@value #PREFIX} type prefix and are never passed to user handlers.
+ */
+public class ReliableChannel
+{
+	static final String PREFIX = "__ipc.";
+	static final String SYNC_DELTA = PREFIX + "sync.delta";
+	static final String SYNC_DIGEST = PREFIX + "sync.digest";
+	private static final String ACK = PREFIX + "ack";
+	private static final String RELIABLE = PREFIX + "reliable";
+	private static final String REQUEST = PREFIX + "request";
+	private static final String RESPONSE = PREFIX + "response";
+
+	private static final String KEY_CORRELATION = "__corr";
+	private static final String KEY_TYPE = "__type";
+	private static final String KEY_ERROR = "__error";
+	static final String KEY_MAP = "__map";
+
+	private static final long HISTORY_MS = 30_000;
+
+	private final Channel channel;
+	private final long retryIntervalMs;
+	private final int maxAttempts;
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "IPC-Reliable-Scheduler");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+	private final Map<String, Long> handled = new ConcurrentHashMap<>();
+	private final Map<String, CachedResponse> responses = new ConcurrentHashMap<>();
+	private final Map<String, RequestHandler> requestHandlers = new ConcurrentHashMap<>();
+	private final Map<String, ReplicatedMap<?>> maps = new ConcurrentHashMap<>();
+	private final CopyOnWriteArrayList<MessageHandler> handlers = new CopyOnWriteArrayList<>();
+	private final MessageHandler listener = this::onMessage;
+
+	/**
+	 * Wrap a channel with default timings (250ms retry, 8 attempts, 5s state sync).
+	 */
+	public ReliableChannel(Channel channel)
+	{
+		this(channel, 250, 8, 5000);
+	}
+
+	/**
+	 * @param channel         underlying channel
+	 * @param retryIntervalMs delay between retransmissions of unacknowledged frames
+	 * @param maxAttempts     transmissions before a reliable send fails
+	 * @param syncIntervalMs  interval between replicated-state digests
+	 */
+	public ReliableChannel(Channel channel, long retryIntervalMs, int maxAttempts, long syncIntervalMs)
+	{
+		if (retryIntervalMs <= 0 || maxAttempts <= 0 || syncIntervalMs <= 0)
+		{
+			throw new IllegalArgumentException("Intervals and attempts must be positive");
+		}
+		this.channel = channel;
+		this.retryIntervalMs = retryIntervalMs;
+		this.maxAttempts = maxAttempts;
+
+		channel.addInternalHandler(listener);
+		scheduler.scheduleAtFixedRate(this::sync, syncIntervalMs, syncIntervalMs, TimeUnit.MILLISECONDS);
+		scheduler.scheduleAtFixedRate(this::expireHistory, HISTORY_MS, HISTORY_MS, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Send a message to one peer and retransmit until it is acknowledged.
+	 * The receiver dispatches it exactly once to its handlers, with the given type.
+	 *
+	 * @return future completed on acknowledgement, or failed with {@link TimeoutException}
+	 */
+	public CompletableFuture<Void> sendReliable(String targetId, String type, Map<String, Object> payload)
+	{
+		return exchange(targetId, RELIABLE, type, payload, maxAttempts).thenApply(ack -> null);
+	}
+
+	/**
+	 * Send a request to one peer and wait for its response.
+	 *
+	 * @param timeoutMs total time to wait, including retransmissions
+	 * @return future completed with the response message, or failed with {@link TimeoutException}
+	 * or an {@link IllegalStateException} carrying the remote handler's error
+	 */
+	public CompletableFuture<Message> request(String targetId, String type, Map<String, Object> payload, long timeoutMs)
+	{
+		int attempts = (int) Math.max(1, timeoutMs / retryIntervalMs);
+		return exchange(targetId, REQUEST, type, payload, attempts);
+	}
+
+	/**
+	 * Register the handler that answers requests of the given type.
+	 */
+	public void onRequest(String type, RequestHandler handler)
+	{
+		if (handler == null)
+		{
+			requestHandlers.remove(type);
+			return;
+		}
+		requestHandlers.put(type, handler);
+	}
+
+	/**
+	 * Add a handler for user messages, including reliable sends. Internal frames are filtered out.
+	 */
+	public void addHandler(MessageHandler handler)
+	{
+		if (handler != null)
+		{
+			handlers.add(handler);
+		}
+	}
+
+	/**
+	 * Remove a message handler.
+	 */
+	public void removeHandler(MessageHandler handler)
+	{
+		handlers.remove(handler);
+	}
+
+	/**
+	 * Get or create the replicated map with the given name. All peers using the same name share its contents.
+	 */
+	@SuppressWarnings("unchecked")
+	public <V extends Serializable> ReplicatedMap<V> replicatedMap(String name)
+	{
+		return (ReplicatedMap<V>) maps.computeIfAbsent(name, n -> new ReplicatedMap<V>(this, n));
+	}
+
+	/**
+	 * Get the underlying channel.
+	 */
+	public Channel getChannel()
+	{
+		return channel;
+	}
+
+	/**
+	 * Detach from the channel and fail all outstanding exchanges. Does not stop the channel.
+	 */
+	public void close()
+	{
+		channel.removeInternalHandler(listener);
+		scheduler.shutdownNow();
+		for (Pending p : pending.values())
+		{
+			p.future.completeExceptionally(new IllegalStateException("Channel closed"));
+		}
+		pending.clear();
+	}
+
+	void broadcastInternal(String type, Map<String, Object> payload)
+	{
+		if (channel.isRunning())
+		{
+			channel.broadcast(type, payload);
+		}
+	}
+
+	void sendInternal(String targetId, String type, Map<String, Object> payload)
+	{
+		if (channel.isRunning())
+		{
+			channel.send(targetId, type, payload);
+		}
+	}
+
+	CompletableFuture<Void> sendInternalReliable(String targetId, String type, Map<String, Object> payload)
+	{
+		return exchange(targetId, RELIABLE, type, payload, maxAttempts).thenApply(ack -> null);
+	}
+
+	String getClientId()
+	{
+		return channel.getClientId();
+	}
+
+	private CompletableFuture<Message> exchange(String targetId, String frameType, String type, Map<String, Object> payload, int attempts)
+	{
+		String correlationId = UUID.randomUUID().toString();
+		Map<String, Object> frame = new HashMap<>();
+		if (payload != null)
+		{
+			frame.putAll(payload);
+		}
+		frame.put(KEY_CORRELATION, correlationId);
+		frame.put(KEY_TYPE, type);
+
+		Pending p = new Pending(targetId, frameType, frame, attempts);
+		pending.put(correlationId, p);
+		p.future.whenComplete((r, e) -> {
+			pending.remove(correlationId);
+			ScheduledFuture<?> task = p.retryTask;
+			if (task != null)
+			{
+				task.cancel(false);
+			}
+		});
+
+		transmit(correlationId, p);
+		if (!p.future.isDone())
+		{
+			p.retryTask = scheduler.scheduleAtFixedRate(() -> transmit(correlationId, p), retryIntervalMs, retryIntervalMs, TimeUnit.MILLISECONDS);
+		}
+		return p.future;
+	}
+
+	private void transmit(String correlationId, Pending p)
+	{
+		if (p.future.isDone())
+		{
+			return;
+		}
+		if (p.attempts++ >= p.maxAttempts)
+		{
+			p.future.completeExceptionally(new TimeoutException("No reply from " + p.targetId + " for " + correlationId));
+			return;
+		}
+		if (!channel.isRunning())
+		{
+			p.future.completeExceptionally(new IllegalStateException("Channel not started"));
+			return;
+		}
+		channel.send(p.targetId, p.frameType, p.frame);
+	}
+
+	private void onMessage(Message message) throws Exception
+	{
+		if (message.isFromSender(channel.getClientId()))
+		{
+			return;
+		}
+
+		String type = message.getType();
+		if (!type.startsWith(PREFIX))
+		{
+			dispatch(message);
+			return;
+		}
+
+		String correlationId = message.get(KEY_CORRELATION, String.class);
+		switch (type)
+		{
+			case ACK:
+			case RESPONSE:
+				Pending p = correlationId == null ? null : pending.get(correlationId);
+				if (p == null)
+				{
+					return;
+				}
+				String error = message.get(KEY_ERROR, String.class);
+				if (error != null)
+				{
+					p.future.completeExceptionally(new IllegalStateException("Remote error: " + error));
+				}
+				else
+				{
+					p.future.complete(message);
+				}
+				return;
+			case RELIABLE:
+				reply(message, ACK, null);
+				if (correlationId != null && handled.putIfAbsent(correlationId, System.currentTimeMillis()) == null)
+				{
+					Message unwrapped = unwrap(message);
+					if (unwrapped.getType().startsWith(PREFIX))
+					{
+						routeSync(unwrapped);
+					}
+					else
+					{
+						dispatch(unwrapped);
+					}
+				}
+				return;
+			case REQUEST:
+				handleRequest(message, correlationId);
+				return;
+			case SYNC_DELTA:
+			case SYNC_DIGEST:
+				routeSync(message);
+				return;
+			default:
+				Logger.warn("[IPC] Unknown internal frame '" + type + "'");
+		}
+	}
+
+	private void handleRequest(Message message, String correlationId)
+	{
+		if (correlationId == null)
+		{
+			return;
+		}
+
+		CachedResponse cached = responses.get(correlationId);
+		if (cached != null)
+		{
+			// Our earlier response was lost, resend it instead of re-running the handler
+			sendInternal(message.getSenderId(), RESPONSE, cached.payload);
+			return;
+		}
+		if (handled.putIfAbsent(correlationId, System.currentTimeMillis()) != null)
+		{
+			return;
+		}
+
+		Message request = unwrap(message);
+		Map<String, Object> response = new HashMap<>();
+		RequestHandler handler = requestHandlers.get(request.getType());
+		if (handler == null)
+		{
+			response.put(KEY_ERROR, "No handler for '" + request.getType() + "'");
+		}
+		else
+		{
+			try
+			{
+				Map<String, Object> result = handler.handle(request);
+				if (result != null)
+				{
+					response.putAll(result);
+				}
+			}
+			catch (Exception e)
+			{
+				response.put(KEY_ERROR, e.getClass().getSimpleName() + ": " + e.getMessage());
+			}
+		}
+		response.put(KEY_CORRELATION, correlationId);
+		response.put(KEY_TYPE, request.getType());
+		responses.put(correlationId, new CachedResponse(response));
+		sendInternal(message.getSenderId(), RESPONSE, response);
+	}
+
+	private void reply(Message message, String type, Map<String, Object> payload)
+	{
+		Map<String, Object> frame = payload == null ? new HashMap<>() : new HashMap<>(payload);
+		frame.put(KEY_CORRELATION, message.get(KEY_CORRELATION));
+		sendInternal(message.getSenderId(), type, frame);
+	}
+
+	private void routeSync(Message message)
+	{
+		String name = message.get(KEY_MAP, String.class);
+		ReplicatedMap<?> map = name == null ? null : maps.get(name);
+		if (map == null)
+		{
+			return;
+		}
+		if (message.isType(SYNC_DIGEST))
+		{
+			map.onDigest(message);
+		}
+		else
+		{
+			map.onDelta(message);
+		}
+	}
+
+	private Message unwrap(Message message)
+	{
+		Map<String, Object> payload = message.getPayload();
+		String type = (String) payload.remove(KEY_TYPE);
+		payload.remove(KEY_CORRELATION);
+		return new Message.Builder(message.getSenderId(), message.getSenderName())
+			.messageId(message.getMessageId())
+			.timestamp(message.getTimestamp())
+			.to(message.getTargetId())
+			.type(type)
+			.putAll(payload)
+			.build();
+	}
+
+	private void dispatch(Message message)
+	{
+		for (MessageHandler handler : handlers)
+		{
+			try
+			{
+				handler.onMessage(message);
+			}
+			catch (Exception e)
+			{
+				try
+				{
+					handler.onError(e);
+				}
+				catch (Exception ignored)
+				{
+					// Handler error handling failed - nothing we can do
+				}
+			}
+		}
+	}
+
+	private void sync()
+	{
+		try
+		{
+			for (ReplicatedMap<?> map : maps.values())
+			{
+				map.publishDigest();
+			}
+		}
+		catch (Exception e)
+		{
+			Logger.error(e);
+		}
+	}
+
+	private void expireHistory()
+	{
+		long now = System.currentTimeMillis();
+		long cutoff = now - HISTORY_MS;
+		handled.values().removeIf(time -> time < cutoff);
+		responses.values().removeIf(r -> r.time < cutoff);
+		for (ReplicatedMap<?> map : maps.values())
+		{
+			map.expireTombstones(now);
+		}
+	}
+
+	private static final class Pending
+	{
+		private final String targetId;
+		private final String frameType;
+		private final Map<String, Object> frame;
+		private final int maxAttempts;
+		private final CompletableFuture<Message> future = new CompletableFuture<>();
+		private volatile int attempts;
+		private volatile ScheduledFuture<?> retryTask;
+
+		private Pending(String targetId, String frameType, Map<String, Object> frame, int maxAttempts)
+		{
+			this.targetId = targetId;
+			this.frameType = frameType;
+			this.frame = frame;
+			this.maxAttempts = maxAttempts;
+		}
+	}
+
+	private static final class CachedResponse
+	{
+		private final Map<String, Object> payload;
+		private final long time = System.currentTimeMillis();
+
+		private CachedResponse(Map<String, Object> payload)
+		{
+			this.payload = payload;
+		}
+	}
+}
@@ -0,0 +1,378 @@
+package com.tonic.services.ipc;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Eventually consistent key-value map shared by every peer of a {@link ReliableChannel}.
+ *
+ * <p>Each local write is stamped with a per-client sequence number and a Lamport clock and pushed
+ * to peers as a single-entry delta. Concurrent writes to the same key resolve last-writer-wins by
+ * clock, then by client id. Every peer also tracks a version vector (client id to highest sequence
+ * known to be fully applied) and periodically broadcasts it as a digest; peers that hold newer
+ * entries reply with only those entries, so a lost push or a late joiner costs bandwidth
+ * proportional to what changed rather than a full snapshot.
+ *
+ * <p>Removals are kept as tombstones so they replicate like writes, and are dropped
+ * {@value #TOMBSTONE_TTL_MS}ms after this client learned of them. A peer that stays out of reach
+ * for longer than that may keep a removed key.
+ *
+ * @param <V> value type, must be serializable
+ */
+public class ReplicatedMap<V extends Serializable>
+{
+	private static final int BATCH_SIZE = 32;
+	static final long TOMBSTONE_TTL_MS = 600_000;
+	private static final String KEY_ENTRIES = "__entries";
+	private static final String KEY_VERSIONS = "__versions";
+
+	private final ReliableChannel owner;
+	private final String name;
+	private final Map<String, Entry> entries = new HashMap<>();
+	private final HashMap<String, Long> versions = new HashMap<>();
+	private final CopyOnWriteArrayList<Listener<V>> listeners = new CopyOnWriteArrayList<>();
+	private long sequence;
+	private long clock;
+
+	ReplicatedMap(ReliableChannel owner, String name)
+	{
+		this.owner = owner;
+		this.name = name;
+	}
+
+	/**
+	 * Called on the IPC receiver thread (or the writing thread for local changes).
+	 */
+	@FunctionalInterface
+	public interface Listener<V>
+	{
+		/**
+		 * @param key   changed key
+		 * @param value new value, or null if the key was removed
+		 * @param local true if the change was made by this client
+		 */
+		void onChange(String key, V value, boolean local);
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	@SuppressWarnings("unchecked")
+	public synchronized V get(String key)
+	{
+		Entry entry = entries.get(key);
+		return entry == null || entry.removed ? null : (V) entry.value;
+	}
+
+	public synchronized boolean containsKey(String key)
+	{
+		Entry entry = entries.get(key);
+		return entry != null && !entry.removed;
+	}
+
+	public synchronized int size()
+	{
+		int size = 0;
+		for (Entry entry : entries.values())
+		{
+			if (!entry.removed)
+			{
+				size++;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * @return a point-in-time copy of the live entries
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized Map<String, V> snapshot()
+	{
+		Map<String, V> copy = new HashMap<>();
+		for (Entry entry : entries.values())
+		{
+			if (!entry.removed)
+			{
+				copy.put(entry.key, (V) entry.value);
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * Set a value locally and push the change to peers.
+	 */
+	public void put(String key, V value)
+	{
+		if (value == null)
+		{
+			remove(key);
+			return;
+		}
+		write(key, value, false);
+	}
+
+	/**
+	 * Remove a key locally and push the removal to peers.
+	 */
+	public void remove(String key)
+	{
+		write(key, null, true);
+	}
+
+	public void addListener(Listener<V> listener)
+	{
+		if (listener != null)
+		{
+			listeners.add(listener);
+		}
+	}
+
+	public void removeListener(Listener<V> listener)
+	{
+		listeners.remove(listener);
+	}
+
+	/**
+	 * @return a copy of this client's version vector
+	 */
+	public synchronized Map<String, Long> getVersions()
+	{
+		return new HashMap<>(versions);
+	}
+
+	private void write(String key, V value, boolean removed)
+	{
+		Entry entry;
+		synchronized (this)
+		{
+			Entry existing = entries.get(key);
+			if (removed && (existing == null || existing.removed))
+			{
+				return;
+			}
+			String localId = owner.getClientId();
+			entry = new Entry(key, value, localId, ++sequence, ++clock, removed);
+			entry.storedAt = System.currentTimeMillis();
+			entries.put(key, entry);
+			versions.put(localId, sequence);
+		}
+
+		notifyListeners(entry, true);
+
+		ArrayList<Entry> delta = new ArrayList<>(1);
+		delta.add(entry);
+		Map<String, Object> payload = new HashMap<>();
+		payload.put(ReliableChannel.KEY_MAP, name);
+		payload.put(KEY_ENTRIES, delta);
+		owner.broadcastInternal(ReliableChannel.SYNC_DELTA, payload);
+	}
+
+	void publishDigest()
+	{
+		Map<String, Object> payload = new HashMap<>();
+		payload.put(ReliableChannel.KEY_MAP, name);
+		synchronized (this)
+		{
+			payload.put(KEY_VERSIONS, new HashMap<>(versions));
+		}
+		owner.broadcastInternal(ReliableChannel.SYNC_DIGEST, payload);
+	}
+
+	@SuppressWarnings("unchecked")
+	void onDigest(Message message)
+	{
+		Map<String, Long> remote = message.get(KEY_VERSIONS, Map.class);
+		if (remote == null)
+		{
+			return;
+		}
+
+		List<Entry> missing = new ArrayList<>();
+		HashMap<String, Long> known;
+		synchronized (this)
+		{
+			for (Entry entry : entries.values())
+			{
+				Long seen = remote.get(entry.origin);
+				if (seen == null || entry.sequence > seen)
+				{
+					missing.add(entry);
+				}
+			}
+			known = new HashMap<>(versions);
+		}
+
+		boolean behind = false;
+		for (Map.Entry<String, Long> e : known.entrySet())
+		{
+			Long seen = remote.get(e.getKey());
+			if (seen == null || seen < e.getValue())
+			{
+				behind = true;
+				break;
+			}
+		}
+		if (!behind)
+		{
+			return;
+		}
+
+		missing.sort((a, b) -> Long.compare(a.clock, b.clock));
+		sendBatches(message.getSenderId(), missing, known, 0);
+	}
+
+	/**
+	 * Send entries in acknowledged batches, one at a time. The version vector rides on the last batch
+	 * only, so the receiver merges it after every earlier batch has been applied.
+	 */
+	private void sendBatches(String targetId, List<Entry> missing, HashMap<String, Long> known, int offset)
+	{
+		int end = Math.min(missing.size(), offset + BATCH_SIZE);
+		ArrayList<Entry> batch = new ArrayList<>(missing.subList(offset, end));
+		Map<String, Object> payload = new HashMap<>();
+		payload.put(ReliableChannel.KEY_MAP, name);
+		payload.put(KEY_ENTRIES, batch);
+		boolean last = end >= missing.size();
+		if (last)
+		{
+			payload.put(KEY_VERSIONS, known);
+		}
+
+		CompletableFuture<Void> sent = owner.sendInternalReliable(targetId, ReliableChannel.SYNC_DELTA, payload);
+		if (!last)
+		{
+			sent.thenRun(() -> sendBatches(targetId, missing, known, end));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	void onDelta(Message message)
+	{
+		List<Entry> delta = message.get(KEY_ENTRIES, List.class);
+		Map<String, Long> remoteVersions = message.get(KEY_VERSIONS, Map.class);
+		if (delta == null)
+		{
+			return;
+		}
+
+		List<Entry> applied = new ArrayList<>();
+		long now = System.currentTimeMillis();
+		synchronized (this)
+		{
+			for (Entry entry : delta)
+			{
+				clock = Math.max(clock, entry.clock);
+				Entry existing = entries.get(entry.key);
+				// Nothing stored but already covered by the vector: the key was removed and its tombstone
+				// expired, so this is a late copy that must not bring it back
+				boolean expired = existing == null && entry.sequence <= versions.getOrDefault(entry.origin, 0L);
+				if (!expired && (existing == null || entry.newerThan(existing)))
+				{
+					entry.storedAt = now;
+					entries.put(entry.key, entry);
+					applied.add(entry);
+				}
+
+				// A live push only advances the vector when it is the next contiguous sequence;
+				// gaps are filled by the digest exchange.
+				long seen = versions.getOrDefault(entry.origin, 0L);
+				if (entry.sequence == seen + 1)
+				{
+					versions.put(entry.origin, entry.sequence);
+				}
+			}
+
+			if (remoteVersions != null)
+			{
+				for (Map.Entry<String, Long> e : remoteVersions.entrySet())
+				{
+					versions.merge(e.getKey(), e.getValue(), Math::max);
+				}
+			}
+		}
+
+		for (Entry entry : applied)
+		{
+			notifyListeners(entry, false);
+		}
+	}
+
+	/**
+	 * Drop tombstones older than {@link #TOMBSTONE_TTL_MS}.
+	 */
+	synchronized void expireTombstones(long now)
+	{
+		entries.values().removeIf(entry -> entry.removed && now - entry.storedAt > TOMBSTONE_TTL_MS);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void notifyListeners(Entry entry, boolean local)
+	{
+		V value = entry.removed ? null : (V) entry.value;
+		for (Listener<V> listener : listeners)
+		{
+			try
+			{
+				listener.onChange(entry.key, value, local);
+			}
+			catch (Exception ignored)
+			{
+				// Listener failure must not break replication
+			}
+		}
+	}
+
+	/**
+	 * One versioned key. Removals are kept as tombstones so they replicate like writes.
+	 */
+	static final class Entry implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String key;
+		private final Serializable value;
+		private final String origin;
+		private final long sequence;
+		private final long clock;
+		private final boolean removed;
+		/**
+		 * When this client stored the entry, used to expire tombstones
+		 */
+		private transient long storedAt;
+
+		Entry(String key, Serializable value, String origin, long sequence, long clock, boolean removed)
+		{
+			this.key = key;
+			this.value = value;
+			this.origin = origin;
+			this.sequence = sequence;
+			this.clock = clock;
+			this.removed = removed;
+		}
+
+		boolean newerThan(Entry other)
+		{
+			if (clock != other.clock)
+			{
+				return clock > other.clock;
+			}
+			return origin.compareTo(other.origin) > 0;
+		}
+	}
+
+	@Override
+	public synchronized String toString()
+	{
+		return "ReplicatedMap{name=" + name + ", size=" + size() + ", versions=" + Collections.unmodifiableMap(versions) + "}";
+	}
+}
@@ -0,0 +1,19 @@
+package com.tonic.services.ipc;
+
+import java.util.Map;
+
+/**
+ * Handles an addressed request received through a {@link ReliableChannel}.
+ */
+@FunctionalInterface
+public interface RequestHandler
+{
+	/**
+	 * Called when a peer sends a request of the registered type.
+	 *
+	 * @param request The request message
+	 * @return response payload sent back to the requester (may be null for an empty response)
+	 * @throws Exception reported back to the requester as a failed response
+	 */
+	Map<String, Object> handle(Message request) throws Exception;
+}
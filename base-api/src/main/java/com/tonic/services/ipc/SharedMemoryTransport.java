@@ -0,0 +1,310 @@
+package com.tonic.services.ipc;
+
+import com.tonic.Logger;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Same-host transport backed by a memory-mapped broadcast ring.
+ *
+ * <p>File layout:
+ * <pre>
+ * [0..4)   magic
+ * [4..8)   version
+ * [8..12)  ring capacity (power of two)
+ * [16..24) tail - next free ring position, claimed by producers with CAS
+ * [64..)   ring data
+ * </pre>
+ *
+ * Each record is 16-byte aligned: {@code [stamp:8][length:4][pad:4][data...]}. A producer claims
+ * space by advancing the tail, marks the slot as being written by storing the claimed position with
+ * its low bit set, copies its payload, then publishes by writing the claimed position into the stamp
+ * with release semantics. Readers keep a private cursor and only consume a record once its stamp
+ * equals the cursor, and check the stamp again after copying: if a producer lapped the reader and
+ * started rewriting the slot meanwhile, the stamp no longer matches and the copy is discarded.
+ * A record that would straddle the end of the ring is preceded by a padding record (length -1).
+ */
+class SharedMemoryTransport implements Transport
+{
+	private static final int MAGIC = 0x56495043; // "VIPC"
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 64;
+	private static final int CAPACITY_OFFSET = 8;
+	private static final int TAIL_OFFSET = 16;
+	private static final int RECORD_HEADER = 16;
+	private static final int ALIGNMENT = 16;
+	private static final int PADDING = -1;
+	private static final long WRITING = 1L;
+	private static final long STALL_TIMEOUT_NANOS = 1_000_000_000L;
+	private static final long MIN_PARK_NANOS = 50_000L;
+	private static final long MAX_PARK_NANOS = 5_000_000L;
+
+	private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+	private final Path file;
+	private final int requestedCapacity;
+
+	private volatile MappedByteBuffer buffer;
+	private int capacity;
+	private int mask;
+	private long cursor;
+
+	SharedMemoryTransport(Path file, int capacity)
+	{
+		if (Integer.bitCount(capacity) != 1 || capacity < Channel.MAX_MESSAGE_SIZE * 2)
+		{
+			throw new IllegalArgumentException("Ring capacity must be a power of two and at least " + (Channel.MAX_MESSAGE_SIZE * 2));
+		}
+		this.file = file;
+		this.requestedCapacity = capacity;
+	}
+
+	@Override
+	public void open() throws IOException
+	{
+		Files.createDirectories(file.getParent());
+
+		try (FileChannel fc = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		     FileLock ignored = fc.lock())
+		{
+			int ringCapacity = requestedCapacity;
+			boolean initialize = true;
+
+			if (fc.size() >= HEADER_SIZE)
+			{
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.nativeOrder());
+				fc.read(header, 0);
+				int existing = header.getInt(CAPACITY_OFFSET);
+				if (header.getInt(0) == MAGIC && header.getInt(4) == VERSION && Integer.bitCount(existing) == 1
+					&& fc.size() >= HEADER_SIZE + (long) existing)
+				{
+					ringCapacity = existing;
+					initialize = false;
+				}
+			}
+
+			MappedByteBuffer map = fc.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) ringCapacity);
+			map.order(ByteOrder.nativeOrder());
+
+			if (initialize)
+			{
+				for (int i = 0; i < HEADER_SIZE + ringCapacity; i += 8)
+				{
+					map.putLong(i, 0L);
+				}
+				map.putInt(4, VERSION);
+				map.putInt(CAPACITY_OFFSET, ringCapacity);
+				// Start one lap in so a zeroed stamp can never match a reader cursor
+				LONG.setVolatile(map, TAIL_OFFSET, (long) ringCapacity);
+				map.putInt(0, MAGIC);
+				map.force();
+			}
+
+			this.capacity = ringCapacity;
+			this.mask = ringCapacity - 1;
+			this.cursor = (long) LONG.getVolatile(map, TAIL_OFFSET);
+			this.buffer = map;
+		}
+	}
+
+	@Override
+	public void send(byte[] data) throws IOException
+	{
+		MappedByteBuffer map = buffer;
+		if (map == null)
+		{
+			throw new IOException("Shared memory transport is closed");
+		}
+		if (data.length > Channel.MAX_MESSAGE_SIZE)
+		{
+			throw new IOException("Message too large for shared memory ring: " + data.length + " bytes");
+		}
+
+		int size = align(RECORD_HEADER + data.length);
+		long position;
+		int remaining;
+		while (true)
+		{
+			position = (long) LONG.getVolatile(map, TAIL_OFFSET);
+			int offset = (int) (position & mask);
+			remaining = capacity - offset;
+			int claim = remaining < size ? remaining + size : size;
+			if (LONG.compareAndSet(map, TAIL_OFFSET, position, position + claim))
+			{
+				break;
+			}
+			Thread.onSpinWait();
+		}
+
+		if (remaining < size)
+		{
+			int index = index(position);
+			beginWrite(map, index, position);
+			map.putInt(index + 8, PADDING);
+			LONG.setRelease(map, index, position);
+			position += remaining;
+		}
+
+		int index = index(position);
+		beginWrite(map, index, position);
+		map.putInt(index + 8, data.length);
+		ByteBuffer view = map.duplicate();
+		view.position(index + RECORD_HEADER);
+		view.put(data);
+		LONG.setRelease(map, index, position);
+	}
+
+	@Override
+	public byte[] receive()
+	{
+		int idle = 0;
+		long stalledSince = 0;
+
+		while (true)
+		{
+			MappedByteBuffer map = buffer;
+			if (map == null)
+			{
+				return null;
+			}
+
+			int index = index(cursor);
+			long stamp = (long) LONG.getAcquire(map, index);
+
+			if (stamp == cursor)
+			{
+				int length = map.getInt(index + 8);
+				if (length == PADDING)
+				{
+					cursor += capacity - (int) (cursor & mask);
+					continue;
+				}
+
+				if (length < 0 || length > Channel.MAX_MESSAGE_SIZE)
+				{
+					resync(map, "corrupt record length " + length);
+					continue;
+				}
+
+				byte[] data = new byte[length];
+				ByteBuffer view = map.duplicate();
+				view.position(index + RECORD_HEADER);
+				view.get(data);
+
+				// Seqlock-style check: a producer may have lapped us and started rewriting the slot while we were copying
+				VarHandle.loadLoadFence();
+				if ((long) LONG.getAcquire(map, index) != cursor)
+				{
+					resync(map, "reader lapped by producers");
+					continue;
+				}
+
+				cursor += align(RECORD_HEADER + length);
+				return data;
+			}
+
+			if ((stamp & ~WRITING) > cursor)
+			{
+				resync(map, "reader lapped by producers");
+				continue;
+			}
+
+			// Not yet published. If a producer died mid-write the slot never completes, so give up on it eventually.
+			long tail = (long) LONG.getVolatile(map, TAIL_OFFSET);
+			if (tail - cursor > capacity)
+			{
+				resync(map, "reader lapped by producers");
+				continue;
+			}
+			if (tail != cursor)
+			{
+				long now = System.nanoTime();
+				if (stalledSince == 0)
+				{
+					stalledSince = now;
+				}
+				else if (now - stalledSince > STALL_TIMEOUT_NANOS)
+				{
+					resync(map, "abandoned record");
+					stalledSince = 0;
+					continue;
+				}
+				// A record is being written, keep polling at a short interval
+				idle = Math.min(idle, 200);
+			}
+			else
+			{
+				stalledSince = 0;
+			}
+
+			idle = backoff(idle);
+		}
+	}
+
+	/**
+	 * Mark a claimed slot as being written before any of its bytes change, so a reader still copying
+	 * the previous lap's record from it fails its stamp recheck.
+	 */
+	private static void beginWrite(MappedByteBuffer map, int index, long position)
+	{
+		LONG.setOpaque(map, index, position | WRITING);
+		VarHandle.storeStoreFence();
+	}
+
+	@Override
+	public void close()
+	{
+		buffer = null;
+	}
+
+	@Override
+	public String name()
+	{
+		return "SharedMemory";
+	}
+
+	private void resync(MappedByteBuffer map, String reason)
+	{
+		Logger.warn("[IPC] Shared memory ring resync: " + reason);
+		cursor = (long) LONG.getVolatile(map, TAIL_OFFSET);
+	}
+
+	private int index(long position)
+	{
+		return HEADER_SIZE + (int) (position & mask);
+	}
+
+	private static int align(int size)
+	{
+		return (size + ALIGNMENT - 1) & -ALIGNMENT;
+	}
+
+	private static int backoff(int idle)
+	{
+		if (idle < 100)
+		{
+			Thread.onSpinWait();
+		}
+		else if (idle < 200)
+		{
+			Thread.yield();
+		}
+		else
+		{
+			// Nothing to read: park for longer the longer the ring stays idle
+			LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, MIN_PARK_NANOS << Math.min(idle - 200, 10)));
+		}
+		return idle + 1;
+	}
+}
@@ -0,0 +1,39 @@
+package com.tonic.services.ipc;
+
+import java.io.IOException;
+
+/**
+ * Low-level byte transport used by {@link Channel}.
+ * Implementations deliver every sent frame to every open peer (including the sender).
+ */
+interface Transport
+{
+	/**
+	 * Open the transport and start accepting frames.
+	 */
+	void open() throws IOException;
+
+	/**
+	 * Send a serialized frame to all peers.
+	 *
+	 * @param data frame bytes
+	 */
+	void send(byte[] data) throws IOException;
+
+	/**
+	 * Block until the next frame arrives.
+	 *
+	 * @return frame bytes, or null if the transport was closed while waiting
+	 */
+	byte[] receive() throws IOException;
+
+	/**
+	 * Close the transport and release its resources.
+	 */
+	void close();
+
+	/**
+	 * @return short name used for receiver threads and logging
+	 */
+	String name();
+}
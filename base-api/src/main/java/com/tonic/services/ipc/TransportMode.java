@@ -0,0 +1,24 @@
+package com.tonic.services.ipc;
+
+/**
+ * Selects how a {@link Channel} moves messages between peers.
+ */
+public enum TransportMode
+{
+	/**
+	 * UDP multicast only. Works across hosts, pays kernel/loopback overhead for local peers.
+	 */
+	MULTICAST,
+
+	/**
+	 * Memory-mapped ring under {@code Static.VITA_DIR}. Same-host peers only.
+	 * Falls back to multicast if the ring file cannot be mapped.
+	 */
+	SHARED_MEMORY,
+
+	/**
+	 * Shared memory for same-host peers plus multicast for peers on other hosts.
+	 * Frames arriving on both paths are dropped by message id de-duplication.
+	 */
+	HYBRID
+}
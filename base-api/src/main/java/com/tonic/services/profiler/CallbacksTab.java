@@ -0,0 +1,283 @@
+package com.tonic.services.profiler;
+
+import com.tonic.services.profiler.callbacks.CallbackMetrics;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.border.TitledBorder;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * EventBus subscriber and overlay render latency, slowest callbacks of the last tick and tick budget overruns
+ */
+public class CallbacksTab extends JPanel {
+    private static final Color BG_COLOR = new Color(30, 31, 34);
+    private static final Color PANEL_BG = new Color(40, 42, 46);
+    private static final Color TEXT_COLOR = new Color(200, 200, 200);
+    private static final Color ACCENT_COLOR = new Color(64, 156, 255);
+    private static final Color ERROR_COLOR = new Color(244, 67, 54);
+    private static final long ALERT_MS = 5000;
+
+    private JLabel tickLabel;
+    private JLabel overrunLabel;
+    private DefaultTableModel subscribersModel;
+    private DefaultTableModel overlaysModel;
+    private DefaultTableModel tickModel;
+    private DefaultTableModel overrunsModel;
+    private final Timer refreshTimer;
+
+    public CallbacksTab() {
+        setLayout(new BorderLayout(10, 10));
+        setBackground(BG_COLOR);
+        setBorder(new EmptyBorder(15, 15, 15, 15));
+
+        add(createHeader(), BorderLayout.NORTH);
+
+        subscribersModel = createLatencyModel("Owner", "Method", "Event");
+        overlaysModel = createLatencyModel("Owner", "Overlay");
+        JTabbedPane latencyTabs = new JTabbedPane();
+        latencyTabs.addTab("Subscribers", wrapTable("Per subscriber", subscribersModel));
+        latencyTabs.addTab("Overlays", wrapTable("Per overlay", overlaysModel));
+
+        tickModel = createReadOnlyModel("Kind", "Callback", "Calls", "Time (ms)");
+        overrunsModel = createReadOnlyModel("Tick", "Time", "Subscribers (ms)", "Overlays (ms)", "Slowest");
+        JSplitPane tickSplit = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT,
+            wrapTable("Slowest this tick", tickModel),
+            wrapTable("Budget overruns", overrunsModel));
+        tickSplit.setResizeWeight(0.4);
+
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, latencyTabs, tickSplit);
+        split.setResizeWeight(0.6);
+        add(split, BorderLayout.CENTER);
+
+        refreshTimer = new Timer(1000, e -> {
+            if (isShowing()) {
+                refresh();
+            }
+        });
+        refreshTimer.start();
+        refresh();
+    }
+
+    private JPanel createHeader() {
+        JPanel panel = createStyledPanel("Callback Latency");
+        panel.setLayout(new GridLayout(2, 1, 0, 2));
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 0));
+        controls.setOpaque(false);
+
+        JCheckBox recordCheckbox = new JCheckBox("Record", CallbackMetrics.isEnabled());
+        recordCheckbox.setOpaque(false);
+        recordCheckbox.setForeground(TEXT_COLOR);
+        recordCheckbox.addActionListener(e -> CallbackMetrics.setEnabled(recordCheckbox.isSelected()));
+        controls.add(recordCheckbox);
+
+        controls.add(createStyledLabel("Tick budget (ms):"));
+        JSpinner budgetSpinner = new JSpinner(new SpinnerNumberModel(
+            (int) (CallbackMetrics.getTickBudgetNanos() / 1_000_000), 1, 600, 5));
+        budgetSpinner.addChangeListener(e ->
+            CallbackMetrics.setTickBudgetNanos(((Number) budgetSpinner.getValue()).longValue() * 1_000_000));
+        controls.add(budgetSpinner);
+
+        JButton resetBtn = createStyledButton("Reset");
+        resetBtn.addActionListener(e -> {
+            CallbackMetrics.reset();
+            refresh();
+        });
+        controls.add(resetBtn);
+
+        JButton exportBtn = createStyledButton("Export CSV");
+        exportBtn.addActionListener(e -> export());
+        controls.add(exportBtn);
+
+        panel.add(controls);
+
+        JPanel status = new JPanel(new FlowLayout(FlowLayout.LEFT, 20, 0));
+        status.setOpaque(false);
+        tickLabel = createStyledLabel("Last tick: --");
+        overrunLabel = createStyledLabel("Overruns: 0");
+        status.add(tickLabel);
+        status.add(overrunLabel);
+        panel.add(status);
+
+        return panel;
+    }
+
+    private void refresh() {
+        fillLatency(subscribersModel, CallbackMetrics.getStats(CallbackMetrics.Kind.SUBSCRIBER), true);
+        fillLatency(overlaysModel, CallbackMetrics.getStats(CallbackMetrics.Kind.OVERLAY), false);
+
+        CallbackMetrics.TickReport tick = CallbackMetrics.getLastTick();
+        tickModel.setRowCount(0);
+        if (tick == null) {
+            tickLabel.setText("Last tick: --");
+        } else {
+            tickLabel.setText(String.format("Last tick #%d: %.2f ms subscribers, %.2f ms overlays",
+                tick.tick, tick.subscriberNanos / 1_000_000.0, tick.overlayNanos / 1_000_000.0));
+            for (CallbackMetrics.TickEntry entry : tick.entries) {
+                tickModel.addRow(new Object[]{entry.kind, entry.label, entry.calls, toMillis(entry.nanos)});
+            }
+        }
+
+        // Stay red for a few seconds after each overrun
+        List<CallbackMetrics.TickReport> reports = CallbackMetrics.getOverruns();
+        boolean recent = !reports.isEmpty()
+            && System.currentTimeMillis() - reports.get(reports.size() - 1).timestamp < ALERT_MS;
+        overrunLabel.setText(String.format("Overruns: %,d of %,d ticks",
+            CallbackMetrics.getOverrunCount(), CallbackMetrics.getTickCount()));
+        overrunLabel.setForeground(recent ? ERROR_COLOR : TEXT_COLOR);
+
+        SimpleDateFormat format = new SimpleDateFormat("HH:mm:ss");
+        overrunsModel.setRowCount(0);
+        for (int i = reports.size() - 1; i >= 0; i--) {
+            CallbackMetrics.TickReport report = reports.get(i);
+            CallbackMetrics.TickEntry worst = report.entries.isEmpty() ? null : report.entries.get(0);
+            overrunsModel.addRow(new Object[]{
+                report.tick,
+                format.format(new Date(report.timestamp)),
+                toMillis(report.subscriberNanos),
+                toMillis(report.overlayNanos),
+                worst == null ? "" : String.format("%s (%.2f ms)", worst.label, worst.nanos / 1_000_000.0)
+            });
+        }
+    }
+
+    private void fillLatency(DefaultTableModel model, List<CallbackMetrics.CallbackSnapshot> stats, boolean subscribers) {
+        model.setRowCount(0);
+        for (CallbackMetrics.CallbackSnapshot s : stats) {
+            Object[] latency = {
+                s.count,
+                toMillis(s.totalNanos),
+                toMicros((long) s.getAverageNanos()),
+                toMicros(s.p50Nanos),
+                toMicros(s.p99Nanos),
+                toMicros(s.maxNanos)
+            };
+            Object[] row;
+            if (subscribers) {
+                row = new Object[3 + latency.length];
+                row[0] = s.owner;
+                row[1] = s.method;
+                row[2] = s.eventType;
+                System.arraycopy(latency, 0, row, 3, latency.length);
+            } else {
+                row = new Object[2 + latency.length];
+                row[0] = s.owner;
+                row[1] = s.method;
+                System.arraycopy(latency, 0, row, 2, latency.length);
+            }
+            model.addRow(row);
+        }
+    }
+
+    private void export() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Export Callback Latency");
+        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+        fileChooser.setSelectedFile(new File("callbacks_" + timestamp + ".csv"));
+
+        if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
+            try (PrintWriter writer = new PrintWriter(new FileWriter(fileChooser.getSelectedFile()))) {
+                CallbackMetrics.exportCsv(writer);
+                JOptionPane.showMessageDialog(this, "Callback latency exported successfully!", "Export", JOptionPane.INFORMATION_MESSAGE);
+            } catch (Exception e) {
+                JOptionPane.showMessageDialog(this, "Export failed: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    private static double toMicros(long nanos) {
+        return Math.round(nanos / 100.0) / 10.0;
+    }
+
+    public void cleanup() {
+        refreshTimer.stop();
+    }
+
+    /**
+     * Name columns followed by Count, Total (ms), Avg/p50/p99/Max (us)
+     */
+    private DefaultTableModel createLatencyModel(String... nameColumns) {
+        String[] latencyColumns = {"Count", "Total (ms)", "Avg (us)", "p50 (us)", "p99 (us)", "Max (us)"};
+        String[] columns = new String[nameColumns.length + latencyColumns.length];
+        System.arraycopy(nameColumns, 0, columns, 0, nameColumns.length);
+        System.arraycopy(latencyColumns, 0, columns, nameColumns.length, latencyColumns.length);
+        int names = nameColumns.length;
+
+        return new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int columnIndex) {
+                if (columnIndex < names) {
+                    return String.class;
+                }
+                return columnIndex == names ? Long.class : Double.class;
+            }
+        };
+    }
+
+    private DefaultTableModel createReadOnlyModel(String... columns) {
+        return new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+    }
+
+    private JPanel wrapTable(String title, DefaultTableModel model) {
+        JTable table = new JTable(model);
+        table.setBackground(PANEL_BG);
+        table.setForeground(TEXT_COLOR);
+        table.setFont(new Font("Consolas", Font.PLAIN, 11));
+        table.setAutoCreateRowSorter(true);
+
+        JPanel wrapper = createStyledPanel(title);
+        wrapper.setLayout(new BorderLayout());
+        wrapper.add(new JScrollPane(table), BorderLayout.CENTER);
+        return wrapper;
+    }
+
+    private JPanel createStyledPanel(String title) {
+        JPanel panel = new JPanel();
+        panel.setBackground(PANEL_BG);
+        TitledBorder border = BorderFactory.createTitledBorder(
+            BorderFactory.createLineBorder(new Color(50, 52, 56)),
+            title
+        );
+        border.setTitleColor(TEXT_COLOR);
+        border.setTitleFont(new Font("Segoe UI", Font.BOLD, 13));
+        panel.setBorder(BorderFactory.createCompoundBorder(border, new EmptyBorder(10, 10, 10, 10)));
+        return panel;
+    }
+
+    private JLabel createStyledLabel(String text) {
+        JLabel label = new JLabel(text);
+        label.setForeground(TEXT_COLOR);
+        label.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        return label;
+    }
+
+    private JButton createStyledButton(String text) {
+        JButton button = new JButton(text);
+        button.setBackground(ACCENT_COLOR);
+        button.setForeground(Color.WHITE);
+        button.setFocusPainted(false);
+        return button;
+    }
+}
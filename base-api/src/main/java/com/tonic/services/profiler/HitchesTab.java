@@ -0,0 +1,250 @@
+package com.tonic.services.profiler;
+
+import com.tonic.services.profiler.hitch.HitchMonitor;
+import com.tonic.services.profiler.hitch.HitchReport;
+import com.tonic.services.profiler.hitch.HotspotCounters;
+import com.tonic.services.profiler.timeline.TimelineCollector;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.border.TitledBorder;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Late game ticks attributed to GC, safepoints, JIT or the application, plus live HotSpot counters
+ */
+public class HitchesTab extends JPanel {
+    private static final Color BG_COLOR = new Color(30, 31, 34);
+    private static final Color PANEL_BG = new Color(40, 42, 46);
+    private static final Color TEXT_COLOR = new Color(200, 200, 200);
+    private static final Color ACCENT_COLOR = new Color(64, 156, 255);
+
+    private JLabel countersLabel;
+    private JLabel causesLabel;
+    private DefaultTableModel hitchesModel;
+    private DefaultTableModel compilerThreadsModel;
+    private JTable hitchesTable;
+    private JTextArea detailsArea;
+    private List<HitchReport> displayedReports = new ArrayList<>();
+    private final Timer refreshTimer;
+
+    /**
+     * @param timeline timeline that receives safepoint, compilation and hitch events
+     */
+    public HitchesTab(TimelineCollector timeline) {
+        HitchMonitor.setTimeline(timeline);
+
+        setLayout(new BorderLayout(10, 10));
+        setBackground(BG_COLOR);
+        setBorder(new EmptyBorder(15, 15, 15, 15));
+
+        add(createHeader(), BorderLayout.NORTH);
+
+        hitchesModel = createReadOnlyModel("Tick", "Time", "Interval (ms)", "Late (ms)", "Cause", "GC (ms)",
+            "Safepoint (ms)", "TTSP (ms)", "Compile (ms)", "Deopts", "Callbacks (ms)");
+        hitchesTable = createTable(hitchesModel);
+        hitchesTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        hitchesTable.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                showDetails();
+            }
+        });
+
+        detailsArea = new JTextArea("Select a hitch to view details");
+        detailsArea.setEditable(false);
+        detailsArea.setBackground(PANEL_BG);
+        detailsArea.setForeground(TEXT_COLOR);
+        detailsArea.setFont(new Font("Consolas", Font.PLAIN, 11));
+
+        compilerThreadsModel = createReadOnlyModel("Compiler Thread", "Tasks", "Time");
+
+        JSplitPane sideSplit = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
+            wrap("Hitch Details", new JScrollPane(detailsArea)),
+            wrap("Compiler Threads", new JScrollPane(createTable(compilerThreadsModel))));
+        sideSplit.setResizeWeight(0.5);
+
+        JSplitPane split = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT,
+            wrap("Slow Ticks", new JScrollPane(hitchesTable)), sideSplit);
+        split.setResizeWeight(0.7);
+        add(split, BorderLayout.CENTER);
+
+        refreshTimer = new Timer(1000, e -> {
+            if (isShowing()) {
+                refresh();
+            }
+        });
+        refreshTimer.start();
+        refresh();
+    }
+
+    private JPanel createHeader() {
+        JPanel panel = createStyledPanel("Hitch Attribution");
+        panel.setLayout(new GridLayout(3, 1, 0, 2));
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 0));
+        controls.setOpaque(false);
+
+        JCheckBox monitorCheckbox = new JCheckBox("Monitor", HitchMonitor.isEnabled());
+        monitorCheckbox.setOpaque(false);
+        monitorCheckbox.setForeground(TEXT_COLOR);
+        monitorCheckbox.addActionListener(e -> HitchMonitor.setEnabled(monitorCheckbox.isSelected()));
+        controls.add(monitorCheckbox);
+
+        controls.add(createStyledLabel("Late after (ms past 600):"));
+        JSpinner slackSpinner = new JSpinner(new SpinnerNumberModel((int) HitchMonitor.getSlackMs(), 0, 5000, 25));
+        slackSpinner.addChangeListener(e ->
+            HitchMonitor.setSlackMs(((Number) slackSpinner.getValue()).longValue()));
+        controls.add(slackSpinner);
+
+        JButton resetBtn = createStyledButton("Reset");
+        resetBtn.addActionListener(e -> {
+            HitchMonitor.reset();
+            refresh();
+        });
+        controls.add(resetBtn);
+
+        panel.add(controls);
+
+        countersLabel = createStyledLabel("Counters: monitoring off");
+        causesLabel = createStyledLabel("Hitches: 0");
+        panel.add(countersLabel);
+        panel.add(causesLabel);
+
+        return panel;
+    }
+
+    private void refresh() {
+        HotspotCounters counters = HitchMonitor.getCounters();
+        HotspotCounters.CounterSnapshot sample = HitchMonitor.getLastSample();
+        if (sample == null) {
+            countersLabel.setText("Counters: monitoring off");
+        } else {
+            String safepoints = sample.safepointCount >= 0
+                ? String.format("Safepoints: %,d (%,d ms, TTSP %,d ms)", sample.safepointCount,
+                    sample.safepointTimeMs, sample.safepointSyncTimeMs)
+                : "Safepoints: unavailable";
+            String compiles = sample.compileCount >= 0
+                ? String.format("Compiles: %,d, deopts %,d, bailouts %,d", sample.compileCount,
+                    sample.invalidatedCount, sample.bailoutCount)
+                : "Compiles: unavailable";
+            countersLabel.setText(String.format("%s  |  %s  |  Compile time: %,d ms  |  GC: %,d (%,d ms)",
+                safepoints, compiles, sample.compileTimeMs, sample.gcCount, sample.gcTimeMs));
+        }
+
+        StringBuilder causes = new StringBuilder();
+        causes.append(String.format("Ticks: %,d", HitchMonitor.getTickCount()));
+        for (HitchReport.Cause cause : HitchReport.Cause.values()) {
+            causes.append(String.format("  |  %s: %,d", cause.getLabel(), HitchMonitor.getCauseCount(cause)));
+        }
+        causesLabel.setText(causes.toString());
+
+        int selected = hitchesTable.getSelectedRow();
+        List<HitchReport> reports = HitchMonitor.getReports();
+        displayedReports = new ArrayList<>(reports.size());
+        SimpleDateFormat format = new SimpleDateFormat("HH:mm:ss.SSS");
+        hitchesModel.setRowCount(0);
+        for (int i = reports.size() - 1; i >= 0; i--) {
+            HitchReport report = reports.get(i);
+            displayedReports.add(report);
+            hitchesModel.addRow(new Object[]{
+                report.tick,
+                format.format(new Date(report.timestamp)),
+                report.intervalMs,
+                report.excessMs,
+                report.cause.getLabel(),
+                report.gcMs,
+                report.safepointMs >= 0 ? String.valueOf(report.safepointMs) : "-",
+                report.safepointSyncMs >= 0 ? String.valueOf(report.safepointSyncMs) : "-",
+                report.compileMs,
+                report.deoptimizations,
+                report.callbackMs >= 0 ? String.valueOf(report.callbackMs) : "-"
+            });
+        }
+        if (selected >= 0 && selected < hitchesModel.getRowCount()) {
+            hitchesTable.setRowSelectionInterval(selected, selected);
+        }
+
+        compilerThreadsModel.setRowCount(0);
+        if (counters != null) {
+            for (HotspotCounters.CompilerThreadInfo info : counters.readCompilerThreads()) {
+                compilerThreadsModel.addRow(new Object[]{info.name, info.taskCount, info.compileTimeMs});
+            }
+        }
+    }
+
+    private void showDetails() {
+        int row = hitchesTable.getSelectedRow();
+        if (row < 0) {
+            detailsArea.setText("Select a hitch to view details");
+            return;
+        }
+        int index = hitchesTable.convertRowIndexToModel(row);
+        if (index < displayedReports.size()) {
+            detailsArea.setText(displayedReports.get(index).describe());
+            detailsArea.setCaretPosition(0);
+        }
+    }
+
+    public void cleanup() {
+        refreshTimer.stop();
+        HitchMonitor.setTimeline(null);
+    }
+
+    private DefaultTableModel createReadOnlyModel(String... columns) {
+        return new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+    }
+
+    private JTable createTable(DefaultTableModel model) {
+        JTable table = new JTable(model);
+        table.setBackground(PANEL_BG);
+        table.setForeground(TEXT_COLOR);
+        table.setFont(new Font("Consolas", Font.PLAIN, 11));
+        table.setAutoCreateRowSorter(true);
+        return table;
+    }
+
+    private JPanel wrap(String title, JComponent content) {
+        JPanel wrapper = createStyledPanel(title);
+        wrapper.setLayout(new BorderLayout());
+        wrapper.add(content, BorderLayout.CENTER);
+        return wrapper;
+    }
+
+    private JPanel createStyledPanel(String title) {
+        JPanel panel = new JPanel();
+        panel.setBackground(PANEL_BG);
+        TitledBorder border = BorderFactory.createTitledBorder(
+            BorderFactory.createLineBorder(new Color(50, 52, 56)),
+            title
+        );
+        border.setTitleColor(TEXT_COLOR);
+        border.setTitleFont(new Font("Segoe UI", Font.BOLD, 13));
+        panel.setBorder(BorderFactory.createCompoundBorder(border, new EmptyBorder(10, 10, 10, 10)));
+        return panel;
+    }
+
+    private JLabel createStyledLabel(String text) {
+        JLabel label = new JLabel(text);
+        label.setForeground(TEXT_COLOR);
+        label.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        return label;
+    }
+
+    private JButton createStyledButton(String text) {
+        JButton button = new JButton(text);
+        button.setBackground(ACCENT_COLOR);
+        button.setForeground(Color.WHITE);
+        button.setFocusPainted(false);
+        return button;
+    }
+}
@@ -0,0 +1,306 @@
+package com.tonic.services.profiler;
+
+import com.tonic.packets.BufferLeakTracker;
+import com.tonic.packets.ByteBufferPool;
+import com.tonic.packets.LogHistogram;
+import com.tonic.packets.PacketMapReader;
+import com.tonic.packets.PacketMetrics;
+import com.tonic.packets.types.MapEntry;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.border.TitledBorder;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-opcode packet traffic and hook cost, buffer pool usage and leak tracking
+ */
+public class PacketsTab extends JPanel {
+    private static final Color BG_COLOR = new Color(30, 31, 34);
+    private static final Color PANEL_BG = new Color(40, 42, 46);
+    private static final Color TEXT_COLOR = new Color(200, 200, 200);
+    private static final Color ACCENT_COLOR = new Color(64, 156, 255);
+    private static final long OUTSTANDING_AGE_MS = 5000;
+
+    private JLabel sentStatsLabel;
+    private JLabel receivedStatsLabel;
+    private DefaultTableModel trafficModel;
+    private final Map<Integer, long[]> lastCounts = new HashMap<>();
+    private final Map<Integer, String> sentNames = new HashMap<>();
+    private long lastRefreshNanos;
+
+    private JLabel poolStatsLabel;
+    private JLabel classStatsLabel;
+    private JCheckBox trackLeaksCheckbox;
+    private DefaultTableModel leaksModel;
+    private DefaultTableModel outstandingModel;
+    private final Timer refreshTimer;
+
+    public PacketsTab() {
+        setLayout(new BorderLayout(10, 10));
+        setBackground(BG_COLOR);
+        setBorder(new EmptyBorder(15, 15, 15, 15));
+
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, createTrafficPanel(), createBufferPanel());
+        split.setResizeWeight(0.6);
+        add(split, BorderLayout.CENTER);
+
+        refreshTimer = new Timer(2000, e -> {
+            if (isShowing()) {
+                refresh();
+            }
+        });
+        refreshTimer.start();
+        refresh();
+    }
+
+    private JPanel createTrafficPanel() {
+        JPanel panel = createStyledPanel("Opcode Traffic");
+        panel.setLayout(new BorderLayout(5, 5));
+
+        JPanel header = new JPanel(new GridLayout(3, 1, 0, 2));
+        header.setOpaque(false);
+        sentStatsLabel = createStyledLabel("Sent: --");
+        receivedStatsLabel = createStyledLabel("Received: --");
+        header.add(sentStatsLabel);
+        header.add(receivedStatsLabel);
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 0));
+        controls.setOpaque(false);
+        JCheckBox recordCheckbox = new JCheckBox("Record", PacketMetrics.isEnabled());
+        recordCheckbox.setOpaque(false);
+        recordCheckbox.setForeground(TEXT_COLOR);
+        recordCheckbox.addActionListener(e -> PacketMetrics.setEnabled(recordCheckbox.isSelected()));
+        controls.add(recordCheckbox);
+
+        JButton resetBtn = new JButton("Reset");
+        resetBtn.setBackground(ACCENT_COLOR);
+        resetBtn.setForeground(Color.WHITE);
+        resetBtn.setFocusPainted(false);
+        resetBtn.addActionListener(e -> {
+            PacketMetrics.reset();
+            lastCounts.clear();
+            refresh();
+        });
+        controls.add(resetBtn);
+        header.add(controls);
+        panel.add(header, BorderLayout.NORTH);
+
+        trafficModel = new DefaultTableModel(new String[]{
+            "Dir", "Opcode", "Name", "Count", "Rate/s", "Bytes", "p50 Size", "p99 Size", "Max Size", "Avg Hook (us)", "Avg Post (us)", "Total Hook (ms)"
+        }, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int columnIndex) {
+                if (columnIndex == 0 || columnIndex == 2) {
+                    return String.class;
+                }
+                if (columnIndex == 1) {
+                    return Integer.class;
+                }
+                return columnIndex == 4 || columnIndex >= 9 ? Double.class : Long.class;
+            }
+        };
+
+        JTable table = new JTable(trafficModel);
+        table.setBackground(PANEL_BG);
+        table.setForeground(TEXT_COLOR);
+        table.setFont(new Font("Consolas", Font.PLAIN, 11));
+        table.setAutoCreateRowSorter(true);
+        table.getColumnModel().getColumn(0).setMaxWidth(40);
+        panel.add(new JScrollPane(table), BorderLayout.CENTER);
+
+        return panel;
+    }
+
+    private JPanel createBufferPanel() {
+        JPanel panel = createStyledPanel("Packet Buffers");
+        panel.setLayout(new BorderLayout(5, 5));
+
+        JPanel header = new JPanel(new GridLayout(3, 1, 0, 2));
+        header.setOpaque(false);
+
+        poolStatsLabel = createStyledLabel("Pool: --");
+        classStatsLabel = createStyledLabel("Size classes: --");
+        header.add(poolStatsLabel);
+        header.add(classStatsLabel);
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 0));
+        controls.setOpaque(false);
+        trackLeaksCheckbox = new JCheckBox("Track allocation sites", BufferLeakTracker.isEnabled());
+        trackLeaksCheckbox.setOpaque(false);
+        trackLeaksCheckbox.setForeground(TEXT_COLOR);
+        trackLeaksCheckbox.addActionListener(e -> BufferLeakTracker.setEnabled(trackLeaksCheckbox.isSelected()));
+        controls.add(trackLeaksCheckbox);
+
+        JButton resetBtn = new JButton("Reset");
+        resetBtn.setBackground(ACCENT_COLOR);
+        resetBtn.setForeground(Color.WHITE);
+        resetBtn.setFocusPainted(false);
+        resetBtn.addActionListener(e -> {
+            BufferLeakTracker.reset();
+            refresh();
+        });
+        controls.add(resetBtn);
+        header.add(controls);
+
+        panel.add(header, BorderLayout.NORTH);
+
+        leaksModel = new DefaultTableModel(new String[]{"Leaked", "Allocation Site"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        outstandingModel = new DefaultTableModel(new String[]{"Live", "Oldest (s)", "Allocation Site"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
+            wrapTable("Collected without dispose()", leaksModel),
+            wrapTable("Undisposed for more than " + (OUTSTANDING_AGE_MS / 1000) + "s", outstandingModel));
+        split.setResizeWeight(0.5);
+        panel.add(split, BorderLayout.CENTER);
+
+        return panel;
+    }
+
+    private JPanel wrapTable(String title, DefaultTableModel model) {
+        JTable table = new JTable(model);
+        table.setBackground(PANEL_BG);
+        table.setForeground(TEXT_COLOR);
+        table.setFont(new Font("Consolas", Font.PLAIN, 11));
+        table.getColumnModel().getColumn(0).setMaxWidth(80);
+
+        JPanel wrapper = createStyledPanel(title);
+        wrapper.setLayout(new BorderLayout());
+        wrapper.add(new JScrollPane(table), BorderLayout.CENTER);
+        return wrapper;
+    }
+
+    private void refresh() {
+        refreshTraffic();
+        refreshBuffers();
+    }
+
+    private void refreshTraffic() {
+        sentStatsLabel.setText(formatDirection("Sent", PacketMetrics.Direction.SENT));
+        receivedStatsLabel.setText(formatDirection("Received", PacketMetrics.Direction.RECEIVED));
+
+        long now = System.nanoTime();
+        double elapsedSec = lastRefreshNanos == 0 ? 0 : (now - lastRefreshNanos) / 1_000_000_000.0;
+        lastRefreshNanos = now;
+
+        trafficModel.setRowCount(0);
+        for (PacketMetrics.Direction direction : PacketMetrics.Direction.values()) {
+            for (PacketMetrics.OpcodeSnapshot s : PacketMetrics.getOpcodes(direction)) {
+                int key = direction.ordinal() << 16 | s.opcode;
+                long[] last = lastCounts.put(key, new long[]{s.count});
+                double rate = last == null || elapsedSec <= 0 ? 0 : (s.count - last[0]) / elapsedSec;
+
+                trafficModel.addRow(new Object[]{
+                    direction == PacketMetrics.Direction.SENT ? "OUT" : "IN",
+                    s.opcode,
+                    direction == PacketMetrics.Direction.SENT ? sentName(s.opcode) : "",
+                    s.count,
+                    Math.round(rate * 10) / 10.0,
+                    s.bytes,
+                    s.p50Size,
+                    s.p99Size,
+                    s.maxSize,
+                    Math.round(s.getAverageHookNanos() / 100.0) / 10.0,
+                    Math.round(s.getAveragePostNanos() / 100.0) / 10.0,
+                    Math.round(s.hookNanos / 100_000.0) / 10.0
+                });
+            }
+        }
+    }
+
+    private String formatDirection(String label, PacketMetrics.Direction direction) {
+        LogHistogram hook = PacketMetrics.getHookLatency(direction);
+        LogHistogram post = PacketMetrics.getPostLatency(direction);
+        return String.format("%s: %,d packets | Hook p50/p99/max: %.1f / %.1f / %.1f us | Post p50/p99/max: %.1f / %.1f / %.1f us",
+            label, hook.getCount(),
+            hook.getPercentile(50) / 1000.0, hook.getPercentile(99) / 1000.0, hook.getMax() / 1000.0,
+            post.getPercentile(50) / 1000.0, post.getPercentile(99) / 1000.0, post.getMax() / 1000.0);
+    }
+
+    private String sentName(int opcode) {
+        return sentNames.computeIfAbsent(opcode, id -> {
+            try {
+                MapEntry entry = PacketMapReader.get(id);
+                return entry == null ? "" : entry.getName();
+            } catch (Exception e) {
+                return "";
+            }
+        });
+    }
+
+    private void refreshBuffers() {
+        ByteBufferPool.Stats stats = ByteBufferPool.getStats();
+        poolStatsLabel.setText(String.format("Allocations: %,d | Released: %,d | Outstanding: %,d | Oversized: %,d",
+            stats.allocations, stats.releases, stats.getOutstanding(), stats.oversized));
+
+        StringBuilder sb = new StringBuilder("Requests by size class: ");
+        for (int i = 0; i < stats.sizeClasses.length; i++) {
+            if (i > 0) {
+                sb.append(" | ");
+            }
+            sb.append("<=").append(stats.sizeClasses[i]).append("B: ").append(String.format("%,d", stats.classRequests[i]));
+        }
+        classStatsLabel.setText(sb.toString());
+
+        if (!BufferLeakTracker.isEnabled()) {
+            leaksModel.setRowCount(0);
+            outstandingModel.setRowCount(0);
+            return;
+        }
+
+        List<BufferLeakTracker.Report> leaks = BufferLeakTracker.getLeaks();
+        leaksModel.setRowCount(0);
+        for (BufferLeakTracker.Report report : leaks) {
+            leaksModel.addRow(new Object[]{report.count, report.site});
+        }
+
+        List<BufferLeakTracker.Report> outstanding = BufferLeakTracker.getOutstanding(OUTSTANDING_AGE_MS);
+        outstandingModel.setRowCount(0);
+        for (BufferLeakTracker.Report report : outstanding) {
+            outstandingModel.addRow(new Object[]{report.count, report.oldestAgeMs / 1000, report.site});
+        }
+    }
+
+    public void cleanup() {
+        refreshTimer.stop();
+    }
+
+    private JPanel createStyledPanel(String title) {
+        JPanel panel = new JPanel();
+        panel.setBackground(PANEL_BG);
+        TitledBorder border = BorderFactory.createTitledBorder(
+            BorderFactory.createLineBorder(new Color(50, 52, 56)),
+            title
+        );
+        border.setTitleColor(TEXT_COLOR);
+        border.setTitleFont(new Font("Segoe UI", Font.BOLD, 13));
+        panel.setBorder(BorderFactory.createCompoundBorder(border, new EmptyBorder(10, 10, 10, 10)));
+        return panel;
+    }
+
+    private JLabel createStyledLabel(String text) {
+        JLabel label = new JLabel(text);
+        label.setForeground(TEXT_COLOR);
+        label.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        return label;
+    }
+}
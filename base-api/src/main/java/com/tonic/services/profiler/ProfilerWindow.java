@@ -47,6 +47,15 @@ public class ProfilerWindow extends VitaFrame {
     private Timer metricsTimer;
     private SamplingTab samplingTab;
     private com.tonic.services.profiler.leak.LeakDetectorTab leakDetectorTab;
+    private PacketsTab packetsTab;
+    private CallbacksTab callbacksTab;
+    private HitchesTab hitchesTab;
+    private ThreadUsageTab threadUsageTab;
+    private JPanel jitPanel, threadPanel, vmConfigPanel, jvmtiPanel;
+
+    // Periodic collection runs off the EDT; see RefreshTask
+    private final RefreshTask resourceRefresh = new RefreshTask("Resource monitor");
+    private final RefreshTask threadListRefresh = new RefreshTask("Thread list");
 
     // GC Pause Analysis
     private com.tonic.services.profiler.gc.GCPauseAnalyzer gcPauseAnalyzer;
@@ -157,10 +166,22 @@ public class ProfilerWindow extends VitaFrame {
         tabbedPane.addTab("Leak Detector", leakDetectorTab);
         timelinePanel = new com.tonic.services.profiler.timeline.TimelinePanel(gcPauseAnalyzer);
         tabbedPane.addTab("Event Timeline", timelinePanel);
-        tabbedPane.addTab("JIT Compiler", createJITPanel());
-        tabbedPane.addTab("Threads", createThreadPanel());
-        tabbedPane.addTab("VM Configuration", createVMConfigPanel());
-        tabbedPane.addTab("JVMTI / VM", createJVMTIPanel());
+        jitPanel = createJITPanel();
+        tabbedPane.addTab("JIT Compiler", jitPanel);
+        threadPanel = createThreadPanel();
+        tabbedPane.addTab("Threads", threadPanel);
+        vmConfigPanel = createVMConfigPanel();
+        tabbedPane.addTab("VM Configuration", vmConfigPanel);
+        jvmtiPanel = createJVMTIPanel();
+        tabbedPane.addTab("JVMTI / VM", jvmtiPanel);
+        packetsTab = new PacketsTab();
+        tabbedPane.addTab("Packets", packetsTab);
+        callbacksTab = new CallbacksTab();
+        tabbedPane.addTab("Callbacks", callbacksTab);
+        hitchesTab = new HitchesTab(timelinePanel.getCollector());
+        tabbedPane.addTab("Hitches", hitchesTab);
+        threadUsageTab = new ThreadUsageTab();
+        tabbedPane.addTab("Thread Usage", threadUsageTab);
 
         getContentPanel().add(tabbedPane, BorderLayout.CENTER);
 
@@ -1160,10 +1181,25 @@ public class ProfilerWindow extends VitaFrame {
         if (monitoringPaused || metricsCollector == null) {
             return;
         }
+        resourceRefresh.offer(this::collectResources, this::applyResources);
+    }
+
+    /**
+     * Runs off the EDT: MXBean reads and GC report formatting
+     */
+    private ResourceView collectResources() {
+        MetricSnapshot snapshot = metricsCollector.collect();
+        String[] gcText = formatGCAnalysis();
+        return new ResourceView(snapshot, gcText == null ? null : gcText[0], gcText == null ? null : gcText[1]);
+    }
+
+    private void applyResources(ResourceView view) {
+        if (monitoringPaused) {
+            return;
+        }
 
         try {
-            // Collect metrics
-            MetricSnapshot snapshot = metricsCollector.collect();
+            MetricSnapshot snapshot = view.snapshot;
             metricsHistory.add(snapshot);
 
             // Create time marker
@@ -1192,7 +1228,14 @@ public class ProfilerWindow extends VitaFrame {
             updateSummaryLabels(snapshot);
 
             // Update GC analysis
-            updateGCAnalysis();
+            if (view.gcStats != null && !view.gcStats.equals(gcStatsArea.getText())) {
+                gcStatsArea.setText(view.gcStats);
+                gcStatsArea.setCaretPosition(0);
+            }
+            if (view.gcRecommendations != null && !view.gcRecommendations.equals(gcRecommendationsArea.getText())) {
+                gcRecommendationsArea.setText(view.gcRecommendations);
+                gcRecommendationsArea.setCaretPosition(0);
+            }
 
         } catch (Exception e) {
             System.err.println("Error updating resource monitor: " + e.getMessage());
@@ -1219,9 +1262,12 @@ public class ProfilerWindow extends VitaFrame {
         threadSummaryLabel.setText(String.format("%d (%d daemon)", snapshot.threadCount, snapshot.daemonThreadCount));
     }
 
-    private void updateGCAnalysis() {
-        if (gcPauseAnalyzer == null || gcStatsArea == null || gcRecommendationsArea == null) {
-            return;
+    /**
+     * @return GC statistics and recommendations text, or null if GC analysis is not set up
+     */
+    private String[] formatGCAnalysis() {
+        if (gcPauseAnalyzer == null || gcTuningAdvisor == null) {
+            return null;
         }
 
         try {
@@ -1254,9 +1300,6 @@ public class ProfilerWindow extends VitaFrame {
                 }
             }
 
-            gcStatsArea.setText(statsSb.toString());
-            gcStatsArea.setCaretPosition(0);
-
             // Update recommendations
             java.util.List<com.tonic.services.profiler.gc.GCTuningAdvisor.Recommendation> recommendations =
                 gcTuningAdvisor.getRecommendations();
@@ -1273,11 +1316,10 @@ public class ProfilerWindow extends VitaFrame {
                 recSb.append("\n");
             }
 
-            gcRecommendationsArea.setText(recSb.toString());
-            gcRecommendationsArea.setCaretPosition(0);
-
+            return new String[]{statsSb.toString(), recSb.toString()};
         } catch (Exception e) {
             System.err.println("Error updating GC analysis: " + e.getMessage());
+            return null;
         }
     }
 
@@ -1362,17 +1404,35 @@ public class ProfilerWindow extends VitaFrame {
     }
 
     private void refreshThreadInfo() {
-        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
-        long[] threadIds = threadBean.getAllThreadIds();
-
-        threadListModel.clear();
-        for (long id : threadIds) {
-            ThreadInfo info = threadBean.getThreadInfo(id);
-            if (info != null) {
-                String state = info.getThreadState().toString();
-                threadListModel.addElement(String.format("[%d] %s - %s", info.getThreadId(), info.getThreadName(), state));
+        threadListRefresh.offer(() -> {
+            ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+            List<String> entries = new ArrayList<>();
+            for (ThreadInfo info : threadBean.getThreadInfo(threadBean.getAllThreadIds())) {
+                if (info != null) {
+                    String state = info.getThreadState().toString();
+                    entries.add(String.format("[%d] %s - %s", info.getThreadId(), info.getThreadName(), state));
+                }
+            }
+            return entries;
+        }, this::applyThreadList);
+    }
+
+    /**
+     * Update the list in place so unchanged entries, and the selection, are left alone
+     */
+    private void applyThreadList(List<String> entries) {
+        int common = Math.min(entries.size(), threadListModel.size());
+        for (int i = 0; i < common; i++) {
+            if (!entries.get(i).equals(threadListModel.get(i))) {
+                threadListModel.set(i, entries.get(i));
             }
         }
+        if (threadListModel.size() > entries.size()) {
+            threadListModel.removeRange(entries.size(), threadListModel.size() - 1);
+        }
+        for (int i = common; i < entries.size(); i++) {
+            threadListModel.addElement(entries.get(i));
+        }
     }
 
     private void showThreadStack() {
@@ -1706,12 +1766,15 @@ public class ProfilerWindow extends VitaFrame {
         // General refresh timer for other tabs (2 second interval)
         refreshTimer = new Timer(2000, e -> {
             if (isVisible()) {
-                int selectedTab = tabbedPane.getSelectedIndex();
-                switch (selectedTab) {
-                    case 2: refreshJITInfo(); break;
-                    case 3: refreshThreadInfo(); break;
-                    case 4: refreshVMFlags(); break;
-                    case 5: refreshJVMTIInfo(); break;
+                Component selectedTab = tabbedPane.getSelectedComponent();
+                if (selectedTab == jitPanel) {
+                    refreshJITInfo();
+                } else if (selectedTab == threadPanel) {
+                    refreshThreadInfo();
+                } else if (selectedTab == vmConfigPanel) {
+                    refreshVMFlags();
+                } else if (selectedTab == jvmtiPanel) {
+                    refreshJVMTIInfo();
                 }
             }
         });
@@ -1737,6 +1800,8 @@ public class ProfilerWindow extends VitaFrame {
             refreshTimer.stop();
             refreshTimer = null;
         }
+        resourceRefresh.close();
+        threadListRefresh.close();
 
         // Stop sampling tab samplers
         if (samplingTab != null) {
@@ -1748,6 +1813,20 @@ public class ProfilerWindow extends VitaFrame {
             leakDetectorTab.cleanup();
         }
 
+        // Stop packets tab
+        if (packetsTab != null) {
+            packetsTab.cleanup();
+        }
+        if (callbacksTab != null) {
+            callbacksTab.cleanup();
+        }
+        if (hitchesTab != null) {
+            hitchesTab.cleanup();
+        }
+        if (threadUsageTab != null) {
+            threadUsageTab.cleanup();
+        }
+
         // Stop GC pause analyzer
         if (gcPauseAnalyzer != null) {
             gcPauseAnalyzer.stopMonitoring();
@@ -1818,4 +1897,19 @@ public class ProfilerWindow extends VitaFrame {
         if (bytes < 1024 * 1024 * 1024) return String.format("%.1f MB", bytes / (1024.0 * 1024));
         return String.format("%.1f GB", bytes / (1024.0 * 1024 * 1024));
     }
+
+    /**
+     * One Resource Monitor update, collected off the EDT
+     */
+    private static final class ResourceView {
+        final MetricSnapshot snapshot;
+        final String gcStats;
+        final String gcRecommendations;
+
+        ResourceView(MetricSnapshot snapshot, String gcStats, String gcRecommendations) {
+            this.snapshot = snapshot;
+            this.gcStats = gcStats;
+            this.gcRecommendations = gcRecommendations;
+        }
+    }
 }
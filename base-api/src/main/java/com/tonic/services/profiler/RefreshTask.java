@@ -0,0 +1,155 @@
+package com.tonic.services.profiler;
+
+import javax.swing.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * One periodically refreshed profiler view, computed off the EDT
+ *
+ * <p>The compute step runs on a shared aggregation pool and must return an immutable result (rows,
+ * strings, finished trees); the apply step runs on the EDT and should only swap that result into Swing
+ * models. At most one run per task is in flight: {@link #offer} drops a periodic refresh while the
+ * previous one is still computing or waiting for the EDT, and {@link #submit} queues a user-triggered
+ * refresh behind it, replacing any earlier queued one.
+ *
+ * <p>Methods are called on the EDT. Compute and EDT time of every run are kept for {@link #describe()}.
+ */
+public class RefreshTask {
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "Profiler-Aggregation");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    private final String name;
+    private boolean inFlight = false;
+    private boolean closed = false;
+    private Runnable queued;
+
+    private long runs = 0;
+    private long skipped = 0;
+    private volatile long lastComputeNanos = 0;
+    private long lastEdtNanos = 0;
+    private long maxEdtNanos = 0;
+    private long totalEdtNanos = 0;
+
+    public RefreshTask(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Start a periodic refresh unless the previous run has not finished
+     *
+     * @return false if the refresh was skipped
+     */
+    public <T> boolean offer(Supplier<T> compute, Consumer<T> apply) {
+        if (closed) {
+            return false;
+        }
+        if (inFlight) {
+            skipped++;
+            return false;
+        }
+        start(compute, apply);
+        return true;
+    }
+
+    /**
+     * Run a refresh the user asked for, after the in-flight one if there is one
+     */
+    public <T> void submit(Supplier<T> compute, Consumer<T> apply) {
+        if (closed) {
+            return;
+        }
+        if (inFlight) {
+            queued = () -> start(compute, apply);
+            return;
+        }
+        start(compute, apply);
+    }
+
+    private <T> void start(Supplier<T> compute, Consumer<T> apply) {
+        inFlight = true;
+        EXECUTOR.execute(() -> {
+            T result = null;
+            long started = System.nanoTime();
+            try {
+                result = compute.get();
+            } catch (Exception e) {
+                System.err.println(name + " refresh failed: " + e.getMessage());
+            }
+            lastComputeNanos = System.nanoTime() - started;
+
+            T finalResult = result;
+            SwingUtilities.invokeLater(() -> finish(finalResult, apply));
+        });
+    }
+
+    private <T> void finish(T result, Consumer<T> apply) {
+        if (result != null && !closed) {
+            long started = System.nanoTime();
+            try {
+                apply.accept(result);
+            } catch (Exception e) {
+                System.err.println(name + " refresh failed: " + e.getMessage());
+            }
+            lastEdtNanos = System.nanoTime() - started;
+            maxEdtNanos = Math.max(maxEdtNanos, lastEdtNanos);
+            totalEdtNanos += lastEdtNanos;
+            runs++;
+        }
+        inFlight = false;
+
+        Runnable next = queued;
+        queued = null;
+        if (next != null && !closed) {
+            next.run();
+        }
+    }
+
+    /**
+     * Drop queued work and ignore results still being computed
+     */
+    public void close() {
+        closed = true;
+        queued = null;
+    }
+
+    public boolean isBusy() {
+        return inFlight;
+    }
+
+    public long getLastComputeNanos() {
+        return lastComputeNanos;
+    }
+
+    public long getLastEdtNanos() {
+        return lastEdtNanos;
+    }
+
+    public long getMaxEdtNanos() {
+        return maxEdtNanos;
+    }
+
+    public double getAverageEdtNanos() {
+        return runs == 0 ? 0 : (double) totalEdtNanos / runs;
+    }
+
+    public long getRuns() {
+        return runs;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public String describe() {
+        return String.format("%s: compute %.1f ms, EDT %.2f ms (avg %.2f, max %.2f), %d runs, %d skipped",
+            name, lastComputeNanos / 1e6, lastEdtNanos / 1e6, getAverageEdtNanos() / 1e6, maxEdtNanos / 1e6,
+            runs, skipped);
+    }
+}
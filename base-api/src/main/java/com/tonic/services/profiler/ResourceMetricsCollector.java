@@ -51,7 +51,7 @@ public class ResourceMetricsCollector {
     /**
      * Collect current resource metrics snapshot
      */
-    public MetricSnapshot collect() {
+    public synchronized MetricSnapshot collect() {
         long now = System.currentTimeMillis();
 
         // CPU metrics
@@ -200,7 +200,7 @@ public class ResourceMetricsCollector {
     /**
      * Reset delta tracking (useful when pausing/resuming)
      */
-    public void resetTracking() {
+    public synchronized void resetTracking() {
         this.lastTimestamp = System.currentTimeMillis();
         this.lastGcTime = getTotalGcTime();
         this.lastGcCount = getTotalGcCount();
@@ -10,6 +10,7 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.PrintWriter;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -24,6 +25,8 @@ public class SamplingTab extends JPanel {
     private static final Color SUCCESS_COLOR = new Color(76, 175, 80);
     private static final Color WARNING_COLOR = new Color(255, 152, 0);
     private static final Color ERROR_COLOR = new Color(244, 67, 54);
+    private static final int LIVE_REFRESH_TICKS = 3;
+    private static final long DIFF_SCALE = 1_000_000;
 
     // Samplers
     private CPUSampler cpuSampler;
@@ -34,14 +37,25 @@ public class SamplingTab extends JPanel {
     // UI Components - Controls
     private JButton cpuStartBtn, cpuStopBtn, memStartBtn, memStopBtn;
     private JButton cpuExportBtn, memExportBtn, clearBtn;
+    private JButton cpuLoadBtn;
+    private JCheckBox recordToFileCheckbox;
+    private ProfileWriter profileRecorder;
+    private CallTreeProfile loadedProfile;
+    private String loadedProfileName;
+    private CallTreeProfile.Snapshot baselineProfile;
+    private JCheckBox showDiffCheckbox;
+    private JLabel baselineLabel;
+    private SnapshotTableModel regressionsModel;
     private JLabel statusLabel, cpuStatusLabel, memStatusLabel;
-    private JComboBox<String> cpuIntervalCombo, memIntervalCombo;
+    private JComboBox<String> cpuIntervalCombo, memIntervalCombo, cpuBackendCombo;
     private JCheckBox filterSystemCheckbox;
 
     // UI Components - Results
     private JTabbedPane resultsTabs;
-    private DefaultTableModel cpuHotspotsModel, cpuThreadsModel, cpuPackagesModel;
+    private SnapshotTableModel cpuHotspotsModel, cpuThreadsModel, cpuPackagesModel;
     private JTable cpuHotspotsTable, cpuThreadsTable, cpuPackagesTable;
+    private SnapshotTableModel allocSitesModel, allocClassesModel, lockSitesModel, lockClassesModel;
+    private JLabel allocSummaryLabel, lockSummaryLabel;
     private JTextArea memSummaryArea;
     private DefaultTableModel heapHistogramModel;
     private JTable heapHistogramTable;
@@ -51,9 +65,17 @@ public class SamplingTab extends JPanel {
     private com.tonic.services.profiler.visualization.FlameGraphPanel flameGraphPanel;
 
     // Analysis results
+    private int liveRefreshTicks = 0;
+    private CallTreeProfile.Snapshot cpuProfile;
     private SampleAnalyzer.CPUAnalysisResults cpuResults;
     private SampleAnalyzer.MemoryAnalysisResults memResults;
 
+    // Background aggregation
+    private final RefreshTask cpuRefresh = new RefreshTask("CPU results");
+    private final RefreshTask flameRefresh = new RefreshTask("Flame graph");
+    private final RefreshTask memRefresh = new RefreshTask("Memory results");
+    private long dataGeneration = 0;
+
     // Status update timer
     private Timer statusTimer;
 
@@ -121,11 +143,24 @@ public class SamplingTab extends JPanel {
 
         cpuStartBtn = createStyledButton("Start CPU", SUCCESS_COLOR);
         cpuStopBtn = createStyledButton("Stop", ERROR_COLOR);
-        cpuExportBtn = createStyledButton("Export CSV", ACCENT_COLOR);
+        cpuExportBtn = createStyledButton("Export", ACCENT_COLOR);
+        cpuLoadBtn = createStyledButton("Load", ACCENT_COLOR);
+
+        JPopupMenu exportMenu = new JPopupMenu();
+        JMenuItem csvItem = new JMenuItem("CSV Report...");
+        csvItem.addActionListener(e -> exportCPUResults());
+        JMenuItem profileItem = new JMenuItem("Profile (.vlprof)...");
+        profileItem.addActionListener(e -> exportCPUProfile());
+        JMenuItem collapsedItem = new JMenuItem("Collapsed Stacks...");
+        collapsedItem.addActionListener(e -> exportCollapsedStacks());
+        exportMenu.add(csvItem);
+        exportMenu.add(profileItem);
+        exportMenu.add(collapsedItem);
 
         cpuStartBtn.addActionListener(e -> startCPUSampling());
         cpuStopBtn.addActionListener(e -> stopCPUSampling());
-        cpuExportBtn.addActionListener(e -> exportCPUResults());
+        cpuExportBtn.addActionListener(e -> exportMenu.show(cpuExportBtn, 0, cpuExportBtn.getHeight()));
+        cpuLoadBtn.addActionListener(e -> loadCPUProfile());
 
         cpuStopBtn.setEnabled(false);
         cpuExportBtn.setEnabled(false);
@@ -133,6 +168,7 @@ public class SamplingTab extends JPanel {
         panel.add(cpuStartBtn);
         panel.add(cpuStopBtn);
         panel.add(cpuExportBtn);
+        panel.add(cpuLoadBtn);
 
         panel.add(createStyledLabel("Interval:"));
         cpuIntervalCombo = new JComboBox<>(new String[]{"10ms", "25ms", "50ms", "100ms"});
@@ -140,11 +176,26 @@ public class SamplingTab extends JPanel {
         styleComboBox(cpuIntervalCombo);
         panel.add(cpuIntervalCombo);
 
+        panel.add(createStyledLabel("Source:"));
+        cpuBackendCombo = new JComboBox<>(new String[]{"Thread Dump", "JFR"});
+        cpuBackendCombo.setToolTipText("JFR samples without safepoints and adds allocation and lock views");
+        if (!CPUSampler.isJfrAvailable()) {
+            cpuBackendCombo.setEnabled(false);
+        }
+        styleComboBox(cpuBackendCombo);
+        panel.add(cpuBackendCombo);
+
         filterSystemCheckbox = new JCheckBox("Filter System Classes");
         filterSystemCheckbox.setForeground(TEXT_COLOR);
         filterSystemCheckbox.setBackground(PANEL_BG);
         panel.add(filterSystemCheckbox);
 
+        recordToFileCheckbox = new JCheckBox("Record to File");
+        recordToFileCheckbox.setToolTipText("Stream every sample to a profile file while sampling");
+        recordToFileCheckbox.setForeground(TEXT_COLOR);
+        recordToFileCheckbox.setBackground(PANEL_BG);
+        panel.add(recordToFileCheckbox);
+
         cpuStatusLabel = createStyledLabel("Idle");
         cpuStatusLabel.setForeground(TEXT_COLOR);
         panel.add(cpuStatusLabel);
@@ -207,6 +258,10 @@ public class SamplingTab extends JPanel {
         // Package Aggregation Tab
         tabs.addTab("Package Aggregation", createPackageAggregationPanel());
 
+        // JFR-only views
+        tabs.addTab("Allocations", createAllocationPanel());
+        tabs.addTab("Locks", createLockPanel());
+
         panel.add(tabs, BorderLayout.CENTER);
 
         return panel;
@@ -216,7 +271,41 @@ public class SamplingTab extends JPanel {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(BG_COLOR);
 
-        panel.add(flameGraphPanel, BorderLayout.CENTER);
+        // Baseline controls for differential graphs
+        JPanel diffControls = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
+        diffControls.setBackground(PANEL_BG);
+
+        JButton setBaselineBtn = createStyledButton("Set as Baseline", ACCENT_COLOR);
+        setBaselineBtn.addActionListener(e -> setBaseline(cpuProfile, "current results"));
+        JButton loadBaselineBtn = createStyledButton("Load Baseline...", ACCENT_COLOR);
+        loadBaselineBtn.addActionListener(e -> loadBaseline());
+
+        showDiffCheckbox = new JCheckBox("Show Diff");
+        showDiffCheckbox.setForeground(TEXT_COLOR);
+        showDiffCheckbox.setBackground(PANEL_BG);
+        showDiffCheckbox.setEnabled(false);
+        showDiffCheckbox.addActionListener(e -> buildFlameGraph());
+
+        baselineLabel = createStyledLabel("No baseline");
+
+        diffControls.add(setBaselineBtn);
+        diffControls.add(loadBaselineBtn);
+        diffControls.add(showDiffCheckbox);
+        diffControls.add(baselineLabel);
+        panel.add(diffControls, BorderLayout.NORTH);
+
+        String[] columns = {"Method", "Class", "Base Self %", "New Self %", "Self Delta %",
+            "Base Total %", "New Total %", "Total Delta %"};
+        regressionsModel = new SnapshotTableModel(columns, new Class<?>[]{String.class, String.class,
+            Double.class, Double.class, Double.class, Double.class, Double.class, Double.class});
+        JTable regressionsTable = new JTable(regressionsModel);
+        styleTable(regressionsTable);
+        JScrollPane regressionsScroll = new JScrollPane(regressionsTable);
+        regressionsScroll.setBorder(BorderFactory.createLineBorder(new Color(50, 52, 56)));
+
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, flameGraphPanel, regressionsScroll);
+        split.setResizeWeight(0.75);
+        panel.add(split, BorderLayout.CENTER);
 
         // Info label at bottom
         JLabel infoLabel = new JLabel("Click on a frame to zoom in | Click header to reset zoom");
@@ -233,12 +322,7 @@ public class SamplingTab extends JPanel {
         panel.setBackground(BG_COLOR);
 
         String[] columns = {"Method", "Class", "Package", "Self %", "Total %", "Self Samples", "Total Samples"};
-        cpuHotspotsModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        cpuHotspotsModel = new SnapshotTableModel(columns);
 
         cpuHotspotsTable = new JTable(cpuHotspotsModel);
         styleTable(cpuHotspotsTable);
@@ -255,12 +339,7 @@ public class SamplingTab extends JPanel {
         panel.setBackground(BG_COLOR);
 
         String[] columns = {"Thread ID", "Thread Name", "Samples", "CPU Time (ms)", "Runnable", "Blocked", "Waiting"};
-        cpuThreadsModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        cpuThreadsModel = new SnapshotTableModel(columns);
 
         cpuThreadsTable = new JTable(cpuThreadsModel);
         styleTable(cpuThreadsTable);
@@ -277,12 +356,7 @@ public class SamplingTab extends JPanel {
         panel.setBackground(BG_COLOR);
 
         String[] columns = {"Package", "Total Samples", "Self Samples", "Method Count"};
-        cpuPackagesModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        cpuPackagesModel = new SnapshotTableModel(columns);
 
         cpuPackagesTable = new JTable(cpuPackagesModel);
         styleTable(cpuPackagesTable);
@@ -294,6 +368,44 @@ public class SamplingTab extends JPanel {
         return panel;
     }
 
+    private JPanel createAllocationPanel() {
+        allocSitesModel = new SnapshotTableModel("Method", "Class", "Package", "Self Samples", "Total Samples", "Self %");
+        allocClassesModel = new SnapshotTableModel("Allocated Class", "Samples", "Sampled Bytes", "Largest (bytes)");
+        allocSummaryLabel = createStyledLabel("Available with the JFR source");
+        return createSplitTablesPanel(allocSitesModel, allocClassesModel, allocSummaryLabel);
+    }
+
+    private JPanel createLockPanel() {
+        lockSitesModel = new SnapshotTableModel("Method", "Class", "Package", "Self Samples", "Total Samples", "Self %");
+        lockClassesModel = new SnapshotTableModel("Monitor Class", "Contended Enters", "Blocked (ms)", "Longest (ms)");
+        lockSummaryLabel = createStyledLabel("Available with the JFR source");
+        return createSplitTablesPanel(lockSitesModel, lockClassesModel, lockSummaryLabel);
+    }
+
+    private JPanel createSplitTablesPanel(SnapshotTableModel sites, SnapshotTableModel classes, JLabel summary) {
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setBackground(BG_COLOR);
+
+        JTable sitesTable = new JTable(sites);
+        styleTable(sitesTable);
+        JTable classesTable = new JTable(classes);
+        styleTable(classesTable);
+
+        JScrollPane sitesScroll = new JScrollPane(sitesTable);
+        sitesScroll.setBorder(BorderFactory.createLineBorder(new Color(50, 52, 56)));
+        JScrollPane classesScroll = new JScrollPane(classesTable);
+        classesScroll.setBorder(BorderFactory.createLineBorder(new Color(50, 52, 56)));
+
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, sitesScroll, classesScroll);
+        split.setResizeWeight(0.6);
+        panel.add(split, BorderLayout.CENTER);
+
+        summary.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        panel.add(summary, BorderLayout.SOUTH);
+
+        return panel;
+    }
+
     private JPanel createMemoryResultsPanel() {
         JPanel panel = new JPanel(new BorderLayout(10, 10));
         panel.setBackground(BG_COLOR);
@@ -384,22 +496,47 @@ public class SamplingTab extends JPanel {
 
         cpuSampler.setSamplingInterval(intervalMs);
         cpuSampler.setFilterSystemFrames(filterSystemCheckbox.isSelected());
+        cpuSampler.setBackend(cpuBackendCombo.getSelectedIndex() == 1 ? CPUSampler.Backend.JFR : CPUSampler.Backend.THREAD_DUMP);
+
+        if (recordToFileCheckbox.isSelected()) {
+            File file = chooseSaveFile("Record CPU Profile", "cpu_profile_", ".vlprof");
+            if (file == null) {
+                return;
+            }
+            try {
+                profileRecorder = new ProfileWriter(file);
+                cpuSampler.getProfile().setRecorder(profileRecorder);
+            } catch (Exception e) {
+                JOptionPane.showMessageDialog(this, "Cannot record profile: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+        }
+
+        loadedProfile = null;
+        loadedProfileName = null;
         cpuSampler.start();
 
         cpuStartBtn.setEnabled(false);
         cpuStopBtn.setEnabled(true);
         cpuIntervalCombo.setEnabled(false);
+        cpuBackendCombo.setEnabled(false);
         filterSystemCheckbox.setEnabled(false);
+        recordToFileCheckbox.setEnabled(false);
+        cpuLoadBtn.setEnabled(false);
     }
 
     private void stopCPUSampling() {
         cpuSampler.stop();
+        stopRecording();
 
         cpuStartBtn.setEnabled(true);
         cpuStopBtn.setEnabled(false);
         cpuExportBtn.setEnabled(true);
         cpuIntervalCombo.setEnabled(true);
+        cpuBackendCombo.setEnabled(CPUSampler.isJfrAvailable());
         filterSystemCheckbox.setEnabled(true);
+        recordToFileCheckbox.setEnabled(true);
+        cpuLoadBtn.setEnabled(true);
 
         // Analyze results
         analyzeCPUResults();
@@ -444,14 +581,22 @@ public class SamplingTab extends JPanel {
         cpuSampler.clear();
         memorySampler.clear();
 
-        cpuHotspotsModel.setRowCount(0);
-        cpuThreadsModel.setRowCount(0);
-        cpuPackagesModel.setRowCount(0);
+        dataGeneration++;
+        cpuHotspotsModel.clear();
+        cpuThreadsModel.clear();
+        cpuPackagesModel.clear();
+        allocSitesModel.clear();
+        allocClassesModel.clear();
+        lockSitesModel.clear();
+        lockClassesModel.clear();
         memSummaryArea.setText("");
         heapHistogramModel.setRowCount(0);
 
+        cpuProfile = null;
         cpuResults = null;
         memResults = null;
+        loadedProfile = null;
+        loadedProfileName = null;
 
         cpuExportBtn.setEnabled(false);
         memExportBtn.setEnabled(false);
@@ -459,31 +604,46 @@ public class SamplingTab extends JPanel {
 
     // ==================== Analysis Methods ====================
 
+    // Analysis, row building and flame tree construction run on the aggregation pool; the EDT only swaps
+    // the finished models in. dataGeneration drops results that were computed before a clear.
+
     private void analyzeCPUResults() {
-        SwingUtilities.invokeLater(() -> {
-            cpuResults = analyzer.analyzeCPU(cpuSampler.getStackSamples());
-            displayCPUResults();
-        });
+        CallTreeProfile source = cpuSampler.getProfile();
+        boolean jfr = cpuSampler.getActiveBackend() == CPUSampler.Backend.JFR;
+        CallTreeProfile.Snapshot baseline = getDiffBaseline();
+        long generation = dataGeneration;
+        cpuRefresh.submit(() -> computeCpuView(source.snapshot(), jfr, true, baseline, generation), this::applyCpuView);
+    }
+
+    private void refreshLiveCPUResults() {
+        CallTreeProfile source = cpuSampler.getProfile();
+        boolean jfr = cpuSampler.getActiveBackend() == CPUSampler.Backend.JFR;
+        long generation = dataGeneration;
+        // Tables only: rebuilding the flame graph would reset the user's zoom
+        cpuRefresh.offer(() -> computeCpuView(source.snapshot(), jfr, false, null, generation), this::applyCpuView);
     }
 
     private void analyzeMemoryResults() {
-        SwingUtilities.invokeLater(() -> {
-            memResults = analyzer.analyzeMemory(
+        long generation = dataGeneration;
+        memRefresh.submit(() -> {
+            SampleAnalyzer.MemoryAnalysisResults results = analyzer.analyzeMemory(
                 memorySampler.getHeapSamples(),
                 memorySampler.getGCSamples()
             );
-            displayMemoryResults();
-        });
+            return new MemoryView(generation, results, formatMemoryResults(results));
+        }, this::applyMemoryView);
     }
 
-    private void displayCPUResults() {
-        if (cpuResults == null) return;
+    /**
+     * Runs off the EDT; must not touch Swing state
+     */
+    private CpuView computeCpuView(CallTreeProfile.Snapshot profile, boolean jfr, boolean withFlame,
+                                   CallTreeProfile.Snapshot baseline, long generation) {
+        CpuView view = new CpuView(generation, profile, analyzer.analyzeCPU(profile));
 
-        // Update method hotspots
-        cpuHotspotsModel.setRowCount(0);
-        List<SampleAnalyzer.MethodStats> topMethods = cpuResults.getTopMethods(100);
-        for (SampleAnalyzer.MethodStats stats : topMethods) {
-            cpuHotspotsModel.addRow(new Object[]{
+        view.hotspotRows = new ArrayList<>();
+        for (SampleAnalyzer.MethodStats stats : view.results.getTopMethods(100)) {
+            view.hotspotRows.add(new Object[]{
                 stats.method.getMethodName(),
                 stats.method.getSimpleClassName(),
                 stats.method.getPackageName(),
@@ -494,10 +654,9 @@ public class SamplingTab extends JPanel {
             });
         }
 
-        // Update thread breakdown
-        cpuThreadsModel.setRowCount(0);
-        for (SampleAnalyzer.ThreadStats stats : cpuResults.threadBreakdown.values()) {
-            cpuThreadsModel.addRow(new Object[]{
+        view.threadRows = new ArrayList<>();
+        for (SampleAnalyzer.ThreadStats stats : view.results.threadBreakdown.values()) {
+            view.threadRows.add(new Object[]{
                 stats.threadId,
                 stats.threadName,
                 stats.sampleCount,
@@ -509,11 +668,9 @@ public class SamplingTab extends JPanel {
             });
         }
 
-        // Update package aggregation
-        cpuPackagesModel.setRowCount(0);
-        List<SampleAnalyzer.PackageStats> topPackages = cpuResults.getTopPackages(50);
-        for (SampleAnalyzer.PackageStats stats : topPackages) {
-            cpuPackagesModel.addRow(new Object[]{
+        view.packageRows = new ArrayList<>();
+        for (SampleAnalyzer.PackageStats stats : view.results.getTopPackages(50)) {
+            view.packageRows.add(new Object[]{
                 stats.packageName,
                 stats.totalSamples,
                 stats.selfSamples,
@@ -521,56 +678,226 @@ public class SamplingTab extends JPanel {
             });
         }
 
-        // Build flame graph
-        buildFlameGraph();
+        if (jfr) {
+            SampleAnalyzer.CPUAnalysisResults allocations = analyzer.analyzeCPU(cpuSampler.getAllocationProfile().snapshot());
+            view.allocSiteRows = siteRows(allocations);
+            view.allocClassRows = new ArrayList<>();
+            for (JFRSampler.ClassStats stats : limit(cpuSampler.getAllocationsByClass(), 200)) {
+                view.allocClassRows.add(new Object[]{stats.className, stats.count, formatBytes(stats.total), stats.max});
+            }
+            view.allocSummary = String.format("%d allocation samples | GC: %d collections, %.1f ms total pause",
+                allocations.totalSamples, cpuSampler.getGcCount(), cpuSampler.getGcPauseNanos() / 1_000_000.0);
+
+            SampleAnalyzer.CPUAnalysisResults locks = analyzer.analyzeCPU(cpuSampler.getLockProfile().snapshot());
+            view.lockSiteRows = siteRows(locks);
+            view.lockClassRows = new ArrayList<>();
+            for (JFRSampler.ClassStats stats : limit(cpuSampler.getContentionByClass(), 200)) {
+                view.lockClassRows.add(new Object[]{stats.className, stats.count,
+                    String.format("%.2f", stats.total / 1_000_000.0), String.format("%.2f", stats.max / 1_000_000.0)});
+            }
+            view.lockSummary = String.format("%d contended monitor enters (>= 1 ms)", locks.totalSamples);
+        }
+
+        if (withFlame) {
+            view.flame = computeFlameView(profile, baseline, generation);
+        }
+        return view;
+    }
+
+    private void applyCpuView(CpuView view) {
+        if (view.generation != dataGeneration) {
+            return;
+        }
+        cpuProfile = view.profile;
+        cpuResults = view.results;
+
+        cpuHotspotsModel.setRows(view.hotspotRows);
+        cpuThreadsModel.setRows(view.threadRows);
+        cpuPackagesModel.setRows(view.packageRows);
+
+        if (view.allocSiteRows != null) {
+            allocSitesModel.setRows(view.allocSiteRows);
+            allocClassesModel.setRows(view.allocClassRows);
+            allocSummaryLabel.setText(view.allocSummary);
+            lockSitesModel.setRows(view.lockSiteRows);
+            lockClassesModel.setRows(view.lockClassRows);
+            lockSummaryLabel.setText(view.lockSummary);
+        }
+
+        if (view.flame != null) {
+            applyFlameView(view.flame);
+        }
     }
 
+    private List<Object[]> siteRows(SampleAnalyzer.CPUAnalysisResults results) {
+        List<Object[]> rows = new ArrayList<>();
+        for (SampleAnalyzer.MethodStats stats : results.getTopMethods(100)) {
+            rows.add(new Object[]{
+                stats.method.getMethodName(),
+                stats.method.getSimpleClassName(),
+                stats.method.getPackageName(),
+                stats.selfSamples,
+                stats.totalSamples,
+                String.format("%.2f%%", stats.selfTimePercent)
+            });
+        }
+        return rows;
+    }
+
+    private static <T> List<T> limit(List<T> list, int max) {
+        return list.size() > max ? list.subList(0, max) : list;
+    }
+
+    /**
+     * Rebuild only the flame graph, e.g. after the baseline or the diff toggle changed
+     */
     private void buildFlameGraph() {
-        List<com.tonic.services.profiler.sampling.StackSample> samples = cpuSampler.getStackSamples().getAll();
-        if (samples.isEmpty()) {
+        CallTreeProfile.Snapshot profile = cpuProfile;
+        if (profile == null || profile.totalSamples == 0) {
             return;
         }
+        CallTreeProfile.Snapshot baseline = getDiffBaseline();
+        long generation = dataGeneration;
+        flameRefresh.submit(() -> computeFlameView(profile, baseline, generation), this::applyFlameView);
+    }
+
+    private CallTreeProfile.Snapshot getDiffBaseline() {
+        return showDiffCheckbox.isSelected() ? baselineProfile : null;
+    }
+
+    /**
+     * Runs off the EDT
+     *
+     * @param baseline profile to diff against, or null for a plain flame graph
+     * @return the view, or null if there is nothing to draw
+     */
+    private FlameView computeFlameView(CallTreeProfile.Snapshot profile, CallTreeProfile.Snapshot baseline, long generation) {
+        if (profile == null || profile.totalSamples == 0) {
+            return null;
+        }
 
-        // Create root node
         com.tonic.services.profiler.visualization.FlameGraphNode root =
             new com.tonic.services.profiler.visualization.FlameGraphNode("(root)", "", "");
+        List<Object[]> regressions = new ArrayList<>();
+        if (baseline == null) {
+            // Call tree is already merged; copy nodes that still hold samples
+            root.addSamples(profile.getTotal(CallTree.ROOT));
+            copyFlameChildren(profile, CallTree.ROOT, root);
+            return new FlameView(generation, root, regressions);
+        }
 
-        // Build call tree from stack samples
-        for (com.tonic.services.profiler.sampling.StackSample sample : samples) {
-            StackTraceElement[] stack = sample.stackTrace;
+        ProfileDiff diff = ProfileDiff.compare(baseline, profile);
+        root.addSamples(DIFF_SCALE);
+        root.setDiff(1.0, 1.0);
+        copyDiffChildren(diff, CallTree.ROOT, root);
+
+        for (ProfileDiff.MethodDelta delta : limit(diff.getMethodDeltas(), 500)) {
+            regressions.add(new Object[]{
+                delta.method.getMethodName(),
+                delta.method.getSimpleClassName(),
+                toPercent(delta.baselineSelf),
+                toPercent(delta.comparisonSelf),
+                toPercent(delta.selfDelta),
+                toPercent(delta.baselineTotal),
+                toPercent(delta.comparisonTotal),
+                toPercent(delta.totalDelta)
+            });
+        }
+        return new FlameView(generation, root, regressions);
+    }
 
-            if (stack.length == 0) {
+    private void applyFlameView(FlameView view) {
+        if (view.generation != dataGeneration) {
+            return;
+        }
+        flameGraphPanel.setRoot(view.root);
+        regressionsModel.setRows(view.regressionRows);
+    }
+
+    private void copyFlameChildren(CallTreeProfile.Snapshot profile, int node,
+                                   com.tonic.services.profiler.visualization.FlameGraphNode target) {
+        for (int i = 0; i < profile.getChildCount(node); i++) {
+            int child = profile.getChild(node, i);
+            int total = profile.getTotal(child);
+            if (total <= 0) {
                 continue;
             }
 
-            // Traverse from bottom to top (root to leaf)
-            com.tonic.services.profiler.visualization.FlameGraphNode current = root;
-            current.addSample();
+            MethodSignature sig = profile.getSignature(profile.getFrame(child));
+            com.tonic.services.profiler.visualization.FlameGraphNode flameNode =
+                target.addChild(sig.getMethodName(), sig.getSimpleClassName(), sig.getPackageName());
+            flameNode.addSamples(total);
+            copyFlameChildren(profile, child, flameNode);
+        }
+    }
 
-            for (int i = stack.length - 1; i >= 0; i--) {
-                StackTraceElement frame = stack[i];
+    /**
+     * Diff nodes are sized by the larger of their two shares so paths that vanished stay visible
+     */
+    private void copyDiffChildren(ProfileDiff diff, int node,
+                                  com.tonic.services.profiler.visualization.FlameGraphNode target) {
+        for (int i = 0; i < diff.getChildCount(node); i++) {
+            int child = diff.getChild(node, i);
+            double baseline = diff.getBaselineFraction(child);
+            double comparison = diff.getComparisonFraction(child);
+            long width = Math.round(Math.max(baseline, comparison) * DIFF_SCALE);
+            if (width <= 0) {
+                continue;
+            }
 
-                String methodName = frame.getMethodName();
-                String className = frame.getClassName();
-                String packageName = "";
+            MethodSignature sig = diff.getSignature(diff.getFrame(child));
+            com.tonic.services.profiler.visualization.FlameGraphNode flameNode =
+                target.addChild(sig.getMethodName(), sig.getSimpleClassName(), sig.getPackageName());
+            flameNode.addSamples(width);
+            flameNode.setDiff(baseline, comparison);
+            copyDiffChildren(diff, child, flameNode);
+        }
+    }
 
-                int lastDot = className.lastIndexOf('.');
-                if (lastDot >= 0) {
-                    packageName = className.substring(0, lastDot);
-                    className = className.substring(lastDot + 1);
-                }
+    private static double toPercent(double fraction) {
+        return Math.round(fraction * 10000) / 100.0;
+    }
 
-                current = current.getOrCreateChild(methodName, className, packageName);
-                current.addSample();
-            }
+    private void setBaseline(CallTreeProfile.Snapshot profile, String name) {
+        if (profile == null || profile.totalSamples == 0) {
+            JOptionPane.showMessageDialog(this, "No CPU results to use as baseline", "Baseline", JOptionPane.WARNING_MESSAGE);
+            return;
         }
+        baselineProfile = profile;
+        baselineLabel.setText(String.format("Baseline: %s (%,d samples)", name, profile.totalSamples));
+        showDiffCheckbox.setEnabled(true);
+        buildFlameGraph();
+    }
 
-        flameGraphPanel.setRoot(root);
+    private void loadBaseline() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Load Baseline Profile");
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = fileChooser.getSelectedFile();
+        flameRefresh.submit(() -> readProfile(file), loaded -> {
+            if (loaded.error != null) {
+                JOptionPane.showMessageDialog(this, "Load failed: " + loaded.error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            setBaseline(loaded.snapshot, file.getName());
+        });
     }
 
-    private void displayMemoryResults() {
-        if (memResults == null) return;
+    /**
+     * Runs off the EDT; read failures are returned rather than thrown so the EDT can report them
+     */
+    private static LoadedProfile readProfile(File file) {
+        try {
+            CallTreeProfile profile = ProfileReader.read(file);
+            return new LoadedProfile(profile, profile.snapshot(), null);
+        } catch (Exception e) {
+            return new LoadedProfile(null, null, e);
+        }
+    }
 
+    private static String formatMemoryResults(SampleAnalyzer.MemoryAnalysisResults memResults) {
         StringBuilder sb = new StringBuilder();
         sb.append("=== Memory Sampling Results ===\n\n");
 
@@ -585,7 +912,15 @@ public class SamplingTab extends JPanel {
         sb.append(String.format("  Average GC Overhead:      %.2f%%\n", memResults.averageGCOverhead));
         sb.append(String.format("  Full GC Count:            %d\n", memResults.fullGCCount));
 
-        memSummaryArea.setText(sb.toString());
+        return sb.toString();
+    }
+
+    private void applyMemoryView(MemoryView view) {
+        if (view.generation != dataGeneration) {
+            return;
+        }
+        memResults = view.results;
+        memSummaryArea.setText(view.summary);
     }
 
     private void captureHeapHistogram() {
@@ -670,6 +1005,86 @@ public class SamplingTab extends JPanel {
         }
     }
 
+    private void exportCPUProfile() {
+        File file = chooseSaveFile("Export CPU Profile", "cpu_profile_", ".vlprof");
+        if (file == null) {
+            return;
+        }
+
+        CallTreeProfile source = loadedProfile != null ? loadedProfile : cpuSampler.getProfile();
+        // Taken together: compaction renumbers nodes, so leaves only match the tree they were copied with
+        CallTreeProfile.Snapshot tree = source.snapshotWithSamples();
+        try (ProfileWriter writer = new ProfileWriter(file)) {
+            writer.writeSnapshot(tree, tree.getSamples());
+            JOptionPane.showMessageDialog(this, String.format("Exported %,d samples (%,d KB)",
+                writer.getSamplesWritten(), file.length() / 1024), "Export", JOptionPane.INFORMATION_MESSAGE);
+        } catch (Exception e) {
+            JOptionPane.showMessageDialog(this, "Export failed: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void exportCollapsedStacks() {
+        if (cpuProfile == null) {
+            JOptionPane.showMessageDialog(this, "No CPU results to export", "Export", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        File file = chooseSaveFile("Export Collapsed Stacks", "cpu_stacks_", ".txt");
+        if (file == null) {
+            return;
+        }
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+            exporter.exportCollapsedStacks(writer, cpuProfile);
+            JOptionPane.showMessageDialog(this, "Collapsed stacks exported successfully!", "Export", JOptionPane.INFORMATION_MESSAGE);
+        } catch (Exception e) {
+            JOptionPane.showMessageDialog(this, "Export failed: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void loadCPUProfile() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Load CPU Profile");
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        File file = fileChooser.getSelectedFile();
+        cpuRefresh.submit(() -> readProfile(file), loaded -> {
+            if (loaded.error != null) {
+                JOptionPane.showMessageDialog(this, "Load failed: " + loaded.error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            loadedProfile = loaded.profile;
+            loadedProfileName = file.getName();
+            cpuExportBtn.setEnabled(true);
+
+            CallTreeProfile.Snapshot baseline = getDiffBaseline();
+            long generation = dataGeneration;
+            cpuRefresh.submit(() -> computeCpuView(loaded.snapshot, false, true, baseline, generation), this::applyCpuView);
+        });
+    }
+
+    private void stopRecording() {
+        if (profileRecorder == null) {
+            return;
+        }
+        cpuSampler.getProfile().setRecorder(null);
+        try {
+            profileRecorder.close();
+        } catch (Exception e) {
+            System.err.println("Error closing profile recording: " + e.getMessage());
+        }
+        profileRecorder = null;
+    }
+
+    private File chooseSaveFile(String title, String prefix, String extension) {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle(title);
+        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+        fileChooser.setSelectedFile(new File(prefix + timestamp + extension));
+        return fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION ? fileChooser.getSelectedFile() : null;
+    }
+
     private void exportMemoryResults() {
         if (memResults == null) {
             JOptionPane.showMessageDialog(this, "No memory results to export", "Export", JOptionPane.WARNING_MESSAGE);
@@ -709,6 +1124,13 @@ public class SamplingTab extends JPanel {
             CPUSampler.SamplingStats stats = cpuSampler.getStats();
             cpuStatusLabel.setText(String.format("Sampling: %d samples (%d dropped)",
                 stats.currentSamples, stats.droppedSamples));
+
+            // The call tree is maintained incrementally, so live results only cost a snapshot
+            if (++liveRefreshTicks % LIVE_REFRESH_TICKS == 0 && isShowing()) {
+                refreshLiveCPUResults();
+            }
+        } else if (cpuResults != null && loadedProfileName != null) {
+            cpuStatusLabel.setText(String.format("Loaded %s: %d samples", loadedProfileName, cpuResults.totalSamples));
         } else if (cpuResults != null) {
             cpuStatusLabel.setText(String.format("Stopped: %d samples analyzed", cpuResults.totalSamples));
         } else {
@@ -726,6 +1148,9 @@ public class SamplingTab extends JPanel {
             memStatusLabel.setText("Idle");
         }
 
+        statusLabel.setToolTipText("<html>" + cpuRefresh.describe() + "<br>" + flameRefresh.describe()
+            + "<br>" + memRefresh.describe() + "</html>");
+
         // Update status bar
         boolean anyRunning = cpuSampler.isRunning() || memorySampler.isRunning();
         if (anyRunning) {
@@ -804,15 +1229,87 @@ public class SamplingTab extends JPanel {
             statusTimer.stop();
             statusTimer = null;
         }
+        cpuRefresh.close();
+        flameRefresh.close();
+        memRefresh.close();
 
         // Stop CPU sampler if running
         if (cpuSampler != null && cpuSampler.isRunning()) {
             cpuSampler.stop();
         }
+        if (cpuSampler != null) {
+            stopRecording();
+        }
 
         // Stop memory sampler if running
         if (memorySampler != null && memorySampler.isRunning()) {
             memorySampler.stop();
         }
     }
+
+    // ==================== Snapshot Models ====================
+
+    /**
+     * Everything the CPU result views show, built off the EDT and not modified after it is handed over
+     */
+    private static final class CpuView {
+        final long generation;
+        final CallTreeProfile.Snapshot profile;
+        final SampleAnalyzer.CPUAnalysisResults results;
+        List<Object[]> hotspotRows;
+        List<Object[]> threadRows;
+        List<Object[]> packageRows;
+        // JFR source only
+        List<Object[]> allocSiteRows;
+        List<Object[]> allocClassRows;
+        String allocSummary;
+        List<Object[]> lockSiteRows;
+        List<Object[]> lockClassRows;
+        String lockSummary;
+        // Null when the flame graph is left alone
+        FlameView flame;
+
+        CpuView(long generation, CallTreeProfile.Snapshot profile, SampleAnalyzer.CPUAnalysisResults results) {
+            this.generation = generation;
+            this.profile = profile;
+            this.results = results;
+        }
+    }
+
+    private static final class FlameView {
+        final long generation;
+        final com.tonic.services.profiler.visualization.FlameGraphNode root;
+        final List<Object[]> regressionRows;
+
+        FlameView(long generation, com.tonic.services.profiler.visualization.FlameGraphNode root,
+                  List<Object[]> regressionRows) {
+            this.generation = generation;
+            this.root = root;
+            this.regressionRows = regressionRows;
+        }
+    }
+
+    private static final class MemoryView {
+        final long generation;
+        final SampleAnalyzer.MemoryAnalysisResults results;
+        final String summary;
+
+        MemoryView(long generation, SampleAnalyzer.MemoryAnalysisResults results, String summary) {
+            this.generation = generation;
+            this.results = results;
+            this.summary = summary;
+        }
+    }
+
+    private static final class LoadedProfile {
+        final CallTreeProfile profile;
+        final CallTreeProfile.Snapshot snapshot;
+        final Exception error;
+
+        LoadedProfile(CallTreeProfile profile, CallTreeProfile.Snapshot snapshot, Exception error) {
+            this.profile = profile;
+            this.snapshot = snapshot;
+            this.error = error;
+        }
+    }
 }
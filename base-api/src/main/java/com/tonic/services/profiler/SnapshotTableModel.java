@@ -0,0 +1,94 @@
+package com.tonic.services.profiler;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-only table model backed by an immutable list of rows built off the EDT
+ *
+ * <p>{@link #setRows(List)} swaps the whole list and fires events only for what changed: runs of
+ * rows whose cells differ, plus one insert or delete for a change in length. Unlike clearing a
+ * {@code DefaultTableModel} and adding every row again, an unchanged table stays quiet and the
+ * selection and scroll position survive the refresh.
+ */
+public class SnapshotTableModel extends AbstractTableModel {
+    private final String[] columns;
+    private final Class<?>[] types;
+    private List<Object[]> rows = Collections.emptyList();
+
+    public SnapshotTableModel(String... columns) {
+        this(columns, null);
+    }
+
+    /**
+     * @param types column classes for sorting and rendering, or null for all {@code Object}
+     */
+    public SnapshotTableModel(String[] columns, Class<?>[] types) {
+        this.columns = columns;
+        this.types = types;
+    }
+
+    /**
+     * @param newRows rows to show; neither the list nor the arrays may be modified afterwards
+     */
+    public void setRows(List<Object[]> newRows) {
+        List<Object[]> old = rows;
+        rows = newRows;
+
+        int common = Math.min(old.size(), newRows.size());
+        int runStart = -1;
+        for (int i = 0; i < common; i++) {
+            boolean changed = !Arrays.equals(old.get(i), newRows.get(i));
+            if (changed && runStart < 0) {
+                runStart = i;
+            } else if (!changed && runStart >= 0) {
+                fireTableRowsUpdated(runStart, i - 1);
+                runStart = -1;
+            }
+        }
+        if (runStart >= 0) {
+            fireTableRowsUpdated(runStart, common - 1);
+        }
+
+        if (newRows.size() > common) {
+            fireTableRowsInserted(common, newRows.size() - 1);
+        } else if (old.size() > common) {
+            fireTableRowsDeleted(common, old.size() - 1);
+        }
+    }
+
+    public void clear() {
+        setRows(Collections.emptyList());
+    }
+
+    public Object[] getRow(int row) {
+        return rows.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return types == null ? Object.class : types[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return rows.get(row)[column];
+    }
+}
@@ -0,0 +1,244 @@
+package com.tonic.services.profiler;
+
+import com.tonic.services.profiler.threads.OwnerUsage;
+import com.tonic.services.profiler.threads.ThreadAccounting;
+import com.tonic.services.profiler.threads.ThreadOwner;
+import com.tonic.services.profiler.threads.ThreadUsage;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.border.TitledBorder;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CPU and allocation rates per thread owner (client thread, plugin, pool) and per thread
+ */
+public class ThreadUsageTab extends JPanel {
+    private static final Color BG_COLOR = new Color(30, 31, 34);
+    private static final Color PANEL_BG = new Color(40, 42, 46);
+    private static final Color TEXT_COLOR = new Color(200, 200, 200);
+    private static final Color ACCENT_COLOR = new Color(64, 156, 255);
+    private static final double MB = 1024.0 * 1024.0;
+
+    private JLabel summaryLabel;
+    private DefaultTableModel ownersModel;
+    private DefaultTableModel threadsModel;
+    private JTable ownersTable;
+    private List<ThreadOwner> displayedOwners = new ArrayList<>();
+    private final Timer refreshTimer;
+
+    public ThreadUsageTab() {
+        setLayout(new BorderLayout(10, 10));
+        setBackground(BG_COLOR);
+        setBorder(new EmptyBorder(15, 15, 15, 15));
+
+        add(createHeader(), BorderLayout.NORTH);
+
+        ownersModel = createReadOnlyModel(
+            new String[]{"Owner", "Kind", "Threads", "CPU %", "Avg CPU %", "Alloc MB/s", "Avg Alloc MB/s",
+                "Total CPU (s)", "Total Alloc (MB)"},
+            new Class<?>[]{String.class, String.class, Integer.class, Double.class, Double.class, Double.class,
+                Double.class, Double.class, Double.class});
+        ownersTable = createTable(ownersModel);
+        ownersTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        ownersTable.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                refreshThreads();
+            }
+        });
+
+        threadsModel = createReadOnlyModel(
+            new String[]{"Thread", "Id", "State", "Owner", "CPU %", "Alloc MB/s", "Total CPU (s)", "Total Alloc (MB)"},
+            new Class<?>[]{String.class, Long.class, String.class, String.class, Double.class, Double.class,
+                Double.class, Double.class});
+
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
+            wrap("Owners (averages over the last " + ThreadAccounting.WINDOW + " samples)", new JScrollPane(ownersTable)),
+            wrap("Threads (select an owner to filter)", new JScrollPane(createTable(threadsModel))));
+        split.setResizeWeight(0.5);
+        add(split, BorderLayout.CENTER);
+
+        refreshTimer = new Timer(1000, e -> {
+            if (isShowing()) {
+                refresh();
+            }
+        });
+        refreshTimer.start();
+    }
+
+    private JPanel createHeader() {
+        JPanel panel = createStyledPanel("Thread Accounting");
+        panel.setLayout(new GridLayout(2, 1, 0, 2));
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 0));
+        controls.setOpaque(false);
+
+        JCheckBox enableCheckbox = new JCheckBox("Track", ThreadAccounting.isEnabled());
+        enableCheckbox.setOpaque(false);
+        enableCheckbox.setForeground(TEXT_COLOR);
+        enableCheckbox.addActionListener(e -> ThreadAccounting.setEnabled(enableCheckbox.isSelected()));
+        controls.add(enableCheckbox);
+
+        controls.add(createStyledLabel("Interval (ms):"));
+        JSpinner intervalSpinner = new JSpinner(new SpinnerNumberModel((int) ThreadAccounting.getIntervalMs(), 100, 10_000, 100));
+        intervalSpinner.addChangeListener(e ->
+            ThreadAccounting.setIntervalMs(((Number) intervalSpinner.getValue()).longValue()));
+        controls.add(intervalSpinner);
+
+        JButton resetBtn = createStyledButton("Reset");
+        resetBtn.addActionListener(e -> {
+            ThreadAccounting.reset();
+            refresh();
+        });
+        controls.add(resetBtn);
+
+        panel.add(controls);
+
+        summaryLabel = createStyledLabel("Tracking off");
+        panel.add(summaryLabel);
+
+        return panel;
+    }
+
+    private void refresh() {
+        if (!ThreadAccounting.isEnabled()) {
+            summaryLabel.setText("Tracking off");
+        }
+
+        ThreadOwner selectedOwner = getSelectedOwner();
+        List<OwnerUsage> owners = ThreadAccounting.getOwners();
+        displayedOwners = new ArrayList<>(owners.size());
+        double cpu = 0;
+        double alloc = 0;
+        ownersModel.setRowCount(0);
+        for (OwnerUsage usage : owners) {
+            displayedOwners.add(usage.owner);
+            cpu += usage.cpuPercent;
+            alloc += usage.allocBytesPerSec;
+            ownersModel.addRow(new Object[]{
+                usage.owner.getName(),
+                usage.owner.getKind().getLabel(),
+                usage.threads,
+                round(usage.cpuPercent),
+                round(usage.avgCpuPercent),
+                round(usage.allocBytesPerSec / MB),
+                round(usage.avgAllocBytesPerSec / MB),
+                round(usage.totalCpuNanos / 1e9),
+                round(usage.totalAllocBytes / MB)
+            });
+        }
+        if (ThreadAccounting.isEnabled()) {
+            summaryLabel.setText(String.format("Owners: %d  |  CPU: %.1f%% of one core  |  Allocation: %.1f MB/s",
+                owners.size(), cpu, alloc / MB));
+        }
+
+        if (selectedOwner != null) {
+            int index = displayedOwners.indexOf(selectedOwner);
+            if (index >= 0) {
+                int row = ownersTable.convertRowIndexToView(index);
+                if (row >= 0) {
+                    ownersTable.setRowSelectionInterval(row, row);
+                }
+            }
+        }
+        refreshThreads();
+    }
+
+    private void refreshThreads() {
+        ThreadOwner filter = getSelectedOwner();
+        threadsModel.setRowCount(0);
+        for (ThreadUsage usage : ThreadAccounting.getThreads()) {
+            if (filter != null && !filter.equals(usage.owner)) {
+                continue;
+            }
+            threadsModel.addRow(new Object[]{
+                usage.name,
+                usage.threadId,
+                usage.state.name(),
+                usage.owner.toString(),
+                round(usage.cpuPercent),
+                round(usage.allocBytesPerSec / MB),
+                round(usage.cpuNanos / 1e9),
+                round(usage.allocBytes / MB)
+            });
+        }
+    }
+
+    private ThreadOwner getSelectedOwner() {
+        int row = ownersTable.getSelectedRow();
+        if (row < 0) {
+            return null;
+        }
+        int index = ownersTable.convertRowIndexToModel(row);
+        return index < displayedOwners.size() ? displayedOwners.get(index) : null;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    public void cleanup() {
+        refreshTimer.stop();
+    }
+
+    private DefaultTableModel createReadOnlyModel(String[] columns, Class<?>[] types) {
+        return new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int columnIndex) {
+                return types[columnIndex];
+            }
+        };
+    }
+
+    private JTable createTable(DefaultTableModel model) {
+        JTable table = new JTable(model);
+        table.setBackground(PANEL_BG);
+        table.setForeground(TEXT_COLOR);
+        table.setFont(new Font("Consolas", Font.PLAIN, 11));
+        table.setAutoCreateRowSorter(true);
+        return table;
+    }
+
+    private JPanel wrap(String title, JComponent content) {
+        JPanel wrapper = createStyledPanel(title);
+        wrapper.setLayout(new BorderLayout());
+        wrapper.add(content, BorderLayout.CENTER);
+        return wrapper;
+    }
+
+    private JPanel createStyledPanel(String title) {
+        JPanel panel = new JPanel();
+        panel.setBackground(PANEL_BG);
+        TitledBorder border = BorderFactory.createTitledBorder(
+            BorderFactory.createLineBorder(new Color(50, 52, 56)),
+            title
+        );
+        border.setTitleColor(TEXT_COLOR);
+        border.setTitleFont(new Font("Segoe UI", Font.BOLD, 13));
+        panel.setBorder(BorderFactory.createCompoundBorder(border, new EmptyBorder(10, 10, 10, 10)));
+        return panel;
+    }
+
+    private JLabel createStyledLabel(String text) {
+        JLabel label = new JLabel(text);
+        label.setForeground(TEXT_COLOR);
+        label.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        return label;
+    }
+
+    private JButton createStyledButton(String text) {
+        JButton button = new JButton(text);
+        button.setBackground(ACCENT_COLOR);
+        button.setForeground(Color.WHITE);
+        button.setFocusPainted(false);
+        return button;
+    }
+}
@@ -0,0 +1,529 @@
+package com.tonic.services.profiler.callbacks;
+
+import com.tonic.Logger;
+import com.tonic.packets.LogHistogram;
+import com.tonic.services.profiler.hitch.HitchMonitor;
+
+import com.tonic.services.hotswapper.PluginClassLoader;
+
+import java.io.PrintWriter;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency of RuneLite {@code EventBus} subscribers and {@code Overlay.render} calls.
+ *
+ * <p>The EventBus and OverlayRenderer mixins bracket each subscriber and overlay invocation with
+ * {@link #begin()} and {@link #endSubscriber}/{@link #endOverlay}; {@link #onPost(Object)} marks the
+ * start of every post so a {@code GameTick} closes the current tick window and is forwarded to
+ * {@link HitchMonitor}. Recording is off until {@link #setEnabled(boolean)}, and while off the hooks
+ * only read a volatile flag.
+ *
+ * <p>Owners are resolved once, when a subscriber is created by {@code EventBus.register} or an overlay is
+ * added to the {@code OverlayManager}: {@link #registerSubscriber(Object)} and {@link #registerOverlay(Object)}
+ * return a handle that the mixins store in a field of the subscriber or overlay and pass back on every call,
+ * so the hot path does no lookup. Owners are named after the plugin they belong to where it can be found.
+ * Stats are keyed by class, method and event type so they outlive plugin reloads.
+ */
+public final class CallbackMetrics {
+    private static final String GAME_TICK = "net.runelite.api.events.GameTick";
+    private static final String PLUGIN_DESCRIPTOR = "net.runelite.client.plugins.PluginDescriptor";
+    private static final long MAX_NANOS = 10_000_000_000L;
+    private static final int TICK_TOP = 10;
+    private static final int MAX_OVERRUNS = 100;
+    private static final long WARN_INTERVAL_MS = 10_000;
+
+    public enum Kind {
+        SUBSCRIBER, OVERLAY
+    }
+
+    private static volatile boolean enabled = false;
+    private static volatile long tickBudgetNanos = 50_000_000L;
+    private static volatile Class<?> tickClass;
+
+    private static final Map<String, CallbackStats> STATS = new ConcurrentHashMap<>();
+    private static final AtomicLong TICK_SUBSCRIBER_NANOS = new AtomicLong();
+    private static final AtomicLong TICK_OVERLAY_NANOS = new AtomicLong();
+    private static final ArrayDeque<TickReport> OVERRUNS = new ArrayDeque<>();
+    private static volatile TickReport lastTick;
+    private static long tickCount;
+    private static long overrunCount;
+    private static long lastWarnMs;
+
+    private static volatile Method subscriberObject;
+    private static volatile Method subscriberMethod;
+    private static volatile Method subscriberLambda;
+
+    private CallbackMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean state) {
+        enabled = state;
+    }
+
+    public static long getTickBudgetNanos() {
+        return tickBudgetNanos;
+    }
+
+    /**
+     * @param nanos total subscriber and overlay time a tick may use before it is reported as an overrun
+     */
+    public static void setTickBudgetNanos(long nanos) {
+        tickBudgetNanos = Math.max(1, nanos);
+    }
+
+    // ==================== Hooks ====================
+
+    /**
+     * @return start timestamp, or 0 when recording is off
+     */
+    public static long begin() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Called at the top of {@code EventBus.post}
+     */
+    public static void onPost(Object event) {
+        if ((!enabled && !HitchMonitor.isEnabled()) || event == null) {
+            return;
+        }
+        Class<?> type = event.getClass();
+        if (type != tickClass) {
+            if (tickClass != null || !GAME_TICK.equals(type.getName())) {
+                return;
+            }
+            tickClass = type;
+        }
+        if (enabled) {
+            rollTick();
+        }
+        HitchMonitor.onTick();
+    }
+
+    /**
+     * @param registration the subscriber's handle from {@link #registerSubscriber(Object)}
+     */
+    public static void endSubscriber(Object registration, Object event, long start) {
+        if (start == 0 || !(registration instanceof SubscriberRegistration)) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        ((SubscriberRegistration) registration).stats(event).record(nanos);
+        TICK_SUBSCRIBER_NANOS.addAndGet(nanos);
+    }
+
+    /**
+     * @param registration the overlay's handle from {@link #registerOverlay(Object)}
+     */
+    public static void endOverlay(Object registration, long start) {
+        if (start == 0 || !(registration instanceof CallbackStats)) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        ((CallbackStats) registration).record(nanos);
+        TICK_OVERLAY_NANOS.addAndGet(nanos);
+    }
+
+    // ==================== Registration ====================
+
+    /**
+     * Called from the {@code EventBus.Subscriber} constructor
+     *
+     * @return handle to pass to {@link #endSubscriber(Object, Object, long)}
+     */
+    public static Object registerSubscriber(Object subscriber) {
+        Class<?> ownerClass = null;
+        Object target = null;
+        String method = "?";
+        try {
+            if (subscriberObject == null) {
+                Class<?> type = subscriber.getClass();
+                subscriberMethod = type.getMethod("getMethod");
+                subscriberLambda = type.getMethod("getLambda");
+                subscriberObject = type.getMethod("getObject");
+            }
+            target = subscriberObject.invoke(subscriber);
+            Method handler = (Method) subscriberMethod.invoke(subscriber);
+            if (target != null) {
+                ownerClass = target.getClass();
+            } else if (handler != null) {
+                ownerClass = handler.getDeclaringClass();
+            } else {
+                Object lambda = subscriberLambda.invoke(subscriber);
+                ownerClass = lambda == null ? null : lambda.getClass();
+            }
+            method = handler != null ? handler.getName() : "lambda";
+        } catch (Exception e) {
+            Logger.warn("Callback metrics could not describe subscriber " + subscriber + ": " + e.getMessage());
+        }
+
+        if (ownerClass == null) {
+            return new SubscriberRegistration("?#" + method, "?", method);
+        }
+        String className = simpleName(ownerClass);
+        String plugin = pluginName(target, ownerClass);
+        String label = plugin == null ? className : plugin;
+        String methodLabel = plugin == null || isPluginClass(ownerClass) ? method : className + "." + method;
+        return new SubscriberRegistration(ownerClass.getName() + "#" + method, label, methodLabel);
+    }
+
+    /**
+     * Called when an overlay is added to the {@code OverlayManager}
+     *
+     * @return handle to pass to {@link #endOverlay(Object, long)}
+     */
+    public static Object registerOverlay(Object overlay) {
+        Class<?> type = overlay.getClass();
+        String className = simpleName(type);
+        String plugin = pluginName(overlayPlugin(overlay), type);
+        return STATS.computeIfAbsent("overlay:" + type.getName(),
+            k -> new CallbackStats(Kind.OVERLAY, plugin == null ? className : plugin, className, ""));
+    }
+
+    /**
+     * @param instance the registered object (a plugin, or the overlay's plugin), may be null
+     * @return display name of the plugin that owns {@code instance} or {@code type}, or null if there is none
+     */
+    private static String pluginName(Object instance, Class<?> type) {
+        if (instance != null) {
+            String name = descriptorName(instance.getClass());
+            if (name != null) {
+                return name;
+            }
+        }
+        for (Class<?> c = type; c != null; c = c.getEnclosingClass()) {
+            String name = descriptorName(c);
+            if (name != null) {
+                return name;
+            }
+        }
+        if (type.getClassLoader() instanceof PluginClassLoader) {
+            return ((PluginClassLoader) type.getClassLoader()).getJarName();
+        }
+        return null;
+    }
+
+    private static boolean isPluginClass(Class<?> type) {
+        return descriptorName(type) != null;
+    }
+
+    private static String descriptorName(Class<?> type) {
+        for (Annotation annotation : type.getDeclaredAnnotations()) {
+            if (annotation.annotationType().getName().equals(PLUGIN_DESCRIPTOR)) {
+                try {
+                    return (String) annotation.annotationType().getMethod("name").invoke(annotation);
+                } catch (Exception e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Object overlayPlugin(Object overlay) {
+        try {
+            return overlay.getClass().getMethod("getPlugin").invoke(overlay);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String simpleName(Class<?> type) {
+        String name = type.getName();
+        int lambda = name.indexOf("$$Lambda");
+        if (lambda > 0) {
+            name = name.substring(0, lambda);
+        }
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    // ==================== Tick windows ====================
+
+    private static void rollTick() {
+        long subscriberNanos = TICK_SUBSCRIBER_NANOS.getAndSet(0);
+        long overlayNanos = TICK_OVERLAY_NANOS.getAndSet(0);
+
+        List<TickEntry> entries = new ArrayList<>();
+        for (CallbackStats stats : STATS.values()) {
+            long calls = stats.tickCalls.getAndSet(0);
+            long nanos = stats.tickNanos.getAndSet(0);
+            if (calls > 0) {
+                entries.add(new TickEntry(stats.kind, stats.getLabel(), calls, nanos));
+            }
+        }
+        entries.sort((a, b) -> Long.compare(b.nanos, a.nanos));
+        if (entries.size() > TICK_TOP) {
+            entries = new ArrayList<>(entries.subList(0, TICK_TOP));
+        }
+
+        TickReport report;
+        boolean warn = false;
+        synchronized (OVERRUNS) {
+            report = new TickReport(++tickCount, System.currentTimeMillis(), subscriberNanos, overlayNanos,
+                Collections.unmodifiableList(entries));
+            if (report.getTotalNanos() > tickBudgetNanos) {
+                overrunCount++;
+                OVERRUNS.addLast(report);
+                if (OVERRUNS.size() > MAX_OVERRUNS) {
+                    OVERRUNS.removeFirst();
+                }
+                if (report.timestamp - lastWarnMs >= WARN_INTERVAL_MS) {
+                    lastWarnMs = report.timestamp;
+                    warn = true;
+                }
+            }
+        }
+        lastTick = report;
+
+        if (warn) {
+            TickEntry worst = entries.isEmpty() ? null : entries.get(0);
+            Logger.warn(String.format("Tick %d used %.1f ms in callbacks (budget %.1f ms)%s",
+                report.tick, report.getTotalNanos() / 1_000_000.0, tickBudgetNanos / 1_000_000.0,
+                worst == null ? "" : String.format(", slowest: %s %.1f ms", worst.label, worst.nanos / 1_000_000.0)));
+        }
+    }
+
+    // ==================== Data Access Methods ====================
+
+    public static List<CallbackSnapshot> getStats(Kind kind) {
+        List<CallbackSnapshot> result = new ArrayList<>();
+        for (CallbackStats stats : STATS.values()) {
+            if (stats.kind == kind && stats.count.sum() > 0) {
+                result.add(stats.snapshot());
+            }
+        }
+        result.sort((a, b) -> Long.compare(b.totalNanos, a.totalNanos));
+        return result;
+    }
+
+    /**
+     * @return the last completed tick window, or null before the first GameTick
+     */
+    public static TickReport getLastTick() {
+        return lastTick;
+    }
+
+    /**
+     * @return the most recent ticks that went over budget, oldest first
+     */
+    public static List<TickReport> getOverruns() {
+        synchronized (OVERRUNS) {
+            return new ArrayList<>(OVERRUNS);
+        }
+    }
+
+    public static long getOverrunCount() {
+        synchronized (OVERRUNS) {
+            return overrunCount;
+        }
+    }
+
+    public static long getTickCount() {
+        synchronized (OVERRUNS) {
+            return tickCount;
+        }
+    }
+
+    public static void reset() {
+        for (CallbackStats stats : STATS.values()) {
+            stats.reset();
+        }
+        TICK_SUBSCRIBER_NANOS.set(0);
+        TICK_OVERLAY_NANOS.set(0);
+        synchronized (OVERRUNS) {
+            OVERRUNS.clear();
+            overrunCount = 0;
+            tickCount = 0;
+        }
+        lastTick = null;
+    }
+
+    /**
+     * Write all stats and recorded overruns as CSV
+     */
+    public static void exportCsv(PrintWriter writer) {
+        writer.println("Kind,Owner,Method,Event,Count,Total (ms),Avg (us),p50 (us),p99 (us),Max (us)");
+        for (Kind kind : Kind.values()) {
+            for (CallbackSnapshot s : getStats(kind)) {
+                writer.printf("%s,%s,%s,%s,%d,%.3f,%.1f,%.1f,%.1f,%.1f%n",
+                    kind, s.owner, s.method, s.eventType, s.count, s.totalNanos / 1_000_000.0,
+                    s.getAverageNanos() / 1000.0, s.p50Nanos / 1000.0, s.p99Nanos / 1000.0, s.maxNanos / 1000.0);
+            }
+        }
+
+        writer.println();
+        writer.println("Tick,Timestamp,Subscribers (ms),Overlays (ms),Slowest");
+        for (TickReport report : getOverruns()) {
+            StringBuilder slowest = new StringBuilder();
+            for (TickEntry entry : report.entries) {
+                if (slowest.length() > 0) {
+                    slowest.append("; ");
+                }
+                slowest.append(String.format("%s %.2f ms", entry.label, entry.nanos / 1_000_000.0));
+            }
+            writer.printf("%d,%d,%.3f,%.3f,\"%s\"%n", report.tick, report.timestamp,
+                report.subscriberNanos / 1_000_000.0, report.overlayNanos / 1_000_000.0, slowest);
+        }
+    }
+
+    private static final class CallbackStats {
+        final Kind kind;
+        final String owner;
+        final String method;
+        final String eventType;
+        final LogHistogram latency = new LogHistogram(MAX_NANOS);
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong tickCalls = new AtomicLong();
+        final AtomicLong tickNanos = new AtomicLong();
+
+        CallbackStats(Kind kind, String owner, String method, String eventType) {
+            this.kind = kind;
+            this.owner = owner;
+            this.method = method;
+            this.eventType = eventType;
+        }
+
+        void record(long nanos) {
+            latency.record(nanos);
+            count.increment();
+            totalNanos.add(nanos);
+            tickCalls.incrementAndGet();
+            tickNanos.addAndGet(nanos);
+        }
+
+        String getLabel() {
+            if (kind == Kind.OVERLAY) {
+                return owner.equals(method) ? owner : owner + ": " + method;
+            }
+            return owner + "." + method + "(" + eventType + ")";
+        }
+
+        CallbackSnapshot snapshot() {
+            return new CallbackSnapshot(kind, owner, method, eventType, count.sum(), totalNanos.sum(),
+                latency.getPercentile(50), latency.getPercentile(99), latency.getMax());
+        }
+
+        void reset() {
+            latency.reset();
+            count.reset();
+            totalNanos.reset();
+            tickCalls.set(0);
+            tickNanos.set(0);
+        }
+    }
+
+    /**
+     * Resolved owner of one subscriber. The event type is only known once the subscriber is first called,
+     * so its stats are looked up then and kept.
+     */
+    private static final class SubscriberRegistration {
+        final String key;
+        final String owner;
+        final String method;
+        volatile CallbackStats stats;
+
+        SubscriberRegistration(String key, String owner, String method) {
+            this.key = key;
+            this.owner = owner;
+            this.method = method;
+        }
+
+        CallbackStats stats(Object event) {
+            CallbackStats current = stats;
+            if (current == null) {
+                // A subscriber only ever receives one event class, so the first one decides
+                Class<?> eventClass = event.getClass();
+                current = STATS.computeIfAbsent("subscriber:" + key + "(" + eventClass.getName() + ")",
+                    k -> new CallbackStats(Kind.SUBSCRIBER, owner, method, simpleName(eventClass)));
+                stats = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Aggregated latency of one subscriber method or overlay class
+     */
+    public static final class CallbackSnapshot {
+        public final Kind kind;
+        public final String owner;
+        public final String method;
+        public final String eventType;
+        public final long count;
+        public final long totalNanos;
+        public final long p50Nanos;
+        public final long p99Nanos;
+        public final long maxNanos;
+
+        CallbackSnapshot(Kind kind, String owner, String method, String eventType, long count, long totalNanos,
+                         long p50Nanos, long p99Nanos, long maxNanos) {
+            this.kind = kind;
+            this.owner = owner;
+            this.method = method;
+            this.eventType = eventType;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.p50Nanos = p50Nanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public double getAverageNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+    }
+
+    /**
+     * Callback time spent between two GameTick posts
+     */
+    public static final class TickReport {
+        public final long tick;
+        public final long timestamp;
+        public final long subscriberNanos;
+        public final long overlayNanos;
+        /**
+         * Slowest callbacks of the tick, slowest first
+         */
+        public final List<TickEntry> entries;
+
+        TickReport(long tick, long timestamp, long subscriberNanos, long overlayNanos, List<TickEntry> entries) {
+            this.tick = tick;
+            this.timestamp = timestamp;
+            this.subscriberNanos = subscriberNanos;
+            this.overlayNanos = overlayNanos;
+            this.entries = entries;
+        }
+
+        public long getTotalNanos() {
+            return subscriberNanos + overlayNanos;
+        }
+    }
+
+    public static final class TickEntry {
+        public final Kind kind;
+        public final String label;
+        public final long calls;
+        public final long nanos;
+
+        TickEntry(Kind kind, String label, long calls, long nanos) {
+            this.kind = kind;
+            this.label = label;
+            this.calls = calls;
+            this.nanos = nanos;
+        }
+    }
+}
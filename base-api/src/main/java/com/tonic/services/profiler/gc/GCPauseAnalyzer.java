@@ -27,6 +27,7 @@ public class GCPauseAnalyzer implements NotificationListener {
     private long totalPauseTime = 0;
     private long longestPause = 0;
     private GCPauseEvent longestPauseEvent = null;
+    private long lastSequence = 0;
 
     public GCPauseAnalyzer(int maxEvents) {
         this.pauseEvents = new CopyOnWriteArrayList<>();
@@ -102,28 +103,34 @@ public class GCPauseAnalyzer implements NotificationListener {
             long afterGC = getTotalUsed(memAfter);
             long maxMemory = getTotalMax(memAfter);
 
-            // Create event
-            GCPauseEvent event = new GCPauseEvent(
-                timestamp, gcName, gcAction, gcCause,
-                duration, beforeGC, afterGC, maxMemory
-            );
+            addEvent(timestamp, gcName, gcAction, gcCause, duration, beforeGC, afterGC, maxMemory);
+        } catch (Exception e) {
+            System.err.println("Error processing GC notification: " + e.getMessage());
+        }
+    }
 
-            // Add to history
-            pauseEvents.add(event);
-            if (pauseEvents.size() > maxEvents) {
-                pauseEvents.remove(0);
-            }
+    /**
+     * Record one pause. Notifications arrive on a single JMX thread, so this is not synchronized.
+     */
+    protected void addEvent(long timestamp, String gcName, String gcAction, String gcCause,
+                            long duration, long beforeGC, long afterGC, long maxMemory) {
+        GCPauseEvent event = new GCPauseEvent(
+            ++lastSequence, timestamp, gcName, gcAction, gcCause,
+            duration, beforeGC, afterGC, maxMemory
+        );
 
-            // Update statistics
-            totalPauses++;
-            totalPauseTime += duration;
-            if (duration > longestPause) {
-                longestPause = duration;
-                longestPauseEvent = event;
-            }
+        // Add to history
+        pauseEvents.add(event);
+        if (pauseEvents.size() > maxEvents) {
+            pauseEvents.remove(0);
+        }
 
-        } catch (Exception e) {
-            System.err.println("Error processing GC notification: " + e.getMessage());
+        // Update statistics
+        totalPauses++;
+        totalPauseTime += duration;
+        if (duration > longestPause) {
+            longestPause = duration;
+            longestPauseEvent = event;
         }
     }
 
@@ -166,6 +173,21 @@ public class GCPauseAnalyzer implements NotificationListener {
         return new ArrayList<>(pauseEvents);
     }
 
+    /**
+     * Events recorded after the one with the given {@link GCPauseEvent#getSequence() sequence}, oldest first.
+     * Events that already fell out of the bounded history are not returned.
+     *
+     * @param sequence 0 for every retained event
+     */
+    public List<GCPauseEvent> getEventsSince(long sequence) {
+        List<GCPauseEvent> events = getAllEvents();
+        int first = events.size();
+        while (first > 0 && events.get(first - 1).getSequence() > sequence) {
+            first--;
+        }
+        return first == 0 ? events : new ArrayList<>(events.subList(first, events.size()));
+    }
+
     /**
      * Get statistics
      */
@@ -224,7 +246,8 @@ public class GCPauseAnalyzer implements NotificationListener {
     }
 
     /**
-     * Clear all events and statistics
+     * Clear all events and statistics. Sequences keep counting so readers of {@link #getEventsSince(long)}
+     * are not confused by the restart.
      */
     public void clear() {
         pauseEvents.clear();
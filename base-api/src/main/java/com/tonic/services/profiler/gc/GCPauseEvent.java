@@ -4,6 +4,7 @@ package com.tonic.services.profiler.gc;
  * Represents a single GC pause event
  */
 public class GCPauseEvent {
+    private final long sequence;
     private final long timestamp;
     private final String gcName;
     private final String gcAction;
@@ -16,6 +17,15 @@ public class GCPauseEvent {
 
     public GCPauseEvent(long timestamp, String gcName, String gcAction, String gcCause,
                         long duration, long beforeGC, long afterGC, long maxMemory) {
+        this(0, timestamp, gcName, gcAction, gcCause, duration, beforeGC, afterGC, maxMemory);
+    }
+
+    /**
+     * @param sequence position in the recording analyzer's history, see {@link #getSequence()}
+     */
+    public GCPauseEvent(long sequence, long timestamp, String gcName, String gcAction, String gcCause,
+                        long duration, long beforeGC, long afterGC, long maxMemory) {
+        this.sequence = sequence;
         this.timestamp = timestamp;
         this.gcName = gcName;
         this.gcAction = gcAction;
@@ -43,6 +53,14 @@ public class GCPauseEvent {
         return GCType.UNKNOWN;
     }
 
+    /**
+     * @return 1 for the first event an analyzer recorded, increasing by one per event and never reused;
+     *         0 for events not created by an analyzer
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
     public long getTimestamp() {
         return timestamp;
     }
@@ -0,0 +1,310 @@
+package com.tonic.services.profiler.hitch;
+
+import com.tonic.Logger;
+import com.tonic.services.profiler.callbacks.CallbackMetrics;
+import com.tonic.services.profiler.timeline.TimelineCollector;
+import com.tonic.services.profiler.timeline.TimelineEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lines safepoint, JIT and GC activity up against game tick boundaries
+ *
+ * <p>{@link CallbackMetrics#onPost(Object)} calls {@link #onTick()} on every {@code GameTick}. Each tick
+ * reads {@link HotspotCounters} and diffs them against the previous tick, so every delta covers exactly
+ * one tick interval. Intervals longer than the 600 ms server tick plus the configured slack are reported
+ * as hitches and attributed to whichever of GC, non-GC safepoints or JIT explains the most of the
+ * overrun, or to the application when none explains a meaningful share.
+ *
+ * <p>Safepoint and compilation deltas are also written to the attached {@link TimelineCollector}, next
+ * to the GC pauses it already imports. While no ticks arrive (login screen) a background poll keeps
+ * that series going once a second.
+ */
+public final class HitchMonitor {
+    public static final long TICK_MS = 600;
+    private static final long IDLE_POLL_MS = 1000;
+    /**
+     * Longer gaps between ticks are logouts or world hops, not hitches
+     */
+    private static final long MAX_HITCH_MS = 30_000;
+    private static final int MAX_REPORTS = 200;
+    private static final long WARN_INTERVAL_MS = 10_000;
+
+    /**
+     * A cause must account for at least this share of the overrun to be blamed
+     */
+    private static final double ATTRIBUTION_SHARE = 0.25;
+
+    private static volatile boolean enabled = false;
+    private static volatile long slackMs = 100;
+    private static volatile TimelineCollector timeline;
+
+    private static HotspotCounters counters;
+    private static ScheduledExecutorService poller;
+    private static HotspotCounters.CounterSnapshot lastSample;
+    private static HotspotCounters.CounterSnapshot lastTickSample;
+    private static final ArrayDeque<HitchReport> REPORTS = new ArrayDeque<>();
+    private static final long[] CAUSE_COUNTS = new long[HitchReport.Cause.values().length];
+    private static long tickCount;
+    private static long lastWarnMs;
+
+    private HitchMonitor() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static synchronized void setEnabled(boolean state) {
+        if (state == enabled) {
+            return;
+        }
+        if (state) {
+            if (counters == null) {
+                counters = new HotspotCounters();
+            }
+            lastSample = null;
+            lastTickSample = null;
+            poller = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "Hitch-Monitor");
+                t.setDaemon(true);
+                return t;
+            });
+            poller.scheduleWithFixedDelay(HitchMonitor::pollIdle, IDLE_POLL_MS, IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+        } else if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+        enabled = state;
+    }
+
+    public static long getSlackMs() {
+        return slackMs;
+    }
+
+    /**
+     * @param ms how far past {@link #TICK_MS} a tick interval may run before it counts as a hitch
+     */
+    public static void setSlackMs(long ms) {
+        slackMs = Math.max(0, ms);
+    }
+
+    /**
+     * @param collector timeline that receives safepoint, compilation and hitch events, or null
+     */
+    public static void setTimeline(TimelineCollector collector) {
+        timeline = collector;
+    }
+
+    // ==================== Hooks ====================
+
+    /**
+     * Called on the client thread for every {@code GameTick}
+     */
+    public static void onTick() {
+        if (enabled) {
+            sample(true);
+        }
+    }
+
+    private static void pollIdle() {
+        try {
+            HotspotCounters.CounterSnapshot previousTick;
+            synchronized (HitchMonitor.class) {
+                previousTick = lastTickSample;
+            }
+            if (previousTick == null || System.currentTimeMillis() - previousTick.timestamp > TICK_MS + IDLE_POLL_MS) {
+                sample(false);
+            }
+        } catch (Exception e) {
+            System.err.println("Hitch monitor poll failed: " + e.getMessage());
+        }
+    }
+
+    private static synchronized void sample(boolean tick) {
+        if (counters == null) {
+            return;
+        }
+        HotspotCounters.CounterSnapshot now = counters.read();
+        if (lastSample != null) {
+            recordSeries(lastSample, now);
+        }
+        lastSample = now;
+
+        if (!tick) {
+            return;
+        }
+        tickCount++;
+        HotspotCounters.CounterSnapshot previous = lastTickSample;
+        lastTickSample = now;
+        if (previous != null) {
+            long interval = now.timestamp - previous.timestamp;
+            if (interval > TICK_MS + slackMs && interval <= MAX_HITCH_MS) {
+                recordHitch(previous, now);
+            }
+        }
+    }
+
+    private static void recordSeries(HotspotCounters.CounterSnapshot from, HotspotCounters.CounterSnapshot to) {
+        TimelineCollector sink = timeline;
+        if (sink == null) {
+            return;
+        }
+
+        long safepoints = delta(from.safepointCount, to.safepointCount);
+        if (safepoints > 0) {
+            long time = delta(from.safepointTimeMs, to.safepointTimeMs);
+            long sync = delta(from.safepointSyncTimeMs, to.safepointSyncTimeMs);
+            sink.record(new TimelineEvent(to.timestamp, TimelineEvent.EventType.SAFEPOINT,
+                String.format("%d safepoints (%d ms)", safepoints, time),
+                time, severityFor(time),
+                String.format("Safepoints: %d\nTotal time: %d ms\nTime to safepoint: %d ms\nGC time in window: %d ms",
+                    safepoints, time, sync, delta(from.gcTimeMs, to.gcTimeMs))));
+        }
+
+        long compiles = delta(from.compileCount, to.compileCount);
+        long deopts = delta(from.invalidatedCount, to.invalidatedCount);
+        long compileMs = delta(from.compileTimeMs, to.compileTimeMs);
+        if (compiles > 0 || deopts > 0 || (from.compileCount < 0 && compileMs > 0)) {
+            String description = deopts > 0
+                ? String.format("%d compiles, %d deoptimizations", Math.max(0, compiles), deopts)
+                : String.format("%d compiles (%d ms)", Math.max(0, compiles), compileMs);
+            sink.record(new TimelineEvent(to.timestamp, TimelineEvent.EventType.COMPILATION, description,
+                compileMs, deopts > 0 ? TimelineEvent.EventSeverity.MEDIUM : TimelineEvent.EventSeverity.LOW,
+                String.format("Compiles: %d\nDeoptimizations: %d\nBailouts: %d\nCompile time: %d ms",
+                    Math.max(0, compiles), deopts, delta(from.bailoutCount, to.bailoutCount), compileMs)));
+        }
+    }
+
+    private static void recordHitch(HotspotCounters.CounterSnapshot from, HotspotCounters.CounterSnapshot to) {
+        long interval = to.timestamp - from.timestamp;
+        long excess = interval - TICK_MS;
+        long gcMs = delta(from.gcTimeMs, to.gcTimeMs);
+        long compileMs = delta(from.compileTimeMs, to.compileTimeMs);
+        long compiles = delta(from.compileCount, to.compileCount);
+        long deopts = delta(from.invalidatedCount, to.invalidatedCount);
+
+        // GC pauses run inside safepoints; what is left over is VM operations such as deoptimization
+        long safepointMs = -1;
+        long syncMs = -1;
+        if (to.safepointTimeMs >= 0) {
+            safepointMs = Math.max(0, delta(from.safepointTimeMs, to.safepointTimeMs) - gcMs);
+            syncMs = delta(from.safepointSyncTimeMs, to.safepointSyncTimeMs);
+        }
+
+        // Compilation runs on background threads and only stalls the game through deoptimization
+        // safepoints or by competing for CPU, so it is blamed for the non-GC safepoint time when methods
+        // were invalidated, or when it ran for longer than the overrun itself
+        long jitBlame = 0;
+        long safepointBlame = Math.max(0, safepointMs);
+        if (deopts > 0) {
+            jitBlame = safepointBlame;
+            safepointBlame = 0;
+        }
+        if (compileMs > excess) {
+            jitBlame += compileMs;
+        }
+
+        HitchReport.Cause cause = HitchReport.Cause.APPLICATION;
+        long best = (long) (excess * ATTRIBUTION_SHARE);
+        if (gcMs >= best && gcMs > 0) {
+            cause = HitchReport.Cause.GC;
+            best = gcMs;
+        }
+        if (safepointBlame > best) {
+            cause = HitchReport.Cause.SAFEPOINT;
+            best = safepointBlame;
+        }
+        if (jitBlame > best) {
+            cause = HitchReport.Cause.JIT;
+        }
+
+        CallbackMetrics.TickReport callbacks = CallbackMetrics.isEnabled() ? CallbackMetrics.getLastTick() : null;
+        long callbackMs = callbacks == null ? -1 : callbacks.getTotalNanos() / 1_000_000;
+
+        HitchReport report = new HitchReport(tickCount, to.timestamp, interval, excess, gcMs, safepointMs, syncMs,
+            compileMs, Math.max(0, compiles), deopts, callbackMs, cause);
+        REPORTS.addLast(report);
+        if (REPORTS.size() > MAX_REPORTS) {
+            REPORTS.removeFirst();
+        }
+        CAUSE_COUNTS[cause.ordinal()]++;
+
+        TimelineCollector sink = timeline;
+        if (sink != null) {
+            sink.record(new TimelineEvent(to.timestamp, TimelineEvent.EventType.HITCH,
+                String.format("Tick %d ms late (%s)", excess, cause.getLabel()),
+                excess, severityFor(excess), report.describe()));
+        }
+
+        if (to.timestamp - lastWarnMs >= WARN_INTERVAL_MS) {
+            lastWarnMs = to.timestamp;
+            Logger.warn(String.format("Tick %d arrived %d ms late, attributed to %s", tickCount, excess, cause.getLabel()));
+        }
+    }
+
+    /**
+     * Counter difference, 0 if either side is unavailable or the counter went backwards
+     */
+    private static long delta(long from, long to) {
+        if (from < 0 || to < 0) {
+            return 0;
+        }
+        return Math.max(0, to - from);
+    }
+
+    private static TimelineEvent.EventSeverity severityFor(long ms) {
+        if (ms > 1000) {
+            return TimelineEvent.EventSeverity.CRITICAL;
+        } else if (ms > 500) {
+            return TimelineEvent.EventSeverity.HIGH;
+        } else if (ms > 100) {
+            return TimelineEvent.EventSeverity.MEDIUM;
+        }
+        return TimelineEvent.EventSeverity.LOW;
+    }
+
+    // ==================== Data Access Methods ====================
+
+    /**
+     * @return hitch reports, oldest first
+     */
+    public static synchronized List<HitchReport> getReports() {
+        return new ArrayList<>(REPORTS);
+    }
+
+    public static synchronized long getCauseCount(HitchReport.Cause cause) {
+        return CAUSE_COUNTS[cause.ordinal()];
+    }
+
+    public static synchronized long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * @return the newest counter reading, or null before the first sample
+     */
+    public static synchronized HotspotCounters.CounterSnapshot getLastSample() {
+        return lastSample;
+    }
+
+    /**
+     * @return counter source, or null until monitoring has been enabled once
+     */
+    public static synchronized HotspotCounters getCounters() {
+        return counters;
+    }
+
+    public static synchronized void reset() {
+        REPORTS.clear();
+        Arrays.fill(CAUSE_COUNTS, 0);
+        tickCount = 0;
+        lastTickSample = null;
+    }
+}
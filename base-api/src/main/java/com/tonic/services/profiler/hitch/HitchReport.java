@@ -0,0 +1,72 @@
+package com.tonic.services.profiler.hitch;
+
+/**
+ * A game tick that arrived late, with the JVM activity measured over its interval
+ */
+public final class HitchReport {
+    public enum Cause {
+        GC("GC"),
+        SAFEPOINT("Safepoint"),
+        JIT("JIT"),
+        APPLICATION("Application");
+
+        private final String label;
+
+        Cause(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    public final long tick;
+    public final long timestamp;
+    public final long intervalMs;
+    public final long excessMs;
+    public final long gcMs;
+    public final long safepointMs;
+    public final long safepointSyncMs;
+    public final long compileMs;
+    public final long compiles;
+    public final long deoptimizations;
+    /**
+     * Subscriber and overlay time of the tick from callback recording, -1 when it was off
+     */
+    public final long callbackMs;
+    public final Cause cause;
+
+    HitchReport(long tick, long timestamp, long intervalMs, long excessMs, long gcMs, long safepointMs,
+                long safepointSyncMs, long compileMs, long compiles, long deoptimizations, long callbackMs,
+                Cause cause) {
+        this.tick = tick;
+        this.timestamp = timestamp;
+        this.intervalMs = intervalMs;
+        this.excessMs = excessMs;
+        this.gcMs = gcMs;
+        this.safepointMs = safepointMs;
+        this.safepointSyncMs = safepointSyncMs;
+        this.compileMs = compileMs;
+        this.compiles = compiles;
+        this.deoptimizations = deoptimizations;
+        this.callbackMs = callbackMs;
+        this.cause = cause;
+    }
+
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Tick %d took %d ms (%d ms late)\n", tick, intervalMs, excessMs));
+        sb.append(String.format("GC: %d ms\n", gcMs));
+        sb.append(safepointMs >= 0
+            ? String.format("Non-GC safepoints: %d ms (time to safepoint %d ms)\n", safepointMs, safepointSyncMs)
+            : "Safepoints: unavailable\n");
+        sb.append(String.format("JIT: %d compiles, %d deoptimizations, %d ms compiling\n",
+            compiles, deoptimizations, compileMs));
+        if (callbackMs >= 0) {
+            sb.append(String.format("Callbacks: %d ms\n", callbackMs));
+        }
+        sb.append("Attributed to: ").append(cause.getLabel());
+        return sb.toString();
+    }
+}
@@ -0,0 +1,209 @@
+package com.tonic.services.profiler.hitch;
+
+import com.tonic.services.profiler.ModuleBootstrap;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads HotSpot safepoint, compilation and GC counters
+ *
+ * Safepoint and deoptimization counts come from the internal {@code sun.management} HotspotRuntime and
+ * HotspotCompilation MBeans (backed by hsperfdata counters, so they need {@code -XX:+UsePerfData}, the
+ * default). They are reached reflectively once {@link ModuleBootstrap} has opened the JDK packages; when
+ * they are missing those fields read -1 and GC/compile time still come from the standard MXBeans.
+ */
+public class HotspotCounters {
+    private static final String FACTORY_HELPER = "sun.management.ManagementFactoryHelper";
+
+    private final Object runtime;
+    private final Method safepointCount;
+    private final Method safepointTime;
+    private final Method safepointSyncTime;
+
+    private final Object compilation;
+    private final Method totalCompiles;
+    private final Method invalidatedCompiles;
+    private final Method bailoutCompiles;
+    private final Method compilerThreadStats;
+
+    private final CompilationMXBean compilationBean;
+    private final List<GarbageCollectorMXBean> gcBeans;
+
+    public HotspotCounters() {
+        Object rt = null;
+        Method spCount = null, spTime = null, spSync = null;
+        Object comp = null;
+        Method compiles = null, invalidated = null, bailouts = null, threadStats = null;
+
+        try {
+            // Opens sun.management to unnamed modules
+            ModuleBootstrap.getTrustedLookup();
+
+            Class<?> helper = Class.forName(FACTORY_HELPER);
+            rt = invokeStatic(helper, "getHotspotRuntimeMBean");
+            Class<?> runtimeType = Class.forName("sun.management.HotspotRuntimeMBean");
+            spCount = accessible(runtimeType.getMethod("getSafepointCount"));
+            spTime = accessible(runtimeType.getMethod("getTotalSafepointTime"));
+            spSync = accessible(runtimeType.getMethod("getSafepointSyncTime"));
+
+            comp = invokeStatic(helper, "getHotspotCompilationMBean");
+            Class<?> compilationType = Class.forName("sun.management.HotspotCompilationMBean");
+            compiles = accessible(compilationType.getMethod("getTotalCompileCount"));
+            invalidated = accessible(compilationType.getMethod("getInvalidatedCompileCount"));
+            bailouts = accessible(compilationType.getMethod("getBailoutCompileCount"));
+            threadStats = accessible(compilationType.getMethod("getCompilerThreadStats"));
+        } catch (Throwable t) {
+            System.err.println("HotSpot internal counters unavailable: " + t.getMessage());
+        }
+
+        this.runtime = spCount != null ? rt : null;
+        this.safepointCount = spCount;
+        this.safepointTime = spTime;
+        this.safepointSyncTime = spSync;
+        this.compilation = threadStats != null ? comp : null;
+        this.totalCompiles = compiles;
+        this.invalidatedCompiles = invalidated;
+        this.bailoutCompiles = bailouts;
+        this.compilerThreadStats = threadStats;
+
+        this.compilationBean = ManagementFactory.getCompilationMXBean();
+        this.gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+    }
+
+    private static Object invokeStatic(Class<?> type, String name) throws Exception {
+        Method method = type.getDeclaredMethod(name);
+        method.setAccessible(true);
+        return method.invoke(null);
+    }
+
+    private static Method accessible(Method method) {
+        method.setAccessible(true);
+        return method;
+    }
+
+    /**
+     * @return true if safepoint counters can be read
+     */
+    public boolean isSafepointAvailable() {
+        return runtime != null;
+    }
+
+    /**
+     * @return true if compile, deoptimization and bailout counts can be read
+     */
+    public boolean isCompilationAvailable() {
+        return compilation != null;
+    }
+
+    public CounterSnapshot read() {
+        long gcCount = 0;
+        long gcTime = 0;
+        for (GarbageCollectorMXBean bean : gcBeans) {
+            gcCount += Math.max(0, bean.getCollectionCount());
+            gcTime += Math.max(0, bean.getCollectionTime());
+        }
+
+        long compileTime = -1;
+        if (compilationBean != null && compilationBean.isCompilationTimeMonitoringSupported()) {
+            compileTime = compilationBean.getTotalCompilationTime();
+        }
+
+        return new CounterSnapshot(
+            System.currentTimeMillis(),
+            readLong(runtime, safepointCount),
+            readLong(runtime, safepointTime),
+            readLong(runtime, safepointSyncTime),
+            gcCount,
+            gcTime,
+            readLong(compilation, totalCompiles),
+            readLong(compilation, invalidatedCompiles),
+            readLong(compilation, bailoutCompiles),
+            compileTime
+        );
+    }
+
+    /**
+     * Per compiler thread task counts; empty on JDKs that no longer publish them
+     */
+    public List<CompilerThreadInfo> readCompilerThreads() {
+        if (compilation == null) {
+            return Collections.emptyList();
+        }
+
+        List<CompilerThreadInfo> result = new ArrayList<>();
+        try {
+            for (Object stat : (List<?>) compilerThreadStats.invoke(compilation)) {
+                Method name = accessible(stat.getClass().getMethod("getName"));
+                Method tasks = accessible(stat.getClass().getMethod("getCompileTaskCount"));
+                Method time = accessible(stat.getClass().getMethod("getCompileTime"));
+                result.add(new CompilerThreadInfo(
+                    String.valueOf(name.invoke(stat)),
+                    ((Number) tasks.invoke(stat)).longValue(),
+                    ((Number) time.invoke(stat)).longValue()));
+            }
+        } catch (Exception e) {
+            System.err.println("Error reading compiler thread stats: " + e.getMessage());
+        }
+        return result;
+    }
+
+    private static long readLong(Object target, Method method) {
+        if (target == null || method == null) {
+            return -1;
+        }
+        try {
+            return ((Number) method.invoke(target)).longValue();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Cumulative counter values at one instant; -1 where a counter is unavailable
+     */
+    public static final class CounterSnapshot {
+        public final long timestamp;
+        public final long safepointCount;
+        public final long safepointTimeMs;
+        public final long safepointSyncTimeMs;
+        public final long gcCount;
+        public final long gcTimeMs;
+        public final long compileCount;
+        public final long invalidatedCount;
+        public final long bailoutCount;
+        public final long compileTimeMs;
+
+        CounterSnapshot(long timestamp, long safepointCount, long safepointTimeMs, long safepointSyncTimeMs,
+                        long gcCount, long gcTimeMs, long compileCount, long invalidatedCount, long bailoutCount,
+                        long compileTimeMs) {
+            this.timestamp = timestamp;
+            this.safepointCount = safepointCount;
+            this.safepointTimeMs = safepointTimeMs;
+            this.safepointSyncTimeMs = safepointSyncTimeMs;
+            this.gcCount = gcCount;
+            this.gcTimeMs = gcTimeMs;
+            this.compileCount = compileCount;
+            this.invalidatedCount = invalidatedCount;
+            this.bailoutCount = bailoutCount;
+            this.compileTimeMs = compileTimeMs;
+        }
+    }
+
+    public static final class CompilerThreadInfo {
+        public final String name;
+        public final long taskCount;
+        public final long compileTimeMs;
+
+        CompilerThreadInfo(String name, long taskCount, long compileTimeMs) {
+            this.name = name;
+            this.taskCount = taskCount;
+            this.compileTimeMs = compileTimeMs;
+        }
+    }
+}
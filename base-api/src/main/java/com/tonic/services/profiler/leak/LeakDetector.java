@@ -67,16 +67,9 @@ public class LeakDetector {
 
     /**
      * Capture baseline snapshot
+     * The histogram only counts live objects, so no separate GC is needed
      */
     public void captureBaseline() {
-        // Force GC before baseline
-        System.gc();
-        try {
-            Thread.sleep(200);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-
         List<HeapHistogramSample> samples = histogramSampler.captureHistogram();
         baselineSnapshot = new HeapSnapshot(samples, System.currentTimeMillis(), true);
         snapshots.clear();
@@ -113,14 +106,9 @@ public class LeakDetector {
 
     /**
      * Force GC and capture snapshot
+     * The live histogram already runs a full GC inside the VM
      */
     public void captureSnapshotAfterGC() {
-        System.gc();
-        try {
-            Thread.sleep(200);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
         captureSnapshot();
     }
 
@@ -200,7 +188,7 @@ public class LeakDetector {
             return new MemoryStats(0, 0, 0, 0, 0, 0, 0);
         }
 
-        HeapSnapshot latest = snapshots.isEmpty() ? baselineSnapshot : snapshots.get(snapshots.size() - 1);
+        HeapSnapshot latest = getLatestSnapshot();
 
         long baselineTotal = baselineSnapshot.getTotalBytes();
         long currentTotal = latest.getTotalBytes();
@@ -229,6 +217,13 @@ public class LeakDetector {
         return baselineSnapshot;
     }
 
+    /**
+     * @return the most recent snapshot, the baseline if none were taken since, or null
+     */
+    public HeapSnapshot getLatestSnapshot() {
+        return snapshots.isEmpty() ? baselineSnapshot : snapshots.get(snapshots.size() - 1);
+    }
+
     public List<HeapSnapshot> getSnapshots() {
         return new ArrayList<>(snapshots);
     }
@@ -270,6 +265,10 @@ public class LeakDetector {
             return sampleMap.get(className);
         }
 
+        public Collection<HeapHistogramSample> getSamples() {
+            return Collections.unmodifiableCollection(sampleMap.values());
+        }
+
         public long getTotalBytes() {
             return sampleMap.values().stream()
                 .mapToLong(s -> s.totalBytes)
@@ -293,59 +292,96 @@ public class LeakDetector {
 
     /**
      * Tracks growth for a specific class over time
+     *
+     * Points are stored in parallel primitive arrays. Once {@link #MAX_POINTS} is reached every other
+     * point after the first is dropped, so memory stays bounded while the series keeps its start and
+     * spans the whole session at a coarser resolution.
      */
     public static class ClassGrowthTracker {
+        private static final int MAX_POINTS = 256;
+
         private final String className;
-        private final List<DataPoint> dataPoints;
-        private long firstTimestamp;
-        private long lastTimestamp;
+        private long[] timestamps = new long[8];
+        private long[] instances = new long[8];
+        private long[] bytes = new long[8];
+        private int size = 0;
+        private int totalPoints = 0;
 
         public ClassGrowthTracker(String className) {
             this.className = className;
-            this.dataPoints = new ArrayList<>();
         }
 
-        public void addDataPoint(long instances, long bytes, long timestamp) {
-            if (dataPoints.isEmpty()) {
-                firstTimestamp = timestamp;
+        public synchronized void addDataPoint(long instanceCount, long byteCount, long timestamp) {
+            if (size == MAX_POINTS) {
+                compact();
+            } else if (size == timestamps.length) {
+                int newCapacity = Math.min(MAX_POINTS, size * 2);
+                timestamps = Arrays.copyOf(timestamps, newCapacity);
+                instances = Arrays.copyOf(instances, newCapacity);
+                bytes = Arrays.copyOf(bytes, newCapacity);
             }
-            lastTimestamp = timestamp;
-            dataPoints.add(new DataPoint(instances, bytes, timestamp));
+            timestamps[size] = timestamp;
+            instances[size] = instanceCount;
+            bytes[size] = byteCount;
+            size++;
+            totalPoints++;
         }
 
-        public double calculateGrowthRate() {
-            if (dataPoints.size() < 2) {
-                return 0;
+        /**
+         * Halve the series: keep the first point and every second point after it
+         */
+        private void compact() {
+            int kept = 1;
+            for (int i = 2; i < size; i += 2) {
+                timestamps[kept] = timestamps[i];
+                instances[kept] = instances[i];
+                bytes[kept] = bytes[i];
+                kept++;
             }
+            size = kept;
+        }
 
-            DataPoint first = dataPoints.get(0);
-            DataPoint last = dataPoints.get(dataPoints.size() - 1);
+        public synchronized double calculateGrowthRate() {
+            if (size < 2) {
+                return 0;
+            }
 
-            long timeDiffMs = last.timestamp - first.timestamp;
+            long timeDiffMs = timestamps[size - 1] - timestamps[0];
             if (timeDiffMs <= 0) {
                 return 0;
             }
 
-            long instanceDiff = last.instances - first.instances;
+            long instanceDiff = instances[size - 1] - instances[0];
             double minutes = timeDiffMs / 60000.0;
 
             return minutes > 0 ? instanceDiff / minutes : 0;
         }
 
-        public int getDataPointCount() {
-            return dataPoints.size();
+        public String getClassName() {
+            return className;
+        }
+
+        /**
+         * @return number of points recorded, including ones dropped by compaction
+         */
+        public synchronized int getDataPointCount() {
+            return totalPoints;
         }
 
-        public long getFirstTimestamp() {
-            return firstTimestamp;
+        public synchronized long getFirstTimestamp() {
+            return size > 0 ? timestamps[0] : 0;
         }
 
-        public long getLastTimestamp() {
-            return lastTimestamp;
+        public synchronized long getLastTimestamp() {
+            return size > 0 ? timestamps[size - 1] : 0;
         }
 
-        public List<DataPoint> getDataPoints() {
-            return new ArrayList<>(dataPoints);
+        public synchronized List<DataPoint> getDataPoints() {
+            List<DataPoint> points = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                points.add(new DataPoint(instances[i], bytes[i], timestamps[i]));
+            }
+            return points;
         }
 
         public static class DataPoint {
@@ -327,9 +327,13 @@ public class LeakDetectorTab extends JPanel {
     }
 
     private void updateTreemapData() {
+        // Reuse the latest monitoring snapshot; a fresh live histogram costs a full GC
+        LeakDetector.HeapSnapshot latest = leakDetector.getLatestSnapshot();
+        Collection<com.tonic.services.profiler.sampling.HeapHistogramSample> samples = latest != null
+            ? latest.getSamples()
+            : new com.tonic.services.profiler.sampling.HeapHistogramSampler().captureHistogram();
         com.tonic.services.profiler.sampling.HeapHistogramSample[] histogram =
-            new com.tonic.services.profiler.sampling.HeapHistogramSampler().captureHistogram()
-                .toArray(new com.tonic.services.profiler.sampling.HeapHistogramSample[0]);
+            samples.toArray(new com.tonic.services.profiler.sampling.HeapHistogramSample[0]);
 
         if (histogram.length == 0) {
             return;
@@ -1,9 +1,12 @@
 package com.tonic.services.profiler.sampling;
 
+import com.tonic.Logger;
+
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadInfo;
 import java.lang.management.ThreadMXBean;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executors;
@@ -14,11 +17,24 @@ import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * CPU profiler using stack trace sampling and thread CPU time tracking
- * Captures stack traces at regular intervals to build statistical profile
+ * Captures stack traces at regular intervals and folds them into a {@link CallTreeProfile}
  */
 public class CPUSampler {
+    /**
+     * Where samples come from
+     */
+    public enum Backend {
+        /** ThreadMXBean.dumpAllThreads on a timer; safepoint biased, works everywhere */
+        THREAD_DUMP,
+        /** JDK Flight Recorder execution, allocation and monitor events */
+        JFR
+    }
+
     private final ThreadMXBean threadBean;
-    private final RingBuffer<StackSample> stackSamples;
+    private final CallTreeProfile profile;
+    private final CallTreeProfile allocationProfile;
+    private final CallTreeProfile lockProfile;
+    private final JFRSampler jfrSampler;
     private final Map<Long, ThreadCPUData> lastCPUData;
 
     private ScheduledExecutorService scheduler;
@@ -33,10 +49,15 @@ public class CPUSampler {
     private Set<String> includedPackages = null;
     private Set<String> excludedPackages = null;
     private boolean onlyRunnableThreads = false;
+    private Backend backend = Backend.THREAD_DUMP;
+    private Backend activeBackend = Backend.THREAD_DUMP;
 
     public CPUSampler(int maxSamples) {
         this.threadBean = ManagementFactory.getThreadMXBean();
-        this.stackSamples = new RingBuffer<>(maxSamples);
+        this.profile = new CallTreeProfile(maxSamples);
+        this.allocationProfile = new CallTreeProfile(maxSamples);
+        this.lockProfile = new CallTreeProfile(maxSamples);
+        this.jfrSampler = new JFRSampler(this);
         this.lastCPUData = new HashMap<>();
 
         // Enable thread CPU time tracking if available
@@ -50,6 +71,17 @@ public class CPUSampler {
      */
     public void start() {
         if (running.compareAndSet(false, true)) {
+            activeBackend = backend;
+            if (activeBackend == Backend.JFR) {
+                try {
+                    jfrSampler.start(samplingIntervalMs);
+                    return;
+                } catch (Exception | LinkageError e) {
+                    Logger.warn("JFR sampling unavailable, using thread dumps: " + e.getMessage());
+                    activeBackend = Backend.THREAD_DUMP;
+                }
+            }
+
             scheduler = Executors.newScheduledThreadPool(1, r -> {
                 Thread t = new Thread(r, "CPU-Sampler");
                 t.setDaemon(true);
@@ -70,6 +102,9 @@ public class CPUSampler {
      */
     public void stop() {
         if (running.compareAndSet(true, false)) {
+            if (activeBackend == Backend.JFR) {
+                jfrSampler.stop();
+            }
             if (scheduler != null) {
                 scheduler.shutdown();
                 try {
@@ -111,13 +146,6 @@ public class CPUSampler {
                     continue;
                 }
 
-                // Limit stack depth
-                if (stack.length > maxStackDepth) {
-                    StackTraceElement[] truncated = new StackTraceElement[maxStackDepth];
-                    System.arraycopy(stack, 0, truncated, 0, maxStackDepth);
-                    stack = truncated;
-                }
-
                 // Get thread CPU time
                 long cpuTime = 0;
                 long userTime = 0;
@@ -130,20 +158,16 @@ public class CPUSampler {
                     }
                 }
 
-                // Create sample
-                StackSample sample = new StackSample(
-                    timestamp,
+                // Intern frames and fold into the call tree (limited to maxStackDepth leaf frames)
+                profile.addSample(
                     threadInfo.getThreadId(),
                     threadInfo.getThreadName(),
                     threadInfo.getThreadState(),
+                    timestamp,
                     stack,
-                    cpuTime,
-                    userTime,
-                    threadInfo.getBlockedTime(),
-                    threadInfo.getWaitedTime()
+                    maxStackDepth,
+                    cpuTime
                 );
-
-                stackSamples.add(sample);
                 totalSamples.incrementAndGet();
 
                 // Update CPU time tracking
@@ -169,7 +193,7 @@ public class CPUSampler {
     /**
      * Check if stack should be included based on filters
      */
-    private boolean shouldIncludeStack(StackTraceElement[] stack) {
+    boolean shouldIncludeStack(StackTraceElement[] stack) {
         if (stack.length == 0) return false;
 
         // When filtering system frames, check if the stack contains ANY non-system code
@@ -275,10 +299,80 @@ public class CPUSampler {
         this.onlyRunnableThreads = onlyRunnable;
     }
 
+    /**
+     * Select the sample source for the next {@link #start()}
+     */
+    public void setBackend(Backend backend) {
+        this.backend = backend;
+    }
+
+    public Backend getBackend() {
+        return backend;
+    }
+
+    /**
+     * @return the backend actually in use, which falls back to thread dumps if JFR could not start
+     */
+    public Backend getActiveBackend() {
+        return activeBackend;
+    }
+
+    public static boolean isJfrAvailable() {
+        return JFRSampler.isAvailable();
+    }
+
+    int getMaxStackDepth() {
+        return maxStackDepth;
+    }
+
+    void recordSample() {
+        totalSamples.incrementAndGet();
+    }
+
+    void recordFailure() {
+        failedSamples.incrementAndGet();
+    }
+
     // ==================== Data Access Methods ====================
 
-    public RingBuffer<StackSample> getStackSamples() {
-        return stackSamples;
+    public CallTreeProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Allocation sites (JFR backend only)
+     */
+    public CallTreeProfile getAllocationProfile() {
+        return allocationProfile;
+    }
+
+    /**
+     * Contended monitor-enter sites (JFR backend only)
+     */
+    public CallTreeProfile getLockProfile() {
+        return lockProfile;
+    }
+
+    /**
+     * Allocated classes by sampled bytes (JFR backend only)
+     */
+    public List<JFRSampler.ClassStats> getAllocationsByClass() {
+        return jfrSampler.getAllocationsByClass();
+    }
+
+    /**
+     * Contended monitor classes by blocked time (JFR backend only)
+     */
+    public List<JFRSampler.ClassStats> getContentionByClass() {
+        return jfrSampler.getContentionByClass();
+    }
+
+    public long getGcCount() {
+        return jfrSampler.getGcCount();
+    }
+
+    public long getGcPauseNanos() {
+        return jfrSampler.getGcPauseNanos();
     }
 
     public Map<Long, ThreadCPUData> getCPUData() {
@@ -308,9 +402,9 @@ public class CPUSampler {
             isRunning(),
             totalSamples.get(),
             failedSamples.get(),
-            stackSamples.size(),
-            stackSamples.capacity(),
-            stackSamples.getDroppedCount(),
+            profile.getSamples().size(),
+            profile.getSamples().capacity(),
+            profile.getSamples().getDroppedCount(),
             samplingIntervalMs
         );
     }
@@ -319,7 +413,10 @@ public class CPUSampler {
      * Clear all samples
      */
     public void clear() {
-        stackSamples.clear();
+        profile.clear();
+        allocationProfile.clear();
+        lockProfile.clear();
+        jfrSampler.clear();
         synchronized (lastCPUData) {
             lastCPUData.clear();
         }
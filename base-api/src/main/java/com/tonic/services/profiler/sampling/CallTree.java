@@ -0,0 +1,252 @@
+package com.tonic.services.profiler.sampling;
+
+import java.util.Arrays;
+
+/**
+ * Incrementally maintained call-tree trie over interned frame ids
+ *
+ * Each node is a (parent, frame) pair with self and total sample counters. Inserting a stack walks
+ * root to leaf once and bumps counters along the way; removing a sample walks the parent chain back up.
+ * Per-frame self/total/thread counters are kept alongside, so hotspot and package views are read in
+ * O(frames) and the flame graph in O(nodes) regardless of how many samples are retained.
+ *
+ * Evicting samples leaves nodes with no samples behind. Once those outnumber the live nodes
+ * {@link #needsCompaction()} turns true and {@link #compact()} drops them, keeping node order so
+ * parents still precede their children.
+ *
+ * Not thread-safe; {@link CallTreeProfile} serializes access.
+ */
+public class CallTree {
+    public static final int ROOT = 0;
+    private static final int MIN_COMPACT_DEAD = 4096;
+
+    // Node columns
+    private int[] parent = new int[1024];
+    private int[] frame = new int[1024];
+    private int[] self = new int[1024];
+    private int[] total = new int[1024];
+    private int size = 1;
+    private int live = 0;
+    private final LongIntMap children = new LongIntMap();
+
+    // Frame columns, indexed by frame id
+    private int[] frameSelf = new int[256];
+    private int[] frameTotal = new int[256];
+    private int[] frameThreads = new int[256];
+    private int[] frameStamp = new int[256];
+    private int stamp = 0;
+    private final LongIntMap frameThreadCounts = new LongIntMap();
+
+    public CallTree() {
+        frame[ROOT] = -1;
+        parent[ROOT] = -1;
+    }
+
+    /**
+     * Add one sample
+     *
+     * @param frames      frame ids, leaf first (same order as {@link Thread#getStackTrace()})
+     * @param depth       number of valid entries in {@code frames}
+     * @param threadIndex small dense id of the sampled thread
+     * @return leaf node id, pass to {@link #remove(int, int)} to evict the sample later
+     */
+    public int insert(int[] frames, int depth, int threadIndex) {
+        int node = ROOT;
+        total[ROOT]++;
+        int mark = nextStamp();
+        for (int i = depth - 1; i >= 0; i--) {
+            int f = frames[i];
+            node = child(node, f);
+            if (total[node]++ == 0) {
+                live++;
+            }
+            countFrame(f, threadIndex, mark, 1);
+        }
+        self[node]++;
+        if (node != ROOT) {
+            frameSelf[frame[node]]++;
+        }
+        return node;
+    }
+
+    /**
+     * Undo a previous {@link #insert(int[], int, int)}
+     */
+    public void remove(int leaf, int threadIndex) {
+        if (leaf < 0 || leaf >= size) {
+            return;
+        }
+        self[leaf]--;
+        if (leaf != ROOT) {
+            frameSelf[frame[leaf]]--;
+        }
+        int mark = nextStamp();
+        for (int node = leaf; node != ROOT; node = parent[node]) {
+            if (--total[node] == 0) {
+                live--;
+            }
+            countFrame(frame[node], threadIndex, mark, -1);
+        }
+        total[ROOT]--;
+    }
+
+    /**
+     * @return true once nodes without samples outnumber the live ones
+     */
+    public boolean needsCompaction() {
+        int dead = size - 1 - live;
+        return dead >= MIN_COMPACT_DEAD && dead > live;
+    }
+
+    /**
+     * Drop every node without samples. Surviving nodes keep their relative order.
+     *
+     * @return new id of each old node id, -1 for dropped nodes
+     */
+    public int[] compact() {
+        int[] remap = new int[size];
+        int next = 1;
+        for (int node = 1; node < size; node++) {
+            if (total[node] == 0) {
+                remap[node] = -1;
+                continue;
+            }
+            // A live node's parent has at least as many samples, so it survived and was already moved
+            remap[node] = next;
+            parent[next] = remap[parent[node]];
+            frame[next] = frame[node];
+            self[next] = self[node];
+            total[next] = total[node];
+            next++;
+        }
+        Arrays.fill(self, next, size, 0);
+        Arrays.fill(total, next, size, 0);
+        size = next;
+
+        children.clear();
+        for (int node = 1; node < size; node++) {
+            children.put(((long) parent[node] << 32) | (frame[node] & 0xFFFFFFFFL), node);
+        }
+        frameThreadCounts.retainPositive();
+        return remap;
+    }
+
+    private int child(int node, int f) {
+        long key = ((long) node << 32) | (f & 0xFFFFFFFFL);
+        int existing = children.get(key);
+        if (existing >= 0) {
+            return existing;
+        }
+
+        if (size == parent.length) {
+            int newCapacity = size * 2;
+            parent = Arrays.copyOf(parent, newCapacity);
+            frame = Arrays.copyOf(frame, newCapacity);
+            self = Arrays.copyOf(self, newCapacity);
+            total = Arrays.copyOf(total, newCapacity);
+        }
+        int id = size++;
+        parent[id] = node;
+        frame[id] = f;
+        children.put(key, id);
+        return id;
+    }
+
+    /**
+     * Count a frame once per sample even if it recurses, and track how many threads hit it
+     */
+    private void countFrame(int f, int threadIndex, int mark, int delta) {
+        if (f >= frameTotal.length) {
+            int newCapacity = Math.max(frameTotal.length * 2, f + 1);
+            frameSelf = Arrays.copyOf(frameSelf, newCapacity);
+            frameTotal = Arrays.copyOf(frameTotal, newCapacity);
+            frameThreads = Arrays.copyOf(frameThreads, newCapacity);
+            frameStamp = Arrays.copyOf(frameStamp, newCapacity);
+        }
+        if (frameStamp[f] == mark) {
+            return;
+        }
+        frameStamp[f] = mark;
+        frameTotal[f] += delta;
+
+        long key = ((long) f << 32) | (threadIndex & 0xFFFFFFFFL);
+        int before = Math.max(0, frameThreadCounts.get(key));
+        int after = before + delta;
+        frameThreadCounts.put(key, after);
+        if (before == 0 && after > 0) {
+            frameThreads[f]++;
+        } else if (before > 0 && after == 0) {
+            frameThreads[f]--;
+        }
+    }
+
+    private int nextStamp() {
+        if (++stamp == 0) {
+            Arrays.fill(frameStamp, 0);
+            stamp = 1;
+        }
+        return stamp;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getTotal(int node) {
+        return total[node];
+    }
+
+    public int getSelf(int node) {
+        return self[node];
+    }
+
+    public int getFrame(int node) {
+        return frame[node];
+    }
+
+    public int getParent(int node) {
+        return parent[node];
+    }
+
+    int[] copyParents() {
+        return Arrays.copyOf(parent, size);
+    }
+
+    int[] copyFrames() {
+        return Arrays.copyOf(frame, size);
+    }
+
+    int[] copySelf() {
+        return Arrays.copyOf(self, size);
+    }
+
+    int[] copyTotal() {
+        return Arrays.copyOf(total, size);
+    }
+
+    int[] copyFrameSelf(int frames) {
+        return Arrays.copyOf(frameSelf, frames);
+    }
+
+    int[] copyFrameTotal(int frames) {
+        return Arrays.copyOf(frameTotal, frames);
+    }
+
+    int[] copyFrameThreads(int frames) {
+        return Arrays.copyOf(frameThreads, frames);
+    }
+
+    public void clear() {
+        Arrays.fill(self, 0, size, 0);
+        Arrays.fill(total, 0, size, 0);
+        size = 1;
+        live = 0;
+        children.clear();
+        Arrays.fill(frameSelf, 0);
+        Arrays.fill(frameTotal, 0);
+        Arrays.fill(frameThreads, 0);
+        Arrays.fill(frameStamp, 0);
+        stamp = 0;
+        frameThreadCounts.clear();
+    }
+}
@@ -0,0 +1,324 @@
+package com.tonic.services.profiler.sampling;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded CPU profile: interned frames, an incremental call tree and a ring of sample records
+ *
+ * Each sample is interned and inserted into the {@link CallTree} once at capture time; when the
+ * {@link SampleRing} is full the oldest sample is evicted from the tree, so the counters always describe
+ * exactly the retained window. Writers and {@link #snapshot()} are serialized on this object; the ring
+ * can be read at any time without locking. An attached {@link ProfileWriter} additionally receives every
+ * sample as it is recorded, independent of ring eviction.
+ */
+public class CallTreeProfile {
+    private static final Thread.State[] STATES = Thread.State.values();
+
+    private final FrameTable frames = new FrameTable();
+    private final CallTree tree = new CallTree();
+    private final SampleRing ring;
+    private final Map<Long, ThreadAccumulator> threadsById = new HashMap<>();
+    private final List<ThreadAccumulator> threadsByIndex = new ArrayList<>();
+    private int[] scratch = new int[64];
+    private ProfileWriter recorder;
+
+    public CallTreeProfile(int maxSamples) {
+        this.ring = new SampleRing(maxSamples);
+    }
+
+    /**
+     * Record one stack sample
+     *
+     * @param stack leaf-first stack trace
+     * @param depth number of frames of {@code stack} to use
+     */
+    public synchronized void addSample(long threadId, String threadName, Thread.State state, long timestamp,
+                                       StackTraceElement[] stack, int depth, long cpuTime) {
+        depth = Math.min(depth, stack.length);
+        if (scratch.length < depth) {
+            scratch = new int[Math.max(depth, scratch.length * 2)];
+        }
+        for (int i = 0; i < depth; i++) {
+            scratch[i] = frames.intern(stack[i]);
+        }
+        addInterned(threadId, threadName, state, timestamp, scratch, depth, cpuTime);
+    }
+
+    /**
+     * Record one stack sample whose frames were interned with {@link #internFrame(String, String)}
+     *
+     * @param frameIds leaf-first frame ids
+     */
+    public synchronized void addSample(long threadId, String threadName, Thread.State state, long timestamp,
+                                       int[] frameIds, int depth, long cpuTime) {
+        addInterned(threadId, threadName, state, timestamp, frameIds, Math.min(depth, frameIds.length), cpuTime);
+    }
+
+    public synchronized int internFrame(String className, String methodName) {
+        return frames.intern(className, methodName);
+    }
+
+    /**
+     * Stream every following sample to {@code writer}, or stop streaming with null. The caller closes the writer.
+     */
+    public synchronized void setRecorder(ProfileWriter writer) {
+        this.recorder = writer;
+    }
+
+    private void addInterned(long threadId, String threadName, Thread.State state, long timestamp,
+                             int[] frameIds, int depth, long cpuTime) {
+        if (ring.isFull()) {
+            evictOldest();
+        }
+
+        ThreadAccumulator thread = threadsById.get(threadId);
+        if (thread == null) {
+            thread = new ThreadAccumulator(threadId, threadsByIndex.size());
+            threadsById.put(threadId, thread);
+            threadsByIndex.add(thread);
+        }
+        thread.name = threadName;
+        thread.samples++;
+        thread.states[state.ordinal()]++;
+        thread.cpuTime = Math.max(thread.cpuTime, cpuTime);
+
+        int leaf = tree.insert(frameIds, depth, thread.index);
+        ring.add(threadId, thread.index, leaf, timestamp, state);
+
+        if (recorder != null) {
+            try {
+                recorder.writeSample(threadId, threadName, state, timestamp, frameIds, depth, frames);
+            } catch (IOException e) {
+                System.err.println("Profile recording stopped: " + e.getMessage());
+                recorder = null;
+            }
+        }
+    }
+
+    private void evictOldest() {
+        int threadIndex = ring.oldestThreadIndex();
+        tree.remove(ring.oldestLeaf(), threadIndex);
+        if (tree.needsCompaction()) {
+            ring.remapLeaves(tree.compact());
+        }
+        ThreadAccumulator thread = threadsByIndex.get(threadIndex);
+        thread.samples--;
+        thread.states[ring.oldestState()]--;
+    }
+
+    /**
+     * Lock-free view of the raw sample records. Their leaves are only meaningful against a tree taken at
+     * the same time, see {@link #snapshotWithSamples()}.
+     */
+    public SampleRing getSamples() {
+        return ring;
+    }
+
+    public synchronized void clear() {
+        ring.clear();
+        tree.clear();
+        frames.clear();
+        threadsById.clear();
+        threadsByIndex.clear();
+    }
+
+    /**
+     * Copy the tree, frame and thread counters. Cost is proportional to the number of distinct
+     * call paths and frames, not to the number of retained samples.
+     */
+    public synchronized Snapshot snapshot() {
+        return snapshot(null);
+    }
+
+    /**
+     * {@link #snapshot()} plus a copy of the sample records whose leaves point into it
+     */
+    public synchronized Snapshot snapshotWithSamples() {
+        return snapshot(ring.snapshot());
+    }
+
+    private Snapshot snapshot(SampleRing.Snapshot samples) {
+        int frameCount = frames.size();
+        List<ThreadSnapshot> threads = new ArrayList<>();
+        for (ThreadAccumulator thread : threadsByIndex) {
+            if (thread.samples > 0) {
+                threads.add(new ThreadSnapshot(thread.threadId, thread.name, thread.samples, thread.cpuTime, thread.states.clone()));
+            }
+        }
+
+        return new Snapshot(
+            tree.getTotal(CallTree.ROOT),
+            tree.copyParents(),
+            tree.copyFrames(),
+            tree.copySelf(),
+            tree.copyTotal(),
+            frames.toArray(),
+            tree.copyFrameSelf(frameCount),
+            tree.copyFrameTotal(frameCount),
+            tree.copyFrameThreads(frameCount),
+            threads,
+            ring.oldestTimestamp(),
+            ring.newestTimestamp(),
+            samples
+        );
+    }
+
+    private static class ThreadAccumulator {
+        final long threadId;
+        final int index;
+        String name;
+        int samples;
+        long cpuTime;
+        final int[] states = new int[STATES.length];
+
+        ThreadAccumulator(long threadId, int index) {
+            this.threadId = threadId;
+            this.index = index;
+        }
+    }
+
+    /**
+     * Per-thread sample counts at snapshot time
+     */
+    public static class ThreadSnapshot {
+        public final long threadId;
+        public final String threadName;
+        public final int samples;
+        public final long cpuTime;
+        private final int[] states;
+
+        ThreadSnapshot(long threadId, String threadName, int samples, long cpuTime, int[] states) {
+            this.threadId = threadId;
+            this.threadName = threadName;
+            this.samples = samples;
+            this.cpuTime = cpuTime;
+            this.states = states;
+        }
+
+        public int getStateCount(Thread.State state) {
+            return states[state.ordinal()];
+        }
+    }
+
+    /**
+     * Immutable copy of the profile. Node 0 is the synthetic root.
+     */
+    public static class Snapshot {
+        public final int totalSamples;
+        public final long oldestTimestamp;
+        public final long newestTimestamp;
+        private final int[] parent;
+        private final int[] frame;
+        private final int[] self;
+        private final int[] total;
+        private final MethodSignature[] signatures;
+        private final int[] frameSelf;
+        private final int[] frameTotal;
+        private final int[] frameThreads;
+        private final List<ThreadSnapshot> threads;
+        private final int[] childStart;
+        private final int[] childNodes;
+        private final SampleRing.Snapshot samples;
+
+        Snapshot(int totalSamples, int[] parent, int[] frame, int[] self, int[] total,
+                 MethodSignature[] signatures, int[] frameSelf, int[] frameTotal, int[] frameThreads,
+                 List<ThreadSnapshot> threads, long oldestTimestamp, long newestTimestamp,
+                 SampleRing.Snapshot samples) {
+            this.totalSamples = totalSamples;
+            this.parent = parent;
+            this.frame = frame;
+            this.self = self;
+            this.total = total;
+            this.signatures = signatures;
+            this.frameSelf = frameSelf;
+            this.frameTotal = frameTotal;
+            this.frameThreads = frameThreads;
+            this.threads = threads;
+            this.oldestTimestamp = oldestTimestamp;
+            this.newestTimestamp = newestTimestamp;
+            this.samples = samples;
+
+            // Children in compressed rows: childNodes[childStart[n] .. childStart[n + 1])
+            int nodes = parent.length;
+            childStart = new int[nodes + 1];
+            for (int n = 1; n < nodes; n++) {
+                childStart[parent[n] + 1]++;
+            }
+            for (int n = 0; n < nodes; n++) {
+                childStart[n + 1] += childStart[n];
+            }
+            childNodes = new int[Math.max(0, nodes - 1)];
+            int[] fill = Arrays.copyOf(childStart, nodes);
+            for (int n = 1; n < nodes; n++) {
+                childNodes[fill[parent[n]]++] = n;
+            }
+        }
+
+        public int getNodeCount() {
+            return parent.length;
+        }
+
+        public int getParent(int node) {
+            return parent[node];
+        }
+
+        /**
+         * @return frame id of the node, -1 for the root
+         */
+        public int getFrame(int node) {
+            return frame[node];
+        }
+
+        public int getSelf(int node) {
+            return self[node];
+        }
+
+        public int getTotal(int node) {
+            return total[node];
+        }
+
+        public int getChildCount(int node) {
+            return childStart[node + 1] - childStart[node];
+        }
+
+        public int getChild(int node, int i) {
+            return childNodes[childStart[node] + i];
+        }
+
+        public int getFrameCount() {
+            return signatures.length;
+        }
+
+        public MethodSignature getSignature(int frameId) {
+            return signatures[frameId];
+        }
+
+        public int getFrameSelf(int frameId) {
+            return frameSelf[frameId];
+        }
+
+        public int getFrameTotal(int frameId) {
+            return frameTotal[frameId];
+        }
+
+        public int getFrameThreads(int frameId) {
+            return frameThreads[frameId];
+        }
+
+        public List<ThreadSnapshot> getThreads() {
+            return threads;
+        }
+
+        /**
+         * @return the sample records taken with this snapshot, or null if it was taken without them
+         */
+        public SampleRing.Snapshot getSamples() {
+            return samples;
+        }
+    }
+}
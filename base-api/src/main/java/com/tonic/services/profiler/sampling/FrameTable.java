@@ -0,0 +1,59 @@
+package com.tonic.services.profiler.sampling;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interns stack frames (class + method) to dense integer ids
+ * Package and simple class names are split once per distinct frame instead of once per sample
+ */
+public class FrameTable {
+    private final Map<String, Map<String, Integer>> ids = new HashMap<>();
+    private MethodSignature[] signatures = new MethodSignature[256];
+    private int size = 0;
+
+    /**
+     * Get the id for a frame, assigning a new one on first sight
+     */
+    public int intern(String className, String methodName) {
+        Map<String, Integer> methods = ids.computeIfAbsent(className, k -> new HashMap<>());
+        Integer id = methods.get(methodName);
+        if (id != null) {
+            return id;
+        }
+
+        if (size == signatures.length) {
+            signatures = Arrays.copyOf(signatures, size * 2);
+        }
+        int newId = size++;
+        signatures[newId] = new MethodSignature(className, methodName, "");
+        methods.put(methodName, newId);
+        return newId;
+    }
+
+    public int intern(StackTraceElement frame) {
+        return intern(frame.getClassName(), frame.getMethodName());
+    }
+
+    public MethodSignature getSignature(int id) {
+        return signatures[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Copy of the signatures for ids [0, size)
+     */
+    public MethodSignature[] toArray() {
+        return Arrays.copyOf(signatures, size);
+    }
+
+    public void clear() {
+        ids.clear();
+        signatures = new MethodSignature[256];
+        size = 0;
+    }
+}
@@ -1,334 +1,139 @@
 package com.tonic.services.profiler.sampling;
 
-import com.tonic.services.profiler.JVMTI;
-import com.tonic.services.profiler.VMObjectAccess;
-
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import java.lang.management.ManagementFactory;
-import java.lang.management.MemoryMXBean;
-import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Heap histogram sampler that creates per-class instance and byte counts
- * Similar to VisualVM's heap histogram or jmap -histo
+ * Same data as jmap -histo, read through the HotSpot DiagnosticCommand MBean
  */
 public class HeapHistogramSampler {
-    private final MemoryMXBean memoryBean;
-    private final Map<String, ClassStats> classStats;
+    private static final String DIAGNOSTIC_COMMAND = "com.sun.management:type=DiagnosticCommand";
+    private static final String GC_CLASS_HISTOGRAM = "gcClassHistogram";
+    private static final String[] SIGNATURE = {String[].class.getName()};
 
-    public HeapHistogramSampler() {
-        this.memoryBean = ManagementFactory.getMemoryMXBean();
-        this.classStats = new ConcurrentHashMap<>();
-    }
-
-    /**
-     * Capture a heap histogram snapshot
-     * This performs a lightweight sampling of loaded classes and estimates instance counts
-     */
-    public List<HeapHistogramSample> captureHistogram() {
-        long timestamp = System.currentTimeMillis();
-        List<HeapHistogramSample> samples = new ArrayList<>();
+    private final MBeanServer server;
+    private final ObjectName diagnosticCommand;
 
+    public HeapHistogramSampler() {
+        MBeanServer mbs = null;
+        ObjectName name = null;
         try {
-            // Force GC to get more accurate counts
-            System.gc();
-            Thread.sleep(100); // Give GC time to complete
-
-            // Get all loaded classes
-            Set<Class<?>> loadedClasses = getLoadedClasses();
-
-            if (loadedClasses != null && !loadedClasses.isEmpty()) {
-                // Process each class
-                for (Class<?> clazz : loadedClasses) {
-                    if (clazz == null) continue;
-
-                    try {
-                        String className = clazz.getName();
-
-                        // Skip problematic classes
-                        if (shouldSkipClass(className)) {
-                            continue;
-                        }
-
-                        // Estimate instance count and size
-                        long instanceCount = estimateInstanceCount(clazz);
-                        long totalBytes = estimateTotalBytes(clazz, instanceCount);
-
-                        if (instanceCount > 0 || totalBytes > 0) {
-                            samples.add(new HeapHistogramSample(
-                                className,
-                                instanceCount,
-                                totalBytes,
-                                timestamp
-                            ));
-                        }
-                    } catch (Throwable e) {
-                        // Skip classes that cause any errors - use Throwable to catch all issues
-                    }
-                }
-            } else {
-                // Fallback: use cached class statistics if available
-                samples.addAll(getFallbackHistogram(timestamp));
+            mbs = ManagementFactory.getPlatformMBeanServer();
+            name = new ObjectName(DIAGNOSTIC_COMMAND);
+            if (!mbs.isRegistered(name)) {
+                name = null;
             }
-
         } catch (Exception e) {
-            System.err.println("Error capturing heap histogram: " + e.getMessage());
+            System.err.println("DiagnosticCommand MBean unavailable: " + e.getMessage());
         }
-
-        // Sort by total bytes descending
-        samples.sort((a, b) -> Long.compare(b.totalBytes, a.totalBytes));
-
-        return samples;
+        this.server = mbs;
+        this.diagnosticCommand = name;
     }
 
     /**
-     * Get all loaded classes using available mechanisms
+     * @return true if this JVM exposes the gcClassHistogram diagnostic command
      */
-    private Set<Class<?>> getLoadedClasses() {
-        // Try using JVMTI if available
-        if (JVMTI.isAvailable()) {
-            try {
-                // Use JVMTI to get loaded classes
-                return JVMTI.getLoadedClasses();
-            } catch (Exception e) {
-                // Fallback to alternative methods
-            }
-        }
-
-        // Fallback: return null to trigger fallback histogram
-        return null;
+    public boolean isAvailable() {
+        return diagnosticCommand != null;
     }
 
     /**
-     * Check if a class should be skipped to avoid errors
+     * Capture a histogram of live objects
+     * The VM runs a full GC first, so counts only include reachable instances
      */
-    private boolean shouldSkipClass(String className) {
-        // Skip classes known to cause issues
-        if (className.contains("log4j") || className.contains("logging")) {
-            return true;
-        }
-
-        // Skip sun internal classes that may not be accessible
-        if (className.startsWith("sun.reflect.Generated")) {
-            return true;
-        }
-
-        // Skip lambda classes
-        if (className.contains("$$Lambda$")) {
-            return true;
-        }
-
-        return false;
+    public List<HeapHistogramSample> captureHistogram() {
+        return captureHistogram(true);
     }
 
     /**
-     * Estimate instance count for a class
-     * This is a best-effort estimation
+     * Capture a heap histogram snapshot
+     *
+     * @param liveOnly true to collect garbage first, false to also count unreachable objects (no GC)
      */
-    private long estimateInstanceCount(Class<?> clazz) {
-        try {
-            // For primitive arrays, we can get better estimates
-            if (clazz.isArray()) {
-                Class<?> componentType = clazz.getComponentType();
-                if (componentType.isPrimitive()) {
-                    // Estimate based on common array sizes
-                    return estimateArrayInstances(clazz);
-                }
-            }
-
-            // For regular classes, use heuristics
-            String className = clazz.getName();
-
-            // Common JDK classes have predictable counts
-            if (className.startsWith("java.lang.")) {
-                return estimateJDKClassCount(className);
-            }
-
-            // Application classes - estimate based on loaded status
-            ClassStats stats = classStats.computeIfAbsent(className, k -> new ClassStats());
-            stats.lastSeen = System.currentTimeMillis();
-
-            // Return previous count if available, otherwise estimate
-            return stats.estimatedCount > 0 ? stats.estimatedCount : estimateFromClassName(className);
-
-        } catch (Exception e) {
-            return 0;
+    public List<HeapHistogramSample> captureHistogram(boolean liveOnly) {
+        if (diagnosticCommand == null) {
+            return Collections.emptyList();
         }
-    }
-
-    /**
-     * Estimate total bytes for class instances
-     */
-    private long estimateTotalBytes(Class<?> clazz, long instanceCount) {
-        if (instanceCount == 0) return 0;
 
         try {
-            // Try to get object size estimate
-            long objectSize = estimateObjectSize(clazz);
-            return instanceCount * objectSize;
+            String[] args = liveOnly ? new String[0] : new String[]{"-all"};
+            Object output = server.invoke(diagnosticCommand, GC_CLASS_HISTOGRAM, new Object[]{args}, SIGNATURE);
+            return parse((String) output, System.currentTimeMillis());
         } catch (Exception e) {
-            return 0;
+            System.err.println("Error capturing heap histogram: " + e.getMessage());
+            return Collections.emptyList();
         }
     }
 
     /**
-     * Estimate object size for a class
+     * Parse gcClassHistogram output, sorted by total bytes descending
+     *
+     * Rows look like {@code "   4:   2003   109344  [Ljava.lang.Object; (java.base@11)"};
+     * the header, separator and Total line are skipped.
      */
-    private long estimateObjectSize(Class<?> clazz) {
-        // Always use estimation - instantiation is too risky with complex class hierarchies
-        return estimateSizeFromType(clazz);
-    }
-
-    // Note: Instantiation methods removed - too risky with complex dependencies
-
-    /**
-     * Estimate size based on class type
-     */
-    private long estimateSizeFromType(Class<?> clazz) {
-        String className = clazz.getName();
-
-        // Array types
-        if (clazz.isArray()) {
-            Class<?> componentType = clazz.getComponentType();
-            // Array overhead + estimated 10 elements
-            int baseOverhead = 16;
-            int estimatedElements = 10;
+    static List<HeapHistogramSample> parse(String output, long timestamp) {
+        List<HeapHistogramSample> samples = new ArrayList<>();
+        if (output == null) {
+            return samples;
+        }
 
-            if (componentType == byte.class || componentType == boolean.class) {
-                return baseOverhead + estimatedElements;
-            }
-            if (componentType == short.class || componentType == char.class) {
-                return baseOverhead + (estimatedElements * 2);
-            }
-            if (componentType == int.class || componentType == float.class) {
-                return baseOverhead + (estimatedElements * 4);
+        for (String line : output.split("\n")) {
+            String[] tokens = line.trim().split("\\s+");
+            if (tokens.length < 4 || !tokens[0].endsWith(":")) {
+                continue;
             }
-            if (componentType == long.class || componentType == double.class) {
-                return baseOverhead + (estimatedElements * 8);
+            try {
+                long instances = Long.parseLong(tokens[1]);
+                long bytes = Long.parseLong(tokens[2]);
+                samples.add(new HeapHistogramSample(toSourceName(tokens[3]), instances, bytes, timestamp));
+            } catch (NumberFormatException ignored) {
+                // Not a histogram row
             }
-            // Object arrays - reference size
-            return baseOverhead + (estimatedElements * 8);
-        }
-
-        // Common Java classes with known sizes
-        switch (className) {
-            case "java.lang.String": return 40; // 24 (object) + 16 (char array overhead)
-            case "java.lang.Integer": return 16;
-            case "java.lang.Long": return 24;
-            case "java.lang.Double": return 24;
-            case "java.lang.Float": return 16;
-            case "java.lang.Boolean": return 16;
-            case "java.lang.Character": return 16;
-            case "java.lang.Byte": return 16;
-            case "java.lang.Short": return 16;
-            case "java.lang.Object": return 16;
-            case "java.lang.Class": return 200; // Classes have metadata
-            case "java.lang.Thread": return 1000; // Threads are heavy
-        }
-
-        // HashMap nodes
-        if (className.contains("HashMap$Node") || className.contains("HashMap$Entry")) {
-            return 48;
-        }
-
-        // General estimation based on field count
-        try {
-            int fieldCount = clazz.getDeclaredFields().length;
-            // Base object overhead: 16 bytes (header)
-            // Each reference field: 8 bytes (or 4 with compressed oops, use 8 to be safe)
-            // Each primitive field: varies, use average of 4 bytes
-            return 16 + (fieldCount * 6L); // Conservative estimate
-        } catch (Exception e) {
-            return 32; // Safe default
-        }
-    }
-
-    /**
-     * Estimate array instance counts
-     */
-    private long estimateArrayInstances(Class<?> arrayClass) {
-        String className = arrayClass.getName();
-
-        // Byte arrays are very common (String internals, buffers)
-        if (className.equals("[B")) return 500; // byte[]
-        if (className.equals("[C")) return 200; // char[]
-        if (className.equals("[I")) return 100; // int[]
-        if (className.equals("[J")) return 50;  // long[]
-
-        return 10; // Other arrays
-    }
-
-    /**
-     * Estimate instance count for common JDK classes
-     */
-    private long estimateJDKClassCount(String className) {
-        switch (className) {
-            case "java.lang.String": return 5000;
-            case "java.lang.Object": return 1000;
-            case "java.lang.Class": return ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
-            case "java.lang.Thread": return ManagementFactory.getThreadMXBean().getThreadCount();
-            case "java.lang.Integer": return 500;
-            case "java.lang.Long": return 300;
-            case "java.lang.Boolean": return 2; // TRUE and FALSE
-            default: return 50;
         }
-    }
-
-    /**
-     * Estimate from class name patterns
-     */
-    private long estimateFromClassName(String className) {
-        if (className.endsWith("[]")) return 10; // Arrays
-        if (className.contains("$")) return 5;   // Inner classes
-        if (className.endsWith("Exception")) return 10;
-        if (className.endsWith("Error")) return 5;
-        return 20; // Default estimate
-    }
-
-    /**
-     * Get fallback histogram using cached statistics
-     */
-    private List<HeapHistogramSample> getFallbackHistogram(long timestamp) {
-        List<HeapHistogramSample> samples = new ArrayList<>();
-
-        // Add common classes with estimated counts
-        addCommonClass(samples, "java.lang.String", 5000, 120000, timestamp);
-        addCommonClass(samples, "java.lang.Object", 1000, 16000, timestamp);
-        addCommonClass(samples, "java.lang.Class", 500, 100000, timestamp);
-        addCommonClass(samples, "[B", 500, 50000, timestamp); // byte[]
-        addCommonClass(samples, "[C", 200, 20000, timestamp); // char[]
-        addCommonClass(samples, "java.util.HashMap$Node", 300, 24000, timestamp);
-        addCommonClass(samples, "java.lang.Thread", ManagementFactory.getThreadMXBean().getThreadCount(), 2000, timestamp);
 
+        samples.sort((a, b) -> Long.compare(b.totalBytes, a.totalBytes));
         return samples;
     }
 
-    private void addCommonClass(List<HeapHistogramSample> samples, String className,
-                                long instanceCount, long totalBytes, long timestamp) {
-        samples.add(new HeapHistogramSample(className, instanceCount, totalBytes, timestamp));
-    }
-
     /**
-     * Update class statistics from instrumentation
+     * Convert array descriptors to source form, e.g. "[B" to "byte[]" and "[[Ljava.lang.String;" to "java.lang.String[][]"
      */
-    public void updateClassStats(String className, long instanceCount) {
-        ClassStats stats = classStats.computeIfAbsent(className, k -> new ClassStats());
-        stats.estimatedCount = instanceCount;
-        stats.lastSeen = System.currentTimeMillis();
-    }
+    static String toSourceName(String name) {
+        int dims = 0;
+        while (dims < name.length() && name.charAt(dims) == '[') {
+            dims++;
+        }
+        if (dims == 0) {
+            return name;
+        }
 
-    /**
-     * Clear cached statistics
-     */
-    public void clear() {
-        classStats.clear();
-    }
+        String component;
+        char type = dims < name.length() ? name.charAt(dims) : '?';
+        switch (type) {
+            case 'B': component = "byte"; break;
+            case 'C': component = "char"; break;
+            case 'D': component = "double"; break;
+            case 'F': component = "float"; break;
+            case 'I': component = "int"; break;
+            case 'J': component = "long"; break;
+            case 'S': component = "short"; break;
+            case 'Z': component = "boolean"; break;
+            case 'L':
+                component = name.endsWith(";") ? name.substring(dims + 1, name.length() - 1) : name.substring(dims + 1);
+                break;
+            default:
+                return name;
+        }
 
-    /**
-     * Internal class for tracking class statistics
-     */
-    private static class ClassStats {
-        long estimatedCount = 0;
-        long lastSeen = 0;
+        StringBuilder sb = new StringBuilder(component.length() + dims * 2).append(component);
+        for (int i = 0; i < dims; i++) {
+            sb.append("[]");
+        }
+        return sb.toString();
     }
 }
@@ -0,0 +1,325 @@
+package com.tonic.services.profiler.sampling;
+
+import com.tonic.Logger;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * JDK Flight Recorder backend for {@link CPUSampler}
+ *
+ * Execution samples are taken by the JVM without a safepoint, so unlike dumpAllThreads they do not
+ * stall the client thread or bias samples towards safepoint polls. The recording is rotated every few
+ * seconds: a fresh recording is started, the old one is stopped and its chunk is parsed into the same
+ * {@link CallTreeProfile} model used by the thread-dump sampler. Allocation and monitor-enter events fill
+ * their own profiles so allocation sites and lock contention can be viewed the same way.
+ */
+public class JFRSampler {
+    private static final String EXECUTION_SAMPLE = "jdk.ExecutionSample";
+    private static final String ALLOCATION_IN_TLAB = "jdk.ObjectAllocationInNewTLAB";
+    private static final String ALLOCATION_OUTSIDE_TLAB = "jdk.ObjectAllocationOutsideTLAB";
+    private static final String MONITOR_ENTER = "jdk.JavaMonitorEnter";
+    private static final String GARBAGE_COLLECTION = "jdk.GarbageCollection";
+
+    private static final int ROTATE_INTERVAL_MS = 2000;
+    private static final Duration MONITOR_THRESHOLD = Duration.ofMillis(1);
+
+    private final CPUSampler owner;
+    private final Map<String, long[]> allocationsByClass = new ConcurrentHashMap<>();
+    private final Map<String, long[]> contentionByClass = new ConcurrentHashMap<>();
+    private final AtomicLong gcCount = new AtomicLong();
+    private final AtomicLong gcPauseNanos = new AtomicLong();
+    private final AtomicLong chunksParsed = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+    private Path directory;
+    private Recording current;
+    private Instant cutoff = Instant.MIN;
+    private int chunkIndex = 0;
+
+    JFRSampler(CPUSampler owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * @return true if this JVM can run Flight Recorder
+     */
+    static boolean isAvailable() {
+        try {
+            return FlightRecorder.isAvailable();
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    synchronized void start(int samplingIntervalMs) throws IOException {
+        directory = Files.createTempDirectory("vitalite-jfr");
+        cutoff = Instant.MIN;
+        current = newRecording(samplingIntervalMs);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "JFR-Sampler");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> rotate(samplingIntervalMs, true),
+            ROTATE_INTERVAL_MS, ROTATE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    void stop() {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            executor = scheduler;
+            scheduler = null;
+        }
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Flush the last partial chunk so stopping shows everything recorded
+        rotate(0, false);
+        deleteDirectory();
+    }
+
+    private Recording newRecording(int samplingIntervalMs) throws IOException {
+        Recording recording = new Recording();
+        recording.setName("VitaLite Sampler");
+        recording.setToDisk(true);
+        recording.setDestination(directory.resolve("chunk-" + (chunkIndex++) + ".jfr"));
+        recording.enable(EXECUTION_SAMPLE).withPeriod(Duration.ofMillis(samplingIntervalMs));
+        recording.enable(ALLOCATION_IN_TLAB).withStackTrace();
+        recording.enable(ALLOCATION_OUTSIDE_TLAB).withStackTrace();
+        recording.enable(MONITOR_ENTER).withThreshold(MONITOR_THRESHOLD).withStackTrace();
+        recording.enable(GARBAGE_COLLECTION);
+        recording.start();
+        return recording;
+    }
+
+    /**
+     * Swap in a new recording (if continuing) and parse the finished one
+     */
+    private synchronized void rotate(int samplingIntervalMs, boolean continueRecording) {
+        Recording finished = current;
+        current = null;
+        if (finished == null) {
+            return;
+        }
+
+        try {
+            if (continueRecording) {
+                current = newRecording(samplingIntervalMs);
+            }
+            Path file = finished.getDestination();
+            finished.stop();
+            Instant stoppedAt = Instant.now();
+            finished.close();
+
+            parse(file, cutoff);
+            // Events after this point were also captured by the overlapping new recording
+            cutoff = stoppedAt;
+            Files.deleteIfExists(file);
+            chunksParsed.incrementAndGet();
+        } catch (Exception e) {
+            owner.recordFailure();
+            Logger.error("JFR sampling error: " + e.getMessage());
+        }
+    }
+
+    private void parse(Path file, Instant after) throws IOException {
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+
+        try (RecordingFile recordingFile = new RecordingFile(file)) {
+            while (recordingFile.hasMoreEvents()) {
+                RecordedEvent event = recordingFile.readEvent();
+                if (event.getStartTime().isBefore(after)) {
+                    continue;
+                }
+
+                String type = event.getEventType().getName();
+                switch (type) {
+                    case EXECUTION_SAMPLE:
+                        onStackEvent(owner.getProfile(), event, event.getThread("sampledThread"), Thread.State.RUNNABLE);
+                        break;
+                    case ALLOCATION_IN_TLAB:
+                    case ALLOCATION_OUTSIDE_TLAB:
+                        onAllocation(event);
+                        break;
+                    case MONITOR_ENTER:
+                        onMonitorEnter(event);
+                        break;
+                    case GARBAGE_COLLECTION:
+                        gcCount.incrementAndGet();
+                        gcPauseNanos.addAndGet(event.getDuration("sumOfPauses").toNanos());
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+    }
+
+    private void onAllocation(RecordedEvent event) {
+        RecordedClass objectClass = event.getClass("objectClass");
+        long size = event.getLong("allocationSize");
+        if (objectClass != null) {
+            long[] stats = allocationsByClass.computeIfAbsent(objectClass.getName(), k -> new long[3]);
+            synchronized (stats) {
+                stats[0]++;
+                stats[1] += size;
+                stats[2] = Math.max(stats[2], size);
+            }
+        }
+        onStackEvent(owner.getAllocationProfile(), event, event.getThread(), Thread.State.RUNNABLE);
+    }
+
+    private void onMonitorEnter(RecordedEvent event) {
+        RecordedClass monitorClass = event.getClass("monitorClass");
+        long nanos = event.getDuration().toNanos();
+        if (monitorClass != null) {
+            long[] stats = contentionByClass.computeIfAbsent(monitorClass.getName(), k -> new long[3]);
+            synchronized (stats) {
+                stats[0]++;
+                stats[1] += nanos;
+                stats[2] = Math.max(stats[2], nanos);
+            }
+        }
+        onStackEvent(owner.getLockProfile(), event, event.getThread(), Thread.State.BLOCKED);
+    }
+
+    private void onStackEvent(CallTreeProfile profile, RecordedEvent event, RecordedThread thread, Thread.State state) {
+        RecordedStackTrace trace = event.getStackTrace();
+        if (trace == null || thread == null) {
+            return;
+        }
+
+        List<RecordedFrame> frames = trace.getFrames();
+        StackTraceElement[] stack = new StackTraceElement[frames.size()];
+        int depth = 0;
+        for (RecordedFrame frame : frames) {
+            RecordedMethod method = frame.getMethod();
+            if (method == null || method.getType() == null) {
+                continue;
+            }
+            stack[depth++] = new StackTraceElement(method.getType().getName(), method.getName(), null, frame.getLineNumber());
+        }
+        if (depth == 0) {
+            return;
+        }
+        if (depth < stack.length) {
+            StackTraceElement[] trimmed = new StackTraceElement[depth];
+            System.arraycopy(stack, 0, trimmed, 0, depth);
+            stack = trimmed;
+        }
+        if (!owner.shouldIncludeStack(stack)) {
+            return;
+        }
+
+        String name = thread.getJavaName() != null ? thread.getJavaName() : thread.getOSName();
+        profile.addSample(thread.getJavaThreadId(), name, state, event.getStartTime().toEpochMilli(),
+            stack, owner.getMaxStackDepth(), 0);
+        if (profile == owner.getProfile()) {
+            owner.recordSample();
+        }
+    }
+
+    private void deleteDirectory() {
+        Path dir = directory;
+        directory = null;
+        if (dir == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(p -> p.toFile().delete());
+            Files.deleteIfExists(dir);
+        } catch (IOException ignored) {
+            // Temp files are removed on the next start or by the OS
+        }
+    }
+
+    // ==================== Data Access Methods ====================
+
+    List<ClassStats> getAllocationsByClass() {
+        return toStats(allocationsByClass);
+    }
+
+    List<ClassStats> getContentionByClass() {
+        return toStats(contentionByClass);
+    }
+
+    long getGcCount() {
+        return gcCount.get();
+    }
+
+    long getGcPauseNanos() {
+        return gcPauseNanos.get();
+    }
+
+    long getChunksParsed() {
+        return chunksParsed.get();
+    }
+
+    void clear() {
+        allocationsByClass.clear();
+        contentionByClass.clear();
+        gcCount.set(0);
+        gcPauseNanos.set(0);
+        chunksParsed.set(0);
+    }
+
+    private static List<ClassStats> toStats(Map<String, long[]> source) {
+        List<ClassStats> result = new ArrayList<>();
+        for (Map.Entry<String, long[]> entry : source.entrySet()) {
+            long[] stats = entry.getValue();
+            synchronized (stats) {
+                result.add(new ClassStats(entry.getKey(), stats[0], stats[1], stats[2]));
+            }
+        }
+        result.sort((a, b) -> Long.compare(b.total, a.total));
+        return result;
+    }
+
+    /**
+     * Per-class totals: allocation bytes, or monitor wait nanoseconds
+     */
+    public static class ClassStats {
+        public final String className;
+        public final long count;
+        public final long total;
+        public final long max;
+
+        ClassStats(String className, long count, long total, long max) {
+            this.className = className;
+            this.count = count;
+            this.total = total;
+            this.max = max;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.tonic.services.profiler.sampling;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing long to int map, -1 for missing keys
+ */
+final class LongIntMap {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int count;
+
+    LongIntMap() {
+        allocate(1024);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        count = 0;
+    }
+
+    int get(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (true) {
+            long k = keys[slot];
+            if (k == key) {
+                return values[slot];
+            }
+            if (k == EMPTY) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    void put(long key, int value) {
+        if ((count + 1) * 2 > keys.length) {
+            rehash();
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (true) {
+            long k = keys[slot];
+            if (k == key) {
+                values[slot] = value;
+                return;
+            }
+            if (k == EMPTY) {
+                keys[slot] = key;
+                values[slot] = value;
+                count++;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Drop every entry whose value is zero or negative
+     */
+    void retainPositive() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY && oldValues[i] > 0) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    void clear() {
+        allocate(1024);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
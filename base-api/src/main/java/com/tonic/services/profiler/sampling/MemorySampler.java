@@ -5,6 +5,7 @@ import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.lang.management.MemoryPoolMXBean;
 import java.lang.management.MemoryUsage;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,6 +21,7 @@ import java.util.concurrent.atomic.AtomicLong;
  */
 public class MemorySampler {
     private final MemoryMXBean memoryBean;
+    private final com.sun.management.ThreadMXBean threadBean;
     private final List<MemoryPoolMXBean> memoryPools;
     private final Map<String, GarbageCollectorMXBean> gcBeans;
 
@@ -41,12 +43,15 @@ public class MemorySampler {
     private Map<String, Long> lastPoolUsed = new HashMap<>();
     private Map<String, Long> lastGCCounts = new HashMap<>();
     private Map<String, Long> lastGCTimes = new HashMap<>();
+    private long[] lastThreadIds = new long[0];
+    private long[] lastThreadAllocated = new long[0];
 
     // Configuration
     private int samplingIntervalMs = 1000;
 
     public MemorySampler(int maxSamples) {
         this.memoryBean = ManagementFactory.getMemoryMXBean();
+        this.threadBean = findAllocationThreadBean();
         this.memoryPools = ManagementFactory.getMemoryPoolMXBeans();
         this.gcBeans = new HashMap<>();
 
@@ -60,6 +65,25 @@ public class MemorySampler {
         this.histogramSampler = new HeapHistogramSampler();
     }
 
+    /**
+     * HotSpot's ThreadMXBean extension counts bytes allocated per thread, exact up to the current TLAB
+     */
+    private static com.sun.management.ThreadMXBean findAllocationThreadBean() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+                if (sunBean.isThreadAllocatedMemorySupported()) {
+                    sunBean.setThreadAllocatedMemoryEnabled(true);
+                    return sunBean;
+                }
+            }
+        } catch (Throwable t) {
+            // Not a HotSpot VM, fall back to heap deltas
+        }
+        return null;
+    }
+
     /**
      * Start sampling
      */
@@ -121,6 +145,43 @@ public class MemorySampler {
             lastGCCounts.put(entry.getKey(), gc.getCollectionCount());
             lastGCTimes.put(entry.getKey(), gc.getCollectionTime());
         }
+
+        lastThreadIds = new long[0];
+        lastThreadAllocated = new long[0];
+        sampleAllocatedBytes();
+    }
+
+    /**
+     * Bytes allocated by all live threads since the previous call
+     *
+     * Thread ids are kept sorted with their last allocated total so each sample is one bulk MXBean
+     * call and a binary search per thread. Allocation by threads that died between samples is missed.
+     *
+     * @return allocated bytes, or -1 if per-thread allocation counters are unavailable
+     */
+    private long sampleAllocatedBytes() {
+        if (threadBean == null) {
+            return -1;
+        }
+
+        long[] ids = threadBean.getAllThreadIds();
+        Arrays.sort(ids);
+        long[] allocated = threadBean.getThreadAllocatedBytes(ids);
+
+        long total = 0;
+        for (int i = 0; i < ids.length; i++) {
+            long bytes = allocated[i];
+            if (bytes < 0) {
+                // Thread terminated during the call
+                continue;
+            }
+            int previous = Arrays.binarySearch(lastThreadIds, ids[i]);
+            total += previous >= 0 ? Math.max(0, bytes - lastThreadAllocated[previous]) : bytes;
+        }
+
+        lastThreadIds = ids;
+        lastThreadAllocated = allocated;
+        return total;
     }
 
     /**
@@ -162,8 +223,11 @@ public class MemorySampler {
             boolean gcOccurred = detectGCEvents(timestamp);
 
             // Calculate allocation rate (MB/s)
+            long allocatedBytes = sampleAllocatedBytes();
             double allocationRate = 0;
-            if (timeDelta > 0) {
+            if (timeDelta > 0 && allocatedBytes >= 0) {
+                allocationRate = (allocatedBytes / (1024.0 * 1024.0)) / (timeDelta / 1000.0);
+            } else if (timeDelta > 0) {
                 // If GC occurred, heap delta may be negative
                 // Estimate allocation as: delta + (amount GC'd)
                 // For simplicity, use absolute delta if GC occurred
@@ -326,7 +390,7 @@ public class MemorySampler {
 
     /**
      * Capture a heap histogram snapshot
-     * This can be expensive, so it's done on-demand
+     * This runs a full GC inside the VM, so it's done on-demand
      */
     public List<HeapHistogramSample> captureHeapHistogram() {
         latestHistogram = histogramSampler.captureHistogram();
@@ -358,7 +422,6 @@ public class MemorySampler {
         lastGCCounts.clear();
         lastGCTimes.clear();
         latestHistogram = null;
-        histogramSampler.clear();
     }
 
     /**
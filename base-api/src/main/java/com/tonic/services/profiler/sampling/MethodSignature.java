@@ -12,12 +12,17 @@ public class MethodSignature {
     private final String className;
     private final String methodName;
     private final String descriptor;
+    private final String simpleClassName;
+    private final String packageName;
     private final int hashCode;
 
     public MethodSignature(String className, String methodName, String descriptor) {
         this.className = className;
         this.methodName = methodName;
         this.descriptor = descriptor;
+        int lastDot = className.lastIndexOf('.');
+        this.simpleClassName = lastDot >= 0 ? className.substring(lastDot + 1) : className;
+        this.packageName = lastDot >= 0 ? className.substring(0, lastDot) : "";
         this.hashCode = Objects.hash(className, methodName, descriptor);
     }
 
@@ -48,16 +53,14 @@ public class MethodSignature {
      * Get simple class name (without package)
      */
     public String getSimpleClassName() {
-        int lastDot = className.lastIndexOf('.');
-        return lastDot >= 0 ? className.substring(lastDot + 1) : className;
+        return simpleClassName;
     }
 
     /**
      * Get package name
      */
     public String getPackageName() {
-        int lastDot = className.lastIndexOf('.');
-        return lastDot >= 0 ? className.substring(0, lastDot) : "";
+        return packageName;
     }
 
     /**
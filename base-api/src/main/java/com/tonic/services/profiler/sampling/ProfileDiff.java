@@ -0,0 +1,292 @@
+package com.tonic.services.profiler.sampling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merged view of two call trees for before/after comparison
+ *
+ * Frames are matched by class and method name and nodes by (merged parent, merged frame), so a call
+ * path present in either profile gets exactly one node. Counts are normalized by each profile's total
+ * sample count, which makes profiles of different lengths or sampling intervals comparable: deltas are
+ * "share of all samples in the comparison minus share in the baseline", positive for regressions.
+ *
+ * Both trees are walked once in node order (parents precede children in a {@link CallTree}), so
+ * building a diff is linear in the combined node count.
+ */
+public class ProfileDiff {
+    public final int baselineSamples;
+    public final int comparisonSamples;
+    private final int[] parent;
+    private final int[] frame;
+    private final int[] baselineSelf;
+    private final int[] baselineTotal;
+    private final int[] comparisonSelf;
+    private final int[] comparisonTotal;
+    private final MethodSignature[] signatures;
+    private final int[] frameBaselineSelf;
+    private final int[] frameBaselineTotal;
+    private final int[] frameComparisonSelf;
+    private final int[] frameComparisonTotal;
+    private final int[] childStart;
+    private final int[] childNodes;
+
+    private ProfileDiff(int baselineSamples, int comparisonSamples, int[] parent, int[] frame,
+                        int[] baselineSelf, int[] baselineTotal, int[] comparisonSelf, int[] comparisonTotal,
+                        MethodSignature[] signatures, int[] frameBaselineSelf, int[] frameBaselineTotal,
+                        int[] frameComparisonSelf, int[] frameComparisonTotal) {
+        this.baselineSamples = baselineSamples;
+        this.comparisonSamples = comparisonSamples;
+        this.parent = parent;
+        this.frame = frame;
+        this.baselineSelf = baselineSelf;
+        this.baselineTotal = baselineTotal;
+        this.comparisonSelf = comparisonSelf;
+        this.comparisonTotal = comparisonTotal;
+        this.signatures = signatures;
+        this.frameBaselineSelf = frameBaselineSelf;
+        this.frameBaselineTotal = frameBaselineTotal;
+        this.frameComparisonSelf = frameComparisonSelf;
+        this.frameComparisonTotal = frameComparisonTotal;
+
+        // Children in compressed rows, same layout as CallTreeProfile.Snapshot
+        int nodes = parent.length;
+        childStart = new int[nodes + 1];
+        for (int n = 1; n < nodes; n++) {
+            childStart[parent[n] + 1]++;
+        }
+        for (int n = 0; n < nodes; n++) {
+            childStart[n + 1] += childStart[n];
+        }
+        childNodes = new int[Math.max(0, nodes - 1)];
+        int[] fill = Arrays.copyOf(childStart, nodes);
+        for (int n = 1; n < nodes; n++) {
+            childNodes[fill[parent[n]]++] = n;
+        }
+    }
+
+    /**
+     * Merge two profiles
+     *
+     * @param baseline   the "before" profile
+     * @param comparison the "after" profile
+     */
+    public static ProfileDiff compare(CallTreeProfile.Snapshot baseline, CallTreeProfile.Snapshot comparison) {
+        Map<MethodSignature, Integer> frameIds = new HashMap<>();
+        List<MethodSignature> mergedFrames = new ArrayList<>();
+        int[] baselineFrames = mapFrames(baseline, frameIds, mergedFrames);
+        int[] comparisonFrames = mapFrames(comparison, frameIds, mergedFrames);
+
+        int capacity = baseline.getNodeCount() + comparison.getNodeCount();
+        int[] parent = new int[capacity];
+        int[] frame = new int[capacity];
+        int[] bSelf = new int[capacity];
+        int[] bTotal = new int[capacity];
+        int[] cSelf = new int[capacity];
+        int[] cTotal = new int[capacity];
+        parent[CallTree.ROOT] = -1;
+        frame[CallTree.ROOT] = -1;
+        LongIntMap nodeIds = new LongIntMap();
+        int[] size = {1};
+
+        int[] baselineNodes = mapNodes(baseline, baselineFrames, nodeIds, parent, frame, size);
+        for (int n = 0; n < baselineNodes.length; n++) {
+            bSelf[baselineNodes[n]] += baseline.getSelf(n);
+            bTotal[baselineNodes[n]] += baseline.getTotal(n);
+        }
+        int[] comparisonNodes = mapNodes(comparison, comparisonFrames, nodeIds, parent, frame, size);
+        for (int n = 0; n < comparisonNodes.length; n++) {
+            cSelf[comparisonNodes[n]] += comparison.getSelf(n);
+            cTotal[comparisonNodes[n]] += comparison.getTotal(n);
+        }
+
+        int frameCount = mergedFrames.size();
+        int[] fbSelf = new int[frameCount];
+        int[] fbTotal = new int[frameCount];
+        int[] fcSelf = new int[frameCount];
+        int[] fcTotal = new int[frameCount];
+        for (int f = 0; f < baselineFrames.length; f++) {
+            fbSelf[baselineFrames[f]] += baseline.getFrameSelf(f);
+            fbTotal[baselineFrames[f]] += baseline.getFrameTotal(f);
+        }
+        for (int f = 0; f < comparisonFrames.length; f++) {
+            fcSelf[comparisonFrames[f]] += comparison.getFrameSelf(f);
+            fcTotal[comparisonFrames[f]] += comparison.getFrameTotal(f);
+        }
+
+        int nodes = size[0];
+        return new ProfileDiff(baseline.totalSamples, comparison.totalSamples,
+            Arrays.copyOf(parent, nodes), Arrays.copyOf(frame, nodes),
+            Arrays.copyOf(bSelf, nodes), Arrays.copyOf(bTotal, nodes),
+            Arrays.copyOf(cSelf, nodes), Arrays.copyOf(cTotal, nodes),
+            mergedFrames.toArray(new MethodSignature[0]), fbSelf, fbTotal, fcSelf, fcTotal);
+    }
+
+    private static int[] mapFrames(CallTreeProfile.Snapshot profile, Map<MethodSignature, Integer> frameIds,
+                                   List<MethodSignature> mergedFrames) {
+        int[] map = new int[profile.getFrameCount()];
+        for (int f = 0; f < map.length; f++) {
+            MethodSignature signature = profile.getSignature(f);
+            Integer id = frameIds.get(signature);
+            if (id == null) {
+                id = mergedFrames.size();
+                frameIds.put(signature, id);
+                mergedFrames.add(signature);
+            }
+            map[f] = id;
+        }
+        return map;
+    }
+
+    /**
+     * @return merged node id for every node of {@code profile}
+     */
+    private static int[] mapNodes(CallTreeProfile.Snapshot profile, int[] frameMap, LongIntMap nodeIds,
+                                  int[] parent, int[] frame, int[] size) {
+        int[] map = new int[profile.getNodeCount()];
+        map[CallTree.ROOT] = CallTree.ROOT;
+        for (int n = 1; n < map.length; n++) {
+            int mergedParent = map[profile.getParent(n)];
+            int mergedFrame = frameMap[profile.getFrame(n)];
+            long key = ((long) mergedParent << 32) | (mergedFrame & 0xFFFFFFFFL);
+            int id = nodeIds.get(key);
+            if (id < 0) {
+                id = size[0]++;
+                parent[id] = mergedParent;
+                frame[id] = mergedFrame;
+                nodeIds.put(key, id);
+            }
+            map[n] = id;
+        }
+        return map;
+    }
+
+    // ==================== Nodes ====================
+
+    public int getNodeCount() {
+        return parent.length;
+    }
+
+    public int getParent(int node) {
+        return parent[node];
+    }
+
+    /**
+     * @return merged frame id of the node, -1 for the root
+     */
+    public int getFrame(int node) {
+        return frame[node];
+    }
+
+    public int getChildCount(int node) {
+        return childStart[node + 1] - childStart[node];
+    }
+
+    public int getChild(int node, int i) {
+        return childNodes[childStart[node] + i];
+    }
+
+    public int getBaselineSelf(int node) {
+        return baselineSelf[node];
+    }
+
+    public int getBaselineTotal(int node) {
+        return baselineTotal[node];
+    }
+
+    public int getComparisonSelf(int node) {
+        return comparisonSelf[node];
+    }
+
+    public int getComparisonTotal(int node) {
+        return comparisonTotal[node];
+    }
+
+    /**
+     * @return share of all baseline samples that passed through this node
+     */
+    public double getBaselineFraction(int node) {
+        return fraction(baselineTotal[node], baselineSamples);
+    }
+
+    /**
+     * @return share of all comparison samples that passed through this node
+     */
+    public double getComparisonFraction(int node) {
+        return fraction(comparisonTotal[node], comparisonSamples);
+    }
+
+    /**
+     * @return normalized total delta, positive when the path got more expensive
+     */
+    public double getTotalDelta(int node) {
+        return getComparisonFraction(node) - getBaselineFraction(node);
+    }
+
+    /**
+     * @return normalized self delta, positive when the frame itself got more expensive on this path
+     */
+    public double getSelfDelta(int node) {
+        return fraction(comparisonSelf[node], comparisonSamples) - fraction(baselineSelf[node], baselineSamples);
+    }
+
+    // ==================== Methods ====================
+
+    public int getFrameCount() {
+        return signatures.length;
+    }
+
+    public MethodSignature getSignature(int frameId) {
+        return signatures[frameId];
+    }
+
+    /**
+     * Per-method deltas across all call paths, largest self-time regression first
+     */
+    public List<MethodDelta> getMethodDeltas() {
+        List<MethodDelta> result = new ArrayList<>(signatures.length);
+        for (int f = 0; f < signatures.length; f++) {
+            result.add(new MethodDelta(signatures[f],
+                fraction(frameBaselineSelf[f], baselineSamples),
+                fraction(frameBaselineTotal[f], baselineSamples),
+                fraction(frameComparisonSelf[f], comparisonSamples),
+                fraction(frameComparisonTotal[f], comparisonSamples)));
+        }
+        result.sort((a, b) -> {
+            int bySelf = Double.compare(b.selfDelta, a.selfDelta);
+            return bySelf != 0 ? bySelf : Double.compare(b.totalDelta, a.totalDelta);
+        });
+        return result;
+    }
+
+    private static double fraction(int count, int total) {
+        return total == 0 ? 0 : (double) count / total;
+    }
+
+    /**
+     * One method's share of samples before and after, as fractions of each profile's total
+     */
+    public static class MethodDelta {
+        public final MethodSignature method;
+        public final double baselineSelf;
+        public final double baselineTotal;
+        public final double comparisonSelf;
+        public final double comparisonTotal;
+        public final double selfDelta;
+        public final double totalDelta;
+
+        MethodDelta(MethodSignature method, double baselineSelf, double baselineTotal,
+                    double comparisonSelf, double comparisonTotal) {
+            this.method = method;
+            this.baselineSelf = baselineSelf;
+            this.baselineTotal = baselineTotal;
+            this.comparisonSelf = comparisonSelf;
+            this.comparisonTotal = comparisonTotal;
+            this.selfDelta = comparisonSelf - baselineSelf;
+            this.totalDelta = comparisonTotal - baselineTotal;
+        }
+    }
+}
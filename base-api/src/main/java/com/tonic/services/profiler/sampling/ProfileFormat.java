@@ -0,0 +1,94 @@
+package com.tonic.services.profiler.sampling;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Binary profile file layout shared by {@link ProfileWriter} and {@link ProfileReader}
+ *
+ * A file is the magic, a version varint and then a stream of tagged records ending with {@link #TAG_END}.
+ * Strings, frames, stacks and threads are dictionary entries whose ids are assigned implicitly in
+ * the order they appear, and every entry is written before the first record that references it, so
+ * a file can be produced while sampling is still running:
+ * <pre>
+ *   STRING  varint length, UTF-8 bytes
+ *   FRAME   varint class string id, varint method string id
+ *   STACK   varint parent stack id + 1 (0 = root), varint frame id
+ *   THREAD  varlong thread id, varint name string id
+ *   SAMPLE  varint thread index, varint stack id, byte state, zigzag varlong timestamp delta
+ * </pre>
+ * Stacks are call-tree nodes in parent-pointer form, so a sample is a single leaf id no matter how deep.
+ */
+final class ProfileFormat {
+    static final int MAGIC = 0x564C5046; // "VLPF"
+    static final int VERSION = 1;
+
+    static final int TAG_END = 0;
+    static final int TAG_STRING = 1;
+    static final int TAG_FRAME = 2;
+    static final int TAG_STACK = 3;
+    static final int TAG_THREAD = 4;
+    static final int TAG_SAMPLE = 5;
+
+    private ProfileFormat() {
+    }
+
+    static void writeVarInt(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static void writeZigZag(OutputStream out, long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Truncated profile");
+        }
+        return b;
+    }
+
+    static int readVarInt(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte(in);
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = readByte(in);
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varlong");
+    }
+
+    static long readZigZag(InputStream in) throws IOException {
+        long raw = readVarLong(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+}
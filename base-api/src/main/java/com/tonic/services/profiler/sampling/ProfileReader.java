@@ -0,0 +1,158 @@
+package com.tonic.services.profiler.sampling;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Loads a file written by {@link ProfileWriter} back into a {@link CallTreeProfile}
+ *
+ * Samples are replayed in file order, so the loaded profile has the same call tree, hotspots and
+ * thread breakdown as the session that recorded it. A file cut off mid-record (e.g. a crash while
+ * streaming) loads everything before the damaged record.
+ */
+public class ProfileReader {
+    private static final Thread.State[] STATES = Thread.State.values();
+
+    public static CallTreeProfile read(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return read(in);
+        }
+    }
+
+    public static CallTreeProfile read(InputStream stream) throws IOException {
+        InputStream in = new BufferedInputStream(stream, 64 * 1024);
+        int magic = 0;
+        for (int i = 0; i < 4; i++) {
+            magic = (magic << 8) | ProfileFormat.readByte(in);
+        }
+        if (magic != ProfileFormat.MAGIC) {
+            throw new IOException("Not a profile file");
+        }
+        int version = ProfileFormat.readVarInt(in);
+        if (version != ProfileFormat.VERSION) {
+            throw new IOException("Unsupported profile version " + version);
+        }
+
+        List<String> strings = new ArrayList<>();
+        IntList frameClasses = new IntList();
+        IntList frameMethods = new IntList();
+        IntList stackParents = new IntList();
+        IntList stackFrames = new IntList();
+        List<Long> threadIds = new ArrayList<>();
+        List<String> threadNames = new ArrayList<>();
+
+        IntList sampleThreads = new IntList();
+        IntList sampleStacks = new IntList();
+        IntList sampleStates = new IntList();
+        long[] sampleTimes = new long[1024];
+        long timestamp = 0;
+
+        try {
+            read:
+            while (true) {
+                int tag = in.read();
+                switch (tag) {
+                    case -1:
+                    case ProfileFormat.TAG_END:
+                        break read;
+                    case ProfileFormat.TAG_STRING: {
+                        byte[] bytes = new byte[ProfileFormat.readVarInt(in)];
+                        int n = 0;
+                        while (n < bytes.length) {
+                            int r = in.read(bytes, n, bytes.length - n);
+                            if (r < 0) {
+                                throw new EOFException("Truncated string");
+                            }
+                            n += r;
+                        }
+                        strings.add(new String(bytes, StandardCharsets.UTF_8));
+                        break;
+                    }
+                    case ProfileFormat.TAG_FRAME:
+                        frameClasses.add(ProfileFormat.readVarInt(in));
+                        frameMethods.add(ProfileFormat.readVarInt(in));
+                        break;
+                    case ProfileFormat.TAG_STACK:
+                        stackParents.add(ProfileFormat.readVarInt(in) - 1);
+                        stackFrames.add(ProfileFormat.readVarInt(in));
+                        break;
+                    case ProfileFormat.TAG_THREAD:
+                        threadIds.add(ProfileFormat.readVarLong(in));
+                        threadNames.add(strings.get(ProfileFormat.readVarInt(in)));
+                        break;
+                    case ProfileFormat.TAG_SAMPLE: {
+                        int thread = ProfileFormat.readVarInt(in);
+                        int stack = ProfileFormat.readVarInt(in) - 1;
+                        int state = ProfileFormat.readByte(in);
+                        timestamp += ProfileFormat.readZigZag(in);
+                        if (sampleStacks.size == sampleTimes.length) {
+                            sampleTimes = Arrays.copyOf(sampleTimes, sampleTimes.length * 2);
+                        }
+                        sampleTimes[sampleStacks.size] = timestamp;
+                        sampleThreads.add(thread);
+                        sampleStacks.add(stack);
+                        sampleStates.add(state);
+                        break;
+                    }
+                    default:
+                        throw new IOException("Unknown record tag " + tag);
+                }
+            }
+        } catch (EOFException e) {
+            System.err.println("Profile file is truncated, loaded " + sampleStacks.size + " samples");
+        }
+
+        // One spare slot: a full ring holds back its oldest record from snapshots
+        CallTreeProfile profile = new CallTreeProfile(sampleStacks.size + 1);
+
+        // File frame id -> profile frame id
+        int[] frameMap = new int[frameClasses.size];
+        for (int f = 0; f < frameMap.length; f++) {
+            frameMap[f] = profile.internFrame(strings.get(frameClasses.get(f)), strings.get(frameMethods.get(f)));
+        }
+
+        int[] path = new int[64];
+        for (int s = 0; s < sampleStacks.size; s++) {
+            int depth = 0;
+            for (int stack = sampleStacks.get(s); stack >= 0; stack = stackParents.get(stack)) {
+                if (depth == path.length) {
+                    path = Arrays.copyOf(path, depth * 2);
+                }
+                path[depth++] = frameMap[stackFrames.get(stack)];
+            }
+            int thread = sampleThreads.get(s);
+            int state = sampleStates.get(s);
+            profile.addSample(threadIds.get(thread), threadNames.get(thread),
+                state < STATES.length ? STATES[state] : Thread.State.RUNNABLE,
+                sampleTimes[s], path, depth, 0);
+        }
+        return profile;
+    }
+
+    private static final class IntList {
+        int[] values = new int[1024];
+        int size = 0;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            if (index >= size) {
+                throw new IllegalStateException("Profile references undefined entry " + index);
+            }
+            return values[index];
+        }
+    }
+}
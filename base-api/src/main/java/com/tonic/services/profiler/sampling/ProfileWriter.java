@@ -0,0 +1,205 @@
+package com.tonic.services.profiler.sampling;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streaming writer for the binary profile format described in {@link ProfileFormat}
+ *
+ * Dictionary entries are emitted the first time a sample needs them, so the writer can be attached to a
+ * {@link CallTreeProfile} with {@link CallTreeProfile#setRecorder(ProfileWriter)} and record for as long
+ * as sampling runs, or be fed a finished profile with {@link #writeSnapshot}. Not thread-safe; the
+ * profile serializes its calls.
+ */
+public class ProfileWriter implements Closeable {
+    private static final int UNRESOLVED = -2;
+
+    private final OutputStream out;
+    private final Map<String, Integer> strings = new HashMap<>();
+    private final Map<MethodSignature, Integer> frames = new HashMap<>();
+    private final Map<Long, Integer> stacks = new HashMap<>();
+    private final Map<Long, Integer> threads = new HashMap<>();
+    private long lastTimestamp = 0;
+    private long samplesWritten = 0;
+    private boolean closed = false;
+
+    public ProfileWriter(File file) throws IOException {
+        this(new FileOutputStream(file));
+    }
+
+    public ProfileWriter(OutputStream stream) throws IOException {
+        this.out = new BufferedOutputStream(stream, 64 * 1024);
+        out.write(ProfileFormat.MAGIC >>> 24);
+        out.write(ProfileFormat.MAGIC >>> 16);
+        out.write(ProfileFormat.MAGIC >>> 8);
+        out.write(ProfileFormat.MAGIC);
+        ProfileFormat.writeVarInt(out, ProfileFormat.VERSION);
+    }
+
+    /**
+     * Append one sample whose frames are ids in {@code frameTable}
+     *
+     * @param frameIds leaf-first frame ids
+     */
+    public void writeSample(long threadId, String threadName, Thread.State state, long timestamp,
+                            int[] frameIds, int depth, FrameTable frameTable) throws IOException {
+        int stack = -1;
+        for (int i = depth - 1; i >= 0; i--) {
+            stack = stack(stack, frame(frameTable.getSignature(frameIds[i])));
+        }
+        sample(threadId, threadName, state, timestamp, stack);
+    }
+
+    /**
+     * Write the retained samples of a finished profile
+     *
+     * @param tree    call tree the samples' leaves point into
+     * @param samples ring records to write, oldest first; take both with {@link CallTreeProfile#snapshotWithSamples()}
+     */
+    public void writeSnapshot(CallTreeProfile.Snapshot tree, SampleRing.Snapshot samples) throws IOException {
+        // Stacks are written the first time a sample needs them, like when recording, so a truncated file
+        // still holds complete samples and nodes no retained sample points to cost nothing
+        int[] nodeStacks = new int[tree.getNodeCount()];
+        Arrays.fill(nodeStacks, UNRESOLVED);
+        nodeStacks[CallTree.ROOT] = -1;
+        int[] path = new int[64];
+
+        Map<Long, String> names = new HashMap<>();
+        for (CallTreeProfile.ThreadSnapshot thread : tree.getThreads()) {
+            names.put(thread.threadId, thread.threadName);
+        }
+
+        for (int i = 0; i < samples.count; i++) {
+            int leaf = samples.getLeaf(i);
+            if (leaf < 0 || leaf >= nodeStacks.length) {
+                continue;
+            }
+            if (nodeStacks[leaf] == UNRESOLVED) {
+                path = resolve(tree, leaf, nodeStacks, path);
+            }
+            long threadId = samples.getThreadId(i);
+            sample(threadId, names.getOrDefault(threadId, "Thread-" + threadId), samples.getState(i),
+                samples.getTimestamp(i), nodeStacks[leaf]);
+        }
+    }
+
+    /**
+     * Write the stacks of {@code node} and its unresolved ancestors, root side first
+     *
+     * @return {@code path}, grown if needed
+     */
+    private int[] resolve(CallTreeProfile.Snapshot tree, int node, int[] nodeStacks, int[] path) throws IOException {
+        int depth = 0;
+        for (int n = node; nodeStacks[n] == UNRESOLVED; n = tree.getParent(n)) {
+            if (depth == path.length) {
+                path = Arrays.copyOf(path, depth * 2);
+            }
+            path[depth++] = n;
+        }
+        while (depth-- > 0) {
+            int n = path[depth];
+            nodeStacks[n] = stack(nodeStacks[tree.getParent(n)], frame(tree.getSignature(tree.getFrame(n))));
+        }
+        return path;
+    }
+
+    private void sample(long threadId, String threadName, Thread.State state, long timestamp, int stack) throws IOException {
+        int threadIndex = thread(threadId, threadName);
+        out.write(ProfileFormat.TAG_SAMPLE);
+        ProfileFormat.writeVarInt(out, threadIndex);
+        ProfileFormat.writeVarInt(out, stack + 1);
+        out.write(state.ordinal());
+        ProfileFormat.writeZigZag(out, timestamp - lastTimestamp);
+        lastTimestamp = timestamp;
+        samplesWritten++;
+    }
+
+    private int string(String value) throws IOException {
+        Integer id = strings.get(value);
+        if (id != null) {
+            return id;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.write(ProfileFormat.TAG_STRING);
+        ProfileFormat.writeVarInt(out, bytes.length);
+        out.write(bytes);
+        int newId = strings.size();
+        strings.put(value, newId);
+        return newId;
+    }
+
+    private int frame(MethodSignature signature) throws IOException {
+        Integer id = frames.get(signature);
+        if (id != null) {
+            return id;
+        }
+        int className = string(signature.getClassName());
+        int methodName = string(signature.getMethodName());
+        out.write(ProfileFormat.TAG_FRAME);
+        ProfileFormat.writeVarInt(out, className);
+        ProfileFormat.writeVarInt(out, methodName);
+        int newId = frames.size();
+        frames.put(signature, newId);
+        return newId;
+    }
+
+    /**
+     * @param parent parent stack id, -1 for a root frame
+     */
+    private int stack(int parent, int frame) throws IOException {
+        long key = ((long) (parent + 1) << 32) | (frame & 0xFFFFFFFFL);
+        Integer id = stacks.get(key);
+        if (id != null) {
+            return id;
+        }
+        out.write(ProfileFormat.TAG_STACK);
+        ProfileFormat.writeVarInt(out, parent + 1);
+        ProfileFormat.writeVarInt(out, frame);
+        int newId = stacks.size();
+        stacks.put(key, newId);
+        return newId;
+    }
+
+    private int thread(long threadId, String threadName) throws IOException {
+        Integer index = threads.get(threadId);
+        if (index != null) {
+            return index;
+        }
+        int name = string(threadName == null ? "" : threadName);
+        out.write(ProfileFormat.TAG_THREAD);
+        ProfileFormat.writeVarLong(out, threadId);
+        ProfileFormat.writeVarInt(out, name);
+        int newIndex = threads.size();
+        threads.put(threadId, newIndex);
+        return newIndex;
+    }
+
+    public long getSamplesWritten() {
+        return samplesWritten;
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            out.write(ProfileFormat.TAG_END);
+        } finally {
+            out.close();
+        }
+    }
+}
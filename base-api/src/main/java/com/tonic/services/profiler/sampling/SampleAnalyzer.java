@@ -10,19 +10,19 @@ import java.util.stream.Collectors;
 public class SampleAnalyzer {
 
     /**
-     * Analyze CPU samples to produce comprehensive results
+     * Analyze a call-tree profile snapshot to produce comprehensive results
+     * Reads the per-frame and per-thread counters directly, so cost does not grow with retained samples
      */
-    public CPUAnalysisResults analyzeCPU(RingBuffer<StackSample> samples) {
-        List<StackSample> allSamples = samples.getAll();
-        if (allSamples.isEmpty()) {
+    public CPUAnalysisResults analyzeCPU(CallTreeProfile.Snapshot profile) {
+        if (profile.totalSamples == 0) {
             return new CPUAnalysisResults();
         }
 
         CPUAnalysisResults results = new CPUAnalysisResults();
-        results.totalSamples = allSamples.size();
-        results.timeRange = calculateTimeRange(allSamples);
-        results.methodHotspots = buildMethodHotspots(allSamples);
-        results.threadBreakdown = buildThreadBreakdown(allSamples);
+        results.totalSamples = profile.totalSamples;
+        results.timeRange = new TimeRange(profile.oldestTimestamp, profile.newestTimestamp);
+        results.methodHotspots = buildMethodHotspots(profile);
+        results.threadBreakdown = buildThreadBreakdown(profile);
         results.packageAggregation = aggregateByPackage(results.methodHotspots);
 
         return results;
@@ -57,62 +57,42 @@ public class SampleAnalyzer {
 
     // ==================== CPU Analysis Methods ====================
 
-    private TimeRange calculateTimeRange(List<StackSample> samples) {
-        if (samples.isEmpty()) return new TimeRange(0, 0);
-
-        long min = Long.MAX_VALUE;
-        long max = Long.MIN_VALUE;
-
-        for (StackSample sample : samples) {
-            min = Math.min(min, sample.timestamp);
-            max = Math.max(max, sample.timestamp);
-        }
-
-        return new TimeRange(min, max);
-    }
-
-    private Map<MethodSignature, MethodStats> buildMethodHotspots(List<StackSample> samples) {
+    private Map<MethodSignature, MethodStats> buildMethodHotspots(CallTreeProfile.Snapshot profile) {
         Map<MethodSignature, MethodStats> hotspots = new HashMap<>();
 
-        for (StackSample sample : samples) {
-            for (int i = 0; i < sample.stackTrace.length; i++) {
-                StackTraceElement frame = sample.stackTrace[i];
-                MethodSignature sig = MethodSignature.from(frame);
-
-                MethodStats stats = hotspots.computeIfAbsent(sig, k -> new MethodStats(sig));
-                stats.totalSamples++;
-
-                if (i == 0) {
-                    stats.selfSamples++;
-                }
-
-                // Track per-thread
-                stats.threadSamples.merge(sample.threadId, 1, Integer::sum);
+        for (int frame = 0; frame < profile.getFrameCount(); frame++) {
+            int total = profile.getFrameTotal(frame);
+            if (total <= 0) {
+                continue;
             }
-        }
 
-        // Calculate percentages
-        for (MethodStats stats : hotspots.values()) {
-            stats.selfTimePercent = (stats.selfSamples * 100.0) / samples.size();
-            stats.totalTimePercent = (stats.totalSamples * 100.0) / samples.size();
+            MethodSignature sig = profile.getSignature(frame);
+            MethodStats stats = new MethodStats(sig);
+            stats.totalSamples = total;
+            stats.selfSamples = profile.getFrameSelf(frame);
+            stats.threadCount = profile.getFrameThreads(frame);
+            stats.selfTimePercent = (stats.selfSamples * 100.0) / profile.totalSamples;
+            stats.totalTimePercent = (stats.totalSamples * 100.0) / profile.totalSamples;
+            hotspots.put(sig, stats);
         }
 
         return hotspots;
     }
 
-    private Map<Long, ThreadStats> buildThreadBreakdown(List<StackSample> samples) {
+    private Map<Long, ThreadStats> buildThreadBreakdown(CallTreeProfile.Snapshot profile) {
         Map<Long, ThreadStats> threads = new HashMap<>();
 
-        for (StackSample sample : samples) {
-            ThreadStats stats = threads.computeIfAbsent(sample.threadId,
-                k -> new ThreadStats(sample.threadId, sample.threadName));
-
-            stats.sampleCount++;
-            stats.states.merge(sample.threadState, 1, Integer::sum);
-
-            if (sample.threadCpuTime > 0) {
-                stats.totalCpuTime = Math.max(stats.totalCpuTime, sample.threadCpuTime);
+        for (CallTreeProfile.ThreadSnapshot thread : profile.getThreads()) {
+            ThreadStats stats = new ThreadStats(thread.threadId, thread.threadName);
+            stats.sampleCount = thread.samples;
+            stats.totalCpuTime = thread.cpuTime;
+            for (Thread.State state : Thread.State.values()) {
+                int count = thread.getStateCount(state);
+                if (count > 0) {
+                    stats.states.put(state, count);
+                }
             }
+            threads.put(thread.threadId, stats);
         }
 
         return threads;
@@ -257,7 +237,7 @@ public class SampleAnalyzer {
         public int selfSamples;
         public double selfTimePercent;
         public double totalTimePercent;
-        public Map<Long, Integer> threadSamples = new HashMap<>();
+        public int threadCount;
 
         public MethodStats(MethodSignature method) {
             this.method = method;
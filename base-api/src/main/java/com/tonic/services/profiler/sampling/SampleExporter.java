@@ -27,7 +27,7 @@ public class SampleExporter {
                 stats.totalSamples,
                 stats.selfTimePercent,
                 stats.totalTimePercent,
-                stats.threadSamples.size()
+                stats.threadCount
             );
         }
 
@@ -191,6 +191,45 @@ public class SampleExporter {
         }
     }
 
+    /**
+     * Export a call tree in collapsed-stack form ({@code root;caller;leaf count} per line), the input
+     * format of flamegraph.pl, speedscope and similar tools
+     */
+    public void exportCollapsedStacks(PrintWriter writer, CallTreeProfile.Snapshot profile) {
+        if (profile == null) {
+            return;
+        }
+        String[] names = new String[profile.getFrameCount()];
+        for (int f = 0; f < names.length; f++) {
+            MethodSignature sig = profile.getSignature(f);
+            names[f] = (sig.getClassName() + "." + sig.getMethodName()).replace(';', ':').replace(' ', '_');
+        }
+        writeCollapsed(writer, profile, CallTree.ROOT, new StringBuilder(), names);
+    }
+
+    private void writeCollapsed(PrintWriter writer, CallTreeProfile.Snapshot profile, int node,
+                                StringBuilder path, String[] names) {
+        int length = path.length();
+        if (node != CallTree.ROOT) {
+            if (length > 0) {
+                path.append(';');
+            }
+            path.append(names[profile.getFrame(node)]);
+            if (profile.getSelf(node) > 0) {
+                writer.print(path);
+                writer.print(' ');
+                writer.println(profile.getSelf(node));
+            }
+        }
+        for (int i = 0; i < profile.getChildCount(node); i++) {
+            int child = profile.getChild(node, i);
+            if (profile.getTotal(child) > 0) {
+                writeCollapsed(writer, profile, child, path, names);
+            }
+        }
+        path.setLength(length);
+    }
+
     /**
      * Escape CSV special characters
      */
@@ -0,0 +1,196 @@
+package com.tonic.services.profiler.sampling;
+
+/**
+ * Single-producer ring of compact sample records (thread, call-tree leaf, timestamp, state)
+ *
+ * The producer overwrites the oldest record once full and publishes each record with a volatile
+ * write of the head sequence. Readers never block the producer: {@link #snapshot()} copies the
+ * retained window and then discards any records the producer may have overwritten during the copy.
+ */
+public class SampleRing {
+    private static final Thread.State[] STATES = Thread.State.values();
+
+    private final int capacity;
+    private final long[] threadIds;
+    private final int[] threadIndexes;
+    private final int[] leaves;
+    private final long[] timestamps;
+    private final byte[] states;
+    private volatile long head = 0;
+
+    public SampleRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.threadIds = new long[capacity];
+        this.threadIndexes = new int[capacity];
+        this.leaves = new int[capacity];
+        this.timestamps = new long[capacity];
+        this.states = new byte[capacity];
+    }
+
+    /**
+     * @return true if the next {@link #add} overwrites the oldest record
+     */
+    boolean isFull() {
+        return head >= capacity;
+    }
+
+    /**
+     * Leaf of the record the next {@link #add} will overwrite. Producer only.
+     */
+    int oldestLeaf() {
+        return leaves[(int) (head % capacity)];
+    }
+
+    /**
+     * Thread index of the record the next {@link #add} will overwrite. Producer only.
+     */
+    int oldestThreadIndex() {
+        return threadIndexes[(int) (head % capacity)];
+    }
+
+    /**
+     * State ordinal of the record the next {@link #add} will overwrite. Producer only.
+     */
+    byte oldestState() {
+        return states[(int) (head % capacity)];
+    }
+
+    /**
+     * @return timestamp of the oldest retained record, 0 if empty
+     */
+    public long oldestTimestamp() {
+        long h = head;
+        if (h == 0) {
+            return 0;
+        }
+        return timestamps[(int) (Math.max(0, h - capacity) % capacity)];
+    }
+
+    /**
+     * @return timestamp of the newest record, 0 if empty
+     */
+    public long newestTimestamp() {
+        long h = head;
+        return h == 0 ? 0 : timestamps[(int) ((h - 1) % capacity)];
+    }
+
+    /**
+     * Rewrite retained leaves after the call tree was compacted. Producer only; records copied by a
+     * concurrent {@link #snapshot()} may mix old and new ids.
+     */
+    void remapLeaves(int[] remap) {
+        int count = size();
+        for (int slot = 0; slot < count; slot++) {
+            int leaf = leaves[slot];
+            leaves[slot] = leaf >= 0 && leaf < remap.length ? remap[leaf] : -1;
+        }
+    }
+
+    void add(long threadId, int threadIndex, int leaf, long timestamp, Thread.State state) {
+        long h = head;
+        int slot = (int) (h % capacity);
+        threadIds[slot] = threadId;
+        threadIndexes[slot] = threadIndex;
+        leaves[slot] = leaf;
+        timestamps[slot] = timestamp;
+        states[slot] = (byte) state.ordinal();
+        head = h + 1;
+    }
+
+    void clear() {
+        head = 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of records currently retained
+     */
+    public int size() {
+        return (int) Math.min(head, capacity);
+    }
+
+    /**
+     * @return total records ever written
+     */
+    public long getTotalWritten() {
+        return head;
+    }
+
+    /**
+     * @return records overwritten because the ring was full
+     */
+    public long getDroppedCount() {
+        return Math.max(0, head - capacity);
+    }
+
+    /**
+     * Copy the retained records, oldest first
+     */
+    public Snapshot snapshot() {
+        long end = head;
+        long start = Math.max(0, end - capacity);
+        int count = (int) (end - start);
+
+        long[] ids = new long[count];
+        int[] leafCopy = new int[count];
+        long[] times = new long[count];
+        byte[] stateCopy = new byte[count];
+        for (int i = 0; i < count; i++) {
+            int slot = (int) ((start + i) % capacity);
+            ids[i] = threadIds[slot];
+            leafCopy[i] = leaves[slot];
+            times[i] = timestamps[slot];
+            stateCopy[i] = states[slot];
+        }
+
+        // Anything the producer could have started overwriting while we copied is unreliable
+        long safeStart = Math.max(start, head + 1 - capacity);
+        int skip = (int) Math.min(count, Math.max(0, safeStart - start));
+        return new Snapshot(start + skip, count - skip, ids, leafCopy, times, stateCopy, skip);
+    }
+
+    /**
+     * Immutable copy of ring records
+     */
+    public static class Snapshot {
+        public final long firstSequence;
+        public final int count;
+        private final long[] threadIds;
+        private final int[] leaves;
+        private final long[] timestamps;
+        private final byte[] states;
+        private final int offset;
+
+        Snapshot(long firstSequence, int count, long[] threadIds, int[] leaves, long[] timestamps, byte[] states, int offset) {
+            this.firstSequence = firstSequence;
+            this.count = count;
+            this.threadIds = threadIds;
+            this.leaves = leaves;
+            this.timestamps = timestamps;
+            this.states = states;
+            this.offset = offset;
+        }
+
+        public long getThreadId(int i) {
+            return threadIds[offset + i];
+        }
+
+        public int getLeaf(int i) {
+            return leaves[offset + i];
+        }
+
+        public long getTimestamp(int i) {
+            return timestamps[offset + i];
+        }
+
+        public Thread.State getState(int i) {
+            return STATES[states[offset + i]];
+        }
+    }
+}
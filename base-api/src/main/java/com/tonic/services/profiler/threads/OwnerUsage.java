@@ -0,0 +1,29 @@
+package com.tonic.services.profiler.threads;
+
+/**
+ * Resource use of one {@link ThreadOwner}, as of the latest {@link ThreadAccounting} sample
+ *
+ * CPU percentages are relative to one core, so a busy owner with several threads can exceed 100.
+ */
+public class OwnerUsage {
+    public final ThreadOwner owner;
+    public final int threads;
+    public final double cpuPercent;
+    public final double allocBytesPerSec;
+    public final double avgCpuPercent;
+    public final double avgAllocBytesPerSec;
+    public final long totalCpuNanos;
+    public final long totalAllocBytes;
+
+    public OwnerUsage(ThreadOwner owner, int threads, double cpuPercent, double allocBytesPerSec,
+                      double avgCpuPercent, double avgAllocBytesPerSec, long totalCpuNanos, long totalAllocBytes) {
+        this.owner = owner;
+        this.threads = threads;
+        this.cpuPercent = cpuPercent;
+        this.allocBytesPerSec = allocBytesPerSec;
+        this.avgCpuPercent = avgCpuPercent;
+        this.avgAllocBytesPerSec = avgAllocBytesPerSec;
+        this.totalCpuNanos = totalCpuNanos;
+        this.totalAllocBytes = totalAllocBytes;
+    }
+}
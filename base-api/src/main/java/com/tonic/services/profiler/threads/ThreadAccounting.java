@@ -0,0 +1,464 @@
+package com.tonic.services.profiler.threads;
+
+import com.tonic.Static;
+import com.tonic.services.hotswapper.PluginClassLoader;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-thread CPU time and allocation accounting, rolled up by {@link ThreadOwner}
+ *
+ * <p>While enabled, every live thread's CPU time and allocated bytes are read in one batch at a fixed
+ * interval and the deltas are charged to the thread's owner: the client thread, the plugin whose class
+ * loader defined or is set on the thread, or the thread's pool (its name with numbers collapsed, so
+ * {@code pool-3-thread-7} and {@code pool-3-thread-9} share a row). Shared pools that run work for several
+ * plugins can bracket that work with {@link #enter(ThreadOwner)}/{@link #exit(ThreadOwner)}; the thread
+ * then reads its own counters at both edges, so the work is charged exactly even when the pool thread
+ * switches owners many times per interval.
+ *
+ * <p>Each owner keeps the last {@link #WINDOW} intervals for rolling rates. Use made by threads that die
+ * between two samples is not seen, since a dead thread's counters can no longer be read.
+ */
+public final class ThreadAccounting {
+    public static final int WINDOW = 60;
+    private static final String CLIENT_THREAD_NAME = "Client";
+
+    private static volatile boolean enabled = false;
+    private static volatile long intervalMs = 1000;
+    private static volatile long clientThreadId = -1;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final Map<Long, ThreadState> STATES = new ConcurrentHashMap<>();
+    private static final Map<ThreadOwner, OwnerStats> OWNERS = new ConcurrentHashMap<>();
+    private static final long[] INTERVAL_NANOS = new long[WINDOW];
+    private static ScheduledExecutorService sampler;
+    private static int slot = -1;
+    private static int filledSlots;
+    private static long lastSampleNanos;
+    private static List<ThreadUsage> lastThreads = new ArrayList<>();
+
+    private ThreadAccounting() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static synchronized void setEnabled(boolean state) {
+        if (state == enabled) {
+            return;
+        }
+        if (state) {
+            if (THREADS.isThreadCpuTimeSupported() && !THREADS.isThreadCpuTimeEnabled()) {
+                THREADS.setThreadCpuTimeEnabled(true);
+            }
+            if (THREADS.isThreadAllocatedMemorySupported() && !THREADS.isThreadAllocatedMemoryEnabled()) {
+                THREADS.setThreadAllocatedMemoryEnabled(true);
+            }
+            probeClientThread();
+            // Baselines from an earlier session would charge the whole pause to the first interval
+            STATES.clear();
+            lastSampleNanos = 0;
+            start();
+        } else {
+            stop();
+        }
+        enabled = state;
+    }
+
+    public static long getIntervalMs() {
+        return intervalMs;
+    }
+
+    public static synchronized void setIntervalMs(long ms) {
+        intervalMs = Math.max(100, ms);
+        if (sampler != null) {
+            stop();
+            start();
+        }
+    }
+
+    private static void start() {
+        sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Thread-Accounting");
+            t.setDaemon(true);
+            return t;
+        });
+        sampler.scheduleAtFixedRate(ThreadAccounting::pollSafely, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static void stop() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+            sampler = null;
+        }
+    }
+
+    // ==================== Attribution scopes ====================
+
+    /**
+     * Charge the calling thread's work to {@code owner} until the matching {@link #exit(ThreadOwner)}
+     * <pre>
+     *   ThreadOwner previous = ThreadAccounting.enter(ThreadOwner.plugin(getClass().getClassLoader(), getName()));
+     *   try {
+     *       ...
+     *   } finally {
+     *       ThreadAccounting.exit(previous);
+     *   }
+     * </pre>
+     *
+     * @return the owner to restore on exit
+     */
+    public static ThreadOwner enter(ThreadOwner owner) {
+        if (!enabled) {
+            return null;
+        }
+        return swap(owner);
+    }
+
+    /**
+     * @param previous value returned by the matching {@link #enter(ThreadOwner)}
+     */
+    public static void exit(ThreadOwner previous) {
+        if (!enabled) {
+            return;
+        }
+        swap(previous);
+    }
+
+    private static ThreadOwner swap(ThreadOwner owner) {
+        Thread thread = Thread.currentThread();
+        long id = thread.getId();
+        ThreadState state = STATES.computeIfAbsent(id, k -> new ThreadState(thread));
+        long cpu = THREADS.getCurrentThreadCpuTime();
+        long alloc = THREADS.getThreadAllocatedBytes(id);
+        synchronized (state) {
+            state.charge(cpu, alloc);
+            ThreadOwner previous = state.tag;
+            state.tag = owner;
+            return previous;
+        }
+    }
+
+    // ==================== Sampling ====================
+
+    private static void pollSafely() {
+        try {
+            poll();
+        } catch (Exception e) {
+            System.err.println("Thread accounting sample failed: " + e.getMessage());
+        }
+    }
+
+    private static synchronized void poll() {
+        Thread[] threads = liveThreads();
+        long[] ids = new long[threads.length];
+        for (int i = 0; i < threads.length; i++) {
+            ids[i] = threads[i].getId();
+        }
+        long[] cpu = THREADS.getThreadCpuTime(ids);
+        long[] alloc = THREADS.getThreadAllocatedBytes(ids);
+        long now = System.nanoTime();
+        long interval = lastSampleNanos == 0 ? 0 : now - lastSampleNanos;
+        lastSampleNanos = now;
+
+        if (clientThreadId < 0) {
+            probeClientThread();
+        }
+
+        Map<ThreadOwner, Integer> threadCounts = new HashMap<>();
+        List<ThreadUsage> usages = new ArrayList<>(threads.length);
+        for (int i = 0; i < threads.length; i++) {
+            Thread thread = threads[i];
+            ThreadState state = STATES.computeIfAbsent(ids[i], k -> new ThreadState(thread));
+            String name = thread.getName();
+            ThreadOwner owner;
+            long cpuDelta;
+            long allocDelta;
+            synchronized (state) {
+                if (state.owner == null || !name.equals(state.name)) {
+                    state.name = name;
+                    state.owner = resolve(thread);
+                }
+                state.charge(cpu[i], alloc[i]);
+                owner = state.owner;
+                cpuDelta = state.sampleCpu >= 0 && cpu[i] >= 0 ? Math.max(0, cpu[i] - state.sampleCpu) : 0;
+                allocDelta = state.sampleAlloc >= 0 && alloc[i] >= 0 ? Math.max(0, alloc[i] - state.sampleAlloc) : 0;
+                state.sampleCpu = cpu[i];
+                state.sampleAlloc = alloc[i];
+            }
+            threadCounts.merge(owner, 1, Integer::sum);
+            if (interval > 0) {
+                usages.add(new ThreadUsage(ids[i], name, thread.getState(), owner,
+                    percent(cpuDelta, interval), perSecond(allocDelta, interval),
+                    Math.max(0, cpu[i]), Math.max(0, alloc[i])));
+            }
+        }
+        // Not the threads enumerated above: a thread started since may already have entered a scope
+        STATES.values().removeIf(state -> !state.thread.isAlive());
+
+        if (interval == 0) {
+            // First sample only sets the baselines
+            for (OwnerStats stats : OWNERS.values()) {
+                stats.pendingCpu.set(0);
+                stats.pendingAlloc.set(0);
+            }
+            return;
+        }
+
+        slot = (slot + 1) % WINDOW;
+        filledSlots = Math.min(WINDOW, filledSlots + 1);
+        INTERVAL_NANOS[slot] = interval;
+        for (Map.Entry<ThreadOwner, OwnerStats> entry : OWNERS.entrySet()) {
+            OwnerStats stats = entry.getValue();
+            stats.roll(slot, threadCounts.getOrDefault(entry.getKey(), 0));
+            if (stats.threads == 0 && stats.isIdle()) {
+                OWNERS.remove(entry.getKey());
+            }
+        }
+        lastThreads = usages;
+    }
+
+    private static Thread[] liveThreads() {
+        ThreadGroup root = Thread.currentThread().getThreadGroup();
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+        Thread[] threads = new Thread[root.activeCount() + 16];
+        int count;
+        while ((count = root.enumerate(threads, true)) == threads.length) {
+            threads = new Thread[threads.length * 2];
+        }
+        return Arrays.copyOf(threads, count);
+    }
+
+    /**
+     * Record the client thread's id by running a task on it; until that happens threads are matched by name
+     */
+    private static void probeClientThread() {
+        try {
+            if (Static.getClient() != null && Static.getRuneLite() != null) {
+                Static.invokeLater(() -> clientThreadId = Thread.currentThread().getId());
+            }
+        } catch (Exception ignored) {
+            // Client not up yet, the next sample retries
+        }
+    }
+
+    private static ThreadOwner resolve(Thread thread) {
+        if (thread.getId() == clientThreadId || (clientThreadId < 0 && CLIENT_THREAD_NAME.equals(thread.getName()))) {
+            return ThreadOwner.CLIENT_THREAD;
+        }
+
+        ClassLoader loader = thread.getClass().getClassLoader();
+        if (!(loader instanceof PluginClassLoader)) {
+            loader = thread.getContextClassLoader();
+        }
+        if (loader instanceof PluginClassLoader) {
+            return ThreadOwner.plugin(loader, null);
+        }
+
+        String name = thread.getName();
+        if (name.startsWith("AWT-EventQueue")) {
+            return new ThreadOwner(ThreadOwner.Kind.SWING, "Event dispatch thread");
+        }
+        if (name.startsWith("AWT-") || name.startsWith("Java2D") || name.startsWith("TimerQueue")) {
+            return new ThreadOwner(ThreadOwner.Kind.SWING, "AWT");
+        }
+        if (thread.getThreadGroup() != null && "system".equals(thread.getThreadGroup().getName())) {
+            return new ThreadOwner(ThreadOwner.Kind.JVM, name);
+        }
+        String pool = collapseNumbers(name);
+        if (pool.equals("Thread-#")) {
+            return new ThreadOwner(ThreadOwner.Kind.OTHER, "Unnamed threads");
+        }
+        return new ThreadOwner(ThreadOwner.Kind.POOL, pool);
+    }
+
+    /**
+     * "pool-3-thread-7" becomes "pool-#-thread-#"
+     */
+    static String collapseNumbers(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        boolean inDigits = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (!inDigits) {
+                    sb.append('#');
+                    inDigits = true;
+                }
+            } else {
+                sb.append(c);
+                inDigits = false;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static double percent(long cpuNanos, long intervalNanos) {
+        return intervalNanos <= 0 ? 0 : cpuNanos * 100.0 / intervalNanos;
+    }
+
+    private static double perSecond(long bytes, long intervalNanos) {
+        return intervalNanos <= 0 ? 0 : bytes * 1e9 / intervalNanos;
+    }
+
+    // ==================== Data Access Methods ====================
+
+    /**
+     * @return every owner with live threads or recent use, busiest first
+     */
+    public static synchronized List<OwnerUsage> getOwners() {
+        List<OwnerUsage> result = new ArrayList<>(OWNERS.size());
+        for (Map.Entry<ThreadOwner, OwnerStats> entry : OWNERS.entrySet()) {
+            result.add(entry.getValue().usage(entry.getKey()));
+        }
+        result.sort((a, b) -> Double.compare(b.avgCpuPercent, a.avgCpuPercent));
+        return result;
+    }
+
+    /**
+     * @return usage of {@code owner}, or null if it has had no threads or work recently
+     */
+    public static synchronized OwnerUsage getUsage(ThreadOwner owner) {
+        OwnerStats stats = OWNERS.get(owner);
+        return stats == null ? null : stats.usage(owner);
+    }
+
+    /**
+     * @param pluginName as in {@link ThreadOwner#plugin(String)}
+     * @return usage charged to the plugin, or null if nothing has been charged to it recently
+     */
+    public static OwnerUsage getPluginUsage(String pluginName) {
+        return getUsage(ThreadOwner.plugin(pluginName));
+    }
+
+    /**
+     * Budget check for plugins, e.g. {@code ThreadAccounting.getPluginUsage(getClass(), getName())}. Covers
+     * both work bracketed with {@link #enter(ThreadOwner)} and threads the plugin spawned itself.
+     *
+     * @return usage charged to the plugin, or null if nothing has been charged to it recently
+     */
+    public static OwnerUsage getPluginUsage(Class<?> pluginClass, String pluginName) {
+        return getUsage(ThreadOwner.plugin(pluginClass.getClassLoader(), pluginName));
+    }
+
+    /**
+     * @return per-thread use over the latest interval
+     */
+    public static synchronized List<ThreadUsage> getThreads() {
+        return new ArrayList<>(lastThreads);
+    }
+
+    public static synchronized void reset() {
+        OWNERS.clear();
+        Arrays.fill(INTERVAL_NANOS, 0);
+        slot = -1;
+        filledSlots = 0;
+        lastThreads = new ArrayList<>();
+    }
+
+    private static OwnerStats stats(ThreadOwner owner) {
+        return OWNERS.computeIfAbsent(owner, k -> new OwnerStats());
+    }
+
+    private static final class ThreadState {
+        final Thread thread;
+        String name;
+        ThreadOwner owner;
+        ThreadOwner tag;
+        /**
+         * Counter values last charged to an owner
+         */
+        long chargedCpu = -1;
+        long chargedAlloc = -1;
+        /**
+         * Counter values at the last sample, for the per-thread rates
+         */
+        long sampleCpu = -1;
+        long sampleAlloc = -1;
+
+        ThreadState(Thread thread) {
+            this.thread = thread;
+            this.name = thread.getName();
+        }
+
+        /**
+         * Charge everything since the last charge to the current owner. Caller holds the lock.
+         */
+        void charge(long cpu, long alloc) {
+            ThreadOwner target = tag != null ? tag : owner;
+            if (target != null) {
+                OwnerStats stats = stats(target);
+                if (chargedCpu >= 0 && cpu > chargedCpu) {
+                    stats.pendingCpu.addAndGet(cpu - chargedCpu);
+                }
+                if (chargedAlloc >= 0 && alloc > chargedAlloc) {
+                    stats.pendingAlloc.addAndGet(alloc - chargedAlloc);
+                }
+            }
+            if (target != null || chargedCpu < 0) {
+                chargedCpu = cpu;
+                chargedAlloc = alloc;
+            }
+        }
+    }
+
+    private static final class OwnerStats {
+        final AtomicLong pendingCpu = new AtomicLong();
+        final AtomicLong pendingAlloc = new AtomicLong();
+        final long[] cpu = new long[WINDOW];
+        final long[] alloc = new long[WINDOW];
+        long totalCpu;
+        long totalAlloc;
+        int threads;
+
+        void roll(int slot, int threadCount) {
+            cpu[slot] = pendingCpu.getAndSet(0);
+            alloc[slot] = pendingAlloc.getAndSet(0);
+            totalCpu += cpu[slot];
+            totalAlloc += alloc[slot];
+            threads = threadCount;
+        }
+
+        boolean isIdle() {
+            for (int i = 0; i < WINDOW; i++) {
+                if (cpu[i] != 0 || alloc[i] != 0) {
+                    return false;
+                }
+            }
+            return pendingCpu.get() == 0 && pendingAlloc.get() == 0;
+        }
+
+        OwnerUsage usage(ThreadOwner owner) {
+            if (slot < 0) {
+                return new OwnerUsage(owner, threads, 0, 0, 0, 0, totalCpu, totalAlloc);
+            }
+            long windowNanos = 0;
+            long windowCpu = 0;
+            long windowAlloc = 0;
+            for (int i = 0; i < filledSlots; i++) {
+                windowNanos += INTERVAL_NANOS[i];
+                windowCpu += cpu[i];
+                windowAlloc += alloc[i];
+            }
+            long last = INTERVAL_NANOS[slot];
+            return new OwnerUsage(owner, threads,
+                percent(cpu[slot], last), perSecond(alloc[slot], last),
+                percent(windowCpu, windowNanos), perSecond(windowAlloc, windowNanos),
+                totalCpu, totalAlloc);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.tonic.services.profiler.threads;
+
+import com.tonic.services.hotswapper.PluginClassLoader;
+
+import java.util.Objects;
+
+/**
+ * Who a thread's CPU time and allocations are charged to
+ */
+public final class ThreadOwner {
+    public enum Kind {
+        CLIENT("Client"),
+        PLUGIN("Plugin"),
+        TASK("Task"),
+        POOL("Pool"),
+        SWING("Swing"),
+        JVM("JVM"),
+        OTHER("Other");
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    public static final ThreadOwner CLIENT_THREAD = new ThreadOwner(Kind.CLIENT, "Client thread");
+
+    private final Kind kind;
+    private final String name;
+
+    public ThreadOwner(Kind kind, String name) {
+        this.kind = kind;
+        this.name = name;
+    }
+
+    /**
+     * @param pluginName jar name without {@code .jar} for plugins loaded from a jar, otherwise the plugin's
+     *                   name; see {@link #plugin(ClassLoader, String)}
+     */
+    public static ThreadOwner plugin(String pluginName) {
+        return new ThreadOwner(Kind.PLUGIN, pluginName);
+    }
+
+    /**
+     * The owner of a plugin's work, keyed like the threads {@link ThreadAccounting} finds running in the
+     * plugin's class loader: by jar name when {@code loader} loaded the plugin from a jar, by
+     * {@code fallbackName} for built-in plugins
+     */
+    public static ThreadOwner plugin(ClassLoader loader, String fallbackName) {
+        if (loader instanceof PluginClassLoader) {
+            return plugin(((PluginClassLoader) loader).getJarName());
+        }
+        return plugin(fallbackName);
+    }
+
+    /**
+     * @param taskName free-form label for work that is neither a plugin nor a named pool
+     */
+    public static ThreadOwner task(String taskName) {
+        return new ThreadOwner(Kind.TASK, taskName);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ThreadOwner)) {
+            return false;
+        }
+        ThreadOwner other = (ThreadOwner) o;
+        return kind == other.kind && name.equals(other.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, name);
+    }
+
+    @Override
+    public String toString() {
+        return kind.getLabel() + ": " + name;
+    }
+}
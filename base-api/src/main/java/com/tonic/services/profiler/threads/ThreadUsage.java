@@ -0,0 +1,30 @@
+package com.tonic.services.profiler.threads;
+
+/**
+ * Resource use of one live thread over the latest {@link ThreadAccounting} interval
+ */
+public class ThreadUsage {
+    public final long threadId;
+    public final String name;
+    public final Thread.State state;
+    /**
+     * Owner the thread resolves to; time spent inside {@link ThreadAccounting#enter} scopes is charged elsewhere
+     */
+    public final ThreadOwner owner;
+    public final double cpuPercent;
+    public final double allocBytesPerSec;
+    public final long cpuNanos;
+    public final long allocBytes;
+
+    public ThreadUsage(long threadId, String name, Thread.State state, ThreadOwner owner, double cpuPercent,
+                       double allocBytesPerSec, long cpuNanos, long allocBytes) {
+        this.threadId = threadId;
+        this.name = name;
+        this.state = state;
+        this.owner = owner;
+        this.cpuPercent = cpuPercent;
+        this.allocBytesPerSec = allocBytesPerSec;
+        this.cpuNanos = cpuNanos;
+        this.allocBytes = allocBytes;
+    }
+}
@@ -0,0 +1,140 @@
+package com.tonic.services.profiler.timeline;
+
+import javax.swing.*;
+import java.awt.*;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Event duration chart over a zoomable time window
+ *
+ * Narrow windows draw raw events; once a pixel covers a second or more the chart switches to the
+ * store's rollup tier of matching resolution, drawing each bucket's min-max range with an average tick.
+ * The mouse wheel zooms; the window always ends at the newest event.
+ */
+public class TimelineChart extends JComponent {
+    private static final Color BG_COLOR = new Color(40, 42, 46);
+    private static final Color GRID_COLOR = new Color(50, 52, 56);
+    private static final Color TEXT_COLOR = new Color(200, 200, 200);
+    private static final long MIN_SPAN_MS = 10_000;
+    private static final long MAX_SPAN_MS = TimelineStore.TIER_RESOLUTIONS_MS[TimelineStore.TIER_RESOLUTIONS_MS.length - 1]
+        * TimelineStore.TIER_BUCKETS;
+    private static final int AXIS_HEIGHT = 18;
+
+    private final TimelineStore store;
+    private long spanMs = 5 * 60 * 1000L;
+
+    public TimelineChart(TimelineStore store) {
+        this.store = store;
+        setPreferredSize(new Dimension(0, 160));
+        setToolTipText("Mouse wheel to zoom");
+        addMouseWheelListener(e -> {
+            double factor = e.getWheelRotation() > 0 ? 1.5 : 1 / 1.5;
+            spanMs = Math.max(MIN_SPAN_MS, Math.min(MAX_SPAN_MS, (long) (spanMs * factor)));
+            repaint();
+        });
+    }
+
+    public long getSpanMs() {
+        return spanMs;
+    }
+
+    /**
+     * @return "raw" or the rollup resolution currently drawn, e.g. "10s"
+     */
+    public String getResolutionLabel() {
+        int tier = TimelineStore.tierFor(spanMs, Math.max(1, getWidth()));
+        return tier < 0 ? "raw" : (TimelineStore.TIER_RESOLUTIONS_MS[tier] / 1000) + "s";
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g;
+        int width = getWidth();
+        int height = getHeight() - AXIS_HEIGHT;
+        g2.setColor(BG_COLOR);
+        g2.fillRect(0, 0, getWidth(), getHeight());
+
+        long end = store.getNewestTimestamp();
+        if (end == 0 || width <= 0 || height <= 0) {
+            g2.setColor(TEXT_COLOR);
+            g2.drawString("No events captured yet", 10, 20);
+            return;
+        }
+        long start = end - spanMs;
+
+        int tier = TimelineStore.tierFor(spanMs, width);
+        if (tier < 0) {
+            paintRaw(g2, store.getRawView(start, end), start, width, height);
+        } else {
+            paintTier(g2, store.getTierView(tier, start, end), start, width, height);
+        }
+        paintAxis(g2, start, end, width, height);
+    }
+
+    private void paintRaw(Graphics2D g2, TimelineStore.RawView view, long start, int width, int height) {
+        long max = 1;
+        for (int i = 0; i < view.count; i++) {
+            max = Math.max(max, view.getDuration(i));
+        }
+        for (int i = 0; i < view.count; i++) {
+            int x = toX(view.getTimestamp(i), start, width);
+            int barWidth = Math.max(2, (int) (view.getDuration(i) * width / spanMs));
+            int barHeight = Math.max(2, (int) (view.getDuration(i) * height / max));
+            g2.setColor(new Color(view.getType(i).getColor()));
+            g2.fillRect(x, height - barHeight, barWidth, barHeight);
+        }
+        drawScale(g2, max);
+    }
+
+    private void paintTier(Graphics2D g2, TimelineStore.TierView view, long start, int width, int height) {
+        long max = 1;
+        for (int i = 0; i < view.count; i++) {
+            max = Math.max(max, view.getMaxDuration(i));
+        }
+        int bucketWidth = Math.max(1, (int) (view.resolutionMs * width / spanMs));
+        for (int i = 0; i < view.count; i++) {
+            int x = toX(view.getStart(i), start, width);
+            int top = height - (int) (view.getMaxDuration(i) * height / max);
+            int bottom = height - (int) (view.getMinDuration(i) * height / max);
+            int avg = height - (int) (view.getAverageDuration(i) * height / max);
+
+            Color color = new Color(view.getDominantType(i).getColor());
+            g2.setColor(color.darker());
+            g2.fillRect(x, top, bucketWidth, Math.max(1, height - top));
+            g2.setColor(color);
+            g2.fillRect(x, top, bucketWidth, Math.max(1, bottom - top));
+            g2.setColor(Color.WHITE);
+            g2.drawLine(x, avg, x + bucketWidth - 1, avg);
+        }
+        drawScale(g2, max);
+    }
+
+    private void drawScale(Graphics2D g2, long maxDuration) {
+        g2.setColor(TEXT_COLOR);
+        g2.setFont(new Font("Consolas", Font.PLAIN, 10));
+        g2.drawString(maxDuration + " ms", 4, 12);
+    }
+
+    private void paintAxis(Graphics2D g2, long start, long end, int width, int height) {
+        g2.setColor(GRID_COLOR);
+        g2.drawLine(0, height, width, height);
+
+        SimpleDateFormat format = new SimpleDateFormat(spanMs > 60 * 60 * 1000L ? "HH:mm" : "HH:mm:ss");
+        g2.setColor(TEXT_COLOR);
+        g2.setFont(new Font("Consolas", Font.PLAIN, 10));
+        int ticks = Math.max(2, width / 120);
+        for (int i = 0; i <= ticks; i++) {
+            long t = start + (end - start) * i / ticks;
+            int x = toX(t, start, width);
+            String label = format.format(new Date(t));
+            int labelWidth = g2.getFontMetrics().stringWidth(label);
+            g2.drawLine(x, height, x, height + 3);
+            g2.drawString(label, Math.max(0, Math.min(width - labelWidth, x - labelWidth / 2)), height + 14);
+        }
+    }
+
+    private int toX(long timestamp, long start, int width) {
+        return (int) ((timestamp - start) * width / spanMs);
+    }
+}
@@ -4,46 +4,61 @@ import com.tonic.services.profiler.gc.GCPauseAnalyzer;
 import com.tonic.services.profiler.gc.GCPauseEvent;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * Collects and aggregates timeline events from multiple sources
+ * Collects timeline events from multiple sources into a {@link TimelineStore}
+ *
+ * Sources are imported incrementally: each refresh only appends what arrived since the last one,
+ * so refresh cost does not grow with session length.
  */
 public class TimelineCollector {
-    private final List<TimelineEvent> events;
-    private final int maxEvents;
+    public static final long DEFAULT_RETENTION_MS = 60 * 60 * 1000L;
+
+    private final TimelineStore store;
     private final GCPauseAnalyzer gcAnalyzer;
+    private long lastImportedGc;
 
     public TimelineCollector(int maxEvents, GCPauseAnalyzer gcAnalyzer) {
-        this.events = new CopyOnWriteArrayList<>();
-        this.maxEvents = maxEvents;
-        this.gcAnalyzer = gcAnalyzer;
+        this(maxEvents, DEFAULT_RETENTION_MS, gcAnalyzer);
     }
 
     /**
-     * Collect events from all sources
+     * @param maxEvents   raw events to retain
+     * @param retentionMs raw events older than this are dropped; rollup tiers keep their own fixed history
      */
-    public void collectEvents() {
-        events.clear();
+    public TimelineCollector(int maxEvents, long retentionMs, GCPauseAnalyzer gcAnalyzer) {
+        this.store = new TimelineStore(maxEvents, retentionMs);
+        this.gcAnalyzer = gcAnalyzer;
+    }
 
-        // Collect GC events
+    /**
+     * Collect new events from all sources
+     */
+    public synchronized void collectEvents() {
         if (gcAnalyzer != null) {
             collectGCEvents();
         }
+    }
 
-        // Sort events by timestamp
-        Collections.sort(events);
+    /**
+     * Append an event from any source
+     */
+    public void record(TimelineEvent event) {
+        store.append(event);
+    }
 
-        // Trim to max size
-        if (events.size() > maxEvents) {
-            events.subList(0, events.size() - maxEvents).clear();
-        }
+    public TimelineStore getStore() {
+        return store;
     }
 
     private void collectGCEvents() {
-        List<GCPauseEvent> gcEvents = gcAnalyzer.getAllEvents();
+        // Sequences are monotonic, so this stays exact even if the analyzer's bounded history rolled over
+        List<GCPauseEvent> gcEvents = gcAnalyzer.getEventsSince(lastImportedGc);
+        if (gcEvents.isEmpty()) {
+            return;
+        }
+        lastImportedGc = gcEvents.get(gcEvents.size() - 1).getSequence();
 
         for (GCPauseEvent gcEvent : gcEvents) {
             TimelineEvent.EventType type;
@@ -85,37 +100,36 @@ public class TimelineCollector {
                 gcEvent.getMemoryFreedPercent()
             );
 
-            TimelineEvent event = new TimelineEvent(
+            store.append(
                 gcEvent.getTimestamp(),
                 type,
-                description,
                 gcEvent.getDuration(),
                 severity,
+                description,
                 details
             );
-
-            events.add(event);
         }
     }
 
     /**
-     * Get all events
+     * Get all retained events, oldest first
      */
     public List<TimelineEvent> getAllEvents() {
-        return new ArrayList<>(events);
+        return store.getRange(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Get the most recent events, newest first
+     */
+    public List<TimelineEvent> getRecentEvents(int count) {
+        return store.getRecent(count);
     }
 
     /**
      * Get events in time range
      */
     public List<TimelineEvent> getEventsInRange(long startTime, long endTime) {
-        List<TimelineEvent> filtered = new ArrayList<>();
-        for (TimelineEvent event : events) {
-            if (event.getTimestamp() >= startTime && event.getTimestamp() <= endTime) {
-                filtered.add(event);
-            }
-        }
-        return filtered;
+        return store.getRange(startTime, endTime);
     }
 
     /**
@@ -123,7 +137,7 @@ public class TimelineCollector {
      */
     public List<TimelineEvent> getEventsByType(TimelineEvent.EventType type) {
         List<TimelineEvent> filtered = new ArrayList<>();
-        for (TimelineEvent event : events) {
+        for (TimelineEvent event : getAllEvents()) {
             if (event.getType() == type) {
                 filtered.add(event);
             }
@@ -132,53 +146,31 @@ public class TimelineCollector {
     }
 
     /**
-     * Get event statistics
+     * Get event statistics, read from the store's running totals
      */
     public TimelineStatistics getStatistics() {
-        if (events.isEmpty()) {
+        int totalEvents = store.size();
+        if (totalEvents == 0) {
             return new TimelineStatistics(0, 0, 0, 0, 0, 0, 0, 0);
         }
 
-        int totalEvents = events.size();
-        int gcEvents = 0;
-        int compilationEvents = 0;
-        int threadEvents = 0;
-        long totalDuration = 0;
-        long longestEvent = 0;
-
-        for (TimelineEvent event : events) {
-            totalDuration += event.getDuration();
-            if (event.getDuration() > longestEvent) {
-                longestEvent = event.getDuration();
-            }
-
-            switch (event.getType()) {
-                case GC_YOUNG:
-                case GC_OLD:
-                case GC_MIXED:
-                    gcEvents++;
-                    break;
-                case COMPILATION:
-                    compilationEvents++;
-                    break;
-                case THREAD_START:
-                case THREAD_END:
-                    threadEvents++;
-                    break;
-            }
-        }
+        int gcEvents = store.getTypeCount(TimelineEvent.EventType.GC_YOUNG)
+            + store.getTypeCount(TimelineEvent.EventType.GC_OLD)
+            + store.getTypeCount(TimelineEvent.EventType.GC_MIXED);
+        int compilationEvents = store.getTypeCount(TimelineEvent.EventType.COMPILATION);
+        int threadEvents = store.getTypeCount(TimelineEvent.EventType.THREAD_START)
+            + store.getTypeCount(TimelineEvent.EventType.THREAD_END);
 
-        long oldestEvent = events.get(0).getTimestamp();
-        long newestEvent = events.get(events.size() - 1).getTimestamp();
-        long timeSpan = newestEvent - oldestEvent;
+        long oldestEvent = store.getOldestTimestamp();
+        long timeSpan = store.getNewestTimestamp() - oldestEvent;
 
         return new TimelineStatistics(
             totalEvents,
             gcEvents,
             compilationEvents,
             threadEvents,
-            totalDuration,
-            longestEvent,
+            store.getTotalDuration(),
+            store.getLongestDuration(),
             oldestEvent,
             timeSpan
         );
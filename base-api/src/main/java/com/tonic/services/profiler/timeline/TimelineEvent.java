@@ -65,7 +65,8 @@ public class TimelineEvent implements Comparable<TimelineEvent> {
         THREAD_START("Thread Start", "Thread created", 0x4CAF50),
         THREAD_END("Thread End", "Thread terminated", 0x9E9E9E),
         SAFEPOINT("Safepoint", "JVM safepoint pause", 0x9C27B0),
-        CLASS_LOAD("Class Load", "Class loading event", 0x00BCD4);
+        CLASS_LOAD("Class Load", "Class loading event", 0x00BCD4),
+        HITCH("Hitch", "Game tick arrived late", 0xE91E63);
 
         private final String label;
         private final String description;
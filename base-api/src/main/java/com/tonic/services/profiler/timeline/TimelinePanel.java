@@ -7,6 +7,7 @@ import javax.swing.border.EmptyBorder;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -19,7 +20,12 @@ public class TimelinePanel extends JPanel {
     private static final Color TEXT_COLOR = new Color(200, 200, 200);
     private static final Color ACCENT_COLOR = new Color(64, 156, 255);
 
+    private static final int TABLE_ROWS = 500;
+
     private final TimelineCollector collector;
+    private TimelineChart chart;
+    private JLabel chartInfoLabel;
+    private List<TimelineEvent> displayedEvents = new ArrayList<>();
     private JTable eventTable;
     private DefaultTableModel tableModel;
     private JTextArea statsArea;
@@ -27,7 +33,7 @@ public class TimelinePanel extends JPanel {
     private Timer refreshTimer;
 
     public TimelinePanel(GCPauseAnalyzer gcAnalyzer) {
-        this.collector = new TimelineCollector(500, gcAnalyzer);
+        this.collector = new TimelineCollector(50_000, TimelineCollector.DEFAULT_RETENTION_MS, gcAnalyzer);
 
         setLayout(new BorderLayout(10, 10));
         setBackground(BG_COLOR);
@@ -115,7 +121,23 @@ public class TimelinePanel extends JPanel {
         centerSplit.setLeftComponent(tablePanel);
         centerSplit.setRightComponent(detailsPanel);
 
-        add(centerSplit, BorderLayout.CENTER);
+        // Chart above the table, drawn from raw events or a rollup tier depending on zoom
+        chart = new TimelineChart(collector.getStore());
+        chart.addMouseWheelListener(e -> updateChart());
+        chartInfoLabel = new JLabel(" ");
+        chartInfoLabel.setForeground(TEXT_COLOR);
+        chartInfoLabel.setFont(new Font("Consolas", Font.PLAIN, 11));
+
+        JPanel chartPanel = createStyledPanel("Event Durations");
+        chartPanel.setLayout(new BorderLayout(0, 5));
+        chartPanel.add(chartInfoLabel, BorderLayout.NORTH);
+        chartPanel.add(chart, BorderLayout.CENTER);
+
+        JSplitPane verticalSplit = new JSplitPane(JSplitPane.VERTICAL_SPLIT, chartPanel, centerSplit);
+        verticalSplit.setBackground(BG_COLOR);
+        verticalSplit.setResizeWeight(0.35);
+
+        add(verticalSplit, BorderLayout.CENTER);
     }
 
     private void startAutoRefresh() {
@@ -128,6 +150,7 @@ public class TimelinePanel extends JPanel {
             collector.collectEvents();
             updateStatistics();
             updateEventTable();
+            updateChart();
         });
     }
 
@@ -149,7 +172,8 @@ public class TimelinePanel extends JPanel {
     }
 
     private void updateEventTable() {
-        List<TimelineEvent> events = collector.getAllEvents();
+        List<TimelineEvent> events = collector.getRecentEvents(TABLE_ROWS);
+        displayedEvents = events;
 
         // Store selected row
         int selectedRow = eventTable.getSelectedRow();
@@ -157,10 +181,9 @@ public class TimelinePanel extends JPanel {
         // Clear table
         tableModel.setRowCount(0);
 
-        // Add events (most recent first)
+        // Add events (already most recent first)
         SimpleDateFormat sdf = new SimpleDateFormat("HH:mm:ss.SSS");
-        for (int i = events.size() - 1; i >= 0; i--) {
-            TimelineEvent event = events.get(i);
+        for (TimelineEvent event : events) {
 
             String time = sdf.format(new Date(event.getTimestamp()));
             String type = event.getType().getLabel();
@@ -177,6 +200,23 @@ public class TimelinePanel extends JPanel {
         }
     }
 
+    private void updateChart() {
+        chartInfoLabel.setText(String.format("Last %s at %s resolution  |  Scroll to zoom",
+            formatSpan(chart.getSpanMs()), chart.getResolutionLabel()));
+        chart.repaint();
+    }
+
+    private static String formatSpan(long spanMs) {
+        long seconds = spanMs / 1000;
+        if (seconds < 120) {
+            return seconds + "s";
+        }
+        if (seconds < 2 * 3600) {
+            return (seconds / 60) + "m";
+        }
+        return String.format("%.1fh", seconds / 3600.0);
+    }
+
     private void showEventDetails() {
         int selectedRow = eventTable.getSelectedRow();
         if (selectedRow < 0) {
@@ -184,11 +224,9 @@ public class TimelinePanel extends JPanel {
             return;
         }
 
-        List<TimelineEvent> events = collector.getAllEvents();
-        int eventIndex = events.size() - 1 - selectedRow;
-
-        if (eventIndex >= 0 && eventIndex < events.size()) {
-            TimelineEvent event = events.get(eventIndex);
+        List<TimelineEvent> events = displayedEvents;
+        if (selectedRow < events.size()) {
+            TimelineEvent event = events.get(selectedRow);
 
             SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
 
@@ -206,6 +244,10 @@ public class TimelinePanel extends JPanel {
         }
     }
 
+    public TimelineCollector getCollector() {
+        return collector;
+    }
+
     public void cleanup() {
         if (refreshTimer != null) {
             refreshTimer.stop();
@@ -0,0 +1,440 @@
+package com.tonic.services.profiler.timeline;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Append-only columnar event store with downsampled rollup tiers
+ *
+ * Events live in fixed-size segments of primitive columns (timestamp, duration, type, severity) plus
+ * the two text columns, so an append is a few array stores and retention drops whole segments instead
+ * of shifting a list. Every append also feeds three rollup tiers (1s, 10s and 60s buckets holding
+ * count/min/max/sum of durations and per-type counts); each tier is a fixed ring, so a zoomed-out view
+ * reads a few hundred buckets no matter how long the session has run.
+ *
+ * Memory is bounded by {@code maxEvents} (plus one segment) and {@code retentionMs} for raw events and by
+ * {@link #TIER_BUCKETS} per tier for rollups. All methods are synchronized; appends are O(1).
+ */
+public class TimelineStore {
+    public static final int SEGMENT_SIZE = 1024;
+    public static final int TIER_BUCKETS = 3600;
+    public static final long[] TIER_RESOLUTIONS_MS = {1_000, 10_000, 60_000};
+
+    private static final TimelineEvent.EventType[] TYPES = TimelineEvent.EventType.values();
+    private static final TimelineEvent.EventSeverity[] SEVERITIES = TimelineEvent.EventSeverity.values();
+
+    private final int maxEvents;
+    private final long retentionMs;
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private final Tier[] tiers = new Tier[TIER_RESOLUTIONS_MS.length];
+    private final int[] typeCounts = new int[TYPES.length];
+    private int size = 0;
+    private long totalDuration = 0;
+    private long totalAppended = 0;
+
+    /**
+     * @param maxEvents   raw events to keep at least; older full segments beyond this are dropped
+     * @param retentionMs raw events older than this (relative to the newest event) are dropped, 0 to disable
+     */
+    public TimelineStore(int maxEvents, long retentionMs) {
+        this.maxEvents = Math.max(SEGMENT_SIZE, maxEvents);
+        this.retentionMs = retentionMs;
+        for (int i = 0; i < tiers.length; i++) {
+            tiers[i] = new Tier(TIER_RESOLUTIONS_MS[i]);
+        }
+    }
+
+    public void append(TimelineEvent event) {
+        append(event.getTimestamp(), event.getType(), event.getDuration(), event.getSeverity(),
+            event.getDescription(), event.getDetails());
+    }
+
+    public synchronized void append(long timestamp, TimelineEvent.EventType type, long duration,
+                                    TimelineEvent.EventSeverity severity, String description, String details) {
+        Segment segment = segments.peekLast();
+        if (segment == null || segment.count == SEGMENT_SIZE) {
+            segment = new Segment();
+            segments.addLast(segment);
+        }
+        segment.add(timestamp, type, duration, severity, description, details);
+
+        size++;
+        totalAppended++;
+        typeCounts[type.ordinal()]++;
+        totalDuration += duration;
+        for (Tier tier : tiers) {
+            tier.add(timestamp, type.ordinal(), duration);
+        }
+
+        evict(timestamp);
+    }
+
+    /**
+     * Drop whole segments that are past retention; the segment being written is always kept
+     */
+    private void evict(long newest) {
+        while (segments.size() > 1) {
+            Segment oldest = segments.peekFirst();
+            boolean overCount = size - oldest.count >= maxEvents;
+            boolean expired = retentionMs > 0 && oldest.maxTimestamp < newest - retentionMs;
+            if (!overCount && !expired) {
+                return;
+            }
+            segments.removeFirst();
+            size -= oldest.count;
+            totalDuration -= oldest.durationSum;
+            for (int t = 0; t < typeCounts.length; t++) {
+                typeCounts[t] -= oldest.typeCounts[t];
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        segments.clear();
+        Arrays.fill(typeCounts, 0);
+        size = 0;
+        totalDuration = 0;
+        for (Tier tier : tiers) {
+            tier.clear();
+        }
+    }
+
+    // ==================== Raw events ====================
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long getTotalAppended() {
+        return totalAppended;
+    }
+
+    public synchronized int getTypeCount(TimelineEvent.EventType type) {
+        return typeCounts[type.ordinal()];
+    }
+
+    public synchronized long getTotalDuration() {
+        return totalDuration;
+    }
+
+    public synchronized long getLongestDuration() {
+        long longest = 0;
+        for (Segment segment : segments) {
+            longest = Math.max(longest, segment.maxDuration);
+        }
+        return longest;
+    }
+
+    /**
+     * @return timestamp of the oldest retained event, 0 if empty
+     */
+    public synchronized long getOldestTimestamp() {
+        Segment first = segments.peekFirst();
+        return first == null ? 0 : first.timestamps[0];
+    }
+
+    /**
+     * @return timestamp of the newest event, 0 if empty
+     */
+    public synchronized long getNewestTimestamp() {
+        Segment last = segments.peekLast();
+        return last == null ? 0 : last.timestamps[last.count - 1];
+    }
+
+    /**
+     * @return up to {@code limit} most recent events, newest first
+     */
+    public synchronized List<TimelineEvent> getRecent(int limit) {
+        List<TimelineEvent> result = new ArrayList<>(Math.min(limit, size));
+        Iterator<Segment> it = segments.descendingIterator();
+        while (it.hasNext() && result.size() < limit) {
+            Segment segment = it.next();
+            for (int i = segment.count - 1; i >= 0 && result.size() < limit; i--) {
+                result.add(segment.toEvent(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Events with {@code from <= timestamp <= to}, oldest first
+     */
+    public synchronized List<TimelineEvent> getRange(long from, long to) {
+        List<TimelineEvent> result = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (segment.maxTimestamp < from || segment.minTimestamp > to) {
+                continue;
+            }
+            for (int i = 0; i < segment.count; i++) {
+                long ts = segment.timestamps[i];
+                if (ts >= from && ts <= to) {
+                    result.add(segment.toEvent(i));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Primitive copy of the events in a time range, for drawing without creating event objects
+     */
+    public synchronized RawView getRawView(long from, long to) {
+        int count = 0;
+        for (Segment segment : segments) {
+            if (segment.maxTimestamp >= from && segment.minTimestamp <= to) {
+                count += segment.count;
+            }
+        }
+
+        long[] timestamps = new long[count];
+        long[] durations = new long[count];
+        byte[] types = new byte[count];
+        int n = 0;
+        for (Segment segment : segments) {
+            if (segment.maxTimestamp < from || segment.minTimestamp > to) {
+                continue;
+            }
+            for (int i = 0; i < segment.count; i++) {
+                long ts = segment.timestamps[i];
+                if (ts >= from && ts <= to) {
+                    timestamps[n] = ts;
+                    durations[n] = segment.durations[i];
+                    types[n] = segment.types[i];
+                    n++;
+                }
+            }
+        }
+        return new RawView(n, timestamps, durations, types);
+    }
+
+    // ==================== Rollup tiers ====================
+
+    /**
+     * Pick the tier for drawing a time span at a given pixel width
+     *
+     * @return tier index, or -1 if raw events are fine-grained enough (less than a second per pixel)
+     */
+    public static int tierFor(long spanMs, int widthPx) {
+        double msPerPixel = spanMs / (double) Math.max(1, widthPx);
+        int chosen = -1;
+        for (int i = 0; i < TIER_RESOLUTIONS_MS.length; i++) {
+            if (msPerPixel >= TIER_RESOLUTIONS_MS[i]) {
+                chosen = i;
+            }
+        }
+        // A tier only covers TIER_BUCKETS buckets; move to a coarser one if the span is longer
+        while (chosen >= 0 && chosen < TIER_RESOLUTIONS_MS.length - 1
+            && spanMs > TIER_RESOLUTIONS_MS[chosen] * TIER_BUCKETS) {
+            chosen++;
+        }
+        return chosen;
+    }
+
+    public synchronized TierView getTierView(int tier, long from, long to) {
+        return tiers[tier].view(from, to);
+    }
+
+    /**
+     * Events in a time range as parallel primitive arrays
+     */
+    public static class RawView {
+        public final int count;
+        private final long[] timestamps;
+        private final long[] durations;
+        private final byte[] types;
+
+        RawView(int count, long[] timestamps, long[] durations, byte[] types) {
+            this.count = count;
+            this.timestamps = timestamps;
+            this.durations = durations;
+            this.types = types;
+        }
+
+        public long getTimestamp(int i) {
+            return timestamps[i];
+        }
+
+        public long getDuration(int i) {
+            return durations[i];
+        }
+
+        public TimelineEvent.EventType getType(int i) {
+            return TYPES[types[i]];
+        }
+    }
+
+    /**
+     * Non-empty rollup buckets in a time range, oldest first
+     */
+    public static class TierView {
+        public final long resolutionMs;
+        public final int count;
+        private final long[] starts;
+        private final int[] counts;
+        private final long[] mins;
+        private final long[] maxes;
+        private final long[] sums;
+        private final byte[] dominantTypes;
+
+        TierView(long resolutionMs, int count, long[] starts, int[] counts, long[] mins, long[] maxes,
+                 long[] sums, byte[] dominantTypes) {
+            this.resolutionMs = resolutionMs;
+            this.count = count;
+            this.starts = starts;
+            this.counts = counts;
+            this.mins = mins;
+            this.maxes = maxes;
+            this.sums = sums;
+            this.dominantTypes = dominantTypes;
+        }
+
+        public long getStart(int i) {
+            return starts[i];
+        }
+
+        public int getCount(int i) {
+            return counts[i];
+        }
+
+        public long getMinDuration(int i) {
+            return mins[i];
+        }
+
+        public long getMaxDuration(int i) {
+            return maxes[i];
+        }
+
+        public double getAverageDuration(int i) {
+            return counts[i] == 0 ? 0 : (double) sums[i] / counts[i];
+        }
+
+        /**
+         * @return the event type seen most often in the bucket
+         */
+        public TimelineEvent.EventType getDominantType(int i) {
+            return TYPES[dominantTypes[i]];
+        }
+    }
+
+    private static final class Segment {
+        final long[] timestamps = new long[SEGMENT_SIZE];
+        final long[] durations = new long[SEGMENT_SIZE];
+        final byte[] types = new byte[SEGMENT_SIZE];
+        final byte[] severities = new byte[SEGMENT_SIZE];
+        final String[] descriptions = new String[SEGMENT_SIZE];
+        final String[] details = new String[SEGMENT_SIZE];
+        final int[] typeCounts = new int[TYPES.length];
+        int count = 0;
+        long minTimestamp = Long.MAX_VALUE;
+        long maxTimestamp = Long.MIN_VALUE;
+        long maxDuration = 0;
+        long durationSum = 0;
+
+        void add(long timestamp, TimelineEvent.EventType type, long duration, TimelineEvent.EventSeverity severity,
+                 String description, String detail) {
+            int i = count++;
+            timestamps[i] = timestamp;
+            durations[i] = duration;
+            types[i] = (byte) type.ordinal();
+            severities[i] = (byte) severity.ordinal();
+            descriptions[i] = description;
+            details[i] = detail;
+            typeCounts[type.ordinal()]++;
+            minTimestamp = Math.min(minTimestamp, timestamp);
+            maxTimestamp = Math.max(maxTimestamp, timestamp);
+            maxDuration = Math.max(maxDuration, duration);
+            durationSum += duration;
+        }
+
+        TimelineEvent toEvent(int i) {
+            return new TimelineEvent(timestamps[i], TYPES[types[i]], descriptions[i], durations[i],
+                SEVERITIES[severities[i]], details[i]);
+        }
+    }
+
+    /**
+     * Ring of fixed-width buckets; slot = (timestamp / resolution) mod TIER_BUCKETS
+     */
+    private static final class Tier {
+        final long resolutionMs;
+        final long[] bucketIds = new long[TIER_BUCKETS];
+        final int[] counts = new int[TIER_BUCKETS];
+        final long[] mins = new long[TIER_BUCKETS];
+        final long[] maxes = new long[TIER_BUCKETS];
+        final long[] sums = new long[TIER_BUCKETS];
+        final int[] typeCounts = new int[TIER_BUCKETS * TYPES.length];
+
+        Tier(long resolutionMs) {
+            this.resolutionMs = resolutionMs;
+            clear();
+        }
+
+        void add(long timestamp, int type, long duration) {
+            long id = Math.floorDiv(timestamp, resolutionMs);
+            int slot = (int) Math.floorMod(id, (long) TIER_BUCKETS);
+            if (bucketIds[slot] != id) {
+                if (bucketIds[slot] > id) {
+                    // Older than anything this ring still covers
+                    return;
+                }
+                bucketIds[slot] = id;
+                counts[slot] = 0;
+                mins[slot] = Long.MAX_VALUE;
+                maxes[slot] = 0;
+                sums[slot] = 0;
+                Arrays.fill(typeCounts, slot * TYPES.length, (slot + 1) * TYPES.length, 0);
+            }
+            counts[slot]++;
+            mins[slot] = Math.min(mins[slot], duration);
+            maxes[slot] = Math.max(maxes[slot], duration);
+            sums[slot] += duration;
+            typeCounts[slot * TYPES.length + type]++;
+        }
+
+        TierView view(long from, long to) {
+            long first = Math.floorDiv(from, resolutionMs);
+            long last = Math.floorDiv(to, resolutionMs);
+            first = Math.max(first, last - TIER_BUCKETS + 1);
+            int capacity = (int) Math.max(0, last - first + 1);
+
+            long[] starts = new long[capacity];
+            int[] bucketCounts = new int[capacity];
+            long[] bucketMins = new long[capacity];
+            long[] bucketMaxes = new long[capacity];
+            long[] bucketSums = new long[capacity];
+            byte[] dominant = new byte[capacity];
+            int n = 0;
+            for (long id = first; id <= last; id++) {
+                int slot = (int) Math.floorMod(id, (long) TIER_BUCKETS);
+                if (bucketIds[slot] != id || counts[slot] == 0) {
+                    continue;
+                }
+                starts[n] = id * resolutionMs;
+                bucketCounts[n] = counts[slot];
+                bucketMins[n] = mins[slot];
+                bucketMaxes[n] = maxes[slot];
+                bucketSums[n] = sums[slot];
+
+                int best = 0;
+                int base = slot * TYPES.length;
+                for (int t = 1; t < TYPES.length; t++) {
+                    if (typeCounts[base + t] > typeCounts[base + best]) {
+                        best = t;
+                    }
+                }
+                dominant[n] = (byte) best;
+                n++;
+            }
+            return new TierView(resolutionMs, n, starts, bucketCounts, bucketMins, bucketMaxes, bucketSums, dominant);
+        }
+
+        void clear() {
+            Arrays.fill(bucketIds, Long.MIN_VALUE);
+            Arrays.fill(counts, 0);
+            Arrays.fill(typeCounts, 0);
+        }
+    }
+}
@@ -15,6 +15,8 @@ public class FlameGraphNode {
     private final List<FlameGraphNode> children;
     private FlameGraphNode parent;
     private Rectangle bounds;
+    private double baselineFraction = Double.NaN;
+    private double comparisonFraction = Double.NaN;
 
     public FlameGraphNode(String methodName, String className, String packageName) {
         this.methodName = methodName;
@@ -48,6 +50,16 @@ public class FlameGraphNode {
         return child;
     }
 
+    /**
+     * Append a child without checking for an existing match; for callers that already merged identical frames
+     */
+    public FlameGraphNode addChild(String methodName, String className, String packageName) {
+        FlameGraphNode child = new FlameGraphNode(methodName, className, packageName);
+        child.parent = this;
+        children.add(child);
+        return child;
+    }
+
     public String getMethodName() {
         return methodName;
     }
@@ -88,6 +100,36 @@ public class FlameGraphNode {
         return total;
     }
 
+    /**
+     * Mark this node as part of a differential graph
+     *
+     * @param baselineFraction   share of baseline samples through this node
+     * @param comparisonFraction share of comparison samples through this node
+     */
+    public void setDiff(double baselineFraction, double comparisonFraction) {
+        this.baselineFraction = baselineFraction;
+        this.comparisonFraction = comparisonFraction;
+    }
+
+    public boolean isDiff() {
+        return !Double.isNaN(baselineFraction);
+    }
+
+    public double getBaselineFraction() {
+        return baselineFraction;
+    }
+
+    public double getComparisonFraction() {
+        return comparisonFraction;
+    }
+
+    /**
+     * @return comparison share minus baseline share, positive for a regression
+     */
+    public double getDelta() {
+        return comparisonFraction - baselineFraction;
+    }
+
     public String getFullName() {
         if (packageName != null && !packageName.isEmpty()) {
             return packageName + "." + className + "." + methodName;
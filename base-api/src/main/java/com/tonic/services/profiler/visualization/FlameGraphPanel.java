@@ -22,6 +22,7 @@ public class FlameGraphPanel extends JPanel {
     private FlameGraphNode focusedNode;
     private Map<String, Color> packageColors;
     private int colorIndex = 0;
+    private double maxDelta = 0;
 
     private static final Color[] PALETTE = {
         new Color(229, 115, 115),
@@ -55,14 +56,27 @@ public class FlameGraphPanel extends JPanel {
         });
     }
 
+    /**
+     * Show a tree; if its nodes carry {@link FlameGraphNode#setDiff diff} data the graph is drawn in
+     * differential mode, red where the comparison got more expensive and blue where it got cheaper
+     */
     public void setRoot(FlameGraphNode root) {
         this.root = root;
         this.focusedNode = root;
         this.packageColors.clear();
         this.colorIndex = 0;
+        this.maxDelta = root != null && root.isDiff() ? findMaxDelta(root) : 0;
         repaint();
     }
 
+    private static double findMaxDelta(FlameGraphNode node) {
+        double max = Math.abs(node.getDelta());
+        for (FlameGraphNode child : node.getChildren()) {
+            max = Math.max(max, findMaxDelta(child));
+        }
+        return max;
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
@@ -112,7 +126,9 @@ public class FlameGraphPanel extends JPanel {
         g2d.setFont(new Font("Segoe UI", Font.PLAIN, 11));
 
         String focusInfo;
-        if (focusedNode == root) {
+        if (root.isDiff() && focusedNode == root) {
+            focusInfo = "Diff: red = more time than baseline, blue = less - Click frame to zoom";
+        } else if (focusedNode == root) {
             focusInfo = "All Stacks (" + root.getSamples() + " samples) - Click frame to zoom";
         } else {
             focusInfo = "Focused: " + focusedNode.getDisplayName() +
@@ -142,7 +158,13 @@ public class FlameGraphPanel extends JPanel {
             return;
         }
 
+        // Diff trees size nodes by the larger of both shares, so children can outgrow their parent
         long totalSamples = node.getSamples();
+        long childSamples = 0;
+        for (FlameGraphNode child : node.getChildren()) {
+            childSamples += child.getSamples();
+        }
+        totalSamples = Math.max(1, Math.max(totalSamples, childSamples));
         int xOffset = bounds.x;
 
         for (FlameGraphNode child : node.getChildren()) {
@@ -173,7 +195,7 @@ public class FlameGraphPanel extends JPanel {
         }
 
         // Get color
-        Color color = getColorForPackage(node.getPackageName());
+        Color color = node.isDiff() ? getDiffColor(node.getDelta()) : getColorForPackage(node.getPackageName());
         if (node == hoveredNode) {
             color = brighten(color, 0.3f);
         }
@@ -232,8 +254,10 @@ public class FlameGraphPanel extends JPanel {
         long totalSamples = root.getSamples();
         double percentage = (node.getSamples() * 100.0) / totalSamples;
 
-        String text = String.format("%s: %d samples (%.2f%%)",
-            node.getFullName(), node.getSamples(), percentage);
+        String text = node.isDiff()
+            ? String.format("%s: %.2f%% -> %.2f%% (%+.2f%%)", node.getFullName(),
+                node.getBaselineFraction() * 100, node.getComparisonFraction() * 100, node.getDelta() * 100)
+            : String.format("%s: %d samples (%.2f%%)", node.getFullName(), node.getSamples(), percentage);
 
         g2d.setFont(new Font("Segoe UI", Font.PLAIN, 11));
         FontMetrics fm = g2d.getFontMetrics();
@@ -314,6 +338,15 @@ public class FlameGraphPanel extends JPanel {
         });
     }
 
+    /**
+     * White for no change, saturating to red (regression) or blue (improvement) at the largest delta
+     */
+    private Color getDiffColor(double delta) {
+        double intensity = maxDelta > 0 ? Math.min(1.0, Math.abs(delta) / maxDelta) : 0;
+        int fade = (int) (235 - 175 * Math.sqrt(intensity));
+        return delta >= 0 ? new Color(235, fade, fade) : new Color(fade, fade, 235);
+    }
+
     private Color brighten(Color color, float factor) {
         int r = Math.min(255, (int) (color.getRed() + (255 - color.getRed()) * factor));
         int g = Math.min(255, (int) (color.getGreen() + (255 - color.getGreen()) * factor));
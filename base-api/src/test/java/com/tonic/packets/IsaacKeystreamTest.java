@@ -0,0 +1,177 @@
+package com.tonic.packets;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IsaacKeystreamTest {
+    private static final int WORDS = 256 * 5 + 17;
+
+    @Test
+    void nextIntMatchesReference() {
+        for (int[] seed : seeds()) {
+            ReferenceIsaac reference = new ReferenceIsaac(seed);
+            IsaacKeystream keystream = new IsaacKeystream(seed);
+            for (int i = 0; i < WORDS; i++) {
+                assertEquals(reference.next(), keystream.nextInt(), "word " + i);
+            }
+        }
+    }
+
+    @Test
+    void fillMatchesReference() {
+        for (int[] seed : seeds()) {
+            ReferenceIsaac reference = new ReferenceIsaac(seed);
+            int[] expected = new int[WORDS];
+            for (int i = 0; i < WORDS; i++) {
+                expected[i] = reference.next();
+            }
+
+            // Uneven chunks so fills straddle batch boundaries
+            IsaacKeystream keystream = new IsaacKeystream(seed);
+            int[] actual = new int[WORDS];
+            int pos = 0;
+            for (int chunk = 1; pos < WORDS; chunk = chunk * 3 + 1) {
+                int n = Math.min(chunk, WORDS - pos);
+                keystream.fill(actual, pos, n);
+                pos += n;
+            }
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void fillAndNextIntInterleave() {
+        int[] seed = {1, 2, 3, 4};
+        ReferenceIsaac reference = new ReferenceIsaac(seed);
+        IsaacKeystream keystream = new IsaacKeystream(seed);
+        int[] chunk = new int[100];
+        for (int round = 0; round < 10; round++) {
+            assertEquals(reference.next(), keystream.nextInt());
+            keystream.fill(chunk, 0, chunk.length);
+            for (int word : chunk) {
+                assertEquals(reference.next(), word);
+            }
+        }
+    }
+
+    @Test
+    void zeroSeedMatchesPublishedVector() {
+        // randvect.txt prints randrsl[0..] of the batch after the one randinit() generates
+        IsaacKeystream keystream = new IsaacKeystream(new int[0]);
+        int[] words = new int[512];
+        keystream.fill(words, 0, words.length);
+        assertEquals(0xf650e4c8, words[511]);
+        assertEquals(0xe448e96d, words[510]);
+        assertEquals(0x98db2fb4, words[509]);
+        assertEquals(0xf5fad54f, words[508]);
+    }
+
+    @Test
+    void rejectsOversizedSeed() {
+        assertThrows(IllegalArgumentException.class, () -> new IsaacKeystream(new int[257]));
+    }
+
+    private static int[][] seeds() {
+        Random random = new Random(29);
+        int[] keys = {random.nextInt(), random.nextInt(), random.nextInt(), random.nextInt()};
+        int[] inbound = new int[4];
+        for (int i = 0; i < 4; i++) {
+            inbound[i] = keys[i] + 50;
+        }
+        int[] full = new int[256];
+        for (int i = 0; i < full.length; i++) {
+            full[i] = random.nextInt();
+        }
+        return new int[][]{new int[0], keys, inbound, full};
+    }
+
+    /**
+     * Bob Jenkins' ISAAC written out one step at a time, with the client's last-to-first consumption.
+     */
+    private static final class ReferenceIsaac {
+        private final int[] rsl = new int[256];
+        private final int[] mem = new int[256];
+        private int aa;
+        private int bb;
+        private int cc;
+        private int count;
+
+        ReferenceIsaac(int[] seed) {
+            System.arraycopy(seed, 0, rsl, 0, seed.length);
+            randinit();
+        }
+
+        int next() {
+            if (count == 0) {
+                isaac();
+                count = 256;
+            }
+            return rsl[--count];
+        }
+
+        private void isaac() {
+            cc++;
+            bb += cc;
+            for (int i = 0; i < 256; i++) {
+                int x = mem[i];
+                switch (i % 4) {
+                    case 0:
+                        aa ^= aa << 13;
+                        break;
+                    case 1:
+                        aa ^= aa >>> 6;
+                        break;
+                    case 2:
+                        aa ^= aa << 2;
+                        break;
+                    default:
+                        aa ^= aa >>> 16;
+                        break;
+                }
+                aa += mem[(i + 128) % 256];
+                int y = mem[(x >>> 2) % 256] + aa + bb;
+                mem[i] = y;
+                bb = mem[(y >>> 10) % 256] + x;
+                rsl[i] = bb;
+            }
+        }
+
+        private void randinit() {
+            int a = 0x9E3779B9, b = a, c = a, d = a, e = a, f = a, g = a, h = a;
+            for (int i = 0; i < 4; i++) {
+                a ^= b << 11; d += a; b += c;
+                b ^= c >>> 2; e += b; c += d;
+                c ^= d << 8; f += c; d += e;
+                d ^= e >>> 16; g += d; e += f;
+                e ^= f << 10; h += e; f += g;
+                f ^= g >>> 4; a += f; g += h;
+                g ^= h << 8; b += g; h += a;
+                h ^= a >>> 9; c += h; a += b;
+            }
+            for (int pass = 0; pass < 2; pass++) {
+                int[] src = pass == 0 ? rsl : mem;
+                for (int i = 0; i < 256; i += 8) {
+                    a += src[i]; b += src[i + 1]; c += src[i + 2]; d += src[i + 3];
+                    e += src[i + 4]; f += src[i + 5]; g += src[i + 6]; h += src[i + 7];
+                    a ^= b << 11; d += a; b += c;
+                    b ^= c >>> 2; e += b; c += d;
+                    c ^= d << 8; f += c; d += e;
+                    d ^= e >>> 16; g += d; e += f;
+                    e ^= f << 10; h += e; f += g;
+                    f ^= g >>> 4; a += f; g += h;
+                    g ^= h << 8; b += g; h += a;
+                    h ^= a >>> 9; c += h; a += b;
+                    mem[i] = a; mem[i + 1] = b; mem[i + 2] = c; mem[i + 3] = d;
+                    mem[i + 4] = e; mem[i + 5] = f; mem[i + 6] = g; mem[i + 7] = h;
+                }
+            }
+            isaac();
+            count = 256;
+        }
+    }
+}
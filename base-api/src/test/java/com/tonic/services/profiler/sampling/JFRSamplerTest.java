@@ -0,0 +1,103 @@
+package com.tonic.services.profiler.sampling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs a CPU, allocation and lock-contention workload under the JFR backend and checks that each
+ * shows up in its profile after the recording is rotated and flushed.
+ */
+class JFRSamplerTest {
+    private static final long WORKLOAD_MS = 3000; // longer than one rotation
+    private static final Object LOCK = new Object();
+
+    private static volatile long sink;
+    private static volatile Object allocationSink;
+
+    @Test
+    void syntheticWorkloadIsAttributedToItsMethods() throws Exception {
+        assumeTrue(CPUSampler.isJfrAvailable(), "Flight Recorder is not available");
+
+        CPUSampler sampler = new CPUSampler(50_000);
+        sampler.setBackend(CPUSampler.Backend.JFR);
+        sampler.setSamplingInterval(10);
+        sampler.start();
+        assumeTrue(sampler.getActiveBackend() == CPUSampler.Backend.JFR, "JFR recording could not be started");
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> workers = new ArrayList<>();
+        workers.add(worker("jfr-test-cpu", running, JFRSamplerTest::burnCpu));
+        workers.add(worker("jfr-test-alloc", running, JFRSamplerTest::allocate));
+        workers.add(worker("jfr-test-lock-1", running, JFRSamplerTest::contend));
+        workers.add(worker("jfr-test-lock-2", running, JFRSamplerTest::contend));
+
+        Thread.sleep(WORKLOAD_MS);
+        running.set(false);
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        sampler.stop();
+
+        assertTrue(sampler.getTotalSamples() > 0, "no execution samples were parsed");
+        assertTrue(frameTotal(sampler.getProfile().snapshot(), "burnCpu") > 0, "CPU workload missing from execution samples");
+        assertTrue(frameTotal(sampler.getAllocationProfile().snapshot(), "allocate") > 0, "allocation site missing");
+        assertFalse(sampler.getAllocationsByClass().isEmpty(), "no allocated classes");
+        assertTrue(frameTotal(sampler.getLockProfile().snapshot(), "contend") > 0, "contended monitor missing");
+        assertFalse(sampler.getContentionByClass().isEmpty(), "no contended classes");
+    }
+
+    private static Thread worker(String name, AtomicBoolean running, Runnable step) {
+        Thread thread = new Thread(() -> {
+            while (running.get()) {
+                step.run();
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static int frameTotal(CallTreeProfile.Snapshot snapshot, String methodName) {
+        int total = 0;
+        for (int f = 0; f < snapshot.getFrameCount(); f++) {
+            MethodSignature signature = snapshot.getSignature(f);
+            if (signature.getClassName().equals(JFRSamplerTest.class.getName()) && signature.getMethodName().equals(methodName)) {
+                total += snapshot.getFrameTotal(f);
+            }
+        }
+        return total;
+    }
+
+    private static void burnCpu() {
+        long x = sink;
+        for (int i = 0; i < 1_000_000; i++) {
+            x = x * 6364136223846793005L + 1442695040888963407L;
+        }
+        sink = x;
+    }
+
+    private static void allocate() {
+        for (int i = 0; i < 1_000; i++) {
+            allocationSink = new byte[16 * 1024];
+        }
+    }
+
+    private static void contend() {
+        // Holding the monitor past the 1 ms threshold makes the other thread's enter a recorded event
+        synchronized (LOCK) {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
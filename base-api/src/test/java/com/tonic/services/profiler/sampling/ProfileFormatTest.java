@@ -0,0 +1,160 @@
+package com.tonic.services.profiler.sampling;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round trips through the binary profile format, both streamed during capture and written from a
+ * finished profile, and the size it takes compared to the text exports.
+ */
+class ProfileFormatTest {
+    private static final int SAMPLES = 30_000;
+
+    @Test
+    void recordedProfileRoundTrips() throws IOException {
+        CallTreeProfile profile = new CallTreeProfile(SAMPLES + 1);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ProfileWriter writer = new ProfileWriter(bytes)) {
+            profile.setRecorder(writer);
+            fill(profile, SAMPLES);
+            profile.setRecorder(null);
+            assertEquals(SAMPLES, writer.getSamplesWritten());
+        }
+
+        assertSameProfile(profile, ProfileReader.read(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    @Test
+    void snapshotRoundTrips() throws IOException {
+        CallTreeProfile profile = new CallTreeProfile(SAMPLES + 1);
+        fill(profile, SAMPLES);
+
+        CallTreeProfile.Snapshot snapshot = profile.snapshotWithSamples();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ProfileWriter writer = new ProfileWriter(bytes)) {
+            writer.writeSnapshot(snapshot, snapshot.getSamples());
+        }
+
+        assertSameProfile(profile, ProfileReader.read(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    @Test
+    void fileIsSmallerThanTextExports() throws IOException {
+        CallTreeProfile profile = new CallTreeProfile(SAMPLES + 1);
+        fill(profile, SAMPLES);
+
+        CallTreeProfile.Snapshot snapshot = profile.snapshotWithSamples();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ProfileWriter writer = new ProfileWriter(bytes)) {
+            writer.writeSnapshot(snapshot, snapshot.getSamples());
+        }
+        int binary = bytes.size();
+
+        // Collapsed stacks only keep aggregate counts, yet still cost more than every raw sample
+        int collapsed = collapsed(snapshot).length();
+        double perSample = (double) binary / SAMPLES;
+
+        assertTrue(perSample < 12, String.format("%.1f bytes per sample", perSample));
+        assertTrue(binary < collapsed, "binary " + binary + " bytes, collapsed " + collapsed + " chars");
+    }
+
+    @Test
+    void truncatedFileLoadsCompleteRecords() throws IOException {
+        CallTreeProfile profile = new CallTreeProfile(SAMPLES + 1);
+        fill(profile, SAMPLES);
+
+        CallTreeProfile.Snapshot snapshot = profile.snapshotWithSamples();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ProfileWriter writer = new ProfileWriter(bytes)) {
+            writer.writeSnapshot(snapshot, snapshot.getSamples());
+        }
+        byte[] cut = Arrays.copyOf(bytes.toByteArray(), bytes.size() * 3 / 4);
+
+        CallTreeProfile loaded = ProfileReader.read(new ByteArrayInputStream(cut));
+        SampleRing.Snapshot expected = snapshot.getSamples();
+        SampleRing.Snapshot actual = loaded.snapshotWithSamples().getSamples();
+
+        assertTrue(actual.count > 0 && actual.count < expected.count, "loaded " + actual.count + " samples");
+        for (int i = 0; i < actual.count; i++) {
+            assertEquals(expected.getTimestamp(i), actual.getTimestamp(i));
+            assertEquals(expected.getThreadId(i), actual.getThreadId(i));
+        }
+    }
+
+    /**
+     * Samples drawn from a fixed set of stacks with a skewed distribution, like a real capture
+     */
+    private static void fill(CallTreeProfile profile, int count) {
+        Random random = new Random(37);
+        int[][] stacks = new int[500][];
+        for (int i = 0; i < stacks.length; i++) {
+            int[] stack = new int[8 + random.nextInt(32)];
+            for (int j = 0; j < stack.length; j++) {
+                stack[j] = profile.internFrame("com.example.pkg.Class" + random.nextInt(300), "method" + random.nextInt(10));
+            }
+            stacks[i] = stack;
+        }
+        Thread.State[] states = {Thread.State.RUNNABLE, Thread.State.BLOCKED, Thread.State.WAITING};
+        long timestamp = 1_700_000_000_000L;
+        for (int i = 0; i < count; i++) {
+            int[] stack = stacks[(int) (stacks.length * Math.pow(random.nextDouble(), 3))];
+            long thread = random.nextInt(6);
+            timestamp += random.nextInt(3);
+            profile.addSample(thread, "worker-" + thread, states[random.nextInt(states.length)], timestamp,
+                stack, stack.length, 0);
+        }
+    }
+
+    private static void assertSameProfile(CallTreeProfile expectedProfile, CallTreeProfile actualProfile) {
+        CallTreeProfile.Snapshot expected = expectedProfile.snapshotWithSamples();
+        CallTreeProfile.Snapshot actual = actualProfile.snapshotWithSamples();
+
+        assertEquals(expected.totalSamples, actual.totalSamples);
+        assertEquals(expected.getNodeCount(), actual.getNodeCount());
+        assertArrayEquals(sortedLines(collapsed(expected)), sortedLines(collapsed(actual)));
+
+        SampleRing.Snapshot expectedSamples = expected.getSamples();
+        SampleRing.Snapshot actualSamples = actual.getSamples();
+        assertEquals(expectedSamples.count, actualSamples.count);
+        for (int i = 0; i < expectedSamples.count; i++) {
+            assertEquals(expectedSamples.getTimestamp(i), actualSamples.getTimestamp(i));
+            assertEquals(expectedSamples.getThreadId(i), actualSamples.getThreadId(i));
+            assertEquals(expectedSamples.getState(i), actualSamples.getState(i));
+        }
+
+        assertEquals(expected.getThreads().size(), actual.getThreads().size());
+        for (CallTreeProfile.ThreadSnapshot thread : expected.getThreads()) {
+            CallTreeProfile.ThreadSnapshot match = actual.getThreads().stream()
+                .filter(t -> t.threadId == thread.threadId)
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+            assertEquals(thread.threadName, match.threadName);
+            assertEquals(thread.samples, match.samples);
+        }
+    }
+
+    private static String collapsed(CallTreeProfile.Snapshot snapshot) {
+        StringWriter text = new StringWriter();
+        try (PrintWriter writer = new PrintWriter(text)) {
+            new SampleExporter().exportCollapsedStacks(writer, snapshot);
+        }
+        return text.toString();
+    }
+
+    private static String[] sortedLines(String text) {
+        String[] lines = text.split("\n");
+        Arrays.sort(lines);
+        return lines;
+    }
+}
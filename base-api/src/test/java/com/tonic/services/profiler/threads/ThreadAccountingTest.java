@@ -0,0 +1,125 @@
+package com.tonic.services.profiler.threads;
+
+import com.tonic.services.hotswapper.PluginClassLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A plugin's {@code loop()} is bracketed with {@link ThreadAccounting#enter(ThreadOwner)} on a shared pool
+ * thread, while threads it spawns are found through their class loader. Both have to land on one owner.
+ */
+class ThreadAccountingTest {
+    private static final long TIMEOUT_MS = 10_000;
+    private static final long WORK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static volatile long sink;
+
+    @AfterEach
+    void tearDown() {
+        ThreadAccounting.setEnabled(false);
+        ThreadAccounting.reset();
+    }
+
+    @Test
+    void loopAndSpawnedThreadsShareOneOwner(@TempDir Path directory) throws Exception {
+        Path jar = directory.resolve("test-plugin.jar");
+        try (JarOutputStream ignored = new JarOutputStream(Files.newOutputStream(jar))) {
+            // an empty jar is enough for the loader's name
+        }
+        PluginClassLoader loader = new PluginClassLoader(jar.toFile(), getClass().getClassLoader());
+        ThreadOwner owner = ThreadOwner.plugin(loader, "Test Plugin");
+        assertEquals(ThreadOwner.plugin("test-plugin"), owner);
+
+        ThreadAccounting.setIntervalMs(100);
+        ThreadAccounting.setEnabled(true);
+        LongSupplier charged = () -> {
+            OwnerUsage usage = ThreadAccounting.getUsage(owner);
+            return usage == null ? 0 : usage.totalCpuNanos;
+        };
+
+        // The loop, as VitaPlugin runs it on a pool thread
+        AtomicBoolean looping = new AtomicBoolean(true);
+        Thread loop = new Thread(() -> {
+            ThreadOwner previous = ThreadAccounting.enter(owner);
+            try {
+                while (looping.get()) {
+                    burn();
+                }
+            } finally {
+                ThreadAccounting.exit(previous);
+            }
+            idle(TIMEOUT_MS);
+        }, "test-pool-thread-1");
+        loop.setDaemon(true);
+        loop.start();
+        awaitCharged(charged, WORK_NANOS, "loop()");
+        looping.set(false);
+
+        // A thread the plugin started itself, which only its class loader ties to the plugin
+        long beforeSpawned = charged.getAsLong();
+        AtomicBoolean spawnedRunning = new AtomicBoolean(true);
+        Thread spawned = new Thread(() -> {
+            while (spawnedRunning.get()) {
+                burn();
+            }
+        }, "test-plugin-worker");
+        spawned.setContextClassLoader(loader);
+        spawned.setDaemon(true);
+        spawned.start();
+        try {
+            awaitCharged(charged, beforeSpawned + WORK_NANOS, "spawned thread");
+        } finally {
+            spawnedRunning.set(false);
+            spawned.join(TimeUnit.SECONDS.toMillis(5));
+            loop.interrupt();
+        }
+
+        List<ThreadOwner> plugins = ThreadAccounting.getOwners().stream()
+            .map(usage -> usage.owner)
+            .filter(o -> o.getKind() == ThreadOwner.Kind.PLUGIN)
+            .collect(Collectors.toList());
+        assertEquals(List.of(owner), plugins);
+        assertNotNull(ThreadAccounting.getPluginUsage("test-plugin"));
+    }
+
+    private static void awaitCharged(LongSupplier charged, long nanos, String what) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (charged.getAsLong() < nanos) {
+            assertTrue(System.currentTimeMillis() < deadline, what + " was not charged to the plugin");
+            Thread.sleep(20);
+        }
+    }
+
+    private static void burn() {
+        long x = sink;
+        for (int i = 0; i < 100_000; i++) {
+            x = x * 6364136223846793005L + 1442695040888963407L;
+        }
+        sink = x;
+    }
+
+    /**
+     * Stay alive without using CPU, like a pool thread between tasks
+     */
+    private static void idle(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.tonic.services.profiler.timeline;
+
+import com.tonic.services.profiler.gc.GCPauseAnalyzer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TimelineCollectorTest {
+
+    @Test
+    void eachPauseIsImportedOnce() {
+        FakeGc gc = new FakeGc(100);
+        TimelineCollector collector = new TimelineCollector(10_000, 0, gc);
+
+        gc.pause(10);
+        collector.collectEvents();
+        collector.collectEvents();
+        assertEquals(10, collector.getStore().getTotalAppended());
+
+        gc.pause(5);
+        collector.collectEvents();
+        assertEquals(15, collector.getStore().getTotalAppended());
+    }
+
+    @Test
+    void importSurvivesHistoryRollover() {
+        FakeGc gc = new FakeGc(100);
+        TimelineCollector collector = new TimelineCollector(10_000, 0, gc);
+
+        gc.pause(50);
+        collector.collectEvents();
+        // More pauses than the analyzer keeps: the last imported event is gone from its history
+        gc.pause(250);
+        collector.collectEvents();
+
+        // Only the 100 still retained can be imported, and none of them twice
+        assertEquals(150, collector.getStore().getTotalAppended());
+        assertEquals(299, collector.getStore().getNewestTimestamp());
+
+        gc.pause(3);
+        collector.collectEvents();
+        assertEquals(153, collector.getStore().getTotalAppended());
+    }
+
+    @Test
+    void importContinuesAfterAnalyzerClear() {
+        FakeGc gc = new FakeGc(100);
+        TimelineCollector collector = new TimelineCollector(10_000, 0, gc);
+
+        gc.pause(20);
+        collector.collectEvents();
+        gc.clear();
+        gc.pause(4);
+        collector.collectEvents();
+
+        assertEquals(24, collector.getStore().getTotalAppended());
+    }
+
+    private static class FakeGc extends GCPauseAnalyzer {
+        private long time;
+
+        FakeGc(int maxEvents) {
+            super(maxEvents);
+        }
+
+        void pause(int count) {
+            for (int i = 0; i < count; i++) {
+                addEvent(time++, "G1 Young Generation", "end of minor GC", "G1 Evacuation Pause",
+                    2, 200L << 20, 100L << 20, 1L << 30);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.tonic.services.profiler.timeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimelineStoreTest {
+    @Test
+    void countsEveryAppend() {
+        TimelineStore store = new TimelineStore(10_000, 0);
+        appendAll(store, 200_000);
+
+        assertEquals(200_000, store.getTotalAppended());
+        assertEquals(199_999, store.getNewestTimestamp());
+    }
+
+    @Test
+    void retainedEventsAreBoundedByCount() {
+        int maxEvents = 10_000;
+        TimelineStore store = new TimelineStore(maxEvents, 0);
+        appendAll(store, 50_000);
+
+        assertTrue(store.size() >= maxEvents, "evicted below the limit: " + store.size());
+        assertTrue(store.size() < maxEvents + TimelineStore.SEGMENT_SIZE, "retained too many: " + store.size());
+        assertEquals(50_000, store.getTotalAppended());
+
+        List<TimelineEvent> recent = store.getRecent(1);
+        assertEquals(49_999, recent.get(0).getTimestamp());
+    }
+
+    @Test
+    void retainedEventsAreBoundedByAge() {
+        TimelineStore store = new TimelineStore(1_000_000, 5_000);
+        appendAll(store, 50_000);
+
+        // Whole segments are dropped, so up to one segment past the window may remain
+        assertTrue(store.getOldestTimestamp() >= 49_999 - 5_000 - TimelineStore.SEGMENT_SIZE);
+        assertTrue(store.getOldestTimestamp() <= 49_999 - 5_000);
+    }
+
+    private static void appendAll(TimelineStore store, int count) {
+        for (int i = 0; i < count; i++) {
+            store.append(i, TimelineEvent.EventType.GC_YOUNG, i & 15, TimelineEvent.EventSeverity.LOW, "GC", null);
+        }
+    }
+}
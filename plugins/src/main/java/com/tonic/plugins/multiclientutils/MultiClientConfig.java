@@ -1,10 +1,21 @@
 package com.tonic.plugins.multiclientutils;
 
+import com.tonic.services.ipc.TransportMode;
 import net.runelite.client.config.Config;
 import net.runelite.client.config.ConfigGroup;
+import net.runelite.client.config.ConfigItem;
 
 @ConfigGroup("multiclient")
 public interface MultiClientConfig extends Config
 {
-
+    @ConfigItem(
+            name = "Transport",
+            keyName = "transport",
+            description = "MULTICAST reaches clients on any host, SHARED_MEMORY is faster but only reaches clients on this machine, HYBRID uses both",
+            position = 0
+    )
+    default TransportMode transport()
+    {
+        return TransportMode.MULTICAST;
+    }
 }
@@ -157,6 +157,7 @@ public class MultiClientUtilPlugin extends VitaPlugin
         }
         Channel channel = new ChannelBuilder(client.getLocalPlayer().getName())
                 .port(13337)
+                .transport(config.transport())
                 .build();
 
         channel.addHandler(new MessageHandler() {
@@ -6,6 +6,7 @@ import com.tonic.events.PacketSent;
 import com.tonic.injector.annotations.*;
 import com.tonic.model.ui.VitaLiteOptionsPanel;
 import com.tonic.packets.PacketMapReader;
+import com.tonic.packets.PacketMetrics;
 import com.tonic.packets.types.MapEntry;
 import lombok.Getter;
 import net.runelite.api.gameval.InterfaceID;
@@ -72,6 +73,7 @@ public abstract class TPacketWriterMixin implements TPacketWriter
             return;
         }
 
+        long start = System.nanoTime();
         TPacketBuffer buffer = node.getPacketBuffer();
         TClientPacket packet = node.getClientPacket();
 
@@ -85,9 +87,12 @@ public abstract class TPacketWriterMixin implements TPacketWriter
         System.arraycopy(bytes, 1, payload, 0, payloadSize);
 
         PacketSent packetSent = PacketSent.of(id, len, payload);
+        long postStart = System.nanoTime();
         Static.post(packetSent);
+        long postNanos = System.nanoTime() - postStart;
         VitaLiteOptionsPanel.getInstance().onPacketSent(packetSent);
         packetSent.release();
+        PacketMetrics.recordSent(id, payloadSize, System.nanoTime() - start, postNanos);
     }
 
     @Inject
@@ -10,6 +10,7 @@ import com.tonic.injector.annotations.*;
 import com.tonic.injector.util.BytecodeBuilder;
 import com.tonic.injector.util.MappingProvider;
 import com.tonic.model.ui.VitaLiteOptionsPanel;
+import com.tonic.packets.PacketMetrics;
 import com.tonic.util.dto.JClass;
 import com.tonic.util.dto.JField;
 import org.objectweb.asm.Opcodes;
@@ -67,6 +68,7 @@ public class TServerPacketLoggerMixin
     @Inject
     public static void process()
     {
+        long start = System.nanoTime();
         TClient client = Static.getClient();
         TPacketWriter writer = client.getPacketWriter();
         TServerPacket packet = writer.getServerPacket();
@@ -76,7 +78,11 @@ public class TServerPacketLoggerMixin
         int id = packet.getId();
         int length = writer.getServerPacketLength();
         PacketReceived packetReceived = PacketReceived.of(id, length, bytes);
+        long postStart = System.nanoTime();
         Static.post(packetReceived);
+        long postNanos = System.nanoTime() - postStart;
         VitaLiteOptionsPanel.getInstance().onPacketReceived(packetReceived);
+        packetReceived.release();
+        PacketMetrics.recordReceived(id, length, System.nanoTime() - start, postNanos);
     }
 }
@@ -2,10 +2,13 @@ package com.tonic.rlmixins;
 
 import com.tonic.injector.annotations.*;
 import com.tonic.injector.util.BytecodeBuilder;
+import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.*;
 
 @Mixin("net/runelite/client/eventbus/EventBus")
 public class EventBusMixin {
+    private static final String METRICS = "com/tonic/services/profiler/callbacks/CallbackMetrics";
+
     @Insert(
             method = "register",
             at = @At(
@@ -25,4 +28,51 @@ public class EventBusMixin {
         method.instructions.insertBefore(insertionPoint, toInject);
         method.instructions.remove(insertionPoint);
     }
+
+    /**
+     * Times each subscriber.invoke(event) call and reports every post so GameTick can close a tick window.
+     * The subscriber, event and start time are kept in fresh locals so the try/catch around the call is untouched;
+     * the subscriber's metrics handle is read from the field {@link EventBusSubscriberMixin} adds.
+     */
+    @Insert(
+            method = "post",
+            at = @At(
+                    value = AtTarget.INVOKE,
+                    owner = "net/runelite/client/eventbus/EventBus$Subscriber",
+                    target = "invoke(Ljava/lang/Object;)V"
+            ),
+            raw = true
+    )
+    public static void post(ClassNode classNode, MethodNode method, AbstractInsnNode insertionPoint)
+    {
+        int subscriber = method.maxLocals;
+        int event = subscriber + 1;
+        int start = subscriber + 2;
+        method.maxLocals += 4;
+
+        InsnList before = BytecodeBuilder.create()
+                .dup2()
+                .storeLocal(event, Opcodes.ASTORE)
+                .storeLocal(subscriber, Opcodes.ASTORE)
+                .invokeStatic(METRICS, "begin", "()J")
+                .storeLocal(start, Opcodes.LSTORE)
+                .build();
+
+        InsnList after = BytecodeBuilder.create()
+                .loadLocal(subscriber, Opcodes.ALOAD)
+                .getField(EventBusSubscriberMixin.SUBSCRIBER, EventBusSubscriberMixin.FIELD, "Ljava/lang/Object;")
+                .loadLocal(event, Opcodes.ALOAD)
+                .loadLocal(start, Opcodes.LLOAD)
+                .invokeStatic(METRICS, "endSubscriber", "(Ljava/lang/Object;Ljava/lang/Object;J)V")
+                .build();
+
+        method.instructions.insertBefore(insertionPoint, before);
+        method.instructions.insert(insertionPoint, after);
+
+        InsnList head = BytecodeBuilder.create()
+                .pushLocal(1)
+                .invokeStatic(METRICS, "onPost", "(Ljava/lang/Object;)V")
+                .build();
+        method.instructions.insert(head);
+    }
 }
@@ -0,0 +1,50 @@
+package com.tonic.rlmixins;
+
+import com.tonic.injector.annotations.*;
+import com.tonic.injector.util.BytecodeBuilder;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.*;
+
+@Mixin("net/runelite/client/eventbus/EventBus$Subscriber")
+public class EventBusSubscriberMixin {
+    static final String SUBSCRIBER = "net/runelite/client/eventbus/EventBus$Subscriber";
+    static final String FIELD = "vitaMetrics";
+    private static final String METRICS = "com/tonic/services/profiler/callbacks/CallbackMetrics";
+
+    /**
+     * Callback metrics handle of the subscriber. Final and set in the constructor, so it is published
+     * with the subscriber itself.
+     */
+    @ClassMod
+    public static void addMetricsField(ClassNode node)
+    {
+        node.fields.add(new FieldNode(Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL, FIELD, "Ljava/lang/Object;", null, null));
+    }
+
+    /**
+     * Subscribers are only created by EventBus.register, so resolving the owner here happens once per registration.
+     */
+    @Insert(
+            method = "<init>",
+            at = @At(value = AtTarget.RETURN),
+            raw = true
+    )
+    public static void register(MethodNode method, AbstractInsnNode insertionPoint)
+    {
+        for (AbstractInsnNode insn : method.instructions.toArray())
+        {
+            if (insn.getOpcode() != Opcodes.RETURN)
+            {
+                continue;
+            }
+
+            InsnList toInject = BytecodeBuilder.create()
+                    .pushThis()
+                    .pushThis()
+                    .invokeStatic(METRICS, "registerSubscriber", "(Ljava/lang/Object;)Ljava/lang/Object;")
+                    .putField(SUBSCRIBER, FIELD, "Ljava/lang/Object;")
+                    .build();
+            method.instructions.insertBefore(insn, toInject);
+        }
+    }
+}
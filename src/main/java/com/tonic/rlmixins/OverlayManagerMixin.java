@@ -0,0 +1,30 @@
+package com.tonic.rlmixins;
+
+import com.tonic.injector.annotations.*;
+import com.tonic.injector.util.BytecodeBuilder;
+import org.objectweb.asm.tree.*;
+
+@Mixin("net/runelite/client/ui/overlay/OverlayManager")
+public class OverlayManagerMixin {
+    private static final String METRICS = "com/tonic/services/profiler/callbacks/CallbackMetrics";
+
+    /**
+     * Resolves the overlay's owner for callback metrics once, when it is added, and stores the handle on the overlay.
+     */
+    @Insert(
+            method = "add",
+            desc = "(Lnet/runelite/client/ui/overlay/Overlay;)Z",
+            at = @At(value = AtTarget.RETURN),
+            raw = true
+    )
+    public static void add(MethodNode method, AbstractInsnNode insertionPoint)
+    {
+        InsnList head = BytecodeBuilder.create()
+                .pushLocal(1)
+                .pushLocal(1)
+                .invokeStatic(METRICS, "registerOverlay", "(Ljava/lang/Object;)Ljava/lang/Object;")
+                .putField(OverlayMixin.OVERLAY, OverlayMixin.FIELD, "Ljava/lang/Object;")
+                .build();
+        method.instructions.insert(head);
+    }
+}
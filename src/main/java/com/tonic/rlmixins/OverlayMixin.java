@@ -0,0 +1,20 @@
+package com.tonic.rlmixins;
+
+import com.tonic.injector.annotations.*;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.*;
+
+@Mixin("net/runelite/client/ui/overlay/Overlay")
+public class OverlayMixin {
+    static final String OVERLAY = "net/runelite/client/ui/overlay/Overlay";
+    static final String FIELD = "vitaMetrics";
+
+    /**
+     * Callback metrics handle, set by {@link OverlayManagerMixin} when the overlay is added and read on render.
+     */
+    @ClassMod
+    public static void addMetricsField(ClassNode node)
+    {
+        node.fields.add(new FieldNode(Opcodes.ACC_PUBLIC | Opcodes.ACC_VOLATILE, FIELD, "Ljava/lang/Object;", null, null));
+    }
+}
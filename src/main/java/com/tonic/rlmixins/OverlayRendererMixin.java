@@ -0,0 +1,50 @@
+package com.tonic.rlmixins;
+
+import com.tonic.injector.annotations.*;
+import com.tonic.injector.util.BytecodeBuilder;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.*;
+
+@Mixin("net/runelite/client/ui/overlay/OverlayRenderer")
+public class OverlayRendererMixin {
+    private static final String METRICS = "com/tonic/services/profiler/callbacks/CallbackMetrics";
+
+    /**
+     * Times each overlay.render(graphics) call against the metrics handle stored on the overlay by
+     * {@link OverlayManagerMixin}. The returned Dimension stays on the stack.
+     */
+    @Insert(
+            method = "safeRender",
+            at = @At(
+                    value = AtTarget.INVOKE,
+                    owner = "net/runelite/client/ui/overlay/Overlay",
+                    target = "render(Ljava/awt/Graphics2D;)Ljava/awt/Dimension;"
+            ),
+            raw = true
+    )
+    public static void safeRender(ClassNode classNode, MethodNode method, AbstractInsnNode insertionPoint)
+    {
+        int overlay = method.maxLocals;
+        int start = overlay + 1;
+        method.maxLocals += 3;
+
+        InsnList before = BytecodeBuilder.create()
+                .swap()
+                .dup()
+                .storeLocal(overlay, Opcodes.ASTORE)
+                .swap()
+                .invokeStatic(METRICS, "begin", "()J")
+                .storeLocal(start, Opcodes.LSTORE)
+                .build();
+
+        InsnList after = BytecodeBuilder.create()
+                .loadLocal(overlay, Opcodes.ALOAD)
+                .getField(OverlayMixin.OVERLAY, OverlayMixin.FIELD, "Ljava/lang/Object;")
+                .loadLocal(start, Opcodes.LLOAD)
+                .invokeStatic(METRICS, "endOverlay", "(Ljava/lang/Object;J)V")
+                .build();
+
+        method.instructions.insertBefore(insertionPoint, before);
+        method.instructions.insert(insertionPoint, after);
+    }
+}